@@ -6,11 +6,13 @@ import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.License;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.core.env.Environment; // Importar Environment
 import org.springframework.beans.factory.annotation.Autowired; // Importar Autowired
 import org.springframework.boot.CommandLineRunner; // Importar CommandLineRunner
 
 @SpringBootApplication
+@EnableScheduling
 @OpenAPIDefinition(info = @Info(title = "API de Recetas de Cocina", version = "1.0", description = "API RESTful para gestionar recetas de cocina, usuarios, categorías, ingredientes y más.", contact = @Contact(name = "Carlos Fernández", email = "carlos.fernandez@example.com"), license = @License(name = "Apache 2.0", url = "http://www.apache.org/licenses/LICENSE-2.0.html")))
 public class BackendApplication implements CommandLineRunner { // Implementar CommandLineRunner
 
@@ -2,10 +2,10 @@ package com.recetas.backend.auth;
 
 import com.recetas.backend.models.Rol;
 import com.recetas.backend.models.Usuario;
-import com.recetas.backend.repositories.RolRepository;
 import com.recetas.backend.repositories.UsuarioRepository;
 import com.recetas.backend.security.JwtUtils;
 import com.recetas.backend.security.UserDetailsImpl;
+import com.recetas.backend.services.DatosReferenciaCache;
 import com.recetas.backend.dtos.LoginDto;
 import com.recetas.backend.dtos.RegistroDto;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +29,7 @@ public class AuthService {
     UsuarioRepository usuarioRepository;
 
     @Autowired
-    RolRepository rolRepository;
+    DatosReferenciaCache datosReferenciaCache;
 
     @Autowired
     PasswordEncoder encoder;
@@ -61,7 +61,7 @@ public class AuthService {
         usuario.setContrasena(encoder.encode(signUpRequest.getContrasena()));
 
         // Asignar rol por defecto (USER)
-        Rol userRol = rolRepository.findByNombre("USER")
+        Rol userRol = datosReferenciaCache.getRol("USER")
                 .orElseThrow(() -> new RuntimeException("Error: Rol no encontrado."));
         usuario.setRol(userRol);
 
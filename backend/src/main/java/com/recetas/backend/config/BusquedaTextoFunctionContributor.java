@@ -0,0 +1,41 @@
+package com.recetas.backend.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+// Funciones de relevancia para la búsqueda de texto completo (modo TEXTO).
+// En MariaDB/MySQL se traducen a MATCH ... AGAINST sobre los índices FULLTEXT
+// de la migración V5; en otras bases de datos (H2 del perfil "test", que no
+// ejecuta las migraciones) se usa una puntuación equivalente con LIKE, sin
+// índice, para que las consultas sean las mismas en ambos entornos. Se registra
+// en META-INF/services.
+public class BusquedaTextoFunctionContributor implements FunctionContributor {
+
+    public static final String RELEVANCIA_RECETA = "relevancia_receta";
+    public static final String RELEVANCIA_INGREDIENTE = "relevancia_ingrediente";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Double> tipo = functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.DOUBLE);
+        if (functionContributions.getDialect() instanceof MySQLDialect) {
+            // relevancia_receta(titulo, descripcion, texto): las columnas deben
+            // coincidir con las del índice ft_recetas_titulo_descripcion
+            functionContributions.getFunctionRegistry().registerPattern(RELEVANCIA_RECETA,
+                    "match(?1, ?2) against (?3 in natural language mode)", tipo);
+            functionContributions.getFunctionRegistry().registerPattern(RELEVANCIA_INGREDIENTE,
+                    "match(?1) against (?2 in natural language mode)", tipo);
+        } else {
+            // Alternativa portable: el título pesa el doble que la descripción
+            functionContributions.getFunctionRegistry().registerPattern(RELEVANCIA_RECETA,
+                    "(case when lower(?1) like concat('%', lower(?3), '%') then 2.0 else 0.0 end"
+                            + " + case when lower(?2) like concat('%', lower(?3), '%') then 1.0 else 0.0 end)",
+                    tipo);
+            functionContributions.getFunctionRegistry().registerPattern(RELEVANCIA_INGREDIENTE,
+                    "(case when lower(?1) like concat('%', lower(?2), '%') then 1.0 else 0.0 end)", tipo);
+        }
+    }
+}
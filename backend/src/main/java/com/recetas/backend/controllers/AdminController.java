@@ -0,0 +1,89 @@
+package com.recetas.backend.controllers;
+
+import com.recetas.backend.security.UserDetailsImpl;
+import com.recetas.backend.services.BusquedaIndiceService;
+import com.recetas.backend.services.BusquedaIndiceService.EstadisticasIndice;
+import com.recetas.backend.services.CoberturaIngredientesService;
+import com.recetas.backend.services.ExportacionRecetasService;
+import com.recetas.backend.services.ExportacionRecetasService.FormatoExportacion;
+import com.recetas.backend.services.ImportacionRecetasService;
+import com.recetas.backend.services.ImportacionRecetasService.ResultadoImportacion;
+import com.recetas.backend.services.SimilitudService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Locale;
+
+// Operaciones de mantenimiento (solo ADMIN o SUPERADMIN, ver SecurityConfig)
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private BusquedaIndiceService busquedaIndiceService;
+
+    @Autowired
+    private CoberturaIngredientesService coberturaIngredientesService;
+
+    @Autowired
+    private SimilitudService similitudService;
+
+    @Autowired
+    private ImportacionRecetasService importacionRecetasService;
+
+    @Autowired
+    private ExportacionRecetasService exportacionRecetasService;
+
+    // Reconstruir el índice de búsqueda en memoria desde la base de datos
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPERADMIN')")
+    @PostMapping("/indice-busqueda/reconstruir")
+    public ResponseEntity<EstadisticasIndice> reconstruirIndiceBusqueda() {
+        return ResponseEntity.ok(busquedaIndiceService.reconstruir());
+    }
+
+    // Reconstruir el índice de ingredientes de "qué puedo cocinar"
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPERADMIN')")
+    @PostMapping("/indice-ingredientes/reconstruir")
+    public ResponseEntity<CoberturaIngredientesService.EstadisticasIndice> reconstruirIndiceIngredientes() {
+        return ResponseEntity.ok(coberturaIngredientesService.reconstruir());
+    }
+
+    // Reconstruir el índice de recetas similares
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPERADMIN')")
+    @PostMapping("/indice-similitud/reconstruir")
+    public ResponseEntity<SimilitudService.EstadisticasIndice> reconstruirIndiceSimilitud() {
+        return ResponseEntity.ok(similitudService.reconstruir());
+    }
+
+    // Importación masiva de recetas en NDJSON (una receta por línea) a nombre del
+    // administrador; devuelve el recuento y los errores por número de línea
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPERADMIN')")
+    @PostMapping(value = "/recetas/importar", consumes = { "application/x-ndjson", "application/jsonl" })
+    public ResponseEntity<ResultadoImportacion> importarRecetas(InputStream ndjson,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ResponseEntity.ok(importacionRecetasService.importar(ndjson, userDetails.getId()));
+    }
+
+    // Exportación del catálogo completo en NDJSON o CSV con gzip. Se escribe en
+    // streaming mientras se lee la base de datos
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPERADMIN')")
+    @GetMapping("/recetas/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarRecetas(
+            @RequestParam(defaultValue = "NDJSON") FormatoExportacion formato) {
+        String fichero = "recetas-" + LocalDate.now() + "." + formato.name().toLowerCase(Locale.ROOT) + ".gz";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fichero).build()
+                        .toString())
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(salida -> exportacionRecetasService.exportar(formato, salida));
+    }
+}
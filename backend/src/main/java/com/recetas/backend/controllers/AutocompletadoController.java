@@ -0,0 +1,26 @@
+package com.recetas.backend.controllers;
+
+import com.recetas.backend.dtos.AutocompletadoDto;
+import com.recetas.backend.services.AutocompletadoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+public class AutocompletadoController {
+
+    private static final int MAX_SUGERENCIAS = 20;
+
+    @Autowired
+    private AutocompletadoService autocompletadoService;
+
+    // Sugerencias del buscador para lo tecleado hasta ahora (prefijo de cualquier
+    // palabra del título o nombre), hasta "size" por tipo
+    @GetMapping
+    public ResponseEntity<AutocompletadoDto> autocompletar(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "5") int size) {
+        return ResponseEntity.ok(autocompletadoService.sugerir(q, Math.max(0, Math.min(size, MAX_SUGERENCIAS))));
+    }
+}
@@ -0,0 +1,33 @@
+package com.recetas.backend.controllers;
+
+import com.recetas.backend.dtos.CursorPageDto;
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.security.UserDetailsImpl;
+import com.recetas.backend.services.FeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/feed")
+public class FeedController {
+
+    private static final int MAX_FEED_SIZE = 100;
+
+    @Autowired
+    private FeedService feedService;
+
+    // Recetas de los usuarios que sigue el autenticado, de más recientes a más
+    // antiguas, con paginación por cursor: "after" es el nextCursor de la página anterior
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping
+    public ResponseEntity<CursorPageDto<RecetaSummaryDto>> getFeed(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        int tamano = Math.max(1, Math.min(size, MAX_FEED_SIZE));
+        return ResponseEntity.ok(feedService.getFeed(userDetails.getId(), after, tamano));
+    }
+}
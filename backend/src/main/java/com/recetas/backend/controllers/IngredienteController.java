@@ -7,10 +7,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/ingredientes")
@@ -19,13 +21,21 @@ public class IngredienteController {
     @Autowired
     private IngredienteService ingredienteService;
 
-    // Obtener todos los ingredientes paginados
+    // Obtener todos los ingredientes paginados. El ETag es la versión del listado: con
+    // If-None-Match igual se responde 304 sin cuerpo. La versión se lee antes que
+    // la página, así que el cuerpo nunca es más antiguo que su ETag
     @GetMapping
     public ResponseEntity<Page<IngredienteDto>> getAllIngredientes(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+        String etag = "\"ingredientes-" + Long.toHexString(ingredienteService.getVersionIngredientes()) + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(ingredienteService.getAllIngredientes(pageable));
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(ingredienteService.getAllIngredientes(pageable));
     }
 
     // Obtener ingrediente por ID
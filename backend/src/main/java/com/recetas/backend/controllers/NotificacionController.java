@@ -4,9 +4,9 @@ import com.recetas.backend.dtos.NotificacionDto;
 import com.recetas.backend.services.NotificacionService;
 import com.recetas.backend.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -18,13 +18,19 @@ public class NotificacionController {
     @Autowired
     private NotificacionService notificacionService;
 
-    // Obtener notificaciones del usuario autenticado
+    // Obtener notificaciones del usuario autenticado. Con total=false se devuelve un
+    // Slice (solo indica si hay más páginas) y no se ejecuta ningún COUNT
     @GetMapping
-    public ResponseEntity<Page<NotificacionDto>> getNotificacionesByUsuario(
+    public ResponseEntity<Slice<NotificacionDto>> getNotificacionesByUsuario(
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
         Pageable pageable = PageRequest.of(page, size);
+        if (!total) {
+            return ResponseEntity.ok(
+                    notificacionService.getNotificacionesByUsuarioSlice(userDetails.getId(), pageable));
+        }
         return ResponseEntity.ok(notificacionService.getNotificacionesByUsuario(userDetails.getId(), pageable));
     }
 
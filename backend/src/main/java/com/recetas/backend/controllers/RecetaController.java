@@ -1,16 +1,31 @@
 package com.recetas.backend.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.recetas.backend.dtos.CalificacionDto;
 import com.recetas.backend.dtos.ComentarioDto;
+import com.recetas.backend.dtos.CursorPageDto;
+import com.recetas.backend.dtos.EstadoRecetaUsuarioDto;
+import com.recetas.backend.dtos.RecetaCoberturaDto;
 import com.recetas.backend.dtos.RecetaDto;
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.dtos.ResumenCalificacionesDto;
 import com.recetas.backend.models.Receta.Dificultad;
+import com.recetas.backend.repositories.RecetaSpecifications.ModoBusqueda;
 import com.recetas.backend.security.UserDetailsImpl;
+import com.recetas.backend.services.BusquedaIndiceService;
+import com.recetas.backend.services.CoberturaIngredientesService;
+import com.recetas.backend.services.RecetaInteraccionEvent;
 import com.recetas.backend.services.RecetaService;
+import com.recetas.backend.services.SimilitudService;
+import com.recetas.backend.services.TendenciasService;
+import com.recetas.backend.utils.JsonPatch;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,35 +34,117 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/recetas")
 public class RecetaController {
 
+    private static final int MAX_FEED_SIZE = 100;
+    private static final int MAX_TENDENCIAS_SIZE = 50;
+    private static final int MAX_SIMILARES_SIZE = 20;
+
     @Autowired
     private RecetaService recetaService;
 
-    // Obtener todas las recetas paginadas con filtros de búsqueda
+    @Autowired
+    private BusquedaIndiceService busquedaIndiceService;
+
+    @Autowired
+    private CoberturaIngredientesService coberturaIngredientesService;
+
+    @Autowired
+    private TendenciasService tendenciasService;
+
+    @Autowired
+    private SimilitudService similitudService;
+
+    // Obtener todas las recetas paginadas (vista resumida) con filtros de búsqueda.
+    // En todos los listados, total=false devuelve un Slice (solo indica si hay más
+    // páginas) sin COUNT; con total=true el conteo se sirve desde una caché corta.
+    // modo=TEXTO busca título/ingrediente con texto completo, ordenado por relevancia
     @GetMapping
-    public ResponseEntity<Page<RecetaDto>> searchRecetas(
+    public ResponseEntity<Slice<RecetaSummaryDto>> searchRecetas(
             @RequestParam(required = false) String titulo,
             @RequestParam(required = false) String ingredienteNombre,
             @RequestParam(required = false) Dificultad dificultad,
             @RequestParam(required = false) Integer tiempoPreparacionMax,
             @RequestParam(required = false) String categoriaNombre,
+            @RequestParam(defaultValue = "CONTIENE") ModoBusqueda modo,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<RecetaDto> recetas = recetaService.searchRecetas(titulo, ingredienteNombre, dificultad,
-                tiempoPreparacionMax, categoriaNombre, pageable);
+        if (!total) {
+            return ResponseEntity.ok(recetaService.searchRecetasSlice(titulo, ingredienteNombre, dificultad,
+                    tiempoPreparacionMax, categoriaNombre, modo, pageable));
+        }
+        Page<RecetaSummaryDto> recetas = recetaService.searchRecetas(titulo, ingredienteNombre, dificultad,
+                tiempoPreparacionMax, categoriaNombre, modo, pageable);
         return ResponseEntity.ok(recetas);
     }
 
-    // Obtener receta por ID
+    // Búsqueda libre sobre el índice en memoria (título, descripción, ingredientes,
+    // pasos y categorías), ordenada por relevancia BM25
+    @GetMapping("/buscar")
+    public ResponseEntity<Slice<RecetaSummaryDto>> buscarRecetas(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
+        Pageable pageable = PageRequest.of(page, size);
+        if (!total) {
+            return ResponseEntity.ok(busquedaIndiceService.buscarSlice(q, pageable));
+        }
+        return ResponseEntity.ok(busquedaIndiceService.buscar(q, pageable));
+    }
+
+    // Feed de recetas con paginación por cursor (scroll infinito). "after" es el
+    // nextCursor devuelto por la página anterior; sin él se empieza por las más recientes
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageDto<RecetaSummaryDto>> getFeedRecetas(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        int tamano = Math.max(1, Math.min(size, MAX_FEED_SIZE));
+        return ResponseEntity.ok(recetaService.getFeedRecetas(after, tamano));
+    }
+
+    // "Qué puedo cocinar": recetas ordenadas por la parte de sus ingredientes que
+    // cubren los indicados (?ingredientes=1,2,3), opcionalmente con como mucho
+    // faltanMax ingredientes que falten
+    @GetMapping("/cocinables")
+    public ResponseEntity<Page<RecetaCoberturaDto>> getRecetasCocinables(
+            @RequestParam List<Integer> ingredientes,
+            @RequestParam(required = false) Integer faltanMax,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(coberturaIngredientesService.cocinables(ingredientes, faltanMax,
+                PageRequest.of(page, size)));
+    }
+
+    // Recetas en tendencia (likes, calificaciones, comentarios y vistas recientes,
+    // con decaimiento temporal) para el carrusel de la portada
+    @GetMapping("/tendencias")
+    public ResponseEntity<List<RecetaSummaryDto>> getRecetasTendencia(@RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(tendenciasService.tendencias(Math.max(1, Math.min(size, MAX_TENDENCIAS_SIZE))));
+    }
+
+    // Obtener receta por ID. Las vistas anónimas se distinguen por IP para que
+    // recargar la página no suba la receta en tendencias
     @GetMapping("/{id}")
-    public ResponseEntity<RecetaDto> getRecetaById(@PathVariable Integer id) {
-        return ResponseEntity.ok(recetaService.getRecetaById(id));
+    public ResponseEntity<RecetaDto> getRecetaById(@PathVariable Integer id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails, HttpServletRequest request) {
+        String visitante = userDetails != null ? RecetaInteraccionEvent.usuario(userDetails.getId())
+                : "ip:" + request.getRemoteAddr();
+        return ResponseEntity.ok(recetaService.getRecetaById(id, visitante));
+    }
+
+    // "También te puede gustar": recetas con ingredientes y categorías parecidos
+    @GetMapping("/{id}/similares")
+    public ResponseEntity<List<RecetaSummaryDto>> getRecetasSimilares(@PathVariable Integer id,
+            @RequestParam(defaultValue = "6") int size) {
+        return ResponseEntity.ok(similitudService.similares(id, Math.max(1, Math.min(size, MAX_SIMILARES_SIZE))));
     }
 
     // Crear nueva receta
@@ -69,6 +166,27 @@ public class RecetaController {
         return ResponseEntity.ok(recetaService.updateReceta(id, recetaDto, userDetails.getId()));
     }
 
+    // Actualización parcial: JSON Merge Patch (RFC 7386) con los campos a cambiar
+    @PreAuthorize("isAuthenticated()")
+    @PatchMapping(value = "/{id}", consumes = JsonPatch.MERGE_PATCH)
+    public ResponseEntity<RecetaDto> mergePatchReceta(
+            @PathVariable Integer id,
+            @RequestBody JsonNode patch,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ResponseEntity.ok(recetaService.mergePatchReceta(id, patch, userDetails.getId()));
+    }
+
+    // Actualización parcial: JSON Patch (RFC 6902), p. ej. /pasos/2/descripcion
+    // (los pasos van por orden, los ingredientes por ingredienteId)
+    @PreAuthorize("isAuthenticated()")
+    @PatchMapping(value = "/{id}", consumes = JsonPatch.JSON_PATCH)
+    public ResponseEntity<RecetaDto> jsonPatchReceta(
+            @PathVariable Integer id,
+            @RequestBody JsonNode operaciones,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ResponseEntity.ok(recetaService.jsonPatchReceta(id, operaciones, userDetails.getId()));
+    }
+
     // Eliminar receta
     @PreAuthorize("isAuthenticated()")
     @DeleteMapping("/{id}")
@@ -113,6 +231,12 @@ public class RecetaController {
         return ResponseEntity.ok(recetaService.getRecetaLikesCount(id));
     }
 
+    // Obtener número de vistas del detalle de una receta
+    @GetMapping("/{id}/vistas/count")
+    public ResponseEntity<Long> getRecetaVistasCount(@PathVariable Integer id) {
+        return ResponseEntity.ok(recetaService.getRecetaVistasCount(id));
+    }
+
     // Verificar si el usuario ha dado like a una receta
     @PreAuthorize("isAuthenticated()")
     @GetMapping("/{id}/likes/user")
@@ -142,16 +266,36 @@ public class RecetaController {
         return ResponseEntity.ok(recetaService.getCalificacionUsuario(id, userDetails.getId()));
     }
 
+    // Like y calificación del usuario para varias recetas a la vez (?ids=1,2,3),
+    // para pintar una página de tarjetas con una sola petición
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/estado-usuario")
+    public ResponseEntity<List<EstadoRecetaUsuarioDto>> getEstadoUsuario(
+            @RequestParam List<Integer> ids,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ResponseEntity.ok(recetaService.getEstadoUsuario(ids, userDetails.getId()));
+    }
+
     // Obtener todas las calificaciones de una receta
     @GetMapping("/{id}/calificaciones")
-    public ResponseEntity<Page<CalificacionDto>> getRecetaCalificaciones(
+    public ResponseEntity<Slice<CalificacionDto>> getRecetaCalificaciones(
             @PathVariable Integer id,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
         Pageable pageable = PageRequest.of(page, size);
+        if (!total) {
+            return ResponseEntity.ok(recetaService.getRecetaCalificacionesSlice(id, pageable));
+        }
         return ResponseEntity.ok(recetaService.getRecetaCalificaciones(id, pageable));
     }
 
+    // Media, total e histograma de 1 a 5 estrellas de una receta
+    @GetMapping("/{id}/calificaciones/resumen")
+    public ResponseEntity<ResumenCalificacionesDto> getResumenCalificaciones(@PathVariable Integer id) {
+        return ResponseEntity.ok(recetaService.getResumenCalificaciones(id));
+    }
+
     // Añadir comentario a receta
     @PreAuthorize("isAuthenticated()")
     @PostMapping("/{id}/comentarios")
@@ -165,11 +309,15 @@ public class RecetaController {
 
     // Obtener comentarios de una receta
     @GetMapping("/{id}/comentarios")
-    public ResponseEntity<Page<ComentarioDto>> getRecetaComentarios(
+    public ResponseEntity<Slice<ComentarioDto>> getRecetaComentarios(
             @PathVariable Integer id,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
         Pageable pageable = PageRequest.of(page, size);
+        if (!total) {
+            return ResponseEntity.ok(recetaService.getRecetaComentariosSlice(id, pageable));
+        }
         return ResponseEntity.ok(recetaService.getRecetaComentarios(id, pageable));
     }
 
@@ -195,38 +343,50 @@ public class RecetaController {
 
     // Obtener recetas de un usuario específico
     @GetMapping("/usuario/{usuarioId}")
-    public ResponseEntity<Page<RecetaDto>> getRecetasByUsuario(
+    public ResponseEntity<Slice<RecetaSummaryDto>> getRecetasByUsuario(
             @PathVariable Integer usuarioId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
         Pageable pageable = PageRequest.of(page, size);
+        if (!total) {
+            return ResponseEntity.ok(recetaService.getRecetasByUsuarioSlice(usuarioId, pageable));
+        }
         return ResponseEntity.ok(recetaService.getRecetasByUsuario(usuarioId, pageable));
     }
 
     // Obtener recetas favoritas de un usuario específico
     @PreAuthorize("isAuthenticated()")
     @GetMapping("/usuario/{usuarioId}/favoritas")
-    public ResponseEntity<Page<RecetaDto>> getRecetasFavoritasByUsuario(
+    public ResponseEntity<Slice<RecetaSummaryDto>> getRecetasFavoritasByUsuario(
             @PathVariable Integer usuarioId,
             @AuthenticationPrincipal UserDetailsImpl userDetails,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
         // Asegurarse de que el usuario autenticado solo pueda ver sus propias recetas
         // favoritas
         if (!usuarioId.equals(userDetails.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         Pageable pageable = PageRequest.of(page, size);
+        if (!total) {
+            return ResponseEntity.ok(recetaService.getRecetasFavoritasByUsuarioSlice(usuarioId, pageable));
+        }
         return ResponseEntity.ok(recetaService.getRecetasFavoritasByUsuario(usuarioId, pageable));
     }
 
     // Obtener recetas por categoría
     @GetMapping("/categoria/{categoriaId}")
-    public ResponseEntity<Page<RecetaDto>> getRecetasByCategoria(
+    public ResponseEntity<Slice<RecetaSummaryDto>> getRecetasByCategoria(
             @PathVariable Integer categoriaId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
         Pageable pageable = PageRequest.of(page, size);
+        if (!total) {
+            return ResponseEntity.ok(recetaService.getRecetasByCategoriaSlice(categoriaId, pageable));
+        }
         return ResponseEntity.ok(recetaService.getRecetasByCategoria(categoriaId, pageable));
     }
 }
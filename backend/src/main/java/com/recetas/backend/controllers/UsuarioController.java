@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -81,23 +82,31 @@ public class UsuarioController {
         return ResponseEntity.noContent().build();
     }
 
-    // Obtener seguidores de un usuario
+    // Obtener seguidores de un usuario (total=false: Slice sin COUNT)
     @GetMapping("/{id}/seguidores")
-    public ResponseEntity<Page<UsuarioDto>> getSeguidores(
+    public ResponseEntity<Slice<UsuarioDto>> getSeguidores(
             @PathVariable Integer id,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
         Pageable pageable = PageRequest.of(page, size);
+        if (!total) {
+            return ResponseEntity.ok(usuarioService.getSeguidoresSlice(id, pageable));
+        }
         return ResponseEntity.ok(usuarioService.getSeguidores(id, pageable));
     }
 
     // Obtener usuarios que sigue un usuario
     @GetMapping("/{id}/siguiendo")
-    public ResponseEntity<Page<UsuarioDto>> getSiguiendo(
+    public ResponseEntity<Slice<UsuarioDto>> getSiguiendo(
             @PathVariable Integer id,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean total) {
         Pageable pageable = PageRequest.of(page, size);
+        if (!total) {
+            return ResponseEntity.ok(usuarioService.getSiguiendoSlice(id, pageable));
+        }
         return ResponseEntity.ok(usuarioService.getSiguiendo(id, pageable));
     }
 }
@@ -0,0 +1,26 @@
+package com.recetas.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Sugerencias de GET /api/autocomplete, separadas por tipo y cada lista ordenada
+// por popularidad
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompletadoDto {
+    private List<Sugerencia> recetas;
+    private List<Sugerencia> ingredientes;
+    private List<Sugerencia> categorias;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Sugerencia {
+        private Integer id;
+        private String texto;
+    }
+}
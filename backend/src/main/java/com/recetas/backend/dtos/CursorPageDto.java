@@ -0,0 +1,17 @@
+package com.recetas.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Página de un listado con paginación por cursor (keyset): no incluye totales,
+// solo el cursor opaco para pedir la siguiente página (null si no hay más)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> content;
+    private String nextCursor;
+}
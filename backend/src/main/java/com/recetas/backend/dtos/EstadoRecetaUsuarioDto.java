@@ -0,0 +1,16 @@
+package com.recetas.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Estado de una receta para el usuario que la ve: si le ha dado like y su
+// calificación (null si no la ha calificado)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoRecetaUsuarioDto {
+    private Integer recetaId;
+    private Boolean liked;
+    private Integer calificacion;
+}
@@ -0,0 +1,19 @@
+package com.recetas.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Resultado de "qué puedo cocinar": la receta con cuántos de sus ingredientes
+// cubren los disponibles y los IDs de los que faltan
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecetaCoberturaDto {
+    private RecetaSummaryDto receta;
+    private Integer ingredientesCubiertos;
+    private Integer ingredientesTotales;
+    private List<Integer> ingredientesFaltantes;
+}
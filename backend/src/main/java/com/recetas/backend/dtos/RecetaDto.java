@@ -6,13 +6,18 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.With;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class RecetaDto {
     private Integer id;
 
@@ -42,7 +47,11 @@ public class RecetaDto {
     private List<RecetaIngredienteDto> ingredientes;
     private List<ComentarioDto> comentarios;
     private List<CalificacionDto> calificaciones;
+    @With
     private Long totalLikes; // Para mostrar el número de likes
+    private Double calificacionMedia;
+    private Long totalCalificaciones;
+    private Long totalComentarios;
 
     public static RecetaDto fromEntity(Receta receta) {
         RecetaDto dto = new RecetaDto();
@@ -76,7 +85,18 @@ public class RecetaDto {
             dto.setCalificaciones(
                     receta.getCalificaciones().stream().map(CalificacionDto::fromEntity).collect(Collectors.toList()));
         }
-        // totalLikes se calculará en el servicio o controlador
+        // Totales a partir de los contadores desnormalizados de la receta
+        dto.setTotalLikes(receta.getLikeCount());
+        dto.setTotalCalificaciones(receta.getRatingCount());
+        dto.setTotalComentarios(receta.getCommentCount());
+        dto.setCalificacionMedia(calcularMedia(receta.getRatingSum(), receta.getRatingCount()));
         return dto;
     }
+
+    public static Double calcularMedia(Long suma, Long numero) {
+        if (suma == null || numero == null || numero == 0) {
+            return null;
+        }
+        return (double) suma / numero;
+    }
 }
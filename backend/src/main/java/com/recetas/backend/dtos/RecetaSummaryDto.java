@@ -0,0 +1,46 @@
+package com.recetas.backend.dtos;
+
+import com.recetas.backend.models.Receta.Dificultad;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Vista reducida de una receta para los listados (tarjetas). Se rellena
+// directamente desde RecetaRepository con una expresión constructora, sin
+// cargar las colecciones de la entidad.
+@Data
+@NoArgsConstructor
+public class RecetaSummaryDto {
+    private Integer id;
+    private String titulo;
+    private String urlImagen;
+    private Dificultad dificultad;
+    private Integer tiempoPreparacion;
+    private LocalDateTime fechaCreacion;
+    private String nombreUsuario; // Nombre del usuario creador
+    private String categoriaPrincipal;
+    private Double calificacionMedia;
+    private Long totalLikes;
+    private Long totalCalificaciones;
+    private Long totalComentarios;
+
+    // Constructor usado por la consulta: recibe los contadores desnormalizados
+    // de la receta y calcula la media a partir de suma y número de calificaciones
+    public RecetaSummaryDto(Integer id, String titulo, String urlImagen, Dificultad dificultad,
+            Integer tiempoPreparacion, LocalDateTime fechaCreacion, String nombreUsuario,
+            String categoriaPrincipal, Long likeCount, Long ratingSum, Long ratingCount, Long commentCount) {
+        this.id = id;
+        this.titulo = titulo;
+        this.urlImagen = urlImagen;
+        this.dificultad = dificultad;
+        this.tiempoPreparacion = tiempoPreparacion;
+        this.fechaCreacion = fechaCreacion;
+        this.nombreUsuario = nombreUsuario;
+        this.categoriaPrincipal = categoriaPrincipal;
+        this.calificacionMedia = RecetaDto.calcularMedia(ratingSum, ratingCount);
+        this.totalLikes = likeCount;
+        this.totalCalificaciones = ratingCount;
+        this.totalComentarios = commentCount;
+    }
+}
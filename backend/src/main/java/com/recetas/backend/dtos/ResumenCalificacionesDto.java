@@ -0,0 +1,24 @@
+package com.recetas.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Resumen de las calificaciones de una receta a partir de sus contadores: media,
+// total e histograma (histograma.get(0) son las de 1 estrella, get(4) las de 5)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenCalificacionesDto {
+    private Double media;
+    private Long total;
+    private List<Long> histograma;
+
+    public ResumenCalificacionesDto(Long suma, Long total, Long estrellas1, Long estrellas2, Long estrellas3,
+            Long estrellas4, Long estrellas5) {
+        this(RecetaDto.calcularMedia(suma, total), total,
+                List.of(estrellas1, estrellas2, estrellas3, estrellas4, estrellas5));
+    }
+}
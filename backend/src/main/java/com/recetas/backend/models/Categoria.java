@@ -3,7 +3,9 @@ package com.recetas.backend.models;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -21,6 +23,8 @@ public class Categoria {
     @Column(nullable = false, unique = true, length = 50)
     private String nombre;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToMany(mappedBy = "categorias")
     private Set<Receta> recetas = new HashSet<>();
 }
@@ -0,0 +1,59 @@
+package com.recetas.backend.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+// Receta de un autor seguido copiada al feed de un seguidor (fan-out en
+// escritura, ver FeedService). Se escribe con INSERT ... SELECT desde
+// EntradaFeedRepository; las asociaciones solo existen para que el borrado de la
+// receta o de los usuarios arrastre las filas en la base de datos
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "feed_entradas")
+@IdClass(EntradaFeedId.class)
+public class EntradaFeed {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Integer usuarioId;
+
+    @Id
+    @Column(name = "receta_id")
+    private Integer recetaId;
+
+    @Column(name = "autor_id", nullable = false)
+    private Integer autorId;
+
+    // Copia de recetas.fecha_creacion: el feed se ordena sin leer `recetas`
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Usuario usuario;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "receta_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Receta receta;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "autor_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Usuario autor;
+}
@@ -0,0 +1,15 @@
+package com.recetas.backend.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntradaFeedId implements Serializable {
+    private Integer usuarioId;
+    private Integer recetaId;
+}
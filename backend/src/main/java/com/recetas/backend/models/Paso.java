@@ -11,8 +11,13 @@ import lombok.NoArgsConstructor;
 @Entity
 @Table(name = "pasos")
 public class Paso {
+    // IDs por bloques de la secuencia pasos_seq (V9): con IDENTITY Hibernate no
+    // puede agrupar los INSERT en batch porque necesita cada ID al persistir
+    public static final int BLOQUE_IDS = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pasos_seq")
+    @SequenceGenerator(name = "pasos_seq", sequenceName = "pasos_seq", allocationSize = BLOQUE_IDS)
     private Integer id;
 
     @ManyToOne(fetch = FetchType.LAZY)
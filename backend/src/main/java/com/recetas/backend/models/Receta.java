@@ -3,8 +3,12 @@ package com.recetas.backend.models;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -14,7 +18,40 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "recetas")
+// El UPDATE solo incluye las columnas modificadas (p. ej. un PATCH de un campo)
+@DynamicUpdate
+// Los índices los crean las migraciones V3 y V4. Se repiten aquí solo para el
+// perfil "test", que no ejecuta Flyway y genera el esquema desde las entidades
+// (ddl-auto=create-drop en application-test.properties); fuera de ese perfil
+// Hibernate no toca el esquema (ddl-auto=none)
+@Table(name = "recetas", indexes = {
+        @Index(name = "idx_recetas_fecha_creacion_id", columnList = "fecha_creacion, id"),
+        @Index(name = "idx_recetas_dificultad_tiempo", columnList = "dificultad, tiempo_preparacion"),
+        @Index(name = "idx_recetas_tiempo_preparacion", columnList = "tiempo_preparacion")
+})
+// Plan de carga del detalle: cada colección se inicializa con su propio grafo para
+// que el número de consultas no dependa del número de hijos ni genere productos
+// cartesianos entre colecciones
+@NamedEntityGraph(name = "Receta.detalle", attributeNodes = {
+        @NamedAttributeNode(value = "usuario", subgraph = "usuario"),
+        @NamedAttributeNode("categorias")
+}, subgraphs = @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("rol")))
+@NamedEntityGraph(name = "Receta.pasos", attributeNodes = @NamedAttributeNode("pasos"))
+@NamedEntityGraph(name = "Receta.ingredientes", attributeNodes = {
+        @NamedAttributeNode(value = "ingredientes", subgraph = "ingredientes")
+}, subgraphs = @NamedSubgraph(name = "ingredientes", attributeNodes = @NamedAttributeNode("ingrediente")))
+@NamedEntityGraph(name = "Receta.comentarios", attributeNodes = {
+        @NamedAttributeNode(value = "comentarios", subgraph = "comentarios")
+}, subgraphs = {
+        @NamedSubgraph(name = "comentarios", attributeNodes = @NamedAttributeNode(value = "usuario", subgraph = "usuario")),
+        @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("rol"))
+})
+@NamedEntityGraph(name = "Receta.calificaciones", attributeNodes = {
+        @NamedAttributeNode(value = "calificaciones", subgraph = "calificaciones")
+}, subgraphs = {
+        @NamedSubgraph(name = "calificaciones", attributeNodes = @NamedAttributeNode(value = "usuario", subgraph = "usuario")),
+        @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("rol"))
+})
 public class Receta {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -43,26 +80,76 @@ public class Receta {
     @Column(name = "fecha_creacion", nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
 
+    // Contadores desnormalizados: solo se modifican con los UPDATE atómicos de
+    // RecetaRepository (updatable = false evita que un save los pise)
+    @Column(name = "like_count", nullable = false, updatable = false)
+    private Long likeCount = 0L;
+
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    private Long ratingCount = 0L;
+
+    // Histograma de calificaciones: número de calificaciones de 1 a 5 estrellas
+    @Column(name = "rating_1", nullable = false, updatable = false)
+    private Long rating1 = 0L;
+
+    @Column(name = "rating_2", nullable = false, updatable = false)
+    private Long rating2 = 0L;
+
+    @Column(name = "rating_3", nullable = false, updatable = false)
+    private Long rating3 = 0L;
+
+    @Column(name = "rating_4", nullable = false, updatable = false)
+    private Long rating4 = 0L;
+
+    @Column(name = "rating_5", nullable = false, updatable = false)
+    private Long rating5 = 0L;
+
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private Long commentCount = 0L;
+
+    @Column(name = "view_count", nullable = false, updatable = false)
+    private Long viewCount = 0L;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToMany
     @JoinTable(name = "receta_categorias", joinColumns = @JoinColumn(name = "receta_id"), inverseJoinColumns = @JoinColumn(name = "categoria_id"))
+    @BatchSize(size = 50)
     private Set<Categoria> categorias = new HashSet<>();
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "receta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private Set<Paso> pasos = new HashSet<>();
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "receta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private Set<RecetaIngrediente> ingredientes = new HashSet<>();
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "receta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private Set<Comentario> comentarios = new HashSet<>();
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "receta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private Set<Calificacion> calificaciones = new HashSet<>();
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToMany(mappedBy = "recetasGustadas")
     private Set<Usuario> usuariosQueGustan = new HashSet<>();
 
@@ -2,16 +2,62 @@ package com.recetas.backend.repositories;
 
 import com.recetas.backend.models.Calificacion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.recetas.backend.models.Receta;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CalificacionRepository extends JpaRepository<Calificacion, Integer> {
     Optional<Calificacion> findByRecetaIdAndUsuarioId(Integer recetaId, Integer usuarioId);
 
-    Page<Calificacion> findByReceta(Receta receta, Pageable pageable);
+    Slice<Calificacion> findByReceta(Receta receta, Pageable pageable);
+
+    interface CalificacionBloqueada {
+        Integer getId();
+
+        Integer getPuntuacion();
+
+        LocalDateTime getFechaCalificacion();
+    }
+
+    // Bloquea la fila de la receta y, si existe, la calificación del usuario, en una
+    // sola consulta. Con la receta bloqueada las calificaciones de una misma receta
+    // se aplican de una en una (registrarCalificacion la bloquearía igualmente al
+    // actualizar sus contadores), así que la puntuación leída es la que se sustituye.
+    // Vacío si la receta no existe; id null si el usuario aún no la ha calificado
+    @Query(value = "SELECT c.id AS id, c.puntuacion AS puntuacion, c.fecha_calificacion AS fechaCalificacion "
+            + "FROM recetas r LEFT JOIN calificaciones c ON c.receta_id = r.id AND c.usuario_id = :usuarioId "
+            + "WHERE r.id = :recetaId FOR UPDATE", nativeQuery = true)
+    Optional<CalificacionBloqueada> bloquearParaCalificar(@Param("recetaId") Integer recetaId,
+            @Param("usuarioId") Integer usuarioId);
+
+    @Modifying
+    @Query("UPDATE Calificacion c SET c.puntuacion = :puntuacion, c.fechaCalificacion = :fecha WHERE c.id = :id")
+    int actualizarPuntuacion(@Param("id") Integer id, @Param("puntuacion") int puntuacion,
+            @Param("fecha") LocalDateTime fecha);
+
+    interface PuntuacionUsuario {
+        Integer getRecetaId();
+
+        Integer getPuntuacion();
+    }
+
+    // Calificaciones del usuario entre las recetas indicadas (una consulta IN)
+    @Query("SELECT c.receta.id AS recetaId, c.puntuacion AS puntuacion FROM Calificacion c "
+            + "WHERE c.usuario.id = :usuarioId AND c.receta.id IN :recetaIds")
+    List<PuntuacionUsuario> findPuntuacionesEntre(@Param("usuarioId") Integer usuarioId,
+            @Param("recetaIds") Collection<Integer> recetaIds);
+
+    @Query("SELECT c.receta.id AS recetaId, c.fechaCalificacion AS fecha FROM Calificacion c "
+            + "WHERE c.fechaCalificacion >= :desde")
+    List<InteraccionReciente> findRecientes(@Param("desde") LocalDateTime desde);
 }
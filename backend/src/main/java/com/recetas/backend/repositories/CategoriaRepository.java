@@ -2,11 +2,27 @@ package com.recetas.backend.repositories;
 
 import com.recetas.backend.models.Categoria;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Integer> {
     Optional<Categoria> findByNombre(String nombre);
+
+    // Búsqueda por nombre de DatosReferenciaCache cuando no está en la instantánea,
+    // que tampoco distingue mayúsculas
+    Optional<Categoria> findFirstByNombreIgnoreCase(String nombre);
+
+    // Autocompletado: nombre y número de recetas de la categoría
+    @Query("SELECT c.id AS id, c.nombre AS texto, COUNT(r) AS popularidad FROM Categoria c "
+            + "LEFT JOIN c.recetas r GROUP BY c.id, c.nombre")
+    List<EntradaAutocompletado> findAutocompletado();
+
+    @Query("SELECT c.id AS id, c.nombre AS texto, COUNT(r) AS popularidad FROM Categoria c "
+            + "LEFT JOIN c.recetas r WHERE c.id = :id GROUP BY c.id, c.nombre")
+    Optional<EntradaAutocompletado> findAutocompletadoById(@Param("id") Integer id);
 }
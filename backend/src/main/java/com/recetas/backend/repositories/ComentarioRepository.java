@@ -2,12 +2,21 @@ package com.recetas.backend.repositories;
 
 import com.recetas.backend.models.Comentario;
 import com.recetas.backend.models.Receta;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface ComentarioRepository extends JpaRepository<Comentario, Integer> {
-    Page<Comentario> findByReceta(Receta receta, Pageable pageable);
+    Slice<Comentario> findByReceta(Receta receta, Pageable pageable);
+
+    @Query("SELECT c.receta.id AS recetaId, c.fechaComentario AS fecha FROM Comentario c "
+            + "WHERE c.fechaComentario >= :desde")
+    List<InteraccionReciente> findRecientes(@Param("desde") LocalDateTime desde);
 }
@@ -0,0 +1,11 @@
+package com.recetas.backend.repositories;
+
+// Proyección común para cargar el autocompletado (AutocompletadoService): el
+// texto sugerido de la entidad y su popularidad, sin cargar entidades
+public interface EntradaAutocompletado {
+    Integer getId();
+
+    String getTexto();
+
+    Long getPopularidad();
+}
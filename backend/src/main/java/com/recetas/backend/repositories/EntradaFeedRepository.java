@@ -0,0 +1,71 @@
+package com.recetas.backend.repositories;
+
+import com.recetas.backend.models.EntradaFeed;
+import com.recetas.backend.models.EntradaFeedId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EntradaFeedRepository extends JpaRepository<EntradaFeed, EntradaFeedId> {
+
+    // Fan-out en escritura: copia la receta al feed de todos los seguidores de su
+    // autor en una sola sentencia, sin traer los seguidores a memoria
+    @Modifying
+    @Query(value = "INSERT INTO feed_entradas (usuario_id, receta_id, autor_id, fecha_creacion) "
+            + "SELECT s.seguidor_id, r.id, r.usuario_id, r.fecha_creacion FROM recetas r "
+            + "JOIN seguidores s ON s.seguido_id = r.usuario_id WHERE r.id = :recetaId "
+            + "AND NOT EXISTS (SELECT 1 FROM feed_entradas f WHERE f.usuario_id = s.seguidor_id "
+            + "AND f.receta_id = r.id)", nativeQuery = true)
+    int repartirReceta(@Param("recetaId") Integer recetaId);
+
+    // Lo mismo para un lote de recetas importadas, en una sola sentencia
+    @Modifying
+    @Query(value = "INSERT INTO feed_entradas (usuario_id, receta_id, autor_id, fecha_creacion) "
+            + "SELECT s.seguidor_id, r.id, r.usuario_id, r.fecha_creacion FROM recetas r "
+            + "JOIN seguidores s ON s.seguido_id = r.usuario_id WHERE r.id IN (:recetaIds) "
+            + "AND NOT EXISTS (SELECT 1 FROM feed_entradas f WHERE f.usuario_id = s.seguidor_id "
+            + "AND f.receta_id = r.id)", nativeQuery = true)
+    int repartirRecetas(@Param("recetaIds") Collection<Integer> recetaIds);
+
+    // Todas las recetas del autor al feed de todos sus seguidores (cuando deja de
+    // ser masivo, para recuperar las que no se copiaron)
+    @Modifying
+    @Query(value = "INSERT INTO feed_entradas (usuario_id, receta_id, autor_id, fecha_creacion) "
+            + "SELECT s.seguidor_id, r.id, r.usuario_id, r.fecha_creacion FROM recetas r "
+            + "JOIN seguidores s ON s.seguido_id = r.usuario_id WHERE r.usuario_id = :autorId "
+            + "AND NOT EXISTS (SELECT 1 FROM feed_entradas f WHERE f.usuario_id = s.seguidor_id "
+            + "AND f.receta_id = r.id)", nativeQuery = true)
+    int repartirAutor(@Param("autorId") Integer autorId);
+
+    // Las recetas del autor al feed de un nuevo seguidor
+    @Modifying
+    @Query(value = "INSERT INTO feed_entradas (usuario_id, receta_id, autor_id, fecha_creacion) "
+            + "SELECT :usuarioId, r.id, r.usuario_id, r.fecha_creacion FROM recetas r "
+            + "WHERE r.usuario_id = :autorId AND NOT EXISTS (SELECT 1 FROM feed_entradas f "
+            + "WHERE f.usuario_id = :usuarioId AND f.receta_id = r.id)", nativeQuery = true)
+    int copiarRecetasDeAutor(@Param("usuarioId") Integer usuarioId, @Param("autorId") Integer autorId);
+
+    @Modifying
+    @Query("DELETE FROM EntradaFeed e WHERE e.usuarioId = :usuarioId AND e.autorId = :autorId")
+    int deleteByUsuarioIdAndAutorId(@Param("usuarioId") Integer usuarioId, @Param("autorId") Integer autorId);
+
+    // Mismo orden y cursor que el feed general: (fecha_creacion, id) descendente
+    @Query("SELECT e.recetaId AS recetaId, e.fechaCreacion AS fechaCreacion FROM EntradaFeed e "
+            + "WHERE e.usuarioId = :usuarioId ORDER BY e.fechaCreacion DESC, e.recetaId DESC")
+    List<ReferenciaFeed> findFeedInicio(@Param("usuarioId") Integer usuarioId, Limit limit);
+
+    @Query("SELECT e.recetaId AS recetaId, e.fechaCreacion AS fechaCreacion FROM EntradaFeed e "
+            + "WHERE e.usuarioId = :usuarioId AND e.fechaCreacion <= :fecha "
+            + "AND (e.fechaCreacion < :fecha OR e.recetaId < :id) "
+            + "ORDER BY e.fechaCreacion DESC, e.recetaId DESC")
+    List<ReferenciaFeed> findFeedDespuesDe(@Param("usuarioId") Integer usuarioId,
+            @Param("fecha") LocalDateTime fecha, @Param("id") Integer id, Limit limit);
+}
@@ -2,11 +2,27 @@ package com.recetas.backend.repositories;
 
 import com.recetas.backend.models.Ingrediente;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface IngredienteRepository extends JpaRepository<Ingrediente, Integer> {
     Optional<Ingrediente> findByNombre(String nombre);
+
+    // Búsqueda por nombre de DatosReferenciaCache cuando no está en la instantánea,
+    // que tampoco distingue mayúsculas
+    Optional<Ingrediente> findFirstByNombreIgnoreCase(String nombre);
+
+    // Autocompletado: nombre y número de recetas que usan el ingrediente
+    @Query("SELECT i.id AS id, i.nombre AS texto, COUNT(ri) AS popularidad FROM Ingrediente i "
+            + "LEFT JOIN i.recetas ri GROUP BY i.id, i.nombre")
+    List<EntradaAutocompletado> findAutocompletado();
+
+    @Query("SELECT i.id AS id, i.nombre AS texto, COUNT(ri) AS popularidad FROM Ingrediente i "
+            + "LEFT JOIN i.recetas ri WHERE i.id = :id GROUP BY i.id, i.nombre")
+    Optional<EntradaAutocompletado> findAutocompletadoById(@Param("id") Integer id);
 }
@@ -0,0 +1,11 @@
+package com.recetas.backend.repositories;
+
+import java.time.LocalDateTime;
+
+// Proyección para la carga inicial de tendencias (TendenciasService): receta
+// y fecha de una calificación o un comentario, sin cargar entidades
+public interface InteraccionReciente {
+    Integer getRecetaId();
+
+    LocalDateTime getFecha();
+}
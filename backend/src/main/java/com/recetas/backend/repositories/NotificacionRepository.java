@@ -2,8 +2,8 @@ package com.recetas.backend.repositories;
 
 import com.recetas.backend.models.Notificacion;
 import com.recetas.backend.models.Usuario;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,7 +11,9 @@ import java.util.List;
 
 @Repository
 public interface NotificacionRepository extends JpaRepository<Notificacion, Integer> {
-    Page<Notificacion> findByUsuario(Usuario usuario, Pageable pageable);
+    Slice<Notificacion> findByUsuario(Usuario usuario, Pageable pageable);
+
+    long countByUsuario(Usuario usuario);
 
     List<Notificacion> findByUsuarioAndLeidaFalse(Usuario usuario);
 }
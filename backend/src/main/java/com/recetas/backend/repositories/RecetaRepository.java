@@ -1,46 +1,254 @@
 package com.recetas.backend.repositories;
 
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.dtos.ResumenCalificacionesDto;
 import com.recetas.backend.models.Receta;
-import com.recetas.backend.models.Receta.Dificultad;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface RecetaRepository extends JpaRepository<Receta, Integer> {
+public interface RecetaRepository extends JpaRepository<Receta, Integer>, JpaSpecificationExecutor<Receta>,
+        RecetaRepositoryCustom {
 
-    // Buscar recetas por título (parcial)
-    Page<Receta> findByTituloContainingIgnoreCase(String titulo, Pageable pageable);
+    // Proyección común para los listados: una sola sentencia por página; los
+    // totales salen de los contadores desnormalizados de la propia fila
+    String RESUMEN_SELECT = "SELECT new com.recetas.backend.dtos.RecetaSummaryDto("
+            + "r.id, r.titulo, r.urlImagen, r.dificultad, r.tiempoPreparacion, r.fechaCreacion, u.nombreUsuario, "
+            + "(SELECT MIN(c.nombre) FROM r.categorias c), "
+            + "r.likeCount, r.ratingSum, r.ratingCount, r.commentCount) "
+            + "FROM Receta r JOIN r.usuario u ";
 
-    // Buscar recetas por nombre de ingrediente
-    @Query("SELECT r FROM Receta r JOIN r.ingredientes ri JOIN ri.ingrediente i WHERE LOWER(i.nombre) LIKE LOWER(CONCAT('%', :ingredienteNombre, '%'))")
-    Page<Receta> findByIngredienteNombreContainingIgnoreCase(@Param("ingredienteNombre") String ingredienteNombre,
-            Pageable pageable);
+    String CATEGORIA_ID_FILTRO = "EXISTS (SELECT 1 FROM r.categorias c WHERE c.id = :categoriaId)";
 
-    // Buscar recetas por dificultad
-    Page<Receta> findByDificultad(Dificultad dificultad, Pageable pageable);
+    // Plan de carga del detalle (ver grafos en Receta): una consulta para la receta
+    // con autor y categorías y una más por cada colección hija
+    @EntityGraph("Receta.detalle")
+    @Query("SELECT r FROM Receta r WHERE r.id = :id")
+    Optional<Receta> findDetalleById(@Param("id") Integer id);
 
-    // Buscar recetas por tiempo de preparación máximo
-    Page<Receta> findByTiempoPreparacionLessThanEqual(Integer tiempoPreparacionMax, Pageable pageable);
+    @EntityGraph("Receta.pasos")
+    @Query("SELECT r FROM Receta r WHERE r.id = :id")
+    Optional<Receta> fetchPasosById(@Param("id") Integer id);
 
-    // Buscar recetas por nombre de categoría
-    @Query("SELECT r FROM Receta r JOIN r.categorias c WHERE LOWER(c.nombre) LIKE LOWER(CONCAT('%', :categoriaNombre, '%'))")
-    Page<Receta> findByCategoriaNombreContainingIgnoreCase(@Param("categoriaNombre") String categoriaNombre,
-            Pageable pageable);
+    @EntityGraph("Receta.ingredientes")
+    @Query("SELECT r FROM Receta r WHERE r.id = :id")
+    Optional<Receta> fetchIngredientesById(@Param("id") Integer id);
+
+    @EntityGraph("Receta.comentarios")
+    @Query("SELECT r FROM Receta r WHERE r.id = :id")
+    Optional<Receta> fetchComentariosById(@Param("id") Integer id);
+
+    @EntityGraph("Receta.calificaciones")
+    @Query("SELECT r FROM Receta r WHERE r.id = :id")
+    Optional<Receta> fetchCalificacionesById(@Param("id") Integer id);
+
+    // Likes directamente sobre recetas_likes (clave primaria usuario_id, receta_id),
+    // sin cargar las recetas que le gustan al usuario. INSERT IGNORE hace la
+    // inserción idempotente: de dos peticiones a la vez solo una inserta la fila
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO recetas_likes (usuario_id, receta_id) VALUES (:usuarioId, :recetaId)",
+            nativeQuery = true)
+    int insertarLike(@Param("usuarioId") Integer usuarioId, @Param("recetaId") Integer recetaId);
+
+    @Modifying
+    @Query(value = "DELETE FROM recetas_likes WHERE usuario_id = :usuarioId AND receta_id = :recetaId",
+            nativeQuery = true)
+    int eliminarLike(@Param("usuarioId") Integer usuarioId, @Param("recetaId") Integer recetaId);
+
+    @Query(value = "SELECT CASE WHEN EXISTS (SELECT 1 FROM recetas_likes "
+            + "WHERE usuario_id = :usuarioId AND receta_id = :recetaId) THEN 1 ELSE 0 END", nativeQuery = true)
+    int existsLike(@Param("usuarioId") Integer usuarioId, @Param("recetaId") Integer recetaId);
+
+    // De las recetas indicadas, a cuáles ha dado like el usuario (una consulta IN)
+    @Query(value = "SELECT receta_id FROM recetas_likes WHERE usuario_id = :usuarioId AND receta_id IN (:recetaIds)",
+            nativeQuery = true)
+    List<Integer> findLikesEntre(@Param("usuarioId") Integer usuarioId,
+            @Param("recetaIds") Collection<Integer> recetaIds);
+
+    // Contadores desnormalizados: incrementos atómicos en la base de datos para
+    // no perder actualizaciones concurrentes (likes y vistas se acumulan antes en
+    // ContadoresDiferidosService). Una calificación nueva (anterior = 0) o el
+    // cambio de una existente: suma, número e histograma en el mismo UPDATE
+    @Modifying
+    @Query("UPDATE Receta r SET r.ratingSum = r.ratingSum + :nueva - :anterior, "
+            + "r.ratingCount = r.ratingCount + CASE WHEN :anterior = 0 THEN 1 ELSE 0 END, "
+            + "r.rating1 = r.rating1 + CASE WHEN :nueva = 1 THEN 1 ELSE 0 END - CASE WHEN :anterior = 1 THEN 1 ELSE 0 END, "
+            + "r.rating2 = r.rating2 + CASE WHEN :nueva = 2 THEN 1 ELSE 0 END - CASE WHEN :anterior = 2 THEN 1 ELSE 0 END, "
+            + "r.rating3 = r.rating3 + CASE WHEN :nueva = 3 THEN 1 ELSE 0 END - CASE WHEN :anterior = 3 THEN 1 ELSE 0 END, "
+            + "r.rating4 = r.rating4 + CASE WHEN :nueva = 4 THEN 1 ELSE 0 END - CASE WHEN :anterior = 4 THEN 1 ELSE 0 END, "
+            + "r.rating5 = r.rating5 + CASE WHEN :nueva = 5 THEN 1 ELSE 0 END - CASE WHEN :anterior = 5 THEN 1 ELSE 0 END "
+            + "WHERE r.id = :id")
+    int registrarCalificacion(@Param("id") Integer id, @Param("anterior") int anterior, @Param("nueva") int nueva);
+
+    // Resumen de calificaciones desde los contadores, sin leer `calificaciones`
+    @Query("SELECT new com.recetas.backend.dtos.ResumenCalificacionesDto(r.ratingSum, r.ratingCount, "
+            + "r.rating1, r.rating2, r.rating3, r.rating4, r.rating5) FROM Receta r WHERE r.id = :id")
+    Optional<ResumenCalificacionesDto> findResumenCalificaciones(@Param("id") Integer id);
+
+    @Modifying
+    @Query("UPDATE Receta r SET r.commentCount = r.commentCount + :delta WHERE r.id = :id")
+    int incrementarComentarios(@Param("id") Integer id, @Param("delta") long delta);
+
+    // Solo para la reconciliación: los likes se acumulan en ContadoresDiferidosService
+    @Modifying
+    @Query("UPDATE Receta r SET r.likeCount = r.likeCount + :delta WHERE r.id = :id")
+    int incrementarLikes(@Param("id") Integer id, @Param("delta") long delta);
+
+    @Query("SELECT r.likeCount FROM Receta r WHERE r.id = :id")
+    Optional<Long> findLikeCountById(@Param("id") Integer id);
+
+    @Query("SELECT r.viewCount FROM Receta r WHERE r.id = :id")
+    Optional<Long> findViewCountById(@Param("id") Integer id);
+
+    // Reconciliación: recalcula los contadores desde las tablas de origen y solo
+    // reescribe las filas que se han desviado. Devuelve el número de filas corregidas
+    @Modifying
+    @Query(value = "UPDATE recetas r SET "
+            + "like_count = (SELECT COUNT(*) FROM recetas_likes l WHERE l.receta_id = r.id), "
+            + "rating_sum = (SELECT COALESCE(SUM(c.puntuacion), 0) FROM calificaciones c WHERE c.receta_id = r.id), "
+            + "rating_count = (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id), "
+            + "comment_count = (SELECT COUNT(*) FROM comentarios co WHERE co.receta_id = r.id), "
+            + "rating_1 = (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 1), "
+            + "rating_2 = (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 2), "
+            + "rating_3 = (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 3), "
+            + "rating_4 = (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 4), "
+            + "rating_5 = (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 5) "
+            + "WHERE r.id BETWEEN :desdeId AND :hastaId AND ("
+            + "like_count <> (SELECT COUNT(*) FROM recetas_likes l WHERE l.receta_id = r.id) "
+            + "OR rating_sum <> (SELECT COALESCE(SUM(c.puntuacion), 0) FROM calificaciones c WHERE c.receta_id = r.id) "
+            + "OR rating_count <> (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id) "
+            + "OR comment_count <> (SELECT COUNT(*) FROM comentarios co WHERE co.receta_id = r.id) "
+            + "OR rating_1 <> (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 1) "
+            + "OR rating_2 <> (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 2) "
+            + "OR rating_3 <> (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 3) "
+            + "OR rating_4 <> (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 4) "
+            + "OR rating_5 <> (SELECT COUNT(*) FROM calificaciones c WHERE c.receta_id = r.id AND c.puntuacion = 5))",
+            nativeQuery = true)
+    int reconciliarContadores(@Param("desdeId") Integer desdeId, @Param("hastaId") Integer hastaId);
+
+    @Query("SELECT MAX(r.id) FROM Receta r")
+    Integer findMaxId();
+
+    // Feed por cursor (keyset) sobre el índice (fecha_creacion, id): sin OFFSET ni
+    // COUNT. La condición redundante sobre la fecha permite el recorrido por rango
+    @Query(RESUMEN_SELECT + "ORDER BY r.fechaCreacion DESC, r.id DESC")
+    List<RecetaSummaryDto> findFeedInicio(Limit limit);
+
+    @Query(RESUMEN_SELECT + "WHERE r.fechaCreacion <= :fecha "
+            + "AND (r.fechaCreacion < :fecha OR r.id < :id) "
+            + "ORDER BY r.fechaCreacion DESC, r.id DESC")
+    List<RecetaSummaryDto> findFeedDespuesDe(@Param("fecha") LocalDateTime fecha, @Param("id") Integer id,
+            Limit limit);
+
+    // Fan-out en lectura del feed de seguidos: recetas de los autores masivos con
+    // el mismo orden y cursor, sobre el índice (usuario_id, fecha_creacion, id)
+    @Query("SELECT r.id AS recetaId, r.fechaCreacion AS fechaCreacion FROM Receta r "
+            + "WHERE r.usuario.id IN :autorIds ORDER BY r.fechaCreacion DESC, r.id DESC")
+    List<ReferenciaFeed> findFeedAutoresInicio(@Param("autorIds") Collection<Integer> autorIds, Limit limit);
+
+    @Query("SELECT r.id AS recetaId, r.fechaCreacion AS fechaCreacion FROM Receta r "
+            + "WHERE r.usuario.id IN :autorIds AND r.fechaCreacion <= :fecha "
+            + "AND (r.fechaCreacion < :fecha OR r.id < :id) ORDER BY r.fechaCreacion DESC, r.id DESC")
+    List<ReferenciaFeed> findFeedAutoresDespuesDe(@Param("autorIds") Collection<Integer> autorIds,
+            @Param("fecha") LocalDateTime fecha, @Param("id") Integer id, Limit limit);
+
+    // Listados resumidos como Slice (sin COUNT). Los totales, cuando hacen falta,
+    // se piden aparte con los métodos count* y se cachean en ConteoCache. La
+    // búsqueda con filtros combinados usa findResumen(Specification, Pageable)
+
+    // Listado general de recetas
+    @Query(RESUMEN_SELECT)
+    Slice<RecetaSummaryDto> findAllResumen(Pageable pageable);
 
     // Obtener recetas de un usuario específico
-    Page<Receta> findByUsuarioId(Integer usuarioId, Pageable pageable);
+    @Query(RESUMEN_SELECT + "WHERE u.id = :usuarioId")
+    Slice<RecetaSummaryDto> findResumenByUsuarioId(@Param("usuarioId") Integer usuarioId, Pageable pageable);
+
+    long countByUsuarioId(Integer usuarioId);
 
     // Obtener recetas que le gustan a un usuario específico
-    @Query("SELECT r FROM Receta r JOIN r.usuariosQueGustan u WHERE u.id = :usuarioId")
-    Page<Receta> findRecetasGustadasByUsuarioId(@Param("usuarioId") Integer usuarioId, Pageable pageable);
+    @Query(RESUMEN_SELECT + "WHERE EXISTS (SELECT 1 FROM r.usuariosQueGustan g WHERE g.id = :usuarioId)")
+    Slice<RecetaSummaryDto> findResumenGustadasByUsuarioId(@Param("usuarioId") Integer usuarioId, Pageable pageable);
+
+    @Query("SELECT COUNT(r) FROM Receta r JOIN r.usuariosQueGustan g WHERE g.id = :usuarioId")
+    long countGustadasByUsuarioId(@Param("usuarioId") Integer usuarioId);
 
     // Obtener recetas por categoría (para /api/categorias/{id}/recetas)
-    @Query("SELECT r FROM Receta r JOIN r.categorias c WHERE c.id = :categoriaId")
-    Page<Receta> findByCategoriasId(@Param("categoriaId") Integer categoriaId, Pageable pageable);
+    @Query(RESUMEN_SELECT + "WHERE " + CATEGORIA_ID_FILTRO)
+    Slice<RecetaSummaryDto> findResumenByCategoriaId(@Param("categoriaId") Integer categoriaId, Pageable pageable);
+
+    @Query("SELECT COUNT(r) FROM Receta r JOIN r.categorias c WHERE c.id = :categoriaId")
+    long countByCategoriaId(@Param("categoriaId") Integer categoriaId);
+
+    // Carga del índice de búsqueda en memoria (BusquedaIndiceService) por tramos
+    // de IDs: una consulta por tabla de texto, sin cargar entidades
+    interface TextoIndexable {
+        Integer getRecetaId();
+
+        String getTexto();
+    }
+
+    interface RecetaIndexable extends TextoIndexable {
+        String getTitulo();
+    }
+
+    @Query("SELECT r.id AS recetaId, r.titulo AS titulo, r.descripcion AS texto FROM Receta r "
+            + "WHERE r.id BETWEEN :desdeId AND :hastaId")
+    List<RecetaIndexable> findTextoRecetas(@Param("desdeId") Integer desdeId, @Param("hastaId") Integer hastaId);
+
+    @Query("SELECT ri.receta.id AS recetaId, i.nombre AS texto FROM RecetaIngrediente ri JOIN ri.ingrediente i "
+            + "WHERE ri.receta.id BETWEEN :desdeId AND :hastaId")
+    List<TextoIndexable> findTextoIngredientes(@Param("desdeId") Integer desdeId,
+            @Param("hastaId") Integer hastaId);
+
+    @Query("SELECT p.receta.id AS recetaId, p.descripcion AS texto FROM Paso p "
+            + "WHERE p.receta.id BETWEEN :desdeId AND :hastaId")
+    List<TextoIndexable> findTextoPasos(@Param("desdeId") Integer desdeId, @Param("hastaId") Integer hastaId);
+
+    @Query("SELECT r.id AS recetaId, c.nombre AS texto FROM Receta r JOIN r.categorias c "
+            + "WHERE r.id BETWEEN :desdeId AND :hastaId")
+    List<TextoIndexable> findTextoCategorias(@Param("desdeId") Integer desdeId, @Param("hastaId") Integer hastaId);
+
+    // Carga del índice de ingredientes (CoberturaIngredientesService) por tramos de IDs
+    interface IngredienteIndexable {
+        Integer getRecetaId();
+
+        Integer getIngredienteId();
+    }
+
+    @Query("SELECT ri.receta.id AS recetaId, ri.ingrediente.id AS ingredienteId FROM RecetaIngrediente ri "
+            + "WHERE ri.receta.id BETWEEN :desdeId AND :hastaId")
+    List<IngredienteIndexable> findIngredientesIndexables(@Param("desdeId") Integer desdeId,
+            @Param("hastaId") Integer hastaId);
+
+    // Carga del índice de similitud (SimilitudService) por tramos de IDs
+    interface CategoriaIndexable {
+        Integer getRecetaId();
+
+        Integer getCategoriaId();
+    }
+
+    @Query("SELECT r.id AS recetaId, c.id AS categoriaId FROM Receta r JOIN r.categorias c "
+            + "WHERE r.id BETWEEN :desdeId AND :hastaId")
+    List<CategoriaIndexable> findCategoriasIndexables(@Param("desdeId") Integer desdeId,
+            @Param("hastaId") Integer hastaId);
+
+    // Autocompletado: título y popularidad (likes, calificaciones y comentarios)
+    @Query("SELECT r.id AS id, r.titulo AS texto, (r.likeCount + r.ratingCount + r.commentCount) AS popularidad "
+            + "FROM Receta r WHERE r.id BETWEEN :desdeId AND :hastaId")
+    List<EntradaAutocompletado> findAutocompletado(@Param("desdeId") Integer desdeId,
+            @Param("hastaId") Integer hastaId);
 }
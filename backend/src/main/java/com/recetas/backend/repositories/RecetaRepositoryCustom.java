@@ -0,0 +1,13 @@
+package com.recetas.backend.repositories;
+
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.models.Receta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface RecetaRepositoryCustom {
+
+    // Vista resumida de las recetas que cumplen la Specification, sin COUNT
+    Slice<RecetaSummaryDto> findResumen(Specification<Receta> spec, Pageable pageable);
+}
@@ -0,0 +1,68 @@
+package com.recetas.backend.repositories;
+
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.models.Categoria;
+import com.recetas.backend.models.Receta;
+import com.recetas.backend.models.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+// Implementación de las consultas dinámicas de RecetaRepository. Misma
+// proyección que RESUMEN_SELECT pero construida con Criteria para poder
+// combinar cualquier conjunto de filtros en una sola sentencia.
+public class RecetaRepositoryImpl implements RecetaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<RecetaSummaryDto> findResumen(Specification<Receta> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecetaSummaryDto> query = cb.createQuery(RecetaSummaryDto.class);
+        Root<Receta> receta = query.from(Receta.class);
+        Join<Receta, Usuario> usuario = receta.join("usuario");
+
+        Subquery<String> categoriaPrincipal = query.subquery(String.class);
+        Join<Receta, Categoria> categoria = categoriaPrincipal.correlate(receta).join("categorias");
+        categoriaPrincipal.select(cb.least(categoria.<String>get("nombre")));
+
+        query.select(cb.construct(RecetaSummaryDto.class,
+                receta.get("id"), receta.get("titulo"), receta.get("urlImagen"), receta.get("dificultad"),
+                receta.get("tiempoPreparacion"), receta.get("fechaCreacion"), usuario.get("nombreUsuario"),
+                categoriaPrincipal, receta.get("likeCount"), receta.get("ratingSum"), receta.get("ratingCount"),
+                receta.get("commentCount")));
+        Predicate predicado = spec.toPredicate(receta, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        // Un orden explícito de la página manda sobre el que fije la Specification
+        // (p. ej. relevancia en la búsqueda de texto completo)
+        if (pageable.getSort().isSorted() || query.getOrderList().isEmpty()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), receta, cb));
+        }
+
+        // Se pide una fila de más para saber si hay página siguiente
+        List<RecetaSummaryDto> contenido = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hayMas = contenido.size() > pageable.getPageSize();
+        if (hayMas) {
+            contenido = contenido.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(contenido, pageable, hayMas);
+    }
+}
@@ -0,0 +1,141 @@
+package com.recetas.backend.repositories;
+
+import com.recetas.backend.config.BusquedaTextoFunctionContributor;
+import com.recetas.backend.models.Categoria;
+import com.recetas.backend.models.Ingrediente;
+import com.recetas.backend.models.Receta;
+import com.recetas.backend.models.Receta.Dificultad;
+import com.recetas.backend.models.RecetaIngrediente;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+// Filtros de búsqueda de recetas como Specifications combinables. La búsqueda
+// aplica con AND todos los filtros informados; los vacíos se ignoran.
+public final class RecetaSpecifications {
+
+    // CONTIENE: subcadena con LIKE '%x%' (no usa índices). TEXTO: texto completo
+    // sobre título y descripción con los índices FULLTEXT, ordenado por relevancia
+    public enum ModoBusqueda {
+        CONTIENE, TEXTO
+    }
+
+    private RecetaSpecifications() {
+    }
+
+    public static Specification<Receta> busqueda(String titulo, String ingredienteNombre, Dificultad dificultad,
+            Integer tiempoPreparacionMax, String categoriaNombre) {
+        return busqueda(ModoBusqueda.CONTIENE, titulo, ingredienteNombre, dificultad, tiempoPreparacionMax,
+                categoriaNombre);
+    }
+
+    public static Specification<Receta> busqueda(ModoBusqueda modo, String titulo, String ingredienteNombre,
+            Dificultad dificultad, Integer tiempoPreparacionMax, String categoriaNombre) {
+        boolean texto = modo == ModoBusqueda.TEXTO;
+        List<Specification<Receta>> filtros = new ArrayList<>();
+        if (StringUtils.hasText(titulo)) {
+            filtros.add(texto ? textoCompleto(titulo) : tituloContiene(titulo));
+        }
+        if (StringUtils.hasText(ingredienteNombre)) {
+            filtros.add(texto ? conIngredienteTexto(ingredienteNombre) : conIngrediente(ingredienteNombre));
+        }
+        if (dificultad != null) {
+            filtros.add(conDificultad(dificultad));
+        }
+        if (tiempoPreparacionMax != null) {
+            filtros.add(tiempoPreparacionMaximo(tiempoPreparacionMax));
+        }
+        if (StringUtils.hasText(categoriaNombre)) {
+            filtros.add(enCategoria(categoriaNombre));
+        }
+        return Specification.allOf(filtros);
+    }
+
+    public static Specification<Receta> tituloContiene(String titulo) {
+        return (receta, query, cb) -> contiene(cb, receta.get("titulo"), titulo);
+    }
+
+    // Coincidencia de texto completo en título o descripción. Fija además el orden
+    // por relevancia (desc); findResumen lo respeta salvo que se pida otro orden
+    public static Specification<Receta> textoCompleto(String texto) {
+        return (receta, query, cb) -> {
+            Expression<Double> relevancia = cb.function(BusquedaTextoFunctionContributor.RELEVANCIA_RECETA,
+                    Double.class, receta.get("titulo"), receta.get("descripcion"), valor(cb, texto));
+            query.orderBy(cb.desc(relevancia), cb.desc(receta.get("id")));
+            return cb.gt(relevancia, 0.0);
+        };
+    }
+
+    public static Specification<Receta> conIds(Collection<Integer> ids) {
+        return (receta, query, cb) -> receta.get("id").in(ids);
+    }
+
+    public static Specification<Receta> conDificultad(Dificultad dificultad) {
+        return (receta, query, cb) -> cb.equal(receta.get("dificultad"), dificultad);
+    }
+
+    public static Specification<Receta> tiempoPreparacionMaximo(Integer minutos) {
+        return (receta, query, cb) -> cb.le(receta.get("tiempoPreparacion"), minutos);
+    }
+
+    // EXISTS sobre receta_ingredientes: no multiplica filas ni necesita DISTINCT
+    public static Specification<Receta> conIngrediente(String nombre) {
+        return (receta, query, cb) -> {
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Root<RecetaIngrediente> recetaIngrediente = subquery.from(RecetaIngrediente.class);
+            Join<RecetaIngrediente, Ingrediente> ingrediente = recetaIngrediente.join("ingrediente");
+            subquery.select(cb.literal(1)).where(
+                    cb.equal(recetaIngrediente.get("receta"), receta),
+                    contiene(cb, ingrediente.get("nombre"), nombre));
+            return cb.exists(subquery);
+        };
+    }
+
+    public static Specification<Receta> conIngredienteTexto(String nombre) {
+        return (receta, query, cb) -> {
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Root<RecetaIngrediente> recetaIngrediente = subquery.from(RecetaIngrediente.class);
+            Join<RecetaIngrediente, Ingrediente> ingrediente = recetaIngrediente.join("ingrediente");
+            Expression<Double> relevancia = cb.function(BusquedaTextoFunctionContributor.RELEVANCIA_INGREDIENTE,
+                    Double.class, ingrediente.get("nombre"), valor(cb, nombre));
+            subquery.select(cb.literal(1)).where(
+                    cb.equal(recetaIngrediente.get("receta"), receta),
+                    cb.gt(relevancia, 0.0));
+            return cb.exists(subquery);
+        };
+    }
+
+    public static Specification<Receta> enCategoria(String nombre) {
+        return (receta, query, cb) -> {
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Root<Receta> correlada = subquery.correlate(receta);
+            Join<Receta, Categoria> categoria = correlada.join("categorias");
+            subquery.select(cb.literal(1)).where(contiene(cb, categoria.get("nombre"), nombre));
+            return cb.exists(subquery);
+        };
+    }
+
+    // El texto de búsqueda va como parámetro enlazado (cb.literal lo escribiría
+    // dentro del SQL)
+    private static Expression<String> valor(CriteriaBuilder cb, String texto) {
+        return ((HibernateCriteriaBuilder) cb).value(texto.trim());
+    }
+
+    // LIKE '%texto%' sin distinguir mayúsculas; los comodines del texto se escapan
+    private static Predicate contiene(CriteriaBuilder cb, Expression<String> campo, String texto) {
+        String escapado = texto.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return cb.like(cb.lower(campo), "%" + escapado + "%", '\\');
+    }
+}
@@ -0,0 +1,11 @@
+package com.recetas.backend.repositories;
+
+import java.time.LocalDateTime;
+
+// Proyección para componer el feed de seguidos (FeedService): receta y fecha de
+// creación, que es la clave de orden y del cursor
+public interface ReferenciaFeed {
+    Integer getRecetaId();
+
+    LocalDateTime getFechaCreacion();
+}
@@ -3,14 +3,29 @@ package com.recetas.backend.repositories;
 import com.recetas.backend.models.Seguidor;
 import com.recetas.backend.models.SeguidorId;
 import com.recetas.backend.models.Usuario;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface SeguidorRepository extends JpaRepository<Seguidor, SeguidorId> {
-    Page<Seguidor> findBySeguido(Usuario seguido, Pageable pageable);
+    Slice<Seguidor> findBySeguido(Usuario seguido, Pageable pageable);
+
+    long countBySeguido(Usuario seguido);
+
+    Slice<Seguidor> findBySeguidor(Usuario seguidor, Pageable pageable);
+
+    long countBySeguidor(Usuario seguidor);
 
-    Page<Seguidor> findBySeguidor(Usuario seguidor, Pageable pageable);
+    // Cuáles de los usuarios indicados sigue el seguidor: búsquedas por clave
+    // primaria, sin recorrer todos sus seguidos
+    @Query("SELECT s.seguido.id FROM Seguidor s WHERE s.seguidor.id = :seguidorId AND s.seguido.id IN :seguidoIds")
+    List<Integer> findSeguidosEntre(@Param("seguidorId") Integer seguidorId,
+            @Param("seguidoIds") Collection<Integer> seguidoIds);
 }
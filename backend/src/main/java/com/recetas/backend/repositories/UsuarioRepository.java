@@ -2,8 +2,12 @@ package com.recetas.backend.repositories;
 
 import com.recetas.backend.models.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +19,27 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
     Boolean existsByEmail(String email);
 
     Boolean existsByNombreUsuario(String nombreUsuario);
+
+    // Incremento atómico en la base de datos: no se pierden seguimientos concurrentes
+    @Modifying
+    @Query("UPDATE Usuario u SET u.seguidoresCount = u.seguidoresCount + :delta WHERE u.id = :id")
+    int incrementarSeguidores(@Param("id") Integer id, @Param("delta") int delta);
+
+    // Cambios de modelo del feed: devuelven 1 solo si el usuario cambia de modelo,
+    // así únicamente quien hace el cambio ejecuta sus efectos
+    @Modifying
+    @Query("UPDATE Usuario u SET u.feedMasivo = true "
+            + "WHERE u.id = :id AND u.feedMasivo = false AND u.seguidoresCount >= :umbral")
+    int marcarFeedMasivo(@Param("id") Integer id, @Param("umbral") int umbral);
+
+    @Modifying
+    @Query("UPDATE Usuario u SET u.feedMasivo = false "
+            + "WHERE u.id = :id AND u.feedMasivo = true AND u.seguidoresCount < :umbral")
+    int desmarcarFeedMasivo(@Param("id") Integer id, @Param("umbral") int umbral);
+
+    @Query("SELECT u.feedMasivo FROM Usuario u WHERE u.id = :id")
+    Optional<Boolean> findFeedMasivoById(@Param("id") Integer id);
+
+    @Query("SELECT u.id FROM Usuario u WHERE u.feedMasivo = true")
+    List<Integer> findIdsFeedMasivo();
 }
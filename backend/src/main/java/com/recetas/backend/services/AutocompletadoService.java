@@ -0,0 +1,182 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.AutocompletadoDto;
+import com.recetas.backend.dtos.AutocompletadoDto.Sugerencia;
+import com.recetas.backend.repositories.CategoriaRepository;
+import com.recetas.backend.repositories.EntradaAutocompletado;
+import com.recetas.backend.repositories.IngredienteRepository;
+import com.recetas.backend.repositories.RecetaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Autocompletado del buscador (GET /api/autocomplete) sobre tres índices de
+// prefijos en memoria: títulos de receta, ingredientes y categorías. Se carga al
+// arrancar; los textos se actualizan tras cada commit con RecetaModificadaEvent,
+// IngredienteModificadoEvent y CategoriaModificadaEvent, y la popularidad (likes,
+// calificaciones y comentarios de la receta; número de recetas del ingrediente o
+// la categoría) se relee periódicamente, porque cambia con cada interacción.
+@Service
+public class AutocompletadoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompletadoService.class);
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private IngredienteRepository ingredienteRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private IndicesRecetas indicesRecetas;
+
+    @Autowired
+    private TransaccionesAisladas transacciones;
+
+    @Value("${recetas.autocompletado.tamanoTramo:5000}")
+    private int tamanoTramo;
+
+    @Value("${recetas.autocompletado.cargarAlArrancar:true}")
+    private boolean cargarAlArrancar;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final IndiceAutocompletado recetas = new IndiceAutocompletado();
+    private final IndiceAutocompletado ingredientes = new IndiceAutocompletado();
+    private final IndiceAutocompletado categorias = new IndiceAutocompletado();
+
+    private final Timer consultas;
+
+    @Autowired
+    public AutocompletadoService(MeterRegistry meterRegistry) {
+        this.consultas = Timer.builder("recetas.autocompletado.consultas").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarIndice() {
+        if (cargarAlArrancar) {
+            long inicio = System.nanoTime();
+            cerrojo.writeLock().lock();
+            try {
+                recetas.iniciarCarga();
+                ingredientes.iniciarCarga();
+                categorias.iniciarCarga();
+            } finally {
+                cerrojo.writeLock().unlock();
+            }
+            refrescar();
+            cerrojo.writeLock().lock();
+            try {
+                recetas.terminarCarga();
+                ingredientes.terminarCarga();
+                categorias.terminarCarga();
+            } finally {
+                cerrojo.writeLock().unlock();
+            }
+            logger.info("Autocompletado cargado: {} recetas, {} ingredientes, {} categorías en {} ms",
+                    recetas.getNumEntradas(), ingredientes.getNumEntradas(), categorias.getNumEntradas(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        }
+    }
+
+    // Relee textos y popularidad de todas las entradas (por tramos en las recetas).
+    // Los borrados ya llegan por evento, así que no se buscan huecos
+    @Scheduled(cron = "${recetas.autocompletado.popularidad.cron:0 */15 * * * *}")
+    public void refrescar() {
+        indicesRecetas.porTramos(tamanoTramo, (desdeId, hastaId) ->
+                poner(recetas, leer(() -> recetaRepository.findAutocompletado(desdeId, hastaId))));
+        poner(ingredientes, leer(ingredienteRepository::findAutocompletado));
+        poner(categorias, leer(categoriaRepository::findAutocompletado));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecetaModificada(RecetaModificadaEvent event) {
+        Integer id = event.recetaId();
+        actualizar(recetas, id, leer(() -> recetaRepository.findAutocompletado(id, id)).stream().findFirst());
+    }
+
+    // Un lote importado se lee por tramo de IDs en una sola consulta; las recetas
+    // del tramo que no son del lote ya estaban en el índice y se refrescan igual
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecetasImportadas(RecetasImportadasEvent event) {
+        poner(recetas, leer(() -> recetaRepository.findAutocompletado(event.desdeId(), event.hastaId())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredienteModificado(IngredienteModificadoEvent event) {
+        Integer id = event.ingredienteId();
+        actualizar(ingredientes, id, leer(() -> ingredienteRepository.findAutocompletadoById(id)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriaModificada(CategoriaModificadaEvent event) {
+        Integer id = event.categoriaId();
+        actualizar(categorias, id, leer(() -> categoriaRepository.findAutocompletadoById(id)));
+    }
+
+    // Las "limite" sugerencias más populares de cada tipo para el prefijo
+    public AutocompletadoDto sugerir(String prefijo, int limite) {
+        long inicio = System.nanoTime();
+        cerrojo.readLock().lock();
+        try {
+            return new AutocompletadoDto(sugerencias(recetas, prefijo, limite),
+                    sugerencias(ingredientes, prefijo, limite), sugerencias(categorias, prefijo, limite));
+        } finally {
+            cerrojo.readLock().unlock();
+            consultas.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static List<Sugerencia> sugerencias(IndiceAutocompletado indice, String prefijo, int limite) {
+        return indice.buscar(prefijo, limite).stream()
+                .map(sugerencia -> new Sugerencia(sugerencia.id(), sugerencia.texto()))
+                .toList();
+    }
+
+    private void poner(IndiceAutocompletado indice, List<EntradaAutocompletado> entradas) {
+        modificar(() -> {
+            for (EntradaAutocompletado entrada : entradas) {
+                indice.poner(entrada.getId(), entrada.getTexto(), entrada.getPopularidad());
+            }
+        });
+    }
+
+    private void actualizar(IndiceAutocompletado indice, Integer id, Optional<EntradaAutocompletado> entrada) {
+        modificar(() -> {
+            if (entrada.isPresent()) {
+                indice.poner(id, entrada.get().getTexto(), entrada.get().getPopularidad());
+            } else {
+                indice.eliminar(id);
+            }
+        });
+    }
+
+    private void modificar(Runnable cambio) {
+        cerrojo.writeLock().lock();
+        try {
+            cambio.run();
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private <T> T leer(Supplier<T> consulta) {
+        return transacciones.leer(consulta);
+    }
+}
@@ -0,0 +1,184 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.models.Receta;
+import com.recetas.backend.repositories.RecetaRepository;
+import com.recetas.backend.repositories.RecetaRepository.RecetaIndexable;
+import com.recetas.backend.repositories.RecetaRepository.TextoIndexable;
+import com.recetas.backend.repositories.RecetaSpecifications;
+import com.recetas.backend.repositories.RecetaSpecifications.ModoBusqueda;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Búsqueda de recetas sobre un índice invertido en memoria (título, descripción,
+// ingredientes, pasos y categorías). El índice se carga al arrancar, se mantiene
+// con IndicesRecetas tras cada commit y se puede reconstruir desde
+// /api/admin/indice-busqueda/reconstruir. Las consultas no tocan la base de datos
+// salvo para leer los resúmenes de la página devuelta. Los cambios de nombre de
+// categorías o ingredientes no se propagan hasta la siguiente reconstrucción.
+@Service
+public class BusquedaIndiceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusquedaIndiceService.class);
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @Autowired
+    private ConteoCache conteoCache;
+
+    @Value("${recetas.busqueda.indice.cargarAlArrancar:true}")
+    private boolean cargarAlArrancar;
+
+    private final IndiceRecetas<IndiceInvertido, Documento> indice;
+
+    private final Timer consultas;
+
+    @Autowired
+    public BusquedaIndiceService(MeterRegistry meterRegistry, IndicesRecetas indicesRecetas,
+            @Value("${recetas.busqueda.indice.tamanoTramo:1000}") int tamanoTramo) {
+        this.indice = indicesRecetas.registrar(tamanoTramo, IndiceInvertido::new, this::cargarDocumentos,
+                BusquedaIndiceService::indexar, IndiceInvertido::recalcularImpactos);
+        this.consultas = Timer.builder("recetas.busqueda.indice.consultas").register(meterRegistry);
+        Gauge.builder("recetas.busqueda.indice.recetas", this, s -> s.indice.leer(IndiceInvertido::getNumRecetas))
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarIndice() {
+        if (cargarAlArrancar) {
+            reconstruir();
+        }
+    }
+
+    // Las búsquedas siguen usando el índice anterior mientras se construye el nuevo
+    public EstadisticasIndice reconstruir() {
+        long inicio = System.nanoTime();
+        indice.reconstruir();
+        EstadisticasIndice estadisticas = new EstadisticasIndice(indice.leer(IndiceInvertido::getNumRecetas),
+                indice.leer(IndiceInvertido::getNumTerminos),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        logger.info("Índice de búsqueda cargado: {} recetas, {} términos en {} ms", estadisticas.recetas(),
+                estadisticas.terminos(), estadisticas.milisegundos());
+        return estadisticas;
+    }
+
+    // Página de resultados ordenados por BM25 (Slice: sin contar coincidencias).
+    // Mientras el índice no está cargado se usa la búsqueda de texto completo de
+    // la base de datos
+    public Slice<RecetaSummaryDto> buscarSlice(String consulta, Pageable pageable) {
+        if (!indice.isCargado()) {
+            return recetaRepository.findResumen(RecetaSpecifications.textoCompleto(consulta), pageable)
+                    .map(contadoresDiferidosService::conLikesPendientes);
+        }
+        // Se pide un resultado de más para saber si hay página siguiente
+        int limite = (int) Math.min(Integer.MAX_VALUE - 1, pageable.getOffset() + pageable.getPageSize()) + 1;
+        long inicio = System.nanoTime();
+        IndiceInvertido.Resultado resultado = indice.leer(actual -> actual.buscar(consulta, limite));
+        consultas.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+
+        int[] recetaIds = resultado.recetaIds();
+        boolean hayMas = recetaIds.length == limite;
+        List<Integer> ids = new ArrayList<>();
+        for (int i = (int) pageable.getOffset(); i < recetaIds.length && ids.size() < pageable.getPageSize(); i++) {
+            ids.add(recetaIds[i]);
+        }
+        return new SliceImpl<>(cargarResumenes(ids), pageable, hayMas);
+    }
+
+    // Igual que buscarSlice con el total de coincidencias, cacheado en ConteoCache
+    public Page<RecetaSummaryDto> buscar(String consulta, Pageable pageable) {
+        if (!indice.isCargado()) {
+            Specification<Receta> spec = RecetaSpecifications.textoCompleto(consulta);
+            return conteoCache.pagina(recetaRepository.findResumen(spec, pageable)
+                            .map(contadoresDiferidosService::conLikesPendientes),
+                    ConteoCache.clave("recetas.busqueda", ModoBusqueda.TEXTO, consulta, null, null, null, null),
+                    () -> recetaRepository.count(spec));
+        }
+        return conteoCache.pagina(buscarSlice(consulta, pageable), ConteoCache.clave("recetas.buscar", consulta),
+                () -> indice.leer(actual -> actual.contar(consulta)));
+    }
+
+    // Una consulta para los resúmenes de la página, devueltos en el orden del índice
+    private List<RecetaSummaryDto> cargarResumenes(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, RecetaSummaryDto> porId = new HashMap<>();
+        for (RecetaSummaryDto resumen : recetaRepository.findResumen(RecetaSpecifications.conIds(ids),
+                PageRequest.of(0, ids.size())).getContent()) {
+            porId.put(resumen.getId(), contadoresDiferidosService.conLikesPendientes(resumen));
+        }
+        List<RecetaSummaryDto> ordenados = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            RecetaSummaryDto resumen = porId.get(id);
+            if (resumen != null) {
+                ordenados.add(resumen);
+            }
+        }
+        return ordenados;
+    }
+
+    private Map<Integer, Documento> cargarDocumentos(int desdeId, int hastaId) {
+        Map<Integer, StringBuilder> contenidos = new LinkedHashMap<>();
+        Map<Integer, String> titulos = new HashMap<>();
+        for (RecetaIndexable receta : recetaRepository.findTextoRecetas(desdeId, hastaId)) {
+            titulos.put(receta.getRecetaId(), receta.getTitulo());
+            contenidos.put(receta.getRecetaId(), new StringBuilder(receta.getTexto()));
+        }
+        anadirTexto(contenidos, recetaRepository.findTextoIngredientes(desdeId, hastaId));
+        anadirTexto(contenidos, recetaRepository.findTextoPasos(desdeId, hastaId));
+        anadirTexto(contenidos, recetaRepository.findTextoCategorias(desdeId, hastaId));
+
+        Map<Integer, Documento> documentos = new LinkedHashMap<>();
+        contenidos.forEach((id, contenido) -> documentos.put(id, new Documento(titulos.get(id), contenido.toString())));
+        return documentos;
+    }
+
+    private static void indexar(IndiceInvertido indice, Integer recetaId, Documento documento) {
+        if (documento == null) {
+            indice.eliminar(recetaId);
+        } else {
+            indice.indexar(recetaId, documento.titulo(), documento.contenido());
+        }
+    }
+
+    private static void anadirTexto(Map<Integer, StringBuilder> contenidos, List<TextoIndexable> textos) {
+        for (TextoIndexable texto : textos) {
+            StringBuilder contenido = contenidos.get(texto.getRecetaId());
+            if (contenido != null && texto.getTexto() != null) {
+                contenido.append('\n').append(texto.getTexto());
+            }
+        }
+    }
+
+    private record Documento(String titulo, String contenido) {
+    }
+
+    public record EstadisticasIndice(int recetas, int terminos, long milisegundos) {
+    }
+}
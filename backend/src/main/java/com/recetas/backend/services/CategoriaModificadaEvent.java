@@ -0,0 +1,6 @@
+package com.recetas.backend.services;
+
+// Publicado por CategoriaService al crear, renombrar o borrar una categoría;
+// los índices en memoria lo reciben tras el commit (ver RecetaModificadaEvent)
+public record CategoriaModificadaEvent(Integer categoriaId) {
+}
@@ -4,7 +4,10 @@ import com.recetas.backend.dtos.CategoriaDto;
 import com.recetas.backend.exceptions.ResourceNotFoundException;
 import com.recetas.backend.models.Categoria;
 import com.recetas.backend.repositories.CategoriaRepository;
+import com.recetas.backend.utils.RestriccionesBd;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -16,24 +19,36 @@ public class CategoriaService {
     @Autowired
     private CategoriaRepository categoriaRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DatosReferenciaCache datosReferenciaCache;
+
+    // Listado paginado por ID desde DatosReferenciaCache, sin consultas
     public Page<CategoriaDto> getAllCategorias(Pageable pageable) {
-        return categoriaRepository.findAll(pageable).map(CategoriaDto::fromEntity);
+        return datosReferenciaCache.getCategorias(pageable).map(CategoriaDto::fromEntity);
+    }
+
+    // Cambia con cualquier alta, cambio de nombre o borrado; se usa como ETag del listado
+    public long getVersionCategorias() {
+        return datosReferenciaCache.getVersionCategorias();
     }
 
     public CategoriaDto getCategoriaById(Integer id) {
-        Categoria categoria = categoriaRepository.findById(id)
+        Categoria categoria = datosReferenciaCache.getCategoria(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con ID: " + id));
         return CategoriaDto.fromEntity(categoria);
     }
 
     @Transactional
     public CategoriaDto createCategoria(CategoriaDto categoriaDto) {
-        if (categoriaRepository.findByNombre(categoriaDto.getNombre()).isPresent()) {
-            throw new RuntimeException("Error: ¡El nombre de la categoría ya existe!");
-        }
+        comprobarNombreLibre(categoriaDto.getNombre(), null);
         Categoria categoria = new Categoria();
         categoria.setNombre(categoriaDto.getNombre());
-        return CategoriaDto.fromEntity(categoriaRepository.save(categoria));
+        categoria = guardar(categoria);
+        eventPublisher.publishEvent(new CategoriaModificadaEvent(categoria.getId()));
+        return CategoriaDto.fromEntity(categoria);
     }
 
     @Transactional
@@ -41,13 +56,11 @@ public class CategoriaService {
         Categoria categoria = categoriaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con ID: " + id));
 
-        if (categoriaRepository.findByNombre(categoriaDto.getNombre()).isPresent() &&
-                !categoriaRepository.findByNombre(categoriaDto.getNombre()).get().getId().equals(id)) {
-            throw new RuntimeException("Error: ¡El nombre de la categoría ya existe!");
-        }
-
+        comprobarNombreLibre(categoriaDto.getNombre(), id);
         categoria.setNombre(categoriaDto.getNombre());
-        return CategoriaDto.fromEntity(categoriaRepository.save(categoria));
+        categoria = guardar(categoria);
+        eventPublisher.publishEvent(new CategoriaModificadaEvent(categoria.getId()));
+        return CategoriaDto.fromEntity(categoria);
     }
 
     @Transactional
@@ -56,5 +69,29 @@ public class CategoriaService {
             throw new ResourceNotFoundException("Categoría no encontrada con ID: " + id);
         }
         categoriaRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoriaModificadaEvent(id));
+    }
+
+    // Nombre repetido (sin distinguir mayúsculas) según la instantánea de
+    // DatosReferenciaCache, sin consultar la base de datos. Un alta que la
+    // instantánea aún no recoge la detecta el índice único al guardar
+    private void comprobarNombreLibre(String nombre, Integer id) {
+        Integer existente = nombre != null
+                ? datosReferenciaCache.getInstantanea().categoriasPorNombre().get(DatosReferenciaCache.normalizar(nombre))
+                : null;
+        if (existente != null && !existente.equals(id)) {
+            throw new RuntimeException("Error: ¡El nombre de la categoría ya existe!");
+        }
+    }
+
+    private Categoria guardar(Categoria categoria) {
+        try {
+            return categoriaRepository.saveAndFlush(categoria);
+        } catch (DataIntegrityViolationException e) {
+            if (!RestriccionesBd.esClaveDuplicada(e)) {
+                throw e;
+            }
+            throw new RuntimeException("Error: ¡El nombre de la categoría ya existe!");
+        }
     }
 }
@@ -0,0 +1,148 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.RecetaCoberturaDto;
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.repositories.RecetaRepository;
+import com.recetas.backend.repositories.RecetaRepository.IngredienteIndexable;
+import com.recetas.backend.repositories.RecetaSpecifications;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// "Qué puedo cocinar": recetas ordenadas por la parte de sus ingredientes que
+// cubren los que tiene el usuario, sobre IndiceIngredientes en memoria. Se carga
+// al arrancar, se mantiene con IndicesRecetas tras cada commit (alta, edición,
+// borrado e importación) y se puede reconstruir desde
+// /api/admin/indice-ingredientes/reconstruir. Solo se consulta la base de datos
+// para los resúmenes de la página devuelta.
+@Service
+public class CoberturaIngredientesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoberturaIngredientesService.class);
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @Value("${recetas.cocinables.indice.cargarAlArrancar:true}")
+    private boolean cargarAlArrancar;
+
+    private final IndiceRecetas<IndiceIngredientes, int[]> indice;
+
+    private final Timer consultas;
+
+    @Autowired
+    public CoberturaIngredientesService(MeterRegistry meterRegistry, IndicesRecetas indicesRecetas,
+            @Value("${recetas.cocinables.indice.tamanoTramo:5000}") int tamanoTramo) {
+        this.indice = indicesRecetas.registrar(tamanoTramo, IndiceIngredientes::new, this::cargarIngredientes,
+                CoberturaIngredientesService::indexar);
+        this.consultas = Timer.builder("recetas.cocinables.consultas").register(meterRegistry);
+        Gauge.builder("recetas.cocinables.indice.recetas", this, s -> s.indice.leer(IndiceIngredientes::getNumRecetas))
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarIndice() {
+        if (cargarAlArrancar) {
+            reconstruir();
+        }
+    }
+
+    // Las consultas siguen usando el índice anterior mientras se construye el nuevo
+    public EstadisticasIndice reconstruir() {
+        long inicio = System.nanoTime();
+        indice.reconstruir();
+        EstadisticasIndice estadisticas = new EstadisticasIndice(indice.leer(IndiceIngredientes::getNumRecetas),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        logger.info("Índice de ingredientes cargado: {} recetas en {} ms", estadisticas.recetas(),
+                estadisticas.milisegundos());
+        return estadisticas;
+    }
+
+    // Página de recetas con alguno de los ingredientes disponibles, de mejor a
+    // peor cobertura; con faltanMax solo las que no necesitan más de faltanMax
+    // ingredientes adicionales. El total sale del mismo recorrido, sin coste extra
+    public Page<RecetaCoberturaDto> cocinables(List<Integer> ingredienteIds, Integer faltanMax, Pageable pageable) {
+        if (faltanMax != null && faltanMax < 0) {
+            throw new RuntimeException("faltanMax no puede ser negativo");
+        }
+        int[] disponibles = ingredienteIds.stream().mapToInt(Integer::intValue).toArray();
+        int limite = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        List<Integer> ids = new ArrayList<>();
+        Map<Integer, int[]> faltantes = new HashMap<>();
+        long inicio = System.nanoTime();
+        IndiceIngredientes.Resultado resultado = indice.leer(actual -> {
+            IndiceIngredientes.Resultado encontrado = actual.cocinables(disponibles,
+                    faltanMax != null ? faltanMax : -1, limite);
+            for (int i = (int) pageable.getOffset(); i < encontrado.recetaIds().length; i++) {
+                ids.add(encontrado.recetaIds()[i]);
+                faltantes.put(encontrado.recetaIds()[i], actual.faltantes(encontrado.recetaIds()[i], disponibles));
+            }
+            return encontrado;
+        });
+        consultas.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+
+        Map<Integer, RecetaSummaryDto> resumenes = cargarResumenes(ids);
+        List<RecetaCoberturaDto> contenido = new ArrayList<>(ids.size());
+        for (int i = (int) pageable.getOffset(); i < resultado.recetaIds().length; i++) {
+            RecetaSummaryDto resumen = resumenes.get(resultado.recetaIds()[i]);
+            if (resumen != null) {
+                contenido.add(new RecetaCoberturaDto(resumen, resultado.cubiertos()[i], resultado.totales()[i],
+                        Arrays.stream(faltantes.get(resumen.getId())).boxed().toList()));
+            }
+        }
+        return new PageImpl<>(contenido, pageable, resultado.coincidencias());
+    }
+
+    private Map<Integer, RecetaSummaryDto> cargarResumenes(List<Integer> ids) {
+        Map<Integer, RecetaSummaryDto> porId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (RecetaSummaryDto resumen : recetaRepository.findResumen(RecetaSpecifications.conIds(ids),
+                    PageRequest.of(0, ids.size())).getContent()) {
+                porId.put(resumen.getId(), contadoresDiferidosService.conLikesPendientes(resumen));
+            }
+        }
+        return porId;
+    }
+
+    // IDs de ingrediente por receta del tramo
+    private Map<Integer, int[]> cargarIngredientes(int desdeId, int hastaId) {
+        Map<Integer, List<Integer>> porReceta = new LinkedHashMap<>();
+        for (IngredienteIndexable fila : recetaRepository.findIngredientesIndexables(desdeId, hastaId)) {
+            porReceta.computeIfAbsent(fila.getRecetaId(), id -> new ArrayList<>()).add(fila.getIngredienteId());
+        }
+        Map<Integer, int[]> resultado = new LinkedHashMap<>();
+        porReceta.forEach((id, ingredientes) -> resultado.put(id,
+                ingredientes.stream().mapToInt(Integer::intValue).toArray()));
+        return resultado;
+    }
+
+    private static void indexar(IndiceIngredientes indice, Integer recetaId, int[] ingredientes) {
+        // Sin ingredientes (o borrada) la receta sale del índice
+        indice.indexar(recetaId, ingredientes != null ? ingredientes : new int[0]);
+    }
+
+    public record EstadisticasIndice(int recetas, long milisegundos) {
+    }
+}
@@ -0,0 +1,253 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Contadores de likes y vistas con escritura diferida. Un like o una vista solo
+// suma en un LongAdder de la receta (repartido en celdas por hilo, sin bloqueos
+// ni UPDATE sobre la fila de `recetas`, que en una receta viral se convertía en
+// el cuello de botella) y cada intervaloMs se vuelcan los deltas acumulados en
+// un solo lote JDBC, por orden de ID. Las lecturas suman lo persistido y lo
+// pendiente, incluido lo que se está volcando hasta que su UPDATE se confirma. Al
+// parar la aplicación se vuelca lo pendiente; si el proceso muere se pierde como
+// mucho un intervalo: los likes los recupera la reconciliación nocturna desde
+// recetas_likes y las vistas, que son aproximadas, no.
+@Service
+public class ContadoresDiferidosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContadoresDiferidosService.class);
+
+    private static final int TAMANO_LOTE = 500;
+    private static final String VOLCADO_SQL =
+            "UPDATE recetas SET like_count = like_count + ?, view_count = view_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RecetaDetalleCache recetaDetalleCache;
+
+    private final Map<Integer, Pendientes> pendientes = new ConcurrentHashMap<>();
+    // Entradas retiradas en el último volcado por no tener actividad: un hilo que
+    // las obtuvo justo antes aún puede sumar en ellas, así que se vacían una vez más
+    private List<Pendientes> retiradas = new ArrayList<>();
+
+    private final Timer volcados;
+
+    @Autowired
+    public ContadoresDiferidosService(MeterRegistry meterRegistry) {
+        this.volcados = Timer.builder("recetas.contadores.volcados").register(meterRegistry);
+        Gauge.builder("recetas.contadores.pendientes", pendientes, Map::size).register(meterRegistry);
+    }
+
+    // Dentro de una transacción el like se suma al confirmarla: si se deshace, la
+    // fila de recetas_likes no existe y el contador no debe moverse
+    public void incrementarLikes(Integer recetaId, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sumarLikes(recetaId, delta);
+                }
+            });
+        } else {
+            sumarLikes(recetaId, delta);
+        }
+    }
+
+    private void sumarLikes(Integer recetaId, long delta) {
+        pendientes.computeIfAbsent(recetaId, id -> new Pendientes(id)).likes.add(delta);
+    }
+
+    public void registrarVista(Integer recetaId) {
+        pendientes.computeIfAbsent(recetaId, id -> new Pendientes(id)).vistas.increment();
+    }
+
+    public long likesPendientes(Integer recetaId) {
+        Pendientes receta = pendientes.get(recetaId);
+        return receta != null ? receta.likes.sum() + receta.likesEnVuelo.sum() : 0;
+    }
+
+    public long vistasPendientes(Integer recetaId) {
+        Pendientes receta = pendientes.get(recetaId);
+        return receta != null ? receta.vistas.sum() + receta.vistasEnVuelo.sum() : 0;
+    }
+
+    // Los listados se leen de like_count, que no incluye lo pendiente: se suma aquí
+    // para que una tarjeta no muestre menos likes que el detalle de la misma receta.
+    // El resumen viene recién construido por la consulta, así que se corrige en sitio
+    public RecetaSummaryDto conLikesPendientes(RecetaSummaryDto resumen) {
+        long delta = likesPendientes(resumen.getId());
+        if (delta != 0) {
+            resumen.setTotalLikes(resumen.getTotalLikes() + delta);
+        }
+        return resumen;
+    }
+
+    // Likes confirmados que aún no se han volcado, de las recetas de un tramo de IDs
+    public Map<Integer, Long> likesPendientes(int desdeId, int hastaId) {
+        Map<Integer, Long> likes = new TreeMap<>();
+        pendientes.forEach((id, receta) -> {
+            long delta = receta.likes.sum();
+            if (id >= desdeId && id <= hastaId && delta != 0) {
+                likes.put(id, delta);
+            }
+        });
+        return likes;
+    }
+
+    // Vuelca lo pendiente y ejecuta la acción sin que ningún volcado se cuele
+    // mientras tanto (la reconciliación, que recalcula like_count desde recetas_likes)
+    public synchronized <T> T conVolcadoDetenido(Supplier<T> accion) {
+        volcar();
+        return accion.get();
+    }
+
+    @Scheduled(fixedDelayString = "${recetas.contadores.diferidos.intervaloMs:250}")
+    public void volcadoProgramado() {
+        volcar();
+    }
+
+    @PreDestroy
+    public void volcarAlParar() {
+        int recetas = volcar();
+        logger.info("Contadores diferidos volcados al parar: {} recetas", recetas);
+    }
+
+    // Escribe los deltas pendientes y devuelve el número de recetas actualizadas.
+    // Lo vaciado sigue contando en las lecturas hasta que la transacción termina;
+    // si no se confirma, vuelve al buffer para el siguiente volcado
+    public synchronized int volcar() {
+        long inicio = System.nanoTime();
+        // Por ID, para que dos instancias bloqueen las filas siempre en el mismo orden
+        Map<Integer, long[]> deltas = new TreeMap<>();
+        List<Vaciado> vaciados = new ArrayList<>();
+        for (Pendientes receta : retiradas) {
+            receta.vaciarEn(deltas, vaciados);
+        }
+        retiradas = new ArrayList<>();
+        for (Pendientes receta : pendientes.values()) {
+            if (!receta.vaciarEn(deltas, vaciados) && !receta.enVuelo()
+                    && pendientes.remove(receta.recetaId, receta)) {
+                retiradas.add(receta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> filas = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> filas.add(new Object[] { delta[0], delta[1], id }));
+        AtomicBoolean terminado = new AtomicBoolean();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                // Si la llamada se une a una transacción externa, el UPDATE no se
+                // confirma al salir de aquí sino cuando termine esa transacción
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int estado) {
+                        if (terminado.compareAndSet(false, true)) {
+                            terminarVolcado(vaciados, estado == STATUS_COMMITTED);
+                        }
+                    }
+                });
+                for (int i = 0; i < filas.size(); i += TAMANO_LOTE) {
+                    jdbcTemplate.batchUpdate(VOLCADO_SQL, filas.subList(i, Math.min(i + TAMANO_LOTE, filas.size())));
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron volcar los contadores de {} recetas; se reintentará", deltas.size(), e);
+            if (terminado.compareAndSet(false, true)) {
+                terminarVolcado(vaciados, false);
+            }
+            return 0;
+        }
+        // El detalle en caché lleva los likes persistidos: se recarga con los nuevos
+        deltas.forEach((id, delta) -> {
+            if (delta[0] != 0) {
+                recetaDetalleCache.invalidar(id);
+            }
+        });
+        volcados.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return deltas.size();
+    }
+
+    private void terminarVolcado(List<Vaciado> vaciados, boolean confirmado) {
+        for (Vaciado vaciado : vaciados) {
+            Pendientes receta = vaciado.receta();
+            if (!confirmado) {
+                Pendientes actual = pendientes.computeIfAbsent(receta.recetaId, id -> new Pendientes(id));
+                actual.likes.add(vaciado.likes());
+                actual.vistas.add(vaciado.vistas());
+            }
+            receta.likesEnVuelo.add(-vaciado.likes());
+            receta.vistasEnVuelo.add(-vaciado.vistas());
+        }
+    }
+
+    private record Vaciado(Pendientes receta, long likes, long vistas) {
+    }
+
+    private static final class Pendientes {
+        private final Integer recetaId;
+        private final LongAdder likes = new LongAdder();
+        private final LongAdder vistas = new LongAdder();
+        // Lo vaciado en volcados cuya transacción aún no ha terminado
+        private final LongAdder likesEnVuelo = new LongAdder();
+        private final LongAdder vistasEnVuelo = new LongAdder();
+
+        private Pendientes(Integer recetaId) {
+            this.recetaId = recetaId;
+        }
+
+        private boolean enVuelo() {
+            return likesEnVuelo.sum() != 0 || vistasEnVuelo.sum() != 0;
+        }
+
+        // Pasa lo acumulado a deltas y a "en vuelo"; false si no había nada. Se
+        // publica en vuelo antes de restarlo del acumulado para que una lectura
+        // concurrente nunca se quede sin él
+        private boolean vaciarEn(Map<Integer, long[]> deltas, List<Vaciado> vaciados) {
+            long deltaLikes = likes.sum();
+            long deltaVistas = vistas.sum();
+            if (deltaLikes == 0 && deltaVistas == 0) {
+                return false;
+            }
+            likesEnVuelo.add(deltaLikes);
+            vistasEnVuelo.add(deltaVistas);
+            likes.add(-deltaLikes);
+            vistas.add(-deltaVistas);
+            vaciados.add(new Vaciado(this, deltaLikes, deltaVistas));
+            long[] delta = deltas.computeIfAbsent(recetaId, id -> new long[2]);
+            delta[0] += deltaLikes;
+            delta[1] += deltaVistas;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.repositories.RecetaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Reconciliación de los contadores desnormalizados de recetas (likes,
+// calificaciones y comentarios). Los borrados en cascada de usuarios o recetas
+// no pasan por RecetaService, así que los contadores pueden desviarse; este
+// proceso los recalcula desde las tablas de origen por tramos de IDs.
+@Service
+public class ContadoresRecetaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContadoresRecetaService.class);
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @Value("${recetas.contadores.reconciliacion.tamanoTramo:1000}")
+    private int tamanoTramo;
+
+    @Scheduled(cron = "${recetas.contadores.reconciliacion.cron:0 30 3 * * *}")
+    public void reconciliacionProgramada() {
+        int corregidas = reconciliarContadores();
+        if (corregidas > 0) {
+            logger.warn("Reconciliación de contadores: {} recetas corregidas", corregidas);
+        } else {
+            logger.info("Reconciliación de contadores: sin desviaciones");
+        }
+    }
+
+    // Devuelve el número de recetas cuyos contadores se han corregido. Cada tramo
+    // va en su propia transacción para no bloquear la tabla entera
+    public int reconciliarContadores() {
+        Integer maxId = recetaRepository.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int corregidas = 0;
+        for (int desde = 1; desde <= maxId; desde += tamanoTramo) {
+            int desdeId = desde;
+            int hastaId = desde + tamanoTramo - 1;
+            // Con el volcado detenido y lo pendiente ya volcado: si no, un volcado
+            // intermedio sumaría otra vez likes que el recálculo ya ha contado
+            Integer filas = contadoresDiferidosService.conVolcadoDetenido(() -> transactionTemplate.execute(status -> {
+                int corregidasTramo = recetaRepository.reconciliarContadores(desdeId, hastaId);
+                // Likes confirmados mientras tanto: ya están en recetas_likes y
+                // siguen en el buffer, así que se descuentan del recálculo
+                contadoresDiferidosService.likesPendientes(desdeId, hastaId)
+                        .forEach((id, likes) -> recetaRepository.incrementarLikes(id, -likes));
+                return corregidasTramo;
+            }));
+            corregidas += filas != null ? filas : 0;
+        }
+        return corregidas;
+    }
+}
@@ -0,0 +1,98 @@
+package com.recetas.backend.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Caché de corta duración para los COUNT de los listados paginados. Los
+// listados se consultan como Slice (sin COUNT) y, cuando el cliente necesita el
+// total, se añade el conteo cacheado por filtro normalizado: una ráfaga de
+// cambios de página reutiliza el mismo COUNT. Los totales pueden ir hasta
+// ttlSegundos por detrás de los datos.
+@Component
+public class ConteoCache {
+
+    private final ConcurrentHashMap<String, Entrada> conteos = new ConcurrentHashMap<>();
+    private final int maxEntradas;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    @Autowired
+    public ConteoCache(MeterRegistry meterRegistry,
+            @Value("${recetas.cache.conteos.maxEntradas:10000}") int maxEntradas,
+            @Value("${recetas.cache.conteos.ttlSegundos:30}") long ttlSegundos) {
+        this(meterRegistry, maxEntradas, TimeUnit.SECONDS.toNanos(ttlSegundos), System::nanoTime);
+    }
+
+    ConteoCache(MeterRegistry meterRegistry, int maxEntradas, long ttlNanos, LongSupplier reloj) {
+        this.maxEntradas = maxEntradas;
+        this.ttlNanos = ttlNanos;
+        this.reloj = reloj;
+
+        this.aciertos = Counter.builder("recetas.cache.conteos.peticiones").tag("resultado", "acierto")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("recetas.cache.conteos.peticiones").tag("resultado", "fallo")
+                .register(meterRegistry);
+        Gauge.builder("recetas.cache.conteos.entradas", conteos, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    // Convierte un Slice en Page con el total cacheado. El COUNT solo se ejecuta
+    // si no se puede deducir de la propia página (p. ej. la última)
+    public <T> Page<T> pagina(Slice<T> slice, String clave, LongSupplier contador) {
+        return PageableExecutionUtils.getPage(slice.getContent(), slice.getPageable(), () -> get(clave, contador));
+    }
+
+    public long get(String clave, LongSupplier contador) {
+        long ahora = reloj.getAsLong();
+        Entrada entrada = conteos.get(clave);
+        if (entrada != null && ahora - entrada.creada < ttlNanos) {
+            aciertos.increment();
+            return entrada.valor;
+        }
+        fallos.increment();
+
+        long valor = contador.getAsLong();
+        if (conteos.size() >= maxEntradas) {
+            conteos.values().removeIf(e -> ahora - e.creada >= ttlNanos);
+            if (conteos.size() >= maxEntradas) {
+                conteos.clear();
+            }
+        }
+        conteos.put(clave, new Entrada(valor, ahora));
+        return valor;
+    }
+
+    public void invalidar(String clave) {
+        conteos.remove(clave);
+    }
+
+    // Clave normalizada: tipo de listado más los valores de filtro en minúsculas
+    // y sin espacios sobrantes, para que "Pollo " y "pollo" compartan conteo
+    public static String clave(String listado, Object... filtros) {
+        StringBuilder clave = new StringBuilder(listado);
+        for (Object filtro : filtros) {
+            clave.append('|');
+            if (filtro != null) {
+                clave.append(filtro.toString().trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return clave.toString();
+    }
+
+    private record Entrada(long valor, long creada) {
+    }
+}
@@ -0,0 +1,261 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.models.Categoria;
+import com.recetas.backend.models.Ingrediente;
+import com.recetas.backend.models.Rol;
+import com.recetas.backend.repositories.CategoriaRepository;
+import com.recetas.backend.repositories.IngredienteRepository;
+import com.recetas.backend.repositories.RolRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+// Datos de referencia (categorías, ingredientes y roles) en memoria: tablas
+// pequeñas que casi nunca cambian y que se leían fila a fila al crear recetas, al
+// registrar usuarios y en los listados públicos. Se cargan al arrancar en una
+// instantánea inmutable que se sustituye entera tras cada commit de
+// CategoriaService/IngredienteService (CategoriaModificadaEvent,
+// IngredienteModificadoEvent) y periódicamente, para recoger cambios hechos por
+// otras vías. Las entidades que se devuelven son copias desconectadas nuevas en
+// cada llamada; un ID que no esté en la instantánea se busca en la base de datos.
+@Component
+public class DatosReferenciaCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatosReferenciaCache.class);
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private IngredienteRepository ingredienteRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private TransaccionesAisladas transacciones;
+
+    private final AtomicReference<Instantanea> instantanea = new AtomicReference<>();
+
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    @Autowired
+    public DatosReferenciaCache(MeterRegistry meterRegistry) {
+        this.aciertos = Counter.builder("recetas.cache.referencias.peticiones").tag("resultado", "acierto")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("recetas.cache.referencias.peticiones").tag("resultado", "fallo")
+                .register(meterRegistry);
+    }
+
+    // Contenido de la caché en un momento dado. Las versiones son un hash del
+    // contenido de cada lista, así que coinciden entre reinicios e instancias
+    public record Instantanea(Map<Integer, Categoria> categorias, Map<String, Integer> categoriasPorNombre,
+            Map<Integer, Ingrediente> ingredientes, Map<String, Integer> ingredientesPorNombre,
+            Map<String, Rol> roles, long versionCategorias, long versionIngredientes) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+    }
+
+    @Scheduled(cron = "${recetas.cache.referencias.cron:0 */10 * * * *}")
+    public Instantanea recargar() {
+        long inicio = System.nanoTime();
+        Instantanea nueva = transacciones.leer(this::leer);
+        instantanea.set(nueva);
+        logger.debug("Datos de referencia cargados: {} categorías, {} ingredientes, {} roles en {} ms",
+                nueva.categorias().size(), nueva.ingredientes().size(), nueva.roles().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        return nueva;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriaModificada(CategoriaModificadaEvent event) {
+        recargar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredienteModificado(IngredienteModificadoEvent event) {
+        recargar();
+    }
+
+    public Instantanea getInstantanea() {
+        Instantanea actual = instantanea.get();
+        return actual != null ? actual : recargar();
+    }
+
+    // Página del listado ordenado por ID; solo se copian las entidades de la página
+    public Page<Categoria> getCategorias(Pageable pageable) {
+        return pagina(getInstantanea().categorias().values(), pageable, DatosReferenciaCache::copia);
+    }
+
+    public Page<Ingrediente> getIngredientes(Pageable pageable) {
+        return pagina(getInstantanea().ingredientes().values(), pageable, DatosReferenciaCache::copia);
+    }
+
+    public long getVersionCategorias() {
+        return getInstantanea().versionCategorias();
+    }
+
+    public long getVersionIngredientes() {
+        return getInstantanea().versionIngredientes();
+    }
+
+    public Optional<Categoria> getCategoria(Integer id) {
+        return Optional.ofNullable(getCategorias(List.of(id)).get(id));
+    }
+
+    public Optional<Ingrediente> getIngrediente(Integer id) {
+        return Optional.ofNullable(getIngredientes(List.of(id)).get(id));
+    }
+
+    // Categorías por ID; las que no estén en la instantánea se leen de la base de
+    // datos en una sola consulta. Las que no existan no aparecen en el mapa
+    public Map<Integer, Categoria> getCategorias(Collection<Integer> ids) {
+        Map<Integer, Categoria> cacheadas = getInstantanea().categorias();
+        Map<Integer, Categoria> porId = new HashMap<>();
+        Set<Integer> faltan = new HashSet<>();
+        for (Integer id : ids) {
+            Categoria categoria = cacheadas.get(id);
+            if (categoria != null) {
+                porId.put(id, copia(categoria));
+            } else {
+                faltan.add(id);
+            }
+        }
+        contar(ids.size() - faltan.size(), faltan.size());
+        if (!faltan.isEmpty()) {
+            categoriaRepository.findAllById(faltan).forEach(categoria -> porId.put(categoria.getId(), categoria));
+        }
+        return porId;
+    }
+
+    public Map<Integer, Ingrediente> getIngredientes(Collection<Integer> ids) {
+        Map<Integer, Ingrediente> cacheados = getInstantanea().ingredientes();
+        Map<Integer, Ingrediente> porId = new HashMap<>();
+        Set<Integer> faltan = new HashSet<>();
+        for (Integer id : ids) {
+            Ingrediente ingrediente = cacheados.get(id);
+            if (ingrediente != null) {
+                porId.put(id, copia(ingrediente));
+            } else {
+                faltan.add(id);
+            }
+        }
+        contar(ids.size() - faltan.size(), faltan.size());
+        if (!faltan.isEmpty()) {
+            ingredienteRepository.findAllById(faltan).forEach(ingrediente -> porId.put(ingrediente.getId(), ingrediente));
+        }
+        return porId;
+    }
+
+    // ID por nombre, sin distinguir mayúsculas ni espacios en los extremos. Un
+    // nombre que no esté en la instantánea se busca en la base de datos
+    public Optional<Integer> getCategoriaId(String nombre) {
+        Integer id = getInstantanea().categoriasPorNombre().get(normalizar(nombre));
+        if (id != null) {
+            contar(1, 0);
+            return Optional.of(id);
+        }
+        contar(0, 1);
+        return categoriaRepository.findFirstByNombreIgnoreCase(nombre.trim()).map(Categoria::getId);
+    }
+
+    public Optional<Integer> getIngredienteId(String nombre) {
+        Integer id = getInstantanea().ingredientesPorNombre().get(normalizar(nombre));
+        if (id != null) {
+            contar(1, 0);
+            return Optional.of(id);
+        }
+        contar(0, 1);
+        return ingredienteRepository.findFirstByNombreIgnoreCase(nombre.trim()).map(Ingrediente::getId);
+    }
+
+    public Optional<Rol> getRol(String nombre) {
+        Rol rol = getInstantanea().roles().get(nombre);
+        if (rol != null) {
+            contar(1, 0);
+            return Optional.of(new Rol(rol.getId(), rol.getNombre()));
+        }
+        contar(0, 1);
+        return rolRepository.findByNombre(nombre);
+    }
+
+    public static String normalizar(String nombre) {
+        return nombre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Instantanea leer() {
+        Map<Integer, Categoria> categorias = new LinkedHashMap<>();
+        Map<String, Integer> categoriasPorNombre = new HashMap<>();
+        long versionCategorias = 1;
+        for (Categoria categoria : categoriaRepository.findAll(Sort.by("id"))) {
+            categorias.put(categoria.getId(), copia(categoria));
+            categoriasPorNombre.put(normalizar(categoria.getNombre()), categoria.getId());
+            versionCategorias = 31 * (31 * versionCategorias + categoria.getId()) + categoria.getNombre().hashCode();
+        }
+        Map<Integer, Ingrediente> ingredientes = new LinkedHashMap<>();
+        Map<String, Integer> ingredientesPorNombre = new HashMap<>();
+        long versionIngredientes = 1;
+        for (Ingrediente ingrediente : ingredienteRepository.findAll(Sort.by("id"))) {
+            ingredientes.put(ingrediente.getId(), copia(ingrediente));
+            ingredientesPorNombre.put(normalizar(ingrediente.getNombre()), ingrediente.getId());
+            versionIngredientes = 31 * (31 * versionIngredientes + ingrediente.getId())
+                    + ingrediente.getNombre().hashCode();
+        }
+        Map<String, Rol> roles = new HashMap<>();
+        for (Rol rol : rolRepository.findAll()) {
+            roles.put(rol.getNombre(), new Rol(rol.getId(), rol.getNombre()));
+        }
+        return new Instantanea(Collections.unmodifiableMap(categorias), Map.copyOf(categoriasPorNombre),
+                Collections.unmodifiableMap(ingredientes), Map.copyOf(ingredientesPorNombre),
+                Map.copyOf(roles), versionCategorias, versionIngredientes);
+    }
+
+    private static <T> Page<T> pagina(Collection<T> todos, Pageable pageable, UnaryOperator<T> copia) {
+        List<T> contenido = todos.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).map(copia).toList();
+        return new PageImpl<>(contenido, pageable, todos.size());
+    }
+
+    private void contar(int acertadas, int falladas) {
+        aciertos.increment(acertadas);
+        fallos.increment(falladas);
+    }
+
+    // Copias sin la colección inversa: nunca se comparte una instancia de la
+    // instantánea con el contexto de persistencia de una petición
+    private static Categoria copia(Categoria categoria) {
+        return new Categoria(categoria.getId(), categoria.getNombre(), new HashSet<>());
+    }
+
+    private static Ingrediente copia(Ingrediente ingrediente) {
+        return new Ingrediente(ingrediente.getId(), ingrediente.getNombre(), new HashSet<>());
+    }
+}
@@ -0,0 +1,239 @@
+package com.recetas.backend.services;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.recetas.backend.dtos.CategoriaDto;
+import com.recetas.backend.dtos.IngredienteDto;
+import com.recetas.backend.dtos.PasoDto;
+import com.recetas.backend.dtos.RecetaDto;
+import com.recetas.backend.dtos.RecetaIngredienteDto;
+import com.recetas.backend.dtos.UsuarioDto;
+import com.recetas.backend.models.Receta.Dificultad;
+import com.recetas.backend.repositories.RecetaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Exportación del catálogo completo (recetas con pasos, ingredientes y
+// categorías) en NDJSON o CSV comprimido con gzip sobre la marcha, para
+// analítica. Se lee con JDBC por tramos de IDs, sin entidades ni contexto de
+// persistencia, y cada tramo se escribe y se descarta antes de leer el
+// siguiente: la memoria depende de tamanoTramo y no del tamaño del catálogo.
+// El NDJSON usa el formato de RecetaDto, así que se puede volver a importar
+// con ImportacionRecetasService.
+@Service
+public class ExportacionRecetasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionRecetasService.class);
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    private static final String SELECT_RECETAS = "SELECT r.id, r.titulo, r.descripcion, r.tiempo_preparacion, "
+            + "r.dificultad, r.porciones, r.url_imagen, r.fecha_creacion, r.usuario_id, u.nombre_usuario, "
+            + "r.like_count, r.rating_sum, r.rating_count, r.comment_count "
+            + "FROM recetas r JOIN usuarios u ON u.id = r.usuario_id WHERE r.id BETWEEN ? AND ? ORDER BY r.id";
+    private static final String SELECT_PASOS = "SELECT receta_id, orden, descripcion FROM pasos "
+            + "WHERE receta_id BETWEEN ? AND ? ORDER BY receta_id, orden";
+    private static final String SELECT_INGREDIENTES = "SELECT ri.receta_id, ri.ingrediente_id, i.nombre, ri.cantidad "
+            + "FROM receta_ingredientes ri JOIN ingredientes i ON i.id = ri.ingrediente_id "
+            + "WHERE ri.receta_id BETWEEN ? AND ? ORDER BY ri.receta_id, ri.ingrediente_id";
+    private static final String SELECT_CATEGORIAS = "SELECT rc.receta_id, rc.categoria_id, c.nombre "
+            + "FROM receta_categorias rc JOIN categorias c ON c.id = rc.categoria_id "
+            + "WHERE rc.receta_id BETWEEN ? AND ? ORDER BY rc.receta_id, rc.categoria_id";
+    private static final String CABECERA_CSV = "id,titulo,descripcion,tiempo_preparacion,dificultad,porciones,"
+            + "url_imagen,fecha_creacion,usuario_id,nombre_usuario,total_likes,total_calificaciones,"
+            + "calificacion_media,total_comentarios,categorias,ingredientes,pasos";
+
+    public enum FormatoExportacion {
+        NDJSON, CSV
+    }
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @Value("${recetas.exportacion.tamanoTramo:1000}")
+    private int tamanoTramo;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectWriter escritorJson;
+    private final Timer exportaciones;
+
+    @Autowired
+    public ExportacionRecetasService(DataSource dataSource, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${recetas.exportacion.fetchSize:500}") int fetchSize) {
+        // Plantilla propia: el fetch size hace que el driver lea las filas por
+        // bloques en lugar de cargar todo el resultado de golpe
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.escritorJson = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .writerFor(RecetaDto.class);
+        this.exportaciones = Timer.builder("recetas.exportacion.duracion").register(meterRegistry);
+    }
+
+    // Escribe el catálogo comprimido en salida; no la cierra (es la respuesta HTTP)
+    public void exportar(FormatoExportacion formato, OutputStream salida) throws IOException {
+        long inicio = System.nanoTime();
+        // Los likes pendientes del buffer se vuelcan antes para que el fichero los incluya
+        contadoresDiferidosService.volcar();
+        GZIPOutputStream gzip = new GZIPOutputStream(salida, TAMANO_BUFFER);
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), TAMANO_BUFFER);
+        if (formato == FormatoExportacion.CSV) {
+            escritor.write(CABECERA_CSV);
+            escritor.write('\n');
+        }
+
+        long recetas = 0;
+        Integer maxId = recetaRepository.findMaxId();
+        if (maxId != null) {
+            for (int desde = 1; desde <= maxId; desde += tamanoTramo) {
+                for (RecetaDto receta : cargarTramo(desde, desde + tamanoTramo - 1)) {
+                    if (formato == FormatoExportacion.CSV) {
+                        escribirCsv(receta, escritor);
+                    } else {
+                        escritor.write(escritorJson.writeValueAsString(receta));
+                        escritor.write('\n');
+                    }
+                    recetas++;
+                }
+            }
+        }
+        escritor.flush();
+        gzip.finish();
+
+        long duracion = System.nanoTime() - inicio;
+        exportaciones.record(duracion, TimeUnit.NANOSECONDS);
+        logger.info("Exportación {} terminada: {} recetas en {} ms", formato, recetas,
+                TimeUnit.NANOSECONDS.toMillis(duracion));
+    }
+
+    // Recetas del tramo con sus pasos, ingredientes y categorías (cuatro consultas)
+    private List<RecetaDto> cargarTramo(int desdeId, int hastaId) {
+        Map<Integer, RecetaDto> porId = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_RECETAS, rs -> {
+            RecetaDto receta = new RecetaDto();
+            receta.setId(rs.getInt("id"));
+            receta.setTitulo(rs.getString("titulo"));
+            receta.setDescripcion(rs.getString("descripcion"));
+            receta.setTiempoPreparacion(rs.getInt("tiempo_preparacion"));
+            receta.setDificultad(Dificultad.valueOf(rs.getString("dificultad")));
+            receta.setPorciones(rs.getInt("porciones"));
+            receta.setUrlImagen(rs.getString("url_imagen"));
+            receta.setFechaCreacion(rs.getTimestamp("fecha_creacion").toLocalDateTime());
+            UsuarioDto usuario = new UsuarioDto();
+            usuario.setId(rs.getInt("usuario_id"));
+            usuario.setNombreUsuario(rs.getString("nombre_usuario"));
+            receta.setUsuario(usuario);
+            receta.setTotalLikes(rs.getLong("like_count"));
+            receta.setTotalCalificaciones(rs.getLong("rating_count"));
+            receta.setCalificacionMedia(RecetaDto.calcularMedia(rs.getLong("rating_sum"), rs.getLong("rating_count")));
+            receta.setTotalComentarios(rs.getLong("comment_count"));
+            receta.setCategorias(new ArrayList<>());
+            receta.setPasos(new ArrayList<>());
+            receta.setIngredientes(new ArrayList<>());
+            porId.put(receta.getId(), receta);
+        }, desdeId, hastaId);
+        if (porId.isEmpty()) {
+            return List.of();
+        }
+
+        jdbcTemplate.query(SELECT_PASOS, rs -> {
+            RecetaDto receta = porId.get(rs.getInt("receta_id"));
+            if (receta != null) {
+                PasoDto paso = new PasoDto();
+                paso.setOrden(rs.getInt("orden"));
+                paso.setDescripcion(rs.getString("descripcion"));
+                receta.getPasos().add(paso);
+            }
+        }, desdeId, hastaId);
+        jdbcTemplate.query(SELECT_INGREDIENTES, rs -> {
+            RecetaDto receta = porId.get(rs.getInt("receta_id"));
+            if (receta != null) {
+                IngredienteDto ingrediente = new IngredienteDto();
+                ingrediente.setId(rs.getInt("ingrediente_id"));
+                ingrediente.setNombre(rs.getString("nombre"));
+                RecetaIngredienteDto recetaIngrediente = new RecetaIngredienteDto();
+                recetaIngrediente.setIngredienteId(ingrediente.getId());
+                recetaIngrediente.setCantidad(rs.getString("cantidad"));
+                recetaIngrediente.setIngrediente(ingrediente);
+                receta.getIngredientes().add(recetaIngrediente);
+            }
+        }, desdeId, hastaId);
+        jdbcTemplate.query(SELECT_CATEGORIAS, rs -> {
+            RecetaDto receta = porId.get(rs.getInt("receta_id"));
+            if (receta != null) {
+                CategoriaDto categoria = new CategoriaDto();
+                categoria.setId(rs.getInt("categoria_id"));
+                categoria.setNombre(rs.getString("nombre"));
+                receta.getCategorias().add(categoria);
+            }
+        }, desdeId, hastaId);
+        return new ArrayList<>(porId.values());
+    }
+
+    // Una fila por receta; las listas van en una sola columna separadas por "|"
+    // (ingredientes como nombre=cantidad) y los pasos uno por línea
+    private void escribirCsv(RecetaDto receta, Writer escritor) throws IOException {
+        StringJoiner categorias = new StringJoiner("|");
+        receta.getCategorias().forEach(categoria -> categorias.add(categoria.getNombre()));
+        StringJoiner ingredientes = new StringJoiner("|");
+        receta.getIngredientes().forEach(ingrediente -> ingredientes.add(ingrediente.getIngrediente().getNombre()
+                + "=" + ingrediente.getCantidad()));
+        StringJoiner pasos = new StringJoiner("\n");
+        receta.getPasos().forEach(paso -> pasos.add(paso.getOrden() + ". " + paso.getDescripcion()));
+
+        StringJoiner fila = new StringJoiner(",");
+        fila.add(String.valueOf(receta.getId()));
+        fila.add(csv(receta.getTitulo()));
+        fila.add(csv(receta.getDescripcion()));
+        fila.add(String.valueOf(receta.getTiempoPreparacion()));
+        fila.add(csv(receta.getDificultad().name()));
+        fila.add(String.valueOf(receta.getPorciones()));
+        fila.add(csv(receta.getUrlImagen()));
+        fila.add(receta.getFechaCreacion().toString());
+        fila.add(String.valueOf(receta.getUsuario().getId()));
+        fila.add(csv(receta.getUsuario().getNombreUsuario()));
+        fila.add(String.valueOf(receta.getTotalLikes()));
+        fila.add(String.valueOf(receta.getTotalCalificaciones()));
+        fila.add(receta.getCalificacionMedia() != null ? String.valueOf(receta.getCalificacionMedia()) : "");
+        fila.add(String.valueOf(receta.getTotalComentarios()));
+        fila.add(csv(categorias.toString()));
+        fila.add(csv(ingredientes.toString()));
+        fila.add(csv(pasos.toString()));
+        escritor.write(fila.toString());
+        escritor.write('\n');
+    }
+
+    // Campo CSV (RFC 4180): entre comillas si lleva comas, comillas o saltos de línea
+    static String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
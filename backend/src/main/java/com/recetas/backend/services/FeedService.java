@@ -0,0 +1,207 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.CursorPageDto;
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.repositories.EntradaFeedRepository;
+import com.recetas.backend.repositories.RecetaRepository;
+import com.recetas.backend.repositories.RecetaSpecifications;
+import com.recetas.backend.repositories.ReferenciaFeed;
+import com.recetas.backend.repositories.SeguidorRepository;
+import com.recetas.backend.repositories.UsuarioRepository;
+import com.recetas.backend.utils.FeedCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Feed de recetas de los usuarios seguidos (GET /api/feed) con un modelo híbrido.
+// Las recetas de los autores normales se copian al publicarse a feed_entradas de
+// cada seguidor con un INSERT ... SELECT (fan-out en escritura), así que el feed
+// es un rango del índice (usuario_id, fecha_creacion, receta_id) aunque se sigan
+// miles de autores. Los autores masivos (a partir de umbralSeguidores) no se
+// copian, para no escribir cientos de miles de filas por receta: sus recetas se
+// leen de `recetas` al servir el feed y se mezclan por fecha (fan-out en
+// lectura). Son pocos, así que sus IDs se tienen en memoria y solo se pregunta
+// cuáles de ellos sigue el usuario. Un autor deja de ser masivo por debajo de la
+// mitad del umbral, para no cambiar de modelo con cada seguidor.
+@Service
+public class FeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedService.class);
+
+    @Autowired
+    private EntradaFeedRepository entradaFeedRepository;
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @Autowired
+    private SeguidorRepository seguidorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TransaccionesAisladas transacciones;
+
+    @Value("${recetas.feed.umbralSeguidores:10000}")
+    private int umbralSeguidores;
+
+    private final Set<Integer> autoresMasivos = ConcurrentHashMap.newKeySet();
+
+    // Se relee periódicamente por si otra instancia ha cambiado algún autor de modelo
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${recetas.feed.masivos.cron:0 * * * * *}")
+    public void cargarAutoresMasivos() {
+        List<Integer> ids = leer(usuarioRepository::findIdsFeedMasivo);
+        autoresMasivos.retainAll(ids);
+        autoresMasivos.addAll(ids);
+        logger.debug("Autores con feed masivo: {}", autoresMasivos.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecetaPublicada(RecetaPublicadaEvent event) {
+        escribir(() -> {
+            // El modelo se consulta en la base de datos: la copia en memoria puede ir por detrás
+            if (!usuarioRepository.findFeedMasivoById(event.autorId()).orElse(true)) {
+                entradaFeedRepository.repartirReceta(event.recetaId());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecetasImportadas(RecetasImportadasEvent event) {
+        escribir(() -> {
+            if (!usuarioRepository.findFeedMasivoById(event.autorId()).orElse(true)) {
+                entradaFeedRepository.repartirRecetas(event.recetaIds());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeguimiento(SeguimientoEvent event) {
+        Integer seguidoId = event.seguidoId();
+        if (event.sigue()) {
+            escribir(() -> {
+                if (usuarioRepository.marcarFeedMasivo(seguidoId, umbralSeguidores) == 1) {
+                    autoresMasivos.add(seguidoId);
+                    logger.info("El usuario {} pasa a feed masivo", seguidoId);
+                } else if (!usuarioRepository.findFeedMasivoById(seguidoId).orElse(true)) {
+                    entradaFeedRepository.copiarRecetasDeAutor(event.seguidorId(), seguidoId);
+                }
+            });
+        } else {
+            escribir(() -> {
+                entradaFeedRepository.deleteByUsuarioIdAndAutorId(event.seguidorId(), seguidoId);
+                if (usuarioRepository.desmarcarFeedMasivo(seguidoId, umbralSeguidores / 2) == 1) {
+                    // Sus recetas de la etapa masiva no están copiadas en ningún feed
+                    entradaFeedRepository.repartirAutor(seguidoId);
+                    autoresMasivos.remove(seguidoId);
+                    logger.info("El usuario {} vuelve a feed normal", seguidoId);
+                }
+            });
+        }
+    }
+
+    // Página del feed del usuario: se pide un elemento de más a cada fuente para
+    // saber si hay página siguiente, y se mezclan por (fecha_creacion, id)
+    public CursorPageDto<RecetaSummaryDto> getFeed(Integer usuarioId, String after, int size) {
+        FeedCursor cursor = after == null || after.isBlank() ? null : FeedCursor.decode(after);
+        Limit limit = Limit.of(size + 1);
+        List<ReferenciaFeed> copiadas = cursor == null
+                ? entradaFeedRepository.findFeedInicio(usuarioId, limit)
+                : entradaFeedRepository.findFeedDespuesDe(usuarioId, cursor.fecha(), cursor.id(), limit);
+
+        List<ReferenciaFeed> masivas = List.of();
+        if (!autoresMasivos.isEmpty()) {
+            List<Integer> seguidos = seguidorRepository.findSeguidosEntre(usuarioId, Set.copyOf(autoresMasivos));
+            if (!seguidos.isEmpty()) {
+                masivas = cursor == null
+                        ? recetaRepository.findFeedAutoresInicio(seguidos, limit)
+                        : recetaRepository.findFeedAutoresDespuesDe(seguidos, cursor.fecha(), cursor.id(), limit);
+            }
+        }
+
+        List<ReferenciaFeed> referencias = mezclar(copiadas, masivas, size + 1);
+        String nextCursor = null;
+        if (referencias.size() > size) {
+            referencias = referencias.subList(0, size);
+            ReferenciaFeed ultima = referencias.get(size - 1);
+            nextCursor = new FeedCursor(ultima.getFechaCreacion(), ultima.getRecetaId()).encode();
+        }
+        return new CursorPageDto<>(cargarResumenes(referencias), nextCursor);
+    }
+
+    // Mezcla dos listas ya ordenadas de más reciente a más antigua. Una receta
+    // puede estar en las dos si su autor ha cambiado de modelo: se toma una vez
+    static List<ReferenciaFeed> mezclar(List<ReferenciaFeed> a, List<ReferenciaFeed> b, int limite) {
+        List<ReferenciaFeed> resultado = new ArrayList<>(Math.min(limite, a.size() + b.size()));
+        Set<Integer> vistas = new HashSet<>();
+        int i = 0;
+        int j = 0;
+        while (resultado.size() < limite && (i < a.size() || j < b.size())) {
+            ReferenciaFeed siguiente;
+            if (j >= b.size() || (i < a.size() && compararDesc(a.get(i), b.get(j)) <= 0)) {
+                siguiente = a.get(i++);
+            } else {
+                siguiente = b.get(j++);
+            }
+            if (vistas.add(siguiente.getRecetaId())) {
+                resultado.add(siguiente);
+            }
+        }
+        return resultado;
+    }
+
+    private static int compararDesc(ReferenciaFeed x, ReferenciaFeed y) {
+        int porFecha = y.getFechaCreacion().compareTo(x.getFechaCreacion());
+        return porFecha != 0 ? porFecha : Integer.compare(y.getRecetaId(), x.getRecetaId());
+    }
+
+    private List<RecetaSummaryDto> cargarResumenes(List<ReferenciaFeed> referencias) {
+        if (referencias.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> ids = referencias.stream().map(ReferenciaFeed::getRecetaId).toList();
+        Map<Integer, RecetaSummaryDto> porId = new HashMap<>();
+        for (RecetaSummaryDto resumen : recetaRepository.findResumen(RecetaSpecifications.conIds(ids),
+                PageRequest.of(0, ids.size())).getContent()) {
+            porId.put(resumen.getId(), contadoresDiferidosService.conLikesPendientes(resumen));
+        }
+        List<RecetaSummaryDto> resumenes = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            // Puede haberse borrado entre las dos consultas
+            if (porId.containsKey(id)) {
+                resumenes.add(porId.get(id));
+            }
+        }
+        return resumenes;
+    }
+
+    private void escribir(Runnable cambio) {
+        transacciones.escribir(cambio);
+    }
+
+    private <T> T leer(Supplier<T> consulta) {
+        return transacciones.leer(consulta);
+    }
+}
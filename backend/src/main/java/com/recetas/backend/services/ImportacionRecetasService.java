@@ -0,0 +1,366 @@
+package com.recetas.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recetas.backend.dtos.CategoriaDto;
+import com.recetas.backend.dtos.PasoDto;
+import com.recetas.backend.dtos.RecetaDto;
+import com.recetas.backend.dtos.RecetaIngredienteDto;
+import com.recetas.backend.exceptions.ResourceNotFoundException;
+import com.recetas.backend.models.Paso;
+import com.recetas.backend.repositories.UsuarioRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Importación masiva de recetas en NDJSON (una receta con el formato de
+// RecetaDto por línea), p. ej. para sembrar una región nueva. El cuerpo se lee
+// en streaming y las recetas se escriben por lotes de tamanoLote con inserciones
+// JDBC en batch (recetas, pasos, receta_ingredientes y receta_categorias), sin
+// pasar por el contexto de persistencia. Categorías e ingredientes se resuelven
+// por ID o por nombre contra DatosReferenciaCache. Una línea inválida se
+// anota con su número y no detiene la carga; si falla un lote entero se reintenta
+// receta a receta para aislar las que fallan. Cada lote confirmado publica un
+// RecetasImportadasEvent: el feed de los seguidores y los índices en memoria se
+// actualizan con las recetas del lote, sin reconstruirse enteros.
+@Service
+public class ImportacionRecetasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionRecetasService.class);
+
+    private static final int MAX_CANTIDAD = 50;
+    private static final String INSERT_RECETA = "INSERT INTO recetas (titulo, descripcion, tiempo_preparacion, "
+            + "dificultad, porciones, url_imagen, fecha_creacion, usuario_id, like_count, view_count, rating_sum, "
+            + "rating_count, rating_1, rating_2, rating_3, rating_4, rating_5, comment_count) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0)";
+    private static final String INSERT_PASO =
+            "INSERT INTO pasos (id, receta_id, orden, descripcion) VALUES (?, ?, ?, ?)";
+    private static final String SIGUIENTE_BLOQUE_PASOS = "SELECT NEXT VALUE FOR pasos_seq";
+    private static final String INSERT_INGREDIENTE =
+            "INSERT INTO receta_ingredientes (receta_id, ingrediente_id, cantidad) VALUES (?, ?, ?)";
+    private static final String INSERT_CATEGORIA =
+            "INSERT INTO receta_categorias (receta_id, categoria_id) VALUES (?, ?)";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DatosReferenciaCache datosReferenciaCache;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ConteoCache conteoCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${recetas.importacion.tamanoLote:500}")
+    private int tamanoLote;
+
+    @Value("${recetas.importacion.maxErrores:1000}")
+    private int maxErrores;
+
+    private final Counter importadas;
+    private final Counter erroneas;
+
+    @Autowired
+    public ImportacionRecetasService(MeterRegistry meterRegistry) {
+        this.importadas = Counter.builder("recetas.importacion.lineas").tag("resultado", "importada")
+                .register(meterRegistry);
+        this.erroneas = Counter.builder("recetas.importacion.lineas").tag("resultado", "error")
+                .register(meterRegistry);
+    }
+
+    // Importa las recetas del flujo como recetas de usuarioId
+    public ResultadoImportacion importar(InputStream ndjson, Integer usuarioId) {
+        if (!usuarioRepository.existsById(usuarioId)) {
+            throw new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId);
+        }
+        long inicio = System.nanoTime();
+        Progreso progreso = new Progreso();
+
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            List<RecetaImportada> lote = new ArrayList<>(tamanoLote);
+            String linea;
+            long numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                progreso.lineas++;
+                try {
+                    lote.add(leerReceta(numero, linea));
+                } catch (RuntimeException e) {
+                    progreso.error(numero, e.getMessage());
+                    continue;
+                }
+                if (lote.size() >= tamanoLote) {
+                    escribir(lote, usuarioId, progreso);
+                    lote = new ArrayList<>(tamanoLote);
+                }
+            }
+            escribir(lote, usuarioId, progreso);
+        } catch (IOException e) {
+            // El cliente cortó la subida: lo ya escrito se queda y se informa hasta dónde se llegó
+            logger.warn("Importación interrumpida tras {} líneas", progreso.lineas, e);
+            progreso.error(0, "Lectura interrumpida: " + e.getMessage());
+        }
+
+        if (progreso.importadas > 0) {
+            conteoCache.invalidar(ConteoCache.clave("recetas.usuario", usuarioId));
+        }
+        ResultadoImportacion resultado = new ResultadoImportacion(progreso.lineas, progreso.importadas,
+                progreso.erroneas, progreso.errores, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        logger.info("Importación terminada: {} líneas, {} recetas importadas, {} con errores en {} ms",
+                resultado.lineas(), resultado.importadas(), resultado.erroneas(), resultado.milisegundos());
+        return resultado;
+    }
+
+    // Parsea, valida y resuelve una línea. Los errores salen como RuntimeException
+    // con el mensaje que se devuelve al cliente
+    private RecetaImportada leerReceta(long numero, String linea) {
+        RecetaDto dto;
+        try {
+            dto = objectMapper.readValue(linea, RecetaDto.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("JSON inválido: " + e.getOriginalMessage());
+        }
+        validar(dto);
+
+        Set<Integer> categorias = new LinkedHashSet<>();
+        if (dto.getCategorias() != null) {
+            for (CategoriaDto categoria : dto.getCategorias()) {
+                categorias.add(resolver(categoria.getId(), categoria.getNombre(),
+                        id -> datosReferenciaCache.getCategoria(id).isPresent(),
+                        datosReferenciaCache::getCategoriaId, "de la categoría", "Categoría no encontrada"));
+            }
+        }
+        if (dto.getPasos() != null) {
+            for (PasoDto paso : dto.getPasos()) {
+                validar(paso);
+            }
+        }
+        Map<Integer, String> ingredientes = new HashMap<>();
+        if (dto.getIngredientes() != null) {
+            for (RecetaIngredienteDto ingrediente : dto.getIngredientes()) {
+                String nombre = ingrediente.getIngrediente() != null ? ingrediente.getIngrediente().getNombre() : null;
+                Integer id = resolver(ingrediente.getIngredienteId(), nombre,
+                        ingredienteId -> datosReferenciaCache.getIngrediente(ingredienteId).isPresent(),
+                        datosReferenciaCache::getIngredienteId, "del ingrediente", "Ingrediente no encontrado");
+                String cantidad = ingrediente.getCantidad();
+                if (cantidad == null || cantidad.isBlank()) {
+                    throw new RuntimeException("La cantidad no puede estar vacía (ingrediente " + id + ")");
+                }
+                if (cantidad.length() > MAX_CANTIDAD) {
+                    throw new RuntimeException("La cantidad no puede exceder los " + MAX_CANTIDAD
+                            + " caracteres (ingrediente " + id + ")");
+                }
+                if (ingredientes.put(id, cantidad) != null) {
+                    throw new RuntimeException("Ingrediente repetido: " + id);
+                }
+            }
+        }
+        return new RecetaImportada(numero, dto, categorias, ingredientes);
+    }
+
+    private void validar(Object dto) {
+        Set<ConstraintViolation<Object>> violaciones = validator.validate(dto);
+        if (!violaciones.isEmpty()) {
+            throw new RuntimeException(violaciones.iterator().next().getMessage());
+        }
+    }
+
+    private Integer resolver(Integer id, String nombre, Predicate<Integer> existe,
+            Function<String, Optional<Integer>> porNombre, String deReferencia, String noEncontrado) {
+        if (id != null) {
+            if (!existe.test(id)) {
+                throw new RuntimeException(noEncontrado + " con ID: " + id);
+            }
+            return id;
+        }
+        if (nombre == null) {
+            throw new RuntimeException("Falta el id o el nombre " + deReferencia);
+        }
+        return porNombre.apply(nombre)
+                .orElseThrow(() -> new RuntimeException(noEncontrado + ": " + nombre));
+    }
+
+    // Escribe el lote en una transacción; si falla, receta a receta en
+    // transacciones propias para que solo se pierdan las que fallan
+    private void escribir(List<RecetaImportada> lote, Integer usuarioId, Progreso progreso) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> insertar(lote, usuarioId));
+            progreso.importadas(lote.size());
+        } catch (RuntimeException e) {
+            logger.warn("Falló el lote de {} recetas desde la línea {}; se reintenta receta a receta", lote.size(),
+                    lote.get(0).linea(), e);
+            for (RecetaImportada receta : lote) {
+                try {
+                    new TransactionTemplate(transactionManager)
+                            .executeWithoutResult(status -> insertar(List.of(receta), usuarioId));
+                    progreso.importadas(1);
+                } catch (RuntimeException errorReceta) {
+                    // Primera línea del error de la base de datos, sin la sentencia SQL
+                    String mensaje = String.valueOf(NestedExceptionUtils.getMostSpecificCause(errorReceta).getMessage());
+                    progreso.error(receta.linea(), mensaje.lines().findFirst().orElse(mensaje));
+                }
+            }
+        }
+        logger.info("Importación en curso: {} líneas leídas, {} recetas importadas, {} con errores",
+                progreso.lineas, progreso.importadas, progreso.erroneas);
+    }
+
+    private void insertar(List<RecetaImportada> lote, Integer usuarioId) {
+        int[] ids = insertarRecetas(lote, usuarioId);
+
+        List<Object[]> pasos = new ArrayList<>();
+        List<Object[]> ingredientes = new ArrayList<>();
+        List<Object[]> categorias = new ArrayList<>();
+        for (int i = 0; i < lote.size(); i++) {
+            RecetaImportada receta = lote.get(i);
+            int recetaId = ids[i];
+            if (receta.dto().getPasos() != null) {
+                for (PasoDto paso : receta.dto().getPasos()) {
+                    pasos.add(new Object[] { null, recetaId, paso.getOrden(), paso.getDescripcion() });
+                }
+            }
+            receta.ingredientes().forEach((id, cantidad) -> ingredientes.add(new Object[] { recetaId, id, cantidad }));
+            receta.categorias().forEach(id -> categorias.add(new Object[] { recetaId, id }));
+        }
+        asignarIdsPasos(pasos);
+        jdbcTemplate.batchUpdate(INSERT_PASO, pasos);
+        jdbcTemplate.batchUpdate(INSERT_INGREDIENTE, ingredientes);
+        jdbcTemplate.batchUpdate(INSERT_CATEGORIA, categorias);
+        // Los oyentes lo reciben tras el commit del lote; si se deshace, no llega
+        eventPublisher.publishEvent(new RecetasImportadasEvent(Arrays.stream(ids).boxed().toList(), usuarioId));
+    }
+
+    // IDs de pasos_seq con la misma reserva por bloques que Hibernate (Paso): cada
+    // valor de la secuencia cubre los BLOQUE_IDS IDs que terminan en él (sin
+    // bajar de 1 si la secuencia está recién creada)
+    private void asignarIdsPasos(List<Object[]> pasos) {
+        int asignados = 0;
+        while (asignados < pasos.size()) {
+            int fin = jdbcTemplate.queryForObject(SIGUIENTE_BLOQUE_PASOS, Integer.class);
+            for (int id = Math.max(1, fin - Paso.BLOQUE_IDS + 1); id <= fin && asignados < pasos.size(); id++) {
+                pasos.get(asignados++)[0] = id;
+            }
+        }
+    }
+
+    // Inserta las recetas en un solo batch y devuelve sus IDs en el mismo orden
+    private int[] insertarRecetas(List<RecetaImportada> lote, Integer usuarioId) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.execute((ConnectionCallback<int[]>) conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement(INSERT_RECETA,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (RecetaImportada receta : lote) {
+                    RecetaDto dto = receta.dto();
+                    sentencia.setString(1, dto.getTitulo());
+                    sentencia.setString(2, dto.getDescripcion());
+                    sentencia.setInt(3, dto.getTiempoPreparacion());
+                    sentencia.setString(4, dto.getDificultad().name());
+                    sentencia.setInt(5, dto.getPorciones());
+                    sentencia.setString(6, dto.getUrlImagen());
+                    sentencia.setTimestamp(7, dto.getFechaCreacion() != null
+                            ? Timestamp.valueOf(dto.getFechaCreacion()) : ahora);
+                    sentencia.setInt(8, usuarioId);
+                    sentencia.addBatch();
+                }
+                sentencia.executeBatch();
+                int[] ids = new int[lote.size()];
+                int n = 0;
+                try (ResultSet claves = sentencia.getGeneratedKeys()) {
+                    while (claves.next() && n < ids.length) {
+                        ids[n++] = claves.getInt(1);
+                    }
+                }
+                if (n != ids.length) {
+                    throw new IllegalStateException("El driver devolvió " + n + " IDs para " + ids.length + " recetas");
+                }
+                return ids;
+            }
+        });
+    }
+
+    private record RecetaImportada(long linea, RecetaDto dto, Set<Integer> categorias,
+            Map<Integer, String> ingredientes) {
+    }
+
+    private final class Progreso {
+        private long lineas;
+        private long importadas;
+        private long erroneas;
+        private final List<ErrorLinea> errores = new ArrayList<>();
+
+        private void importadas(int recetas) {
+            importadas += recetas;
+            ImportacionRecetasService.this.importadas.increment(recetas);
+        }
+
+        // Se cuentan todos los errores pero solo se devuelven los maxErrores primeros
+        private void error(long linea, String mensaje) {
+            erroneas++;
+            ImportacionRecetasService.this.erroneas.increment();
+            if (errores.size() < maxErrores) {
+                errores.add(new ErrorLinea(linea, mensaje));
+            }
+        }
+    }
+
+    public record ErrorLinea(long linea, String mensaje) {
+    }
+
+    public record ResultadoImportacion(long lineas, long importadas, long erroneas, List<ErrorLinea> errores,
+            long milisegundos) {
+    }
+}
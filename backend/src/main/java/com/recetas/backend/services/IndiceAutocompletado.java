@@ -0,0 +1,294 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.utils.TextoBusqueda;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Índice de prefijos para el autocompletado de un tipo de entidad (títulos de
+// receta, ingredientes o categorías). Cada texto se guarda una vez normalizado
+// ("Tortilla de patatas" -> "tortilla de patatas") y se indexa desde su inicio y
+// desde sus siguientes palabras no vacías ("patatas"), para sugerirlo al teclear
+// cualquiera de ellas. Esas claves son (entrada, desplazamiento) en dos arrays
+// paralelos ordenados por el texto desde el desplazamiento, sin copiar cadenas:
+// un prefijo es un rango contiguo que se localiza con dos búsquedas binarias, y
+// un árbol de segmentos con la popularidad máxima de cada tramo devuelve los k
+// más populares del rango sin recorrerlo. Las altas y los cambios de texto van
+// a un TreeMap de recientes que se consulta aparte; cuando crece, o cuando se
+// acumulan claves muertas, se reorganiza todo en arrays nuevos. No es seguro
+// para hilos: AutocompletadoService lo protege con un cerrojo de lectura/escritura.
+public class IndiceAutocompletado {
+
+    private static final int MAX_CLAVES_POR_TEXTO = 4;
+    private static final int MIN_CAMBIOS_REORGANIZAR = 1000;
+    // Separa el texto del ID en las claves de recientes: ordena antes que cualquier
+    // carácter, así los textos repetidos no chocan y los prefijos siguen siendo rangos
+    private static final char SEPARADOR = '\u0000';
+    private static final char FIN_PREFIJO = '\uffff';
+    private static final long MUERTA = Long.MIN_VALUE;
+
+    private final Map<Integer, Entrada> entradas = new HashMap<>();
+    private Entrada[] entradaDeClave = new Entrada[0];
+    private int[] inicioDeClave = new int[0];
+    // Árbol de segmentos implícito: hojas en [hojas, 2 * hojas), raíz en 1
+    private long[] arbol = new long[2];
+    private int hojas = 1;
+    private int clavesMuertas;
+    // Durante una carga completa las altas no pasan por recientes: se ordenan todas
+    // juntas al terminar (hasta entonces no se sugieren)
+    private boolean cargando;
+    private final TreeMap<String, Entrada> recientes = new TreeMap<>();
+
+    // Alta o actualización; si el texto no cambia solo se actualiza la popularidad
+    public void poner(int id, String texto, long popularidad) {
+        Entrada actual = entradas.get(id);
+        if (actual != null && actual.texto.equals(texto)) {
+            actualizarPopularidad(id, popularidad);
+            return;
+        }
+        eliminar(id);
+        Entrada entrada = new Entrada(id, texto, popularidad);
+        entradas.put(id, entrada);
+        if (cargando) {
+            return;
+        }
+        for (int inicio : entrada.inicios) {
+            recientes.put(claveReciente(entrada, inicio), entrada);
+        }
+        if (recientes.size() > Math.max(MIN_CAMBIOS_REORGANIZAR, entradaDeClave.length / 8)) {
+            reorganizar();
+        }
+    }
+
+    public void eliminar(int id) {
+        Entrada entrada = entradas.remove(id);
+        if (entrada == null) {
+            return;
+        }
+        for (int posicion : entrada.posiciones) {
+            fijar(posicion, MUERTA);
+            clavesMuertas++;
+        }
+        for (int inicio : entrada.inicios) {
+            recientes.remove(claveReciente(entrada, inicio));
+        }
+        if (clavesMuertas > Math.max(MIN_CAMBIOS_REORGANIZAR, entradaDeClave.length / 4)) {
+            reorganizar();
+        }
+    }
+
+    public void iniciarCarga() {
+        cargando = true;
+    }
+
+    public void terminarCarga() {
+        cargando = false;
+        reorganizar();
+    }
+
+    public void actualizarPopularidad(int id, long popularidad) {
+        Entrada entrada = entradas.get(id);
+        if (entrada == null) {
+            return;
+        }
+        entrada.popularidad = popularidad;
+        for (int posicion : entrada.posiciones) {
+            fijar(posicion, popularidad);
+        }
+    }
+
+    public int getNumEntradas() {
+        return entradas.size();
+    }
+
+    // Las "limite" entradas más populares con alguna clave que empieza por el
+    // prefijo (normalizado); las devueltas con igual popularidad, en orden alfabético
+    public List<Sugerencia> buscar(String prefijo, int limite) {
+        String normalizado = TextoBusqueda.normalizar(prefijo);
+        if (normalizado.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        List<Entrada> candidatas = new ArrayList<>();
+        Set<Entrada> vistas = new HashSet<>();
+        int desde = primeraPosicion(normalizado, false);
+        int hasta = primeraPosicion(normalizado, true);
+        if (desde < hasta) {
+            // Primero los nodos que cubren exactamente el rango; después se
+            // expande siempre el de mayor popularidad. A igualdad, el más profundo:
+            // así se baja hasta una hoja en lugar de abrir el árbol por niveles
+            PriorityQueue<Integer> nodos = new PriorityQueue<>(
+                    Comparator.<Integer>comparingLong(nodo -> arbol[nodo]).reversed()
+                            .thenComparing(Comparator.<Integer>reverseOrder()));
+            for (int izquierda = desde + hojas, derecha = hasta + hojas; izquierda < derecha;
+                    izquierda >>>= 1, derecha >>>= 1) {
+                if ((izquierda & 1) == 1) {
+                    nodos.add(izquierda++);
+                }
+                if ((derecha & 1) == 1) {
+                    nodos.add(--derecha);
+                }
+            }
+            while (!nodos.isEmpty() && candidatas.size() < limite) {
+                int nodo = nodos.poll();
+                if (arbol[nodo] == MUERTA) {
+                    break;
+                }
+                if (nodo >= hojas) {
+                    Entrada entrada = entradaDeClave[nodo - hojas];
+                    if (vistas.add(entrada)) {
+                        candidatas.add(entrada);
+                    }
+                } else {
+                    nodos.add(2 * nodo);
+                    nodos.add(2 * nodo + 1);
+                }
+            }
+        }
+        for (Entrada entrada : recientes.subMap(normalizado, normalizado + FIN_PREFIJO).values()) {
+            if (vistas.add(entrada)) {
+                candidatas.add(entrada);
+            }
+        }
+        candidatas.sort(Comparator.comparingLong((Entrada entrada) -> entrada.popularidad).reversed()
+                .thenComparing(entrada -> entrada.normalizado));
+
+        List<Sugerencia> sugerencias = new ArrayList<>(Math.min(limite, candidatas.size()));
+        for (int i = 0; i < candidatas.size() && i < limite; i++) {
+            sugerencias.add(new Sugerencia(candidatas.get(i).id, candidatas.get(i).texto));
+        }
+        return sugerencias;
+    }
+
+    // Vuelca todas las claves vivas (recientes incluidas) en arrays ordenados nuevos
+    void reorganizar() {
+        int numClaves = 0;
+        for (Entrada entrada : entradas.values()) {
+            numClaves += entrada.inicios.length;
+        }
+        Entrada[] porEntrada = new Entrada[numClaves];
+        int[] porInicio = new int[numClaves];
+        int n = 0;
+        for (Entrada entrada : entradas.values()) {
+            for (int inicio : entrada.inicios) {
+                porEntrada[n] = entrada;
+                porInicio[n++] = inicio;
+            }
+        }
+        // Las subcadenas solo existen mientras se ordena: compareTo es mucho más
+        // rápido que comparar carácter a carácter desde el desplazamiento
+        String[] textos = new String[numClaves];
+        Integer[] orden = new Integer[numClaves];
+        for (int i = 0; i < numClaves; i++) {
+            textos[i] = porEntrada[i].normalizado.substring(porInicio[i]);
+            orden[i] = i;
+        }
+        Arrays.sort(orden, (a, b) -> {
+            int comparacion = textos[a].compareTo(textos[b]);
+            return comparacion != 0 ? comparacion : Integer.compare(porEntrada[a].id, porEntrada[b].id);
+        });
+
+        entradaDeClave = new Entrada[numClaves];
+        inicioDeClave = new int[numClaves];
+        hojas = Integer.highestOneBit(Math.max(1, numClaves - 1)) << 1;
+        arbol = new long[2 * hojas];
+        Arrays.fill(arbol, MUERTA);
+        for (Entrada entrada : entradas.values()) {
+            entrada.posiciones = new int[0];
+        }
+        for (int i = 0; i < numClaves; i++) {
+            Entrada entrada = porEntrada[orden[i]];
+            entradaDeClave[i] = entrada;
+            inicioDeClave[i] = porInicio[orden[i]];
+            entrada.posiciones = Arrays.copyOf(entrada.posiciones, entrada.posiciones.length + 1);
+            entrada.posiciones[entrada.posiciones.length - 1] = i;
+            arbol[hojas + i] = entrada.popularidad;
+        }
+        for (int nodo = hojas - 1; nodo >= 1; nodo--) {
+            arbol[nodo] = Math.max(arbol[2 * nodo], arbol[2 * nodo + 1]);
+        }
+        recientes.clear();
+        clavesMuertas = 0;
+    }
+
+    private void fijar(int posicion, long valor) {
+        int nodo = posicion + hojas;
+        arbol[nodo] = valor;
+        for (nodo >>>= 1; nodo >= 1; nodo >>>= 1) {
+            arbol[nodo] = Math.max(arbol[2 * nodo], arbol[2 * nodo + 1]);
+        }
+    }
+
+    // Primera posición cuya clave es >= prefijo o, con despues, la primera que
+    // ya no empieza por él y es mayor
+    private int primeraPosicion(String prefijo, boolean despues) {
+        int desde = 0;
+        int hasta = entradaDeClave.length;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int comparacion = compararConPrefijo(entradaDeClave[medio].normalizado, inicioDeClave[medio], prefijo);
+            if (comparacion < 0 || (despues && comparacion == 0)) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    // Compara el texto desde inicio, recortado a la longitud del prefijo, con el prefijo
+    private static int compararConPrefijo(String texto, int inicio, String prefijo) {
+        int longitud = Math.min(texto.length() - inicio, prefijo.length());
+        for (int i = 0; i < longitud; i++) {
+            int diferencia = texto.charAt(inicio + i) - prefijo.charAt(i);
+            if (diferencia != 0) {
+                return diferencia;
+            }
+        }
+        return longitud == prefijo.length() ? 0 : -1;
+    }
+
+    private static String claveReciente(Entrada entrada, int inicio) {
+        return entrada.normalizado.substring(inicio) + SEPARADOR + entrada.id;
+    }
+
+    public record Sugerencia(int id, String texto) {
+    }
+
+    private static final class Entrada {
+        private final int id;
+        private final String texto;
+        private final String normalizado;
+        // Desplazamientos de las claves: inicio del texto y de las palabras no vacías
+        private final int[] inicios;
+        private long popularidad;
+        // Posiciones de las claves en los arrays ordenados (vacío mientras está en recientes)
+        private int[] posiciones = new int[0];
+
+        Entrada(int id, String texto, long popularidad) {
+            this.id = id;
+            this.texto = texto;
+            this.normalizado = TextoBusqueda.normalizar(texto);
+            this.popularidad = popularidad;
+            int[] encontrados = new int[MAX_CLAVES_POR_TEXTO];
+            int n = 0;
+            for (int i = 0; i <= normalizado.length() && n < MAX_CLAVES_POR_TEXTO; i++) {
+                if (i == 0 || normalizado.charAt(i - 1) == ' ') {
+                    int fin = normalizado.indexOf(' ', i);
+                    String palabra = normalizado.substring(i, fin < 0 ? normalizado.length() : fin);
+                    if (i == 0 || !TextoBusqueda.esPalabraVacia(palabra)) {
+                        encontrados[n++] = i;
+                    }
+                }
+            }
+            this.inicios = Arrays.copyOf(encontrados, n);
+        }
+    }
+}
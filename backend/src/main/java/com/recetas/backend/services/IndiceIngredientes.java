@@ -0,0 +1,314 @@
+package com.recetas.backend.services;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+// Índice en memoria de receta_ingredientes para "qué puedo cocinar": cada receta
+// (número de documento interno) guarda sus IDs de ingrediente en un int[]
+// ordenado, y cada ingrediente la lista ascendente de documentos que lo usan,
+// indexada directamente por su ID. Una consulta recorre solo las listas de los
+// ingredientes disponibles y cuenta coincidencias por documento en un short[],
+// sin SQL ni objetos por receta. Los borrados y reindexados solo marcan el
+// documento anterior como muerto; cuando los muertos superan una cuarta parte se
+// compactan las listas. No es seguro para hilos: CoberturaIngredientesService lo
+// protege con un cerrojo de lectura/escritura.
+public class IndiceIngredientes {
+
+    private static final int MIN_MUERTOS_COMPACTAR = 1000;
+    private static final int[] VACIA = new int[0];
+
+    private final Map<Integer, Integer> docPorReceta = new HashMap<>();
+    private final BitSet vivos = new BitSet();
+    private int[] recetaPorDoc = new int[1024];
+    private int[][] ingredientesPorDoc = new int[1024][];
+    // Copia de ingredientesPorDoc[doc].length en un array contiguo: la consulta la
+    // lee para cada candidato sin saltar a otro objeto
+    private short[] totalPorDoc = new short[1024];
+    private int numDocs;
+    // Listas de documentos por ID de ingrediente
+    private int[][] docsPorIngrediente = new int[256][];
+    private int[] tamanoPorIngrediente = new int[256];
+
+    // Sustituye los ingredientes de la receta; sin ingredientes no se indexa
+    // (nunca estaría cubierta)
+    public void indexar(int recetaId, int[] ingredienteIds) {
+        eliminar(recetaId);
+        int[] ingredientes = unicosOrdenados(ingredienteIds);
+        if (ingredientes.length == 0) {
+            return;
+        }
+        int doc = numDocs++;
+        if (doc == recetaPorDoc.length) {
+            recetaPorDoc = Arrays.copyOf(recetaPorDoc, doc * 2);
+            ingredientesPorDoc = Arrays.copyOf(ingredientesPorDoc, doc * 2);
+            totalPorDoc = Arrays.copyOf(totalPorDoc, doc * 2);
+        }
+        recetaPorDoc[doc] = recetaId;
+        ingredientesPorDoc[doc] = ingredientes;
+        totalPorDoc[doc] = (short) Math.min(ingredientes.length, Short.MAX_VALUE);
+        vivos.set(doc);
+        docPorReceta.put(recetaId, doc);
+        for (int ingrediente : ingredientes) {
+            anadir(ingrediente, doc);
+        }
+    }
+
+    public void eliminar(int recetaId) {
+        Integer doc = docPorReceta.remove(recetaId);
+        if (doc == null) {
+            return;
+        }
+        vivos.clear(doc);
+        int muertos = numDocs - docPorReceta.size();
+        if (muertos >= MIN_MUERTOS_COMPACTAR && muertos * 4 > numDocs) {
+            compactar();
+        }
+    }
+
+    public int getNumRecetas() {
+        return docPorReceta.size();
+    }
+
+    // Las "limite" recetas mejor cubiertas por los ingredientes disponibles: mayor
+    // proporción de ingredientes cubiertos, después menos ingredientes que faltan
+    // y a igualdad la indexada antes. Solo cuentan las recetas con al menos un
+    // ingrediente cubierto y, si faltanMax >= 0, a las que no les faltan más de
+    // faltanMax. coincidencias es el total de recetas que cumplen, sin límite
+    public Resultado cocinables(int[] disponibles, int faltanMax, int limite) {
+        short[] cubiertos = new short[numDocs];
+        for (int ingrediente : unicosOrdenados(disponibles)) {
+            if (ingrediente < 0 || ingrediente >= docsPorIngrediente.length) {
+                continue;
+            }
+            int[] docs = docsPorIngrediente[ingrediente];
+            int tamano = tamanoPorIngrediente[ingrediente];
+            for (int i = 0; i < tamano; i++) {
+                cubiertos[docs[i]]++;
+            }
+        }
+
+        TopK mejores = new TopK(Math.max(limite, 0));
+        int coincidencias = 0;
+        // Recorrido secuencial de los contadores: más barato que recordar los
+        // documentos tocados cuando la despensa tiene ingredientes muy comunes
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (cubiertos[doc] == 0 || !vivos.get(doc)) {
+                continue;
+            }
+            int total = totalPorDoc[doc];
+            if (faltanMax >= 0 && total - cubiertos[doc] > faltanMax) {
+                continue;
+            }
+            coincidencias++;
+            mejores.ofrecer(doc, cubiertos[doc], total);
+        }
+
+        int[] orden = mejores.ordenados();
+        int[] recetaIds = new int[orden.length];
+        int[] numCubiertos = new int[orden.length];
+        int[] numTotales = new int[orden.length];
+        for (int i = 0; i < orden.length; i++) {
+            recetaIds[i] = recetaPorDoc[mejores.docs[orden[i]]];
+            numCubiertos[i] = mejores.cubiertos[orden[i]];
+            numTotales[i] = mejores.totales[orden[i]];
+        }
+        return new Resultado(recetaIds, numCubiertos, numTotales, coincidencias);
+    }
+
+    // IDs de ingrediente de la receta que no están entre los disponibles (ordenados)
+    public int[] faltantes(int recetaId, int[] disponibles) {
+        Integer doc = docPorReceta.get(recetaId);
+        if (doc == null) {
+            return VACIA;
+        }
+        int[] ordenados = unicosOrdenados(disponibles);
+        int[] ingredientes = ingredientesPorDoc[doc];
+        int[] resultado = new int[ingredientes.length];
+        int n = 0;
+        for (int ingrediente : ingredientes) {
+            if (Arrays.binarySearch(ordenados, ingrediente) < 0) {
+                resultado[n++] = ingrediente;
+            }
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    private void anadir(int ingrediente, int doc) {
+        if (ingrediente >= docsPorIngrediente.length) {
+            int longitud = Math.max(ingrediente + 1, docsPorIngrediente.length * 2);
+            docsPorIngrediente = Arrays.copyOf(docsPorIngrediente, longitud);
+            tamanoPorIngrediente = Arrays.copyOf(tamanoPorIngrediente, longitud);
+        }
+        int[] docs = docsPorIngrediente[ingrediente];
+        int tamano = tamanoPorIngrediente[ingrediente];
+        if (docs == null) {
+            docs = new int[4];
+        } else if (tamano == docs.length) {
+            docs = Arrays.copyOf(docs, tamano * 2);
+        }
+        docs[tamano] = doc;
+        docsPorIngrediente[ingrediente] = docs;
+        tamanoPorIngrediente[ingrediente] = tamano + 1;
+    }
+
+    // Renumera los documentos vivos de forma consecutiva y reescribe las listas
+    // sin los muertos
+    void compactar() {
+        int[] nuevoDoc = new int[numDocs];
+        int siguiente = 0;
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (vivos.get(doc)) {
+                nuevoDoc[doc] = siguiente;
+                recetaPorDoc[siguiente] = recetaPorDoc[doc];
+                ingredientesPorDoc[siguiente] = ingredientesPorDoc[doc];
+                totalPorDoc[siguiente] = totalPorDoc[doc];
+                siguiente++;
+            } else {
+                nuevoDoc[doc] = -1;
+            }
+        }
+        Arrays.fill(ingredientesPorDoc, siguiente, numDocs, null);
+        for (int ingrediente = 0; ingrediente < docsPorIngrediente.length; ingrediente++) {
+            int[] docs = docsPorIngrediente[ingrediente];
+            int escritos = 0;
+            for (int i = 0; i < tamanoPorIngrediente[ingrediente]; i++) {
+                int doc = nuevoDoc[docs[i]];
+                if (doc >= 0) {
+                    docs[escritos++] = doc;
+                }
+            }
+            tamanoPorIngrediente[ingrediente] = escritos;
+        }
+        docPorReceta.replaceAll((recetaId, doc) -> nuevoDoc[doc]);
+        vivos.clear();
+        vivos.set(0, siguiente);
+        numDocs = siguiente;
+    }
+
+    private static int[] unicosOrdenados(int[] ids) {
+        if (ids == null || ids.length == 0) {
+            return VACIA;
+        }
+        int[] ordenados = ids.clone();
+        Arrays.sort(ordenados);
+        int n = 0;
+        for (int i = 0; i < ordenados.length; i++) {
+            if (i == 0 || ordenados[i] != ordenados[i - 1]) {
+                ordenados[n++] = ordenados[i];
+            }
+        }
+        return Arrays.copyOf(ordenados, n);
+    }
+
+    // recetaIds de mejor a peor cobertura, con sus ingredientes cubiertos y totales
+    public record Resultado(int[] recetaIds, int[] cubiertos, int[] totales, int coincidencias) {
+    }
+
+    // Montículo de mínimos con los k documentos mejor cubiertos; la raíz es el peor
+    private static final class TopK {
+        private final int[] docs;
+        private final int[] cubiertos;
+        private final int[] totales;
+        private int tamano;
+
+        TopK(int k) {
+            docs = new int[k];
+            cubiertos = new int[k];
+            totales = new int[k];
+        }
+
+        void ofrecer(int doc, int cubierto, int total) {
+            if (tamano < docs.length) {
+                docs[tamano] = doc;
+                cubiertos[tamano] = cubierto;
+                totales[tamano] = total;
+                subir(tamano++);
+                return;
+            }
+            if (docs.length == 0 || !peor(docs[0], cubiertos[0], totales[0], doc, cubierto, total)) {
+                return;
+            }
+            docs[0] = doc;
+            cubiertos[0] = cubierto;
+            totales[0] = total;
+            bajar(0);
+        }
+
+        // Posiciones del montículo de mejor a peor
+        int[] ordenados() {
+            Integer[] indices = new Integer[tamano];
+            for (int i = 0; i < tamano; i++) {
+                indices[i] = i;
+            }
+            Arrays.sort(indices, (a, b) -> peor(a, b) ? 1 : peor(b, a) ? -1 : 0);
+            int[] resultado = new int[tamano];
+            for (int i = 0; i < tamano; i++) {
+                resultado[i] = indices[i];
+            }
+            return resultado;
+        }
+
+        private boolean peor(int i, int j) {
+            return peor(docs[i], cubiertos[i], totales[i], docs[j], cubiertos[j], totales[j]);
+        }
+
+        // Proporciones comparadas en enteros (c1/t1 < c2/t2 <=> c1*t2 < c2*t1)
+        private static boolean peor(int doc1, int cubierto1, int total1, int doc2, int cubierto2, int total2) {
+            long proporcion1 = (long) cubierto1 * total2;
+            long proporcion2 = (long) cubierto2 * total1;
+            if (proporcion1 != proporcion2) {
+                return proporcion1 < proporcion2;
+            }
+            int faltan1 = total1 - cubierto1;
+            int faltan2 = total2 - cubierto2;
+            if (faltan1 != faltan2) {
+                return faltan1 > faltan2;
+            }
+            return doc1 > doc2;
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int padre = (i - 1) / 2;
+                if (!peor(i, padre)) {
+                    break;
+                }
+                intercambiar(i, padre);
+                i = padre;
+            }
+        }
+
+        private void bajar(int i) {
+            while (true) {
+                int peor = i;
+                int izquierdo = 2 * i + 1;
+                int derecho = izquierdo + 1;
+                if (izquierdo < tamano && peor(izquierdo, peor)) {
+                    peor = izquierdo;
+                }
+                if (derecho < tamano && peor(derecho, peor)) {
+                    peor = derecho;
+                }
+                if (peor == i) {
+                    return;
+                }
+                intercambiar(i, peor);
+                i = peor;
+            }
+        }
+
+        private void intercambiar(int i, int j) {
+            int doc = docs[i];
+            docs[i] = docs[j];
+            docs[j] = doc;
+            int cubierto = cubiertos[i];
+            cubiertos[i] = cubiertos[j];
+            cubiertos[j] = cubierto;
+            int total = totales[i];
+            totales[i] = totales[j];
+            totales[j] = total;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.utils.TextoBusqueda;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// Índice invertido de recetas con puntuación BM25. Cada término guarda su lista
+// de documentos (número interno, ascendente), la frecuencia y el "impacto" BM25
+// ya calculado (todo salvo el idf) en arrays primitivos. La longitud media de
+// referencia se fija al recalcular los impactos (carga completa y compactación).
+// Las consultas recorren las listas a la vez y aplican MaxScore: en cuanto el
+// top-k está lleno, los términos cuya cota no alcanza el umbral solo se consultan
+// para los candidatos, sin recorrerlos enteros; si queda una sola lista por
+// recorrer, se saltan sus bloques de 128 cuyo máximo no llega al umbral.
+// Los borrados solo marcan el documento como muerto; cuando los muertos superan
+// una cuarta parte se compactan las listas. No es seguro para hilos:
+// BusquedaIndiceService lo protege con un cerrojo de lectura/escritura.
+public class IndiceInvertido {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Las apariciones en el título cuentan como varias en el resto del texto
+    static final int PESO_TITULO = 3;
+    private static final int MIN_MUERTOS_COMPACTAR = 1000;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, Integer> docPorReceta = new HashMap<>();
+    private final BitSet vivos = new BitSet();
+    private int[] recetaPorDoc = new int[1024];
+    private int[] longitudPorDoc = new int[1024];
+    private int numDocs;
+    private long longitudTotal;
+    private float longitudMediaReferencia;
+
+    public void indexar(int recetaId, String titulo, String contenido) {
+        eliminar(recetaId);
+        Map<String, Integer> frecuencias = new HashMap<>();
+        int longitud = 0;
+        for (String termino : TextoBusqueda.terminos(titulo)) {
+            frecuencias.merge(termino, PESO_TITULO, Integer::sum);
+            longitud += PESO_TITULO;
+        }
+        for (String termino : TextoBusqueda.terminos(contenido)) {
+            frecuencias.merge(termino, 1, Integer::sum);
+            longitud++;
+        }
+
+        int doc = numDocs++;
+        if (doc == recetaPorDoc.length) {
+            recetaPorDoc = Arrays.copyOf(recetaPorDoc, doc * 2);
+            longitudPorDoc = Arrays.copyOf(longitudPorDoc, doc * 2);
+        }
+        recetaPorDoc[doc] = recetaId;
+        longitudPorDoc[doc] = longitud;
+        longitudTotal += longitud;
+        vivos.set(doc);
+        docPorReceta.put(recetaId, doc);
+        float longitudMedia = longitudMediaReferencia > 0
+                ? longitudMediaReferencia
+                : (float) longitudTotal / docPorReceta.size();
+        for (Map.Entry<String, Integer> entrada : frecuencias.entrySet()) {
+            int tf = Math.min(entrada.getValue(), Short.MAX_VALUE);
+            postings.computeIfAbsent(entrada.getKey(), t -> new Postings())
+                    .anadir(doc, tf, impacto(tf, longitud, longitudMedia));
+        }
+    }
+
+    public void eliminar(int recetaId) {
+        Integer doc = docPorReceta.remove(recetaId);
+        if (doc == null) {
+            return;
+        }
+        vivos.clear(doc);
+        longitudTotal -= longitudPorDoc[doc];
+        int muertos = numDocs - docPorReceta.size();
+        if (muertos >= MIN_MUERTOS_COMPACTAR && muertos * 4 > numDocs) {
+            compactar();
+        }
+    }
+
+    public int getNumRecetas() {
+        return docPorReceta.size();
+    }
+
+    public int getNumTerminos() {
+        return postings.size();
+    }
+
+    // Las "limite" recetas con mayor BM25 que contienen alguno de los términos de
+    // la consulta, de mayor a menor; a igualdad gana la indexada antes (así los
+    // empates no desplazan el umbral y se pueden saltar bloques enteros)
+    public Resultado buscar(String consulta, int limite) {
+        List<Postings> listas = new ArrayList<>();
+        for (String termino : new LinkedHashSet<>(TextoBusqueda.terminos(consulta))) {
+            Postings lista = postings.get(termino);
+            if (lista != null) {
+                listas.add(lista);
+            }
+        }
+        int vivosTotal = docPorReceta.size();
+        if (listas.isEmpty() || vivosTotal == 0 || limite <= 0) {
+            return new Resultado(new int[0], new float[0]);
+        }
+
+        // Términos ordenados por cota ascendente (idf * impacto máximo)
+        int n = listas.size();
+        float[] idf = new float[n];
+        for (int i = 0; i < n; i++) {
+            // df incluye documentos borrados pendientes de compactar: la
+            // desviación está acotada por el umbral de compactación
+            int df = Math.min(listas.get(i).tamano, vivosTotal);
+            idf[i] = (float) Math.log(1 + (vivosTotal - df + 0.5) / (df + 0.5));
+        }
+        Integer[] terminos = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            terminos[i] = i;
+        }
+        Arrays.sort(terminos, (a, b) -> Float.compare(idf[a] * listas.get(a).impactoMaximo,
+                idf[b] * listas.get(b).impactoMaximo));
+        Postings[] cursores = new Postings[n];
+        float[] pesos = new float[n];
+        float[] cotaAcumulada = new float[n];
+        for (int i = 0; i < n; i++) {
+            cursores[i] = listas.get(terminos[i]);
+            pesos[i] = idf[terminos[i]];
+            cotaAcumulada[i] = (i > 0 ? cotaAcumulada[i - 1] : 0) + pesos[i] * cursores[i].impactoMaximo;
+        }
+
+        int[] posicion = new int[n];
+        TopK mejores = new TopK(limite);
+        // Los términos [0, primeraEsencial) no pueden meter por sí solos un documento en el top-k
+        int primeraEsencial = 0;
+        while (true) {
+            if (primeraEsencial == n - 1 && mejores.umbral() > 0) {
+                // Una sola lista esencial: se saltan los bloques cuyo máximo, sumado a
+                // la cota del resto de términos, no llega al umbral
+                Postings lista = cursores[n - 1];
+                float resto = n > 1 ? cotaAcumulada[n - 2] : 0;
+                int p = posicion[n - 1];
+                while (p < lista.tamano
+                        && pesos[n - 1] * lista.maximoBloque[p >>> Postings.BITS_BLOQUE] + resto <= mejores.umbral()) {
+                    p = ((p >>> Postings.BITS_BLOQUE) + 1) << Postings.BITS_BLOQUE;
+                }
+                posicion[n - 1] = p;
+            }
+            int doc = Integer.MAX_VALUE;
+            for (int i = primeraEsencial; i < n; i++) {
+                if (posicion[i] < cursores[i].tamano) {
+                    doc = Math.min(doc, cursores[i].docs[posicion[i]]);
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+            float puntuacion = 0;
+            for (int i = primeraEsencial; i < n; i++) {
+                int p = posicion[i];
+                if (p < cursores[i].tamano && cursores[i].docs[p] == doc) {
+                    puntuacion += pesos[i] * cursores[i].impactos[p];
+                    posicion[i] = p + 1;
+                }
+            }
+            if (!vivos.get(doc)) {
+                continue;
+            }
+            boolean descartado = false;
+            for (int i = primeraEsencial - 1; i >= 0; i--) {
+                if (puntuacion + cotaAcumulada[i] <= mejores.umbral()) {
+                    descartado = true;
+                    break;
+                }
+                int p = cursores[i].avanzar(posicion[i], doc);
+                posicion[i] = p;
+                if (p < cursores[i].tamano && cursores[i].docs[p] == doc) {
+                    puntuacion += pesos[i] * cursores[i].impactos[p];
+                }
+            }
+            if (!descartado && mejores.ofrecer(doc, puntuacion)) {
+                while (primeraEsencial < n && cotaAcumulada[primeraEsencial] <= mejores.umbral()) {
+                    primeraEsencial++;
+                }
+            }
+        }
+
+        int[] orden = mejores.ordenados();
+        int[] recetaIds = new int[orden.length];
+        float[] puntuaciones = new float[orden.length];
+        for (int i = 0; i < orden.length; i++) {
+            recetaIds[i] = recetaPorDoc[mejores.docs[orden[i]]];
+            puntuaciones[i] = mejores.puntuaciones[orden[i]];
+        }
+        return new Resultado(recetaIds, puntuaciones);
+    }
+
+    // Número de recetas que contienen alguno de los términos (recorre las listas enteras)
+    public int contar(String consulta) {
+        BitSet coincidencias = new BitSet(numDocs);
+        for (String termino : new LinkedHashSet<>(TextoBusqueda.terminos(consulta))) {
+            Postings lista = postings.get(termino);
+            if (lista != null) {
+                for (int i = 0; i < lista.tamano; i++) {
+                    coincidencias.set(lista.docs[i]);
+                }
+            }
+        }
+        coincidencias.and(vivos);
+        return coincidencias.cardinality();
+    }
+
+    // Fija la longitud media actual como referencia y recalcula todos los
+    // impactos. Tras una carga completa o una compactación
+    public void recalcularImpactos() {
+        if (docPorReceta.isEmpty()) {
+            return;
+        }
+        longitudMediaReferencia = (float) longitudTotal / docPorReceta.size();
+        for (Postings lista : postings.values()) {
+            lista.impactoMaximo = 0;
+            Arrays.fill(lista.maximoBloque, 0);
+            for (int i = 0; i < lista.tamano; i++) {
+                float impacto = impacto(lista.frecuencias[i], longitudPorDoc[lista.docs[i]], longitudMediaReferencia);
+                lista.impactos[i] = impacto;
+                lista.actualizarMaximos(i, impacto);
+            }
+        }
+    }
+
+    private static float impacto(int tf, int longitud, float longitudMedia) {
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * longitud / longitudMedia));
+    }
+
+    // Renumera los documentos vivos de forma consecutiva y reescribe las listas
+    // sin los muertos; los términos que se quedan vacíos desaparecen
+    void compactar() {
+        int[] nuevoDoc = new int[numDocs];
+        int siguiente = 0;
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (vivos.get(doc)) {
+                nuevoDoc[doc] = siguiente;
+                recetaPorDoc[siguiente] = recetaPorDoc[doc];
+                longitudPorDoc[siguiente] = longitudPorDoc[doc];
+                siguiente++;
+            } else {
+                nuevoDoc[doc] = -1;
+            }
+        }
+        Iterator<Postings> it = postings.values().iterator();
+        while (it.hasNext()) {
+            Postings lista = it.next();
+            int escritos = 0;
+            for (int i = 0; i < lista.tamano; i++) {
+                int doc = nuevoDoc[lista.docs[i]];
+                if (doc >= 0) {
+                    lista.docs[escritos] = doc;
+                    lista.frecuencias[escritos] = lista.frecuencias[i];
+                    escritos++;
+                }
+            }
+            lista.tamano = escritos;
+            if (escritos == 0) {
+                it.remove();
+            }
+        }
+        docPorReceta.replaceAll((recetaId, doc) -> nuevoDoc[doc]);
+        vivos.clear();
+        vivos.set(0, siguiente);
+        numDocs = siguiente;
+        recalcularImpactos();
+    }
+
+    // recetaIds y puntuaciones de mayor a menor relevancia
+    public record Resultado(int[] recetaIds, float[] puntuaciones) {
+    }
+
+    private static final class Postings {
+        // Bloques de 128 posiciones con su impacto máximo, para saltarlos enteros
+        static final int BITS_BLOQUE = 7;
+
+        private int[] docs = new int[4];
+        private short[] frecuencias = new short[4];
+        private float[] impactos = new float[4];
+        private float[] maximoBloque = new float[1];
+        private float impactoMaximo;
+        private int tamano;
+
+        void anadir(int doc, int frecuencia, float impacto) {
+            if (tamano == docs.length) {
+                docs = Arrays.copyOf(docs, tamano * 2);
+                frecuencias = Arrays.copyOf(frecuencias, tamano * 2);
+                impactos = Arrays.copyOf(impactos, tamano * 2);
+            }
+            docs[tamano] = doc;
+            frecuencias[tamano] = (short) frecuencia;
+            impactos[tamano] = impacto;
+            actualizarMaximos(tamano, impacto);
+            tamano++;
+        }
+
+        void actualizarMaximos(int posicion, float impacto) {
+            int bloque = posicion >>> BITS_BLOQUE;
+            if (bloque == maximoBloque.length) {
+                maximoBloque = Arrays.copyOf(maximoBloque, bloque * 2);
+            }
+            maximoBloque[bloque] = Math.max(maximoBloque[bloque], impacto);
+            impactoMaximo = Math.max(impactoMaximo, impacto);
+        }
+
+        // Primera posición >= desde con documento >= doc (búsqueda exponencial + binaria)
+        int avanzar(int desde, int doc) {
+            int salto = 1;
+            int hasta = desde;
+            while (hasta < tamano && docs[hasta] < doc) {
+                desde = hasta + 1;
+                hasta += salto;
+                salto <<= 1;
+            }
+            hasta = Math.min(hasta, tamano);
+            while (desde < hasta) {
+                int medio = (desde + hasta) >>> 1;
+                if (docs[medio] < doc) {
+                    desde = medio + 1;
+                } else {
+                    hasta = medio;
+                }
+            }
+            return desde;
+        }
+    }
+
+    // Montículo de mínimos con los k mejores documentos vistos; la raíz es el peor
+    private static final class TopK {
+        private final int[] docs;
+        private final float[] puntuaciones;
+        private int tamano;
+
+        TopK(int k) {
+            docs = new int[k];
+            puntuaciones = new float[k];
+        }
+
+        // Puntuación mínima para entrar (0 mientras no esté lleno)
+        float umbral() {
+            return tamano < docs.length ? 0 : puntuaciones[0];
+        }
+
+        // Los documentos llegan en orden ascendente: a igualdad de puntuación se
+        // queda el que ya estaba
+        boolean ofrecer(int doc, float puntuacion) {
+            if (tamano < docs.length) {
+                docs[tamano] = doc;
+                puntuaciones[tamano] = puntuacion;
+                subir(tamano++);
+                return tamano == docs.length;
+            }
+            if (puntuacion <= puntuaciones[0]) {
+                return false;
+            }
+            docs[0] = doc;
+            puntuaciones[0] = puntuacion;
+            bajar(0);
+            return true;
+        }
+
+        // Posiciones del montículo de mejor a peor
+        int[] ordenados() {
+            Integer[] indices = new Integer[tamano];
+            for (int i = 0; i < tamano; i++) {
+                indices[i] = i;
+            }
+            Arrays.sort(indices, (a, b) -> peor(a, b) ? 1 : peor(b, a) ? -1 : 0);
+            int[] resultado = new int[tamano];
+            for (int i = 0; i < tamano; i++) {
+                resultado[i] = indices[i];
+            }
+            return resultado;
+        }
+
+        private boolean peor(int i, int j) {
+            return puntuaciones[i] < puntuaciones[j] || (puntuaciones[i] == puntuaciones[j] && docs[i] > docs[j]);
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int padre = (i - 1) / 2;
+                if (!peor(i, padre)) {
+                    break;
+                }
+                intercambiar(i, padre);
+                i = padre;
+            }
+        }
+
+        private void bajar(int i) {
+            while (true) {
+                int peor = i;
+                int izquierdo = 2 * i + 1;
+                int derecho = izquierdo + 1;
+                if (izquierdo < tamano && peor(izquierdo, peor)) {
+                    peor = izquierdo;
+                }
+                if (derecho < tamano && peor(derecho, peor)) {
+                    peor = derecho;
+                }
+                if (peor == i) {
+                    return;
+                }
+                intercambiar(i, peor);
+                i = peor;
+            }
+        }
+
+        private void intercambiar(int i, int j) {
+            int doc = docs[i];
+            docs[i] = docs[j];
+            docs[j] = doc;
+            float puntuacion = puntuaciones[i];
+            puntuaciones[i] = puntuaciones[j];
+            puntuaciones[j] = puntuacion;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.recetas.backend.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Un índice en memoria sobre las recetas, creado y mantenido por IndicesRecetas.
+// Se reconstruye por tramos de IDs en un índice nuevo que sustituye al actual de
+// una vez (las consultas siguen usando el anterior mientras tanto) y recibe las
+// recetas modificadas tras cada commit. El servicio dueño solo aporta cómo crear
+// el índice, cómo leer los datos de un tramo y cómo indexarlos
+public class IndiceRecetas<I, D> {
+
+    // Datos indexables por receta, de las recetas con ID entre desdeId y hastaId.
+    // Se ejecuta en una transacción de solo lectura propia
+    @FunctionalInterface
+    public interface Cargador<D> {
+        Map<Integer, D> cargar(int desdeId, int hastaId);
+    }
+
+    // datos es null si la receta se ha borrado o no tiene nada que indexar
+    @FunctionalInterface
+    public interface Indexador<I, D> {
+        void indexar(I indice, Integer recetaId, D datos);
+    }
+
+    private final IndicesRecetas indices;
+    private final int tamanoTramo;
+    private final Supplier<I> crear;
+    private final Cargador<D> cargador;
+    private final Indexador<I, D> indexador;
+    // Con todas las recetas ya indexadas, antes de sustituir al índice actual
+    private final Consumer<I> completar;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private I indice;
+    private volatile boolean cargado;
+    private volatile boolean reconstruyendo;
+    // Recetas modificadas durante una reconstrucción: se reaplican sobre el índice nuevo
+    private final Set<Integer> pendientes = ConcurrentHashMap.newKeySet();
+
+    IndiceRecetas(IndicesRecetas indices, int tamanoTramo, Supplier<I> crear, Cargador<D> cargador,
+            Indexador<I, D> indexador, Consumer<I> completar) {
+        this.indices = indices;
+        this.tamanoTramo = tamanoTramo;
+        this.crear = crear;
+        this.cargador = cargador;
+        this.indexador = indexador;
+        this.completar = completar;
+        this.indice = crear.get();
+    }
+
+    public synchronized void reconstruir() {
+        reconstruyendo = true;
+        I nuevo = crear.get();
+        indices.porTramos(tamanoTramo, (desdeId, hastaId) -> cargar(desdeId, hastaId)
+                .forEach((recetaId, datos) -> indexador.indexar(nuevo, recetaId, datos)));
+        completar.accept(nuevo);
+        cerrojo.writeLock().lock();
+        try {
+            indice = nuevo;
+            reconstruyendo = false;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+        cargado = true;
+        for (Integer recetaId : List.copyOf(pendientes)) {
+            pendientes.remove(recetaId);
+            actualizar(recetaId, recetaId, List.of(recetaId));
+        }
+    }
+
+    // Relee las recetas indicadas con una sola consulta sobre su tramo de IDs
+    void actualizar(int desdeId, int hastaId, Collection<Integer> recetaIds) {
+        if (reconstruyendo) {
+            pendientes.addAll(recetaIds);
+        }
+        Map<Integer, D> datos = cargar(desdeId, hastaId);
+        modificar(actual -> {
+            for (Integer recetaId : recetaIds) {
+                indexador.indexar(actual, recetaId, datos.get(recetaId));
+            }
+        });
+    }
+
+    // false hasta que termina la primera carga completa
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    public <T> T leer(Function<I, T> lectura) {
+        cerrojo.readLock().lock();
+        try {
+            return lectura.apply(indice);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    private void modificar(Consumer<I> cambio) {
+        cerrojo.writeLock().lock();
+        try {
+            cambio.accept(indice);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private Map<Integer, D> cargar(int desdeId, int hastaId) {
+        return indices.getTransacciones().leer(() -> cargador.cargar(desdeId, hastaId));
+    }
+}
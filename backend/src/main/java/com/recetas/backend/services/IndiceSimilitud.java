@@ -0,0 +1,267 @@
+package com.recetas.backend.services;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Índice LSH (locality-sensitive hashing) sobre firmas MinHash para "recetas
+// similares". Cada receta es un conjunto de rasgos (sus IDs de ingrediente y de
+// categoría, en espacios separados) y su firma guarda, para cada una de
+// BANDAS * FILAS funciones hash, el mínimo sobre sus rasgos: dos recetas
+// coinciden en una posición con probabilidad igual a su similitud de Jaccard. La
+// firma se parte en bandas de FILAS posiciones y cada banda se reduce a una clave;
+// dos recetas son candidatas si comparten la clave de alguna banda, lo que con
+// 12 bandas de 3 filas ocurre con probabilidad ~0.8 para Jaccard 0.5, ~0.95 para
+// 0.6 y por debajo de 0.1 para 0.2. Las claves van a una tabla hash abierta con listas
+// enlazadas en arrays de int (un nodo por receta y banda), así que una consulta
+// solo recorre las listas de sus bandas, nunca todas las recetas; las candidatas
+// se ordenan por su Jaccard exacto. Los borrados marcan el documento como muerto
+// y se compacta cuando los muertos superan una cuarta parte. No es seguro para
+// hilos: SimilitudService lo protege con un cerrojo de lectura/escritura.
+public class IndiceSimilitud {
+
+    static final int BANDAS = 12;
+    static final int FILAS = 3;
+    // Tope de nodos recorridos por consulta: una banda muy común (recetas con solo
+    // sal y aceite) no debe convertir la consulta en un recorrido completo
+    private static final int MAX_NODOS_CONSULTA = 5000;
+    private static final int MIN_MUERTOS_COMPACTAR = 1000;
+    private static final int FIN = -1;
+    private static final long[] SEMILLAS = new long[BANDAS * FILAS];
+
+    static {
+        long semilla = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < SEMILLAS.length; i++) {
+            semilla = mezclar(semilla + 0x9E3779B97F4A7C15L);
+            SEMILLAS[i] = semilla;
+        }
+    }
+
+    private final Map<Integer, Integer> docPorReceta = new HashMap<>();
+    private final BitSet vivos = new BitSet();
+    private int[] recetaPorDoc = new int[1024];
+    private int[][] rasgosPorDoc = new int[1024][];
+    private int numDocs;
+    // Nodo doc * BANDAS + banda: clave de la banda y siguiente nodo de la misma celda
+    private int[] claves = new int[1024 * BANDAS];
+    private int[] siguientes = new int[1024 * BANDAS];
+    private int[] cabezas = nuevasCabezas(16384);
+
+    // Rasgo de un ingrediente; las categorías usan rasgoCategoria para no chocar
+    public static int rasgoIngrediente(int ingredienteId) {
+        return ingredienteId << 1;
+    }
+
+    public static int rasgoCategoria(int categoriaId) {
+        return (categoriaId << 1) | 1;
+    }
+
+    // Sustituye los rasgos de la receta; sin rasgos no se indexa
+    public void indexar(int recetaId, int[] rasgos) {
+        eliminar(recetaId);
+        int[] unicos = unicosOrdenados(rasgos);
+        if (unicos.length == 0) {
+            return;
+        }
+        int doc = numDocs++;
+        if (doc == recetaPorDoc.length) {
+            recetaPorDoc = Arrays.copyOf(recetaPorDoc, doc * 2);
+            rasgosPorDoc = Arrays.copyOf(rasgosPorDoc, doc * 2);
+            claves = Arrays.copyOf(claves, doc * 2 * BANDAS);
+            siguientes = Arrays.copyOf(siguientes, doc * 2 * BANDAS);
+        }
+        recetaPorDoc[doc] = recetaId;
+        rasgosPorDoc[doc] = unicos;
+        vivos.set(doc);
+        docPorReceta.put(recetaId, doc);
+        // Como mucho un nodo por celda de media
+        if (numDocs * BANDAS > cabezas.length) {
+            redimensionar(cabezas.length * 2);
+        }
+        int[] clavesBanda = clavesBanda(unicos);
+        for (int banda = 0; banda < BANDAS; banda++) {
+            int nodo = doc * BANDAS + banda;
+            claves[nodo] = clavesBanda[banda];
+            enlazar(nodo);
+        }
+    }
+
+    public void eliminar(int recetaId) {
+        Integer doc = docPorReceta.remove(recetaId);
+        if (doc == null) {
+            return;
+        }
+        vivos.clear(doc);
+        rasgosPorDoc[doc] = null;
+        int muertos = numDocs - docPorReceta.size();
+        if (muertos >= MIN_MUERTOS_COMPACTAR && muertos * 4 > numDocs) {
+            compactar();
+        }
+    }
+
+    public boolean contiene(int recetaId) {
+        return docPorReceta.containsKey(recetaId);
+    }
+
+    public int getNumRecetas() {
+        return docPorReceta.size();
+    }
+
+    // Las "limite" recetas más parecidas a la indicada entre las candidatas del
+    // LSH, por Jaccard exacto de sus rasgos (a igualdad, menor ID). Vacío si la
+    // receta no está indexada
+    public Resultado similares(int recetaId, int limite) {
+        Integer doc = docPorReceta.get(recetaId);
+        if (doc == null || limite <= 0) {
+            return new Resultado(new int[0], new double[0]);
+        }
+        Set<Integer> candidatos = new HashSet<>();
+        int recorridos = 0;
+        for (int banda = 0; banda < BANDAS && recorridos < MAX_NODOS_CONSULTA; banda++) {
+            int clave = claves[doc * BANDAS + banda];
+            for (int nodo = cabezas[celda(clave)]; nodo != FIN && recorridos < MAX_NODOS_CONSULTA;
+                    nodo = siguientes[nodo]) {
+                recorridos++;
+                int otro = nodo / BANDAS;
+                if (claves[nodo] == clave && nodo % BANDAS == banda && otro != doc && vivos.get(otro)) {
+                    candidatos.add(otro);
+                }
+            }
+        }
+
+        int[] rasgos = rasgosPorDoc[doc];
+        int[] docs = new int[candidatos.size()];
+        double[] similitudes = new double[candidatos.size()];
+        Integer[] orden = new Integer[candidatos.size()];
+        int n = 0;
+        for (int otro : candidatos) {
+            docs[n] = otro;
+            similitudes[n] = jaccard(rasgos, rasgosPorDoc[otro]);
+            orden[n] = n;
+            n++;
+        }
+        Arrays.sort(orden, (a, b) -> similitudes[a] != similitudes[b]
+                ? Double.compare(similitudes[b], similitudes[a])
+                : Integer.compare(recetaPorDoc[docs[a]], recetaPorDoc[docs[b]]));
+
+        int total = Math.min(limite, n);
+        int[] recetaIds = new int[total];
+        double[] resultado = new double[total];
+        for (int i = 0; i < total; i++) {
+            recetaIds[i] = recetaPorDoc[docs[orden[i]]];
+            resultado[i] = similitudes[orden[i]];
+        }
+        return new Resultado(recetaIds, resultado);
+    }
+
+    // Firma MinHash reducida a una clave por banda
+    static int[] clavesBanda(int[] rasgos) {
+        int[] clavesBanda = new int[BANDAS];
+        for (int banda = 0; banda < BANDAS; banda++) {
+            long clave = banda + 1;
+            for (int fila = 0; fila < FILAS; fila++) {
+                long semilla = SEMILLAS[banda * FILAS + fila];
+                long minimo = Long.MAX_VALUE;
+                for (int rasgo : rasgos) {
+                    minimo = Math.min(minimo, mezclar(rasgo ^ semilla));
+                }
+                clave = mezclar(clave * 31 + minimo);
+            }
+            clavesBanda[banda] = (int) (clave ^ (clave >>> 32));
+        }
+        return clavesBanda;
+    }
+
+    static double jaccard(int[] a, int[] b) {
+        int comunes = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                comunes++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) comunes / (a.length + b.length - comunes);
+    }
+
+    private void enlazar(int nodo) {
+        int celda = celda(claves[nodo]);
+        siguientes[nodo] = cabezas[celda];
+        cabezas[celda] = nodo;
+    }
+
+    private int celda(int clave) {
+        return clave & (cabezas.length - 1);
+    }
+
+    private void redimensionar(int celdas) {
+        cabezas = nuevasCabezas(celdas);
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (vivos.get(doc)) {
+                for (int banda = 0; banda < BANDAS; banda++) {
+                    enlazar(doc * BANDAS + banda);
+                }
+            }
+        }
+    }
+
+    // Renumera los documentos vivos de forma consecutiva y rehace la tabla sin los muertos
+    void compactar() {
+        int siguiente = 0;
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (vivos.get(doc)) {
+                recetaPorDoc[siguiente] = recetaPorDoc[doc];
+                rasgosPorDoc[siguiente] = rasgosPorDoc[doc];
+                System.arraycopy(claves, doc * BANDAS, claves, siguiente * BANDAS, BANDAS);
+                docPorReceta.put(recetaPorDoc[siguiente], siguiente);
+                siguiente++;
+            }
+        }
+        Arrays.fill(rasgosPorDoc, siguiente, numDocs, null);
+        vivos.clear();
+        vivos.set(0, siguiente);
+        numDocs = siguiente;
+        redimensionar(cabezas.length);
+    }
+
+    private static int[] nuevasCabezas(int celdas) {
+        int[] nuevas = new int[celdas];
+        Arrays.fill(nuevas, FIN);
+        return nuevas;
+    }
+
+    // Finalizador de SplitMix64: cada bit de la entrada afecta a todos los de la salida
+    private static long mezclar(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    private static int[] unicosOrdenados(int[] ids) {
+        if (ids == null || ids.length == 0) {
+            return new int[0];
+        }
+        int[] ordenados = ids.clone();
+        Arrays.sort(ordenados);
+        int n = 0;
+        for (int i = 0; i < ordenados.length; i++) {
+            if (i == 0 || ordenados[i] != ordenados[i - 1]) {
+                ordenados[n++] = ordenados[i];
+            }
+        }
+        return Arrays.copyOf(ordenados, n);
+    }
+
+    // recetaIds de más a menos parecida, con su similitud de Jaccard
+    public record Resultado(int[] recetaIds, double[] similitudes) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.repositories.RecetaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Mantenimiento común de los índices en memoria sobre las recetas (búsqueda,
+// ingredientes y similitud). Cada servicio registra su índice al arrancar y aquí
+// se le aplican, tras cada commit, las altas, ediciones y borrados
+// (RecetaModificadaEvent) y los lotes importados (RecetasImportadasEvent)
+@Component
+public class IndicesRecetas {
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private TransaccionesAisladas transacciones;
+
+    private final List<IndiceRecetas<?, ?>> indices = new CopyOnWriteArrayList<>();
+
+    public <I, D> IndiceRecetas<I, D> registrar(int tamanoTramo, Supplier<I> crear,
+            IndiceRecetas.Cargador<D> cargador, IndiceRecetas.Indexador<I, D> indexador) {
+        return registrar(tamanoTramo, crear, cargador, indexador, indice -> {
+        });
+    }
+
+    public <I, D> IndiceRecetas<I, D> registrar(int tamanoTramo, Supplier<I> crear,
+            IndiceRecetas.Cargador<D> cargador, IndiceRecetas.Indexador<I, D> indexador, Consumer<I> completar) {
+        IndiceRecetas<I, D> indice = new IndiceRecetas<>(this, tamanoTramo, crear, cargador, indexador, completar);
+        indices.add(indice);
+        return indice;
+    }
+
+    // Recorre todos los IDs de receta en tramos [desdeId, hastaId] de tamanoTramo
+    public void porTramos(int tamanoTramo, BiConsumer<Integer, Integer> tramo) {
+        Integer maxId = recetaRepository.findMaxId();
+        if (maxId != null) {
+            for (int desde = 1; desde <= maxId; desde += tamanoTramo) {
+                tramo.accept(desde, desde + tamanoTramo - 1);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecetaModificada(RecetaModificadaEvent event) {
+        Integer recetaId = event.recetaId();
+        for (IndiceRecetas<?, ?> indice : indices) {
+            indice.actualizar(recetaId, recetaId, List.of(recetaId));
+        }
+    }
+
+    // Un lote importado se lee por tramo de IDs, con una consulta por índice
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecetasImportadas(RecetasImportadasEvent event) {
+        for (IndiceRecetas<?, ?> indice : indices) {
+            indice.actualizar(event.desdeId(), event.hastaId(), event.recetaIds());
+        }
+    }
+
+    TransaccionesAisladas getTransacciones() {
+        return transacciones;
+    }
+}
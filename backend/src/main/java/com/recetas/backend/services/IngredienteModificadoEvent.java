@@ -0,0 +1,6 @@
+package com.recetas.backend.services;
+
+// Publicado por IngredienteService al crear, renombrar o borrar un ingrediente;
+// los índices en memoria lo reciben tras el commit (ver RecetaModificadaEvent)
+public record IngredienteModificadoEvent(Integer ingredienteId) {
+}
@@ -4,7 +4,10 @@ import com.recetas.backend.dtos.IngredienteDto;
 import com.recetas.backend.exceptions.ResourceNotFoundException;
 import com.recetas.backend.models.Ingrediente;
 import com.recetas.backend.repositories.IngredienteRepository;
+import com.recetas.backend.utils.RestriccionesBd;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -16,24 +19,36 @@ public class IngredienteService {
     @Autowired
     private IngredienteRepository ingredienteRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DatosReferenciaCache datosReferenciaCache;
+
+    // Listado paginado por ID desde DatosReferenciaCache, sin consultas
     public Page<IngredienteDto> getAllIngredientes(Pageable pageable) {
-        return ingredienteRepository.findAll(pageable).map(IngredienteDto::fromEntity);
+        return datosReferenciaCache.getIngredientes(pageable).map(IngredienteDto::fromEntity);
+    }
+
+    // Cambia con cualquier alta, cambio de nombre o borrado; se usa como ETag del listado
+    public long getVersionIngredientes() {
+        return datosReferenciaCache.getVersionIngredientes();
     }
 
     public IngredienteDto getIngredienteById(Integer id) {
-        Ingrediente ingrediente = ingredienteRepository.findById(id)
+        Ingrediente ingrediente = datosReferenciaCache.getIngrediente(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Ingrediente no encontrado con ID: " + id));
         return IngredienteDto.fromEntity(ingrediente);
     }
 
     @Transactional
     public IngredienteDto createIngrediente(IngredienteDto ingredienteDto) {
-        if (ingredienteRepository.findByNombre(ingredienteDto.getNombre()).isPresent()) {
-            throw new RuntimeException("Error: ¡El nombre del ingrediente ya existe!");
-        }
+        comprobarNombreLibre(ingredienteDto.getNombre(), null);
         Ingrediente ingrediente = new Ingrediente();
         ingrediente.setNombre(ingredienteDto.getNombre());
-        return IngredienteDto.fromEntity(ingredienteRepository.save(ingrediente));
+        ingrediente = guardar(ingrediente);
+        eventPublisher.publishEvent(new IngredienteModificadoEvent(ingrediente.getId()));
+        return IngredienteDto.fromEntity(ingrediente);
     }
 
     @Transactional
@@ -41,13 +56,11 @@ public class IngredienteService {
         Ingrediente ingrediente = ingredienteRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Ingrediente no encontrado con ID: " + id));
 
-        if (ingredienteRepository.findByNombre(ingredienteDto.getNombre()).isPresent() &&
-                !ingredienteRepository.findByNombre(ingredienteDto.getNombre()).get().getId().equals(id)) {
-            throw new RuntimeException("Error: ¡El nombre del ingrediente ya existe!");
-        }
-
+        comprobarNombreLibre(ingredienteDto.getNombre(), id);
         ingrediente.setNombre(ingredienteDto.getNombre());
-        return IngredienteDto.fromEntity(ingredienteRepository.save(ingrediente));
+        ingrediente = guardar(ingrediente);
+        eventPublisher.publishEvent(new IngredienteModificadoEvent(ingrediente.getId()));
+        return IngredienteDto.fromEntity(ingrediente);
     }
 
     @Transactional
@@ -56,5 +69,29 @@ public class IngredienteService {
             throw new ResourceNotFoundException("Ingrediente no encontrado con ID: " + id);
         }
         ingredienteRepository.deleteById(id);
+        eventPublisher.publishEvent(new IngredienteModificadoEvent(id));
+    }
+
+    // Nombre repetido (sin distinguir mayúsculas) según la instantánea de
+    // DatosReferenciaCache, sin consultar la base de datos. Un alta que la
+    // instantánea aún no recoge la detecta el índice único al guardar
+    private void comprobarNombreLibre(String nombre, Integer id) {
+        Integer existente = nombre != null
+                ? datosReferenciaCache.getInstantanea().ingredientesPorNombre().get(DatosReferenciaCache.normalizar(nombre))
+                : null;
+        if (existente != null && !existente.equals(id)) {
+            throw new RuntimeException("Error: ¡El nombre del ingrediente ya existe!");
+        }
+    }
+
+    private Ingrediente guardar(Ingrediente ingrediente) {
+        try {
+            return ingredienteRepository.saveAndFlush(ingrediente);
+        } catch (DataIntegrityViolationException e) {
+            if (!RestriccionesBd.esClaveDuplicada(e)) {
+                throw e;
+            }
+            throw new RuntimeException("Error: ¡El nombre del ingrediente ya existe!");
+        }
     }
 }
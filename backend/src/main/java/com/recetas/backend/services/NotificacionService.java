@@ -12,6 +12,7 @@ import com.recetas.backend.repositories.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,7 +30,19 @@ public class NotificacionService {
     @Autowired
     private RecetaRepository recetaRepository;
 
+    @Autowired
+    private ConteoCache conteoCache;
+
     public Page<NotificacionDto> getNotificacionesByUsuario(Integer usuarioId, Pageable pageable) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
+        Slice<NotificacionDto> notificaciones = notificacionRepository.findByUsuario(usuario, pageable)
+                .map(NotificacionDto::fromEntity);
+        return conteoCache.pagina(notificaciones, ConteoCache.clave("notificaciones", usuarioId),
+                () -> notificacionRepository.countByUsuario(usuario));
+    }
+
+    public Slice<NotificacionDto> getNotificacionesByUsuarioSlice(Integer usuarioId, Pageable pageable) {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
         return notificacionRepository.findByUsuario(usuario, pageable).map(NotificacionDto::fromEntity);
@@ -70,6 +83,7 @@ public class NotificacionService {
             throw new RuntimeException("No tienes permiso para eliminar esta notificación.");
         }
         notificacionRepository.delete(notificacion);
+        conteoCache.invalidar(ConteoCache.clave("notificaciones", usuarioId));
     }
 
     @Transactional
@@ -99,6 +113,7 @@ public class NotificacionService {
         notificacion.setLeida(false);
         notificacion.setFechaCreacion(LocalDateTime.now());
 
+        conteoCache.invalidar(ConteoCache.clave("notificaciones", usuarioId));
         return NotificacionDto.fromEntity(notificacionRepository.save(notificacion));
     }
 }
@@ -0,0 +1,153 @@
+package com.recetas.backend.services;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+// Puntuaciones de tendencia por receta con decaimiento exponencial: cada
+// interacción suma su peso y pierde la mitad de su valor cada vidaMedia. Para no
+// tocar todas las recetas al pasar el tiempo, los pesos se guardan escalados a un
+// instante de referencia (peso * e^(lambda * (t - referencia))): el orden entre
+// recetas no cambia con el tiempo y la puntuación actual es el valor guardado por
+// e^(-lambda * (ahora - referencia)). Cuando el factor crece demasiado se reescala
+// todo a una referencia nueva y se descartan las puntuaciones despreciables. No
+// es seguro para hilos: TendenciasService lo protege con un cerrojo.
+public class PuntuacionesTendencia {
+
+    // e^40 ~ 2.4e17: margen de sobra antes de perder precisión en un double
+    private static final double MAX_EXPONENTE = 40;
+
+    private final double lambda;
+    private final double umbral;
+    private final Map<Integer, Double> escaladas = new HashMap<>();
+    private long referencia;
+
+    // umbral: puntuación actual por debajo de la cual la receta deja de contar
+    public PuntuacionesTendencia(long vidaMediaMs, double umbral, long ahora) {
+        this.lambda = Math.log(2) / vidaMediaMs;
+        this.umbral = umbral;
+        this.referencia = ahora;
+    }
+
+    public void registrar(int recetaId, double peso, long instante) {
+        if (lambda * (instante - referencia) > MAX_EXPONENTE) {
+            reescalar(instante);
+        }
+        escaladas.merge(recetaId, peso * Math.exp(lambda * (instante - referencia)), Double::sum);
+    }
+
+    public void eliminar(int recetaId) {
+        escaladas.remove(recetaId);
+    }
+
+    public double puntuacion(int recetaId, long ahora) {
+        Double escalada = escaladas.get(recetaId);
+        return escalada == null ? 0 : escalada * Math.exp(-lambda * (ahora - referencia));
+    }
+
+    public int getNumRecetas() {
+        return escaladas.size();
+    }
+
+    // Las "limite" recetas con mayor puntuación, de mayor a menor (a igualdad, menor
+    // ID), con su puntuación en "ahora". Aprovecha para descartar las despreciables
+    public Top mejores(int limite, long ahora) {
+        reescalar(ahora);
+        int k = Math.max(limite, 0);
+        // Montículo de mínimos sobre arrays paralelos; la raíz es la peor de las k
+        int[] ids = new int[k];
+        double[] valores = new double[k];
+        int tamano = 0;
+        for (Map.Entry<Integer, Double> entrada : escaladas.entrySet()) {
+            int id = entrada.getKey();
+            double valor = entrada.getValue();
+            if (tamano < k) {
+                ids[tamano] = id;
+                valores[tamano] = valor;
+                subir(ids, valores, tamano++);
+            } else if (k > 0 && peor(ids[0], valores[0], id, valor)) {
+                ids[0] = id;
+                valores[0] = valor;
+                bajar(ids, valores, tamano);
+            }
+        }
+        // Se vacía el montículo de peor a mejor rellenando desde el final
+        int[] recetaIds = new int[tamano];
+        double[] puntuaciones = new double[tamano];
+        for (int i = tamano - 1; i >= 0; i--) {
+            recetaIds[i] = ids[0];
+            puntuaciones[i] = valores[0];
+            ids[0] = ids[i];
+            valores[0] = valores[i];
+            bajar(ids, valores, i);
+        }
+        return new Top(recetaIds, puntuaciones);
+    }
+
+    // Lleva la referencia a "ahora" (las guardadas pasan a ser puntuaciones actuales)
+    // y descarta las que están por debajo del umbral
+    private void reescalar(long ahora) {
+        double factor = Math.exp(-lambda * (ahora - referencia));
+        Iterator<Map.Entry<Integer, Double>> iterador = escaladas.entrySet().iterator();
+        while (iterador.hasNext()) {
+            Map.Entry<Integer, Double> entrada = iterador.next();
+            double actual = entrada.getValue() * factor;
+            if (actual < umbral) {
+                iterador.remove();
+            } else {
+                entrada.setValue(actual);
+            }
+        }
+        referencia = ahora;
+    }
+
+    private static boolean peor(int id1, double valor1, int id2, double valor2) {
+        return valor1 != valor2 ? valor1 < valor2 : id1 > id2;
+    }
+
+    private static void subir(int[] ids, double[] valores, int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (!peor(ids[i], valores[i], ids[padre], valores[padre])) {
+                break;
+            }
+            intercambiar(ids, valores, i, padre);
+            i = padre;
+        }
+    }
+
+    private static void bajar(int[] ids, double[] valores, int tamano) {
+        int i = 0;
+        while (true) {
+            int peor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamano && peor(ids[izquierdo], valores[izquierdo], ids[peor], valores[peor])) {
+                peor = izquierdo;
+            }
+            if (derecho < tamano && peor(ids[derecho], valores[derecho], ids[peor], valores[peor])) {
+                peor = derecho;
+            }
+            if (peor == i) {
+                return;
+            }
+            intercambiar(ids, valores, i, peor);
+            i = peor;
+        }
+    }
+
+    private static void intercambiar(int[] ids, double[] valores, int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        double valor = valores[i];
+        valores[i] = valores[j];
+        valores[j] = valor;
+    }
+
+    // recetaIds de mayor a menor puntuación
+    public record Top(int[] recetaIds, double[] puntuaciones) {
+
+        public static final Top VACIO = new Top(new int[0], new double[0]);
+    }
+}
@@ -0,0 +1,310 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.CalificacionDto;
+import com.recetas.backend.dtos.CategoriaDto;
+import com.recetas.backend.dtos.ComentarioDto;
+import com.recetas.backend.dtos.IngredienteDto;
+import com.recetas.backend.dtos.PasoDto;
+import com.recetas.backend.dtos.RecetaDto;
+import com.recetas.backend.dtos.RecetaIngredienteDto;
+import com.recetas.backend.dtos.UsuarioDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+// Caché en memoria del detalle de recetas (GET /api/recetas/{id}).
+// Acotada por número de entradas y por peso aproximado en bytes, con TTL por
+// entrada y expulsión LRU. Las métricas se publican en actuator bajo
+// recetas.cache.detalle.*
+//
+// Guarda y devuelve copias del RecetaDto (es mutable): lo que un llamante
+// modifique no llega a la entrada compartida. Las escrituras sobre la receta la
+// invalidan y los cambios de nombre de categorías o ingredientes vacían la caché
+// entera (son raros y una receta puede usar muchos). El nombre y la foto de los
+// usuarios (autor, comentarios y calificaciones) no se invalidan: un cambio de
+// perfil puede tardar en verse hasta ttlSegundos
+@Component
+public class RecetaDetalleCache {
+
+    private final LinkedHashMap<Integer, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntradas;
+    private final long maxPesoBytes;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+
+    // Se incrementa en cada invalidación; una carga que empezó antes de una
+    // invalidación no se guarda para no reintroducir datos obsoletos
+    private final AtomicLong invalidaciones = new AtomicLong();
+    private long pesoTotal;
+
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final Counter expulsionesTamano;
+    private final Counter expulsionesTtl;
+    private final Counter expulsionesInvalidacion;
+
+    @Autowired
+    public RecetaDetalleCache(MeterRegistry meterRegistry,
+            @Value("${recetas.cache.detalle.maxEntradas:10000}") int maxEntradas,
+            @Value("${recetas.cache.detalle.maxPesoBytes:67108864}") long maxPesoBytes,
+            @Value("${recetas.cache.detalle.ttlSegundos:300}") long ttlSegundos) {
+        this(meterRegistry, maxEntradas, maxPesoBytes, TimeUnit.SECONDS.toNanos(ttlSegundos), System::nanoTime);
+    }
+
+    RecetaDetalleCache(MeterRegistry meterRegistry, int maxEntradas, long maxPesoBytes, long ttlNanos,
+            LongSupplier reloj) {
+        this.maxEntradas = maxEntradas;
+        this.maxPesoBytes = maxPesoBytes;
+        this.ttlNanos = ttlNanos;
+        this.reloj = reloj;
+
+        this.aciertos = Counter.builder("recetas.cache.detalle.peticiones").tag("resultado", "acierto")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("recetas.cache.detalle.peticiones").tag("resultado", "fallo")
+                .register(meterRegistry);
+        this.expulsionesTamano = Counter.builder("recetas.cache.detalle.expulsiones").tag("causa", "tamano")
+                .register(meterRegistry);
+        this.expulsionesTtl = Counter.builder("recetas.cache.detalle.expulsiones").tag("causa", "ttl")
+                .register(meterRegistry);
+        this.expulsionesInvalidacion = Counter.builder("recetas.cache.detalle.expulsiones")
+                .tag("causa", "invalidacion").register(meterRegistry);
+        Gauge.builder("recetas.cache.detalle.entradas", this, RecetaDetalleCache::size).register(meterRegistry);
+        Gauge.builder("recetas.cache.detalle.peso", this, RecetaDetalleCache::peso).baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public RecetaDto get(Integer id, Supplier<RecetaDto> cargador) {
+        synchronized (this) {
+            Entrada entrada = entradas.get(id);
+            if (entrada != null) {
+                if (reloj.getAsLong() - entrada.creada < ttlNanos) {
+                    aciertos.increment();
+                    return copiar(entrada.valor);
+                }
+                eliminar(id);
+                expulsionesTtl.increment();
+            }
+        }
+        fallos.increment();
+
+        long version = invalidaciones.get();
+        RecetaDto valor = cargador.get();
+        RecetaDto copia = copiar(valor);
+        synchronized (this) {
+            if (version == invalidaciones.get()) {
+                guardar(id, copia);
+            }
+        }
+        return valor;
+    }
+
+    // Invalida la entrada de inmediato y, si hay una transacción activa, otra vez
+    // tras el commit para descartar lecturas concurrentes del estado anterior
+    public void invalidar(Integer id) {
+        invalidarAhora(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidarAhora(id);
+                }
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriaModificada(CategoriaModificadaEvent event) {
+        invalidarTodo();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredienteModificado(IngredienteModificadoEvent event) {
+        invalidarTodo();
+    }
+
+    public synchronized void invalidarTodo() {
+        invalidaciones.incrementAndGet();
+        expulsionesInvalidacion.increment(entradas.size());
+        entradas.clear();
+        pesoTotal = 0;
+    }
+
+    public synchronized int size() {
+        return entradas.size();
+    }
+
+    public synchronized long peso() {
+        return pesoTotal;
+    }
+
+    private synchronized void invalidarAhora(Integer id) {
+        invalidaciones.incrementAndGet();
+        if (eliminar(id)) {
+            expulsionesInvalidacion.increment();
+        }
+    }
+
+    private void guardar(Integer id, RecetaDto valor) {
+        long peso = estimarPeso(valor);
+        if (peso > maxPesoBytes) {
+            return;
+        }
+        eliminar(id);
+        entradas.put(id, new Entrada(valor, peso, reloj.getAsLong()));
+        pesoTotal += peso;
+
+        Iterator<Map.Entry<Integer, Entrada>> it = entradas.entrySet().iterator();
+        while ((entradas.size() > maxEntradas || pesoTotal > maxPesoBytes) && it.hasNext()) {
+            pesoTotal -= it.next().getValue().peso;
+            it.remove();
+            expulsionesTamano.increment();
+        }
+    }
+
+    private boolean eliminar(Integer id) {
+        Entrada anterior = entradas.remove(id);
+        if (anterior == null) {
+            return false;
+        }
+        pesoTotal -= anterior.peso;
+        return true;
+    }
+
+    // Copia profunda: las colecciones y los DTO anidados también son mutables
+    static RecetaDto copiar(RecetaDto dto) {
+        return new RecetaDto(dto.getId(), dto.getTitulo(), dto.getDescripcion(), dto.getTiempoPreparacion(),
+                dto.getDificultad(), dto.getPorciones(), dto.getUrlImagen(), dto.getFechaCreacion(),
+                copiarUsuario(dto.getUsuario()),
+                copiarLista(dto.getCategorias(), RecetaDetalleCache::copiarCategoria),
+                copiarLista(dto.getPasos(), RecetaDetalleCache::copiarPaso),
+                copiarLista(dto.getIngredientes(), RecetaDetalleCache::copiarIngrediente),
+                copiarLista(dto.getComentarios(), RecetaDetalleCache::copiarComentario),
+                copiarLista(dto.getCalificaciones(), RecetaDetalleCache::copiarCalificacion),
+                dto.getTotalLikes(), dto.getCalificacionMedia(), dto.getTotalCalificaciones(),
+                dto.getTotalComentarios());
+    }
+
+    private static <T> List<T> copiarLista(List<T> lista, UnaryOperator<T> copiar) {
+        if (lista == null) {
+            return null;
+        }
+        List<T> copia = new ArrayList<>(lista.size());
+        for (T elemento : lista) {
+            copia.add(copiar.apply(elemento));
+        }
+        return copia;
+    }
+
+    private static UsuarioDto copiarUsuario(UsuarioDto usuario) {
+        if (usuario == null) {
+            return null;
+        }
+        UsuarioDto copia = new UsuarioDto();
+        copia.setId(usuario.getId());
+        copia.setNombreUsuario(usuario.getNombreUsuario());
+        copia.setEmail(usuario.getEmail());
+        copia.setUrlFotoPerfil(usuario.getUrlFotoPerfil());
+        copia.setFechaRegistro(usuario.getFechaRegistro());
+        copia.setRol(usuario.getRol());
+        return copia;
+    }
+
+    private static CategoriaDto copiarCategoria(CategoriaDto categoria) {
+        CategoriaDto copia = new CategoriaDto();
+        copia.setId(categoria.getId());
+        copia.setNombre(categoria.getNombre());
+        return copia;
+    }
+
+    private static PasoDto copiarPaso(PasoDto paso) {
+        PasoDto copia = new PasoDto();
+        copia.setId(paso.getId());
+        copia.setOrden(paso.getOrden());
+        copia.setDescripcion(paso.getDescripcion());
+        return copia;
+    }
+
+    private static RecetaIngredienteDto copiarIngrediente(RecetaIngredienteDto recetaIngrediente) {
+        RecetaIngredienteDto copia = new RecetaIngredienteDto();
+        copia.setRecetaId(recetaIngrediente.getRecetaId());
+        copia.setIngredienteId(recetaIngrediente.getIngredienteId());
+        copia.setCantidad(recetaIngrediente.getCantidad());
+        if (recetaIngrediente.getIngrediente() != null) {
+            IngredienteDto ingrediente = new IngredienteDto();
+            ingrediente.setId(recetaIngrediente.getIngrediente().getId());
+            ingrediente.setNombre(recetaIngrediente.getIngrediente().getNombre());
+            copia.setIngrediente(ingrediente);
+        }
+        return copia;
+    }
+
+    private static ComentarioDto copiarComentario(ComentarioDto comentario) {
+        ComentarioDto copia = new ComentarioDto();
+        copia.setId(comentario.getId());
+        copia.setComentario(comentario.getComentario());
+        copia.setFechaComentario(comentario.getFechaComentario());
+        copia.setUsuario(copiarUsuario(comentario.getUsuario()));
+        return copia;
+    }
+
+    private static CalificacionDto copiarCalificacion(CalificacionDto calificacion) {
+        CalificacionDto copia = new CalificacionDto();
+        copia.setId(calificacion.getId());
+        copia.setPuntuacion(calificacion.getPuntuacion());
+        copia.setFechaCalificacion(calificacion.getFechaCalificacion());
+        copia.setUsuario(copiarUsuario(calificacion.getUsuario()));
+        copia.setRecetaId(calificacion.getRecetaId());
+        return copia;
+    }
+
+    // Estimación del tamaño en memoria: cabeceras de objeto más el contenido de
+    // las cadenas (UTF-16) de la receta y de sus colecciones
+    static long estimarPeso(RecetaDto dto) {
+        long peso = 256 + longitud(dto.getTitulo()) + longitud(dto.getDescripcion()) + longitud(dto.getUrlImagen());
+        if (dto.getUsuario() != null) {
+            peso += 128 + longitud(dto.getUsuario().getNombreUsuario()) + longitud(dto.getUsuario().getEmail());
+        }
+        peso += pesoLista(dto.getCategorias(), 64, c -> longitud(c.getNombre()));
+        peso += pesoLista(dto.getPasos(), 64, p -> longitud(p.getDescripcion()));
+        peso += pesoLista(dto.getIngredientes(), 128, ri -> longitud(ri.getCantidad()));
+        peso += pesoLista(dto.getComentarios(), 256, c -> longitud(c.getComentario()));
+        peso += pesoLista(dto.getCalificaciones(), 256, c -> 0);
+        return peso;
+    }
+
+    private static <T> long pesoLista(List<T> lista, long porElemento, ToLongFunction<T> extra) {
+        if (lista == null) {
+            return 0;
+        }
+        long peso = 0;
+        for (T elemento : lista) {
+            peso += porElemento + extra.applyAsLong(elemento);
+        }
+        return peso;
+    }
+
+    private static long longitud(String texto) {
+        return texto == null ? 0 : 40 + 2L * texto.length();
+    }
+
+    private record Entrada(RecetaDto valor, long peso, long creada) {
+    }
+}
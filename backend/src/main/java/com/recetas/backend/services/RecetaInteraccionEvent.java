@@ -0,0 +1,17 @@
+package com.recetas.backend.services;
+
+// Publicado por RecetaService en cada interacción con una receta (like dado,
+// calificación nueva, comentario o vista del detalle). TendenciasService lo recibe
+// tras el commit y suma el peso del tipo a la puntuación de tendencia de la receta.
+// "interesado" identifica a quien interactúa (usuario o, en vistas anónimas, la IP)
+// para no contar sus repeticiones; null si no se conoce.
+public record RecetaInteraccionEvent(Integer recetaId, Tipo tipo, String interesado) {
+
+    public enum Tipo {
+        LIKE, CALIFICACION, COMENTARIO, VISTA
+    }
+
+    public static String usuario(Integer usuarioId) {
+        return "usuario:" + usuarioId;
+    }
+}
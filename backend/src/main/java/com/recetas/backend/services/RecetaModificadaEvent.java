@@ -0,0 +1,7 @@
+package com.recetas.backend.services;
+
+// Publicado por RecetaService cuando cambia el texto buscable de una receta
+// (alta, edición, borrado o categorías). Los oyentes que mantienen índices en
+// memoria lo reciben tras el commit y releen la receta, o la quitan si ya no existe.
+public record RecetaModificadaEvent(Integer recetaId) {
+}
@@ -0,0 +1,6 @@
+package com.recetas.backend.services;
+
+// Publicado por RecetaService al crear una receta. FeedService lo recibe tras el
+// commit y, si el autor no es masivo, copia la receta al feed de sus seguidores.
+public record RecetaPublicadaEvent(Integer recetaId, Integer autorId) {
+}
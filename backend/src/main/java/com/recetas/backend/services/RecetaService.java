@@ -1,44 +1,79 @@
 package com.recetas.backend.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.recetas.backend.dtos.*;
 import com.recetas.backend.exceptions.ResourceNotFoundException;
 import com.recetas.backend.models.*;
 import com.recetas.backend.models.Receta.Dificultad;
 import com.recetas.backend.repositories.*;
+import com.recetas.backend.repositories.RecetaSpecifications.ModoBusqueda;
+import com.recetas.backend.utils.FeedCursor;
 import com.recetas.backend.utils.ImgbbService;
+import com.recetas.backend.utils.JsonPatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
 public class RecetaService {
 
-    @Autowired
-    private RecetaRepository recetaRepository;
+    private static final Logger logger = LoggerFactory.getLogger(RecetaService.class);
 
-    @Autowired
-    private UsuarioRepository usuarioRepository;
+    // Recetas por consulta de getEstadoUsuario (una página de tarjetas)
+    public static final int MAX_ESTADO_RECETAS = 100;
+
+    // Campos de RecetaDto que admite PATCH /api/recetas/{id}
+    public static final Set<String> CAMPOS_PATCH = Set.of("titulo", "descripcion", "tiempoPreparacion",
+            "dificultad", "porciones", "categorias", "pasos", "ingredientes");
 
     @Autowired
-    private CategoriaRepository categoriaRepository;
+    private RecetaRepository recetaRepository;
 
     @Autowired
-    private PasoRepository pasoRepository;
+    private UsuarioRepository usuarioRepository;
 
     @Autowired
     private IngredienteRepository ingredienteRepository;
 
     @Autowired
-    private RecetaIngredienteRepository recetaIngredienteRepository;
+    private DatosReferenciaCache datosReferenciaCache;
 
     @Autowired
     private ComentarioRepository comentarioRepository;
@@ -52,16 +87,95 @@ public class RecetaService {
     @Autowired
     private ImgbbService imgbbService;
 
-    public Page<RecetaDto> getAllRecetas(Pageable pageable) {
-        return recetaRepository.findAll(pageable).map(RecetaDto::fromEntity);
+    @Autowired
+    private RecetaDetalleCache recetaDetalleCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ConteoCache conteoCache;
+
+    @Autowired
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    public Page<RecetaSummaryDto> getAllRecetas(Pageable pageable) {
+        return conteoCache.pagina(recetaRepository.findAllResumen(pageable)
+                        .map(contadoresDiferidosService::conLikesPendientes),
+                ConteoCache.clave("recetas"), recetaRepository::count);
+    }
+
+    // Feed de recetas paginado por cursor: se pide un elemento de más para saber
+    // si existe una página siguiente sin ejecutar un COUNT
+    public CursorPageDto<RecetaSummaryDto> getFeedRecetas(String after, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<RecetaSummaryDto> recetas;
+        if (after == null || after.isBlank()) {
+            recetas = recetaRepository.findFeedInicio(limit);
+        } else {
+            FeedCursor cursor = FeedCursor.decode(after);
+            recetas = recetaRepository.findFeedDespuesDe(cursor.fecha(), cursor.id(), limit);
+        }
+        recetas.forEach(contadoresDiferidosService::conLikesPendientes);
+
+        String nextCursor = null;
+        if (recetas.size() > size) {
+            recetas = recetas.subList(0, size);
+            RecetaSummaryDto ultima = recetas.get(size - 1);
+            nextCursor = new FeedCursor(ultima.getFechaCreacion(), ultima.getId()).encode();
+        }
+        return new CursorPageDto<>(recetas, nextCursor);
     }
 
     public RecetaDto getRecetaById(Integer id) {
-        Receta receta = recetaRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + id));
-        return RecetaDto.fromEntity(receta);
+        return getRecetaById(id, null);
+    }
+
+    // Cada lectura del detalle cuenta como una vista en el contador; en tendencias
+    // TendenciasService solo cuenta una por visitante y ventana. El detalle en caché
+    // lleva los likes persistidos; se devuelve una copia con los pendientes de
+    // volcar sumados
+    public RecetaDto getRecetaById(Integer id, String visitante) {
+        RecetaDto receta = recetaDetalleCache.get(id, () -> cargarRecetaDetalle(id));
+        contadoresDiferidosService.registrarVista(id);
+        eventPublisher.publishEvent(new RecetaInteraccionEvent(id, RecetaInteraccionEvent.Tipo.VISTA, visitante));
+        long likesPendientes = contadoresDiferidosService.likesPendientes(id);
+        return likesPendientes == 0 ? receta : receta.withTotalLikes(receta.getTotalLikes() + likesPendientes);
     }
 
+    private RecetaDto cargarRecetaDetalle(Integer id) {
+        // La transacción solo se abre cuando hay que ir a la base de datos
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> {
+            Receta receta = recetaRepository.findDetalleById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + id));
+            // Cada consulta inicializa una colección de la receta ya cargada en el contexto
+            // de persistencia; el total es fijo (5) sin importar cuántos hijos tenga
+            recetaRepository.fetchPasosById(id);
+            recetaRepository.fetchIngredientesById(id);
+            recetaRepository.fetchComentariosById(id);
+            recetaRepository.fetchCalificacionesById(id);
+            return RecetaDto.fromEntity(receta);
+        });
+    }
+
+    // Número constante de sentencias por receta: usuario, INSERT de la receta, un
+    // SELECT ... IN por categorías e ingredientes y, al hacer flush, un batch JDBC
+    // por tabla hija (pasos, receta_ingredientes, receta_categorias). Los IDs de
+    // los pasos salen de una secuencia (Paso), así que no fuerzan un INSERT por fila
     @Transactional
     public RecetaDto createReceta(RecetaDto recetaDto, Integer usuarioId) {
         Usuario usuario = usuarioRepository.findById(usuarioId)
@@ -76,17 +190,9 @@ public class RecetaService {
         receta.setUsuario(usuario);
         receta.setFechaCreacion(LocalDateTime.now());
 
-        // Guardar la receta para obtener el ID antes de manejar relaciones
-        receta = recetaRepository.save(receta);
-
         // Manejar categorías
         if (recetaDto.getCategorias() != null) {
-            for (CategoriaDto categoriaDto : recetaDto.getCategorias()) {
-                Categoria categoria = categoriaRepository.findById(categoriaDto.getId())
-                        .orElseThrow(() -> new ResourceNotFoundException(
-                                "Categoría no encontrada con ID: " + categoriaDto.getId()));
-                receta.getCategorias().add(categoria);
-            }
+            receta.getCategorias().addAll(resolverCategorias(recetaDto.getCategorias()));
         }
 
         // Manejar pasos
@@ -102,19 +208,61 @@ public class RecetaService {
 
         // Manejar ingredientes
         if (recetaDto.getIngredientes() != null) {
+            Map<Integer, Ingrediente> ingredientes = resolverIngredientes(recetaDto.getIngredientes());
             for (RecetaIngredienteDto riDto : recetaDto.getIngredientes()) {
-                Ingrediente ingrediente = ingredienteRepository.findById(riDto.getIngredienteId())
-                        .orElseThrow(() -> new ResourceNotFoundException(
-                                "Ingrediente no encontrado con ID: " + riDto.getIngredienteId()));
                 RecetaIngrediente recetaIngrediente = new RecetaIngrediente();
                 recetaIngrediente.setReceta(receta);
-                recetaIngrediente.setIngrediente(ingrediente);
+                recetaIngrediente.setIngrediente(ingredientes.get(riDto.getIngredienteId()));
                 recetaIngrediente.setCantidad(riDto.getCantidad());
                 receta.getIngredientes().add(recetaIngrediente);
             }
         }
 
-        return RecetaDto.fromEntity(recetaRepository.save(receta));
+        // Un solo save: la receta y, en cascada, sus pasos e ingredientes
+        receta = recetaRepository.save(receta);
+        conteoCache.invalidar(ConteoCache.clave("recetas.usuario", usuarioId));
+        eventPublisher.publishEvent(new RecetaModificadaEvent(receta.getId()));
+        eventPublisher.publishEvent(new RecetaPublicadaEvent(receta.getId(), usuarioId));
+        return RecetaDto.fromEntity(receta);
+    }
+
+    // Categorías por ID desde DatosReferenciaCache; 404 con la primera que no exista
+    private List<Categoria> resolverCategorias(List<CategoriaDto> categoriaDtos) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (CategoriaDto categoriaDto : categoriaDtos) {
+            if (categoriaDto.getId() == null) {
+                throw new RuntimeException("El ID de la categoría no puede ser nulo");
+            }
+            ids.add(categoriaDto.getId());
+        }
+        Map<Integer, Categoria> porId = datosReferenciaCache.getCategorias(ids);
+        for (Integer id : ids) {
+            if (!porId.containsKey(id)) {
+                throw new ResourceNotFoundException("Categoría no encontrada con ID: " + id);
+            }
+        }
+        return ids.stream().map(porId::get).toList();
+    }
+
+    // Ingredientes por ID desde DatosReferenciaCache; 404 con el primero que no exista
+    private Map<Integer, Ingrediente> resolverIngredientes(List<RecetaIngredienteDto> ingredienteDtos) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (RecetaIngredienteDto riDto : ingredienteDtos) {
+            if (riDto.getIngredienteId() == null) {
+                throw new RuntimeException("El ID del ingrediente no puede ser nulo");
+            }
+            ids.add(riDto.getIngredienteId());
+        }
+        Map<Integer, Ingrediente> porId = datosReferenciaCache.getIngredientes(ids);
+        for (Integer id : ids) {
+            if (!porId.containsKey(id)) {
+                throw new ResourceNotFoundException("Ingrediente no encontrado con ID: " + id);
+            }
+        }
+        // RecetaIngrediente persiste en cascada su ingrediente (es parte del ID) y no
+        // admite la copia desconectada de la caché: se enlaza por referencia, sin SELECT
+        porId.replaceAll((ingredienteId, ingrediente) -> ingredienteRepository.getReferenceById(ingredienteId));
+        return porId;
     }
 
     @Transactional
@@ -125,6 +273,7 @@ public class RecetaService {
         if (!receta.getUsuario().getId().equals(usuarioId)) {
             throw new RuntimeException("No tienes permiso para actualizar esta receta.");
         }
+        recetaDetalleCache.invalidar(id);
 
         receta.setTitulo(recetaDto.getTitulo());
         receta.setDescripcion(recetaDto.getDescripcion());
@@ -132,52 +281,258 @@ public class RecetaService {
         receta.setDificultad(recetaDto.getDificultad());
         receta.setPorciones(recetaDto.getPorciones());
 
-        // Actualizar categorías
+        // Pasos, ingredientes y categorías se comparan con lo persistido y solo se
+        // escriben las filas que cambian (en batch al hacer flush)
         if (recetaDto.getCategorias() != null) {
-            receta.getCategorias().clear(); // Limpiar existentes
-            for (CategoriaDto categoriaDto : recetaDto.getCategorias()) {
-                Categoria categoria = categoriaRepository.findById(categoriaDto.getId())
-                        .orElseThrow(() -> new ResourceNotFoundException(
-                                "Categoría no encontrada con ID: " + categoriaDto.getId()));
-                receta.getCategorias().add(categoria);
+            registrarCambios(id, "receta_categorias", actualizarCategorias(receta, recetaDto.getCategorias()));
+        }
+        if (recetaDto.getPasos() != null) {
+            registrarCambios(id, "pasos", actualizarPasos(receta, recetaDto.getPasos()));
+        }
+        if (recetaDto.getIngredientes() != null) {
+            registrarCambios(id, "receta_ingredientes", actualizarIngredientes(receta, recetaDto.getIngredientes()));
+        }
+
+        eventPublisher.publishEvent(new RecetaModificadaEvent(id));
+        return RecetaDto.fromEntity(recetaRepository.save(receta));
+    }
+
+    private CambiosFilas actualizarCategorias(Receta receta, List<CategoriaDto> categoriaDtos) {
+        CambiosFilas cambios = new CambiosFilas();
+        Set<Integer> nuevas = new LinkedHashSet<>();
+        for (CategoriaDto categoriaDto : categoriaDtos) {
+            nuevas.add(categoriaDto.getId());
+        }
+        cambios.eliminadas = receta.getCategorias().size();
+        receta.getCategorias().removeIf(categoria -> !nuevas.contains(categoria.getId()));
+        cambios.eliminadas -= receta.getCategorias().size();
+
+        Set<Integer> actuales = receta.getCategorias().stream().map(Categoria::getId).collect(Collectors.toSet());
+        List<CategoriaDto> anadidas = categoriaDtos.stream().filter(c -> !actuales.contains(c.getId())).toList();
+        if (!anadidas.isEmpty()) {
+            List<Categoria> categorias = resolverCategorias(anadidas);
+            receta.getCategorias().addAll(categorias);
+            cambios.insertadas = categorias.size();
+        }
+        return cambios;
+    }
+
+    // Cada PasoDto se empareja con el paso persistido de su ID o, si no lo trae,
+    // con el del mismo orden. Los persistidos sin pareja se borran y los DTO sin
+    // pareja se insertan; un paso sin cambios no genera UPDATE (dirty checking)
+    private CambiosFilas actualizarPasos(Receta receta, List<PasoDto> pasoDtos) {
+        CambiosFilas cambios = new CambiosFilas();
+        Map<Integer, Paso> porId = new HashMap<>();
+        for (Paso paso : receta.getPasos()) {
+            porId.put(paso.getId(), paso);
+        }
+        Map<PasoDto, Paso> parejas = new IdentityHashMap<>();
+        for (PasoDto pasoDto : pasoDtos) {
+            Paso paso = pasoDto.getId() != null ? porId.remove(pasoDto.getId()) : null;
+            if (paso != null) {
+                parejas.put(pasoDto, paso);
+            }
+        }
+        Map<Integer, Paso> porOrden = new HashMap<>();
+        for (Paso paso : porId.values()) {
+            porOrden.putIfAbsent(paso.getOrden(), paso);
+        }
+        for (PasoDto pasoDto : pasoDtos) {
+            if (!parejas.containsKey(pasoDto)) {
+                Paso paso = porOrden.remove(pasoDto.getOrden());
+                if (paso != null) {
+                    parejas.put(pasoDto, paso);
+                    porId.remove(paso.getId());
+                }
             }
         }
 
-        // Actualizar pasos (requiere lógica más compleja para
-        // añadir/eliminar/modificar)
-        // Por simplicidad, aquí se eliminarán y se volverán a añadir
-        if (recetaDto.getPasos() != null) {
-            pasoRepository.deleteAll(receta.getPasos()); // Eliminar todos los pasos existentes
-            receta.getPasos().clear();
-            for (PasoDto pasoDto : recetaDto.getPasos()) {
-                Paso paso = new Paso();
+        // Primero se quitan los sobrantes: modificar un paso cambia su hashCode
+        Set<Paso> sobrantes = new HashSet<>(porId.values());
+        receta.getPasos().removeIf(sobrantes::contains);
+        cambios.eliminadas = sobrantes.size();
+        List<Paso> nuevos = new ArrayList<>();
+        for (PasoDto pasoDto : pasoDtos) {
+            Paso paso = parejas.get(pasoDto);
+            if (paso == null) {
+                paso = new Paso();
                 paso.setReceta(receta);
                 paso.setOrden(pasoDto.getOrden());
                 paso.setDescripcion(pasoDto.getDescripcion());
-                receta.getPasos().add(paso);
+                nuevos.add(paso);
+            } else if (!paso.getOrden().equals(pasoDto.getOrden())
+                    || !paso.getDescripcion().equals(pasoDto.getDescripcion())) {
+                paso.setOrden(pasoDto.getOrden());
+                paso.setDescripcion(pasoDto.getDescripcion());
+                cambios.actualizadas++;
+            }
+        }
+        receta.getPasos().addAll(nuevos);
+        cambios.insertadas = nuevos.size();
+        return cambios;
+    }
+
+    // Ingredientes emparejados por ingredienteId: se actualiza la cantidad si
+    // cambia, se borran los que ya no están y se insertan los nuevos
+    private CambiosFilas actualizarIngredientes(Receta receta, List<RecetaIngredienteDto> ingredienteDtos) {
+        CambiosFilas cambios = new CambiosFilas();
+        Map<Integer, String> cantidades = new LinkedHashMap<>();
+        for (RecetaIngredienteDto riDto : ingredienteDtos) {
+            cantidades.put(riDto.getIngredienteId(), riDto.getCantidad());
+        }
+        Map<Integer, RecetaIngrediente> actuales = new HashMap<>();
+        for (RecetaIngrediente recetaIngrediente : receta.getIngredientes()) {
+            actuales.put(recetaIngrediente.getIngrediente().getId(), recetaIngrediente);
+        }
+
+        Set<RecetaIngrediente> sobrantes = new HashSet<>();
+        actuales.forEach((ingredienteId, recetaIngrediente) -> {
+            if (!cantidades.containsKey(ingredienteId)) {
+                sobrantes.add(recetaIngrediente);
+            }
+        });
+        receta.getIngredientes().removeIf(sobrantes::contains);
+        cambios.eliminadas = sobrantes.size();
+
+        List<RecetaIngredienteDto> anadidos = ingredienteDtos.stream()
+                .filter(riDto -> !actuales.containsKey(riDto.getIngredienteId())).toList();
+        Map<Integer, Ingrediente> ingredientes = anadidos.isEmpty() ? Map.of() : resolverIngredientes(anadidos);
+        List<RecetaIngrediente> nuevos = new ArrayList<>();
+        cantidades.forEach((ingredienteId, cantidad) -> {
+            RecetaIngrediente recetaIngrediente = actuales.get(ingredienteId);
+            if (recetaIngrediente == null) {
+                nuevos.add(new RecetaIngrediente(receta, ingredientes.get(ingredienteId), cantidad));
+            } else if (!Objects.equals(recetaIngrediente.getCantidad(), cantidad)) {
+                recetaIngrediente.setCantidad(cantidad);
+                cambios.actualizadas++;
+            }
+        });
+        receta.getIngredientes().addAll(nuevos);
+        cambios.insertadas = nuevos.size();
+        return cambios;
+    }
+
+    private void registrarCambios(Integer recetaId, String tabla, CambiosFilas cambios) {
+        meterRegistry.counter("recetas.actualizacion.filas", "tabla", tabla, "operacion", "insert")
+                .increment(cambios.insertadas);
+        meterRegistry.counter("recetas.actualizacion.filas", "tabla", tabla, "operacion", "update")
+                .increment(cambios.actualizadas);
+        meterRegistry.counter("recetas.actualizacion.filas", "tabla", tabla, "operacion", "delete")
+                .increment(cambios.eliminadas);
+        logger.debug("Receta {} actualizada: {} +{} ~{} -{}", recetaId, tabla, cambios.insertadas,
+                cambios.actualizadas, cambios.eliminadas);
+    }
+
+    // Filas afectadas por tabla hija en una actualización de receta
+    private static final class CambiosFilas {
+        private int insertadas;
+        private int actualizadas;
+        private int eliminadas;
+    }
+
+    // Actualización parcial (PATCH). El patch se aplica sobre la representación
+    // editable de la receta: campos escalares de CAMPOS_PATCH y, solo si el patch
+    // los toca, sus listas (pasos por orden, ingredientes por ingredienteId y
+    // categorías por ID). El resultado pasa por updateReceta, que escribe solo
+    // las columnas y filas hijas que cambian; las listas no tocadas ni se cargan
+    @Transactional
+    public RecetaDto mergePatchReceta(Integer id, JsonNode patch, Integer usuarioId) {
+        return patchReceta(id, JsonPatch.camposMergePatch(patch),
+                documento -> JsonPatch.aplicarMergePatch(documento, patch), usuarioId);
+    }
+
+    @Transactional
+    public RecetaDto jsonPatchReceta(Integer id, JsonNode operaciones, Integer usuarioId) {
+        return patchReceta(id, JsonPatch.camposJsonPatch(operaciones),
+                documento -> JsonPatch.aplicarJsonPatch(documento, operaciones), usuarioId);
+    }
+
+    private RecetaDto patchReceta(Integer id, Set<String> campos, UnaryOperator<JsonNode> aplicar,
+            Integer usuarioId) {
+        for (String campo : campos) {
+            if (!CAMPOS_PATCH.contains(campo)) {
+                throw new RuntimeException("El campo no se puede modificar con PATCH: " + campo);
             }
         }
+        Receta receta = recetaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + id));
+        if (!receta.getUsuario().getId().equals(usuarioId)) {
+            throw new RuntimeException("No tienes permiso para actualizar esta receta.");
+        }
+
+        JsonNode resultado = aplicar.apply(documentoEditable(receta, campos));
+        RecetaDto recetaDto;
+        try {
+            recetaDto = objectMapper.treeToValue(resultado, RecetaDto.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("La receta no es válida tras aplicar el patch: " + e.getOriginalMessage());
+        }
+        validarPatch(recetaDto);
+        // Una lista tocada que desaparece (merge patch con null) queda vacía; las
+        // no tocadas van a null para que updateReceta no las compare
+        recetaDto.setCategorias(listaPatch(campos, "categorias", recetaDto.getCategorias()));
+        recetaDto.setPasos(listaPatch(campos, "pasos", recetaDto.getPasos()));
+        recetaDto.setIngredientes(listaPatch(campos, "ingredientes", recetaDto.getIngredientes()));
+        return updateReceta(id, recetaDto, usuarioId);
+    }
 
-        // Actualizar ingredientes (requiere lógica más compleja para
-        // añadir/eliminar/modificar)
-        // Por simplicidad, aquí se eliminarán y se volverán a añadir
+    private ObjectNode documentoEditable(Receta receta, Set<String> campos) {
+        ObjectNode documento = objectMapper.createObjectNode();
+        documento.put("titulo", receta.getTitulo());
+        documento.put("descripcion", receta.getDescripcion());
+        documento.put("tiempoPreparacion", receta.getTiempoPreparacion());
+        documento.put("dificultad", receta.getDificultad().name());
+        documento.put("porciones", receta.getPorciones());
+        if (campos.contains("categorias")) {
+            ArrayNode categorias = documento.putArray("categorias");
+            receta.getCategorias().stream().sorted(Comparator.comparing(Categoria::getId))
+                    .forEach(categoria -> categorias.addObject().put("id", categoria.getId())
+                            .put("nombre", categoria.getNombre()));
+        }
+        if (campos.contains("pasos")) {
+            ArrayNode pasos = documento.putArray("pasos");
+            receta.getPasos().stream().sorted(Comparator.comparing(Paso::getOrden).thenComparing(Paso::getId))
+                    .forEach(paso -> pasos.addObject().put("id", paso.getId()).put("orden", paso.getOrden())
+                            .put("descripcion", paso.getDescripcion()));
+        }
+        if (campos.contains("ingredientes")) {
+            ArrayNode ingredientes = documento.putArray("ingredientes");
+            receta.getIngredientes().stream()
+                    .sorted(Comparator.comparing(recetaIngrediente -> recetaIngrediente.getIngrediente().getId()))
+                    .forEach(recetaIngrediente -> ingredientes.addObject()
+                            .put("ingredienteId", recetaIngrediente.getIngrediente().getId())
+                            .put("cantidad", recetaIngrediente.getCantidad()));
+        }
+        return documento;
+    }
+
+    // Las mismas reglas que @Valid en PUT, más las de cada paso e ingrediente
+    private void validarPatch(RecetaDto recetaDto) {
+        List<Object> objetos = new ArrayList<>();
+        objetos.add(recetaDto);
+        if (recetaDto.getPasos() != null) {
+            objetos.addAll(recetaDto.getPasos());
+        }
+        for (Object objeto : objetos) {
+            Set<ConstraintViolation<Object>> violaciones = validator.validate(objeto);
+            if (!violaciones.isEmpty()) {
+                throw new RuntimeException(violaciones.iterator().next().getMessage());
+            }
+        }
         if (recetaDto.getIngredientes() != null) {
-            recetaIngredienteRepository.deleteAll(receta.getIngredientes()); // Eliminar todos los ingredientes
-                                                                             // existentes
-            receta.getIngredientes().clear();
             for (RecetaIngredienteDto riDto : recetaDto.getIngredientes()) {
-                Ingrediente ingrediente = ingredienteRepository.findById(riDto.getIngredienteId())
-                        .orElseThrow(() -> new ResourceNotFoundException(
-                                "Ingrediente no encontrado con ID: " + riDto.getIngredienteId()));
-                RecetaIngrediente recetaIngrediente = new RecetaIngrediente();
-                recetaIngrediente.setReceta(receta);
-                recetaIngrediente.setIngrediente(ingrediente);
-                recetaIngrediente.setCantidad(riDto.getCantidad());
-                receta.getIngredientes().add(recetaIngrediente);
+                if (riDto.getCantidad() == null || riDto.getCantidad().isBlank()) {
+                    throw new RuntimeException("La cantidad no puede estar vacía");
+                }
             }
         }
+    }
 
-        return RecetaDto.fromEntity(recetaRepository.save(receta));
+    private static <T> List<T> listaPatch(Set<String> campos, String campo, List<T> lista) {
+        if (!campos.contains(campo)) {
+            return null;
+        }
+        return lista != null ? lista : List.of();
     }
 
     @Transactional
@@ -188,36 +543,40 @@ public class RecetaService {
         if (!receta.getUsuario().getId().equals(usuarioId)) {
             throw new RuntimeException("No tienes permiso para eliminar esta receta.");
         }
+        recetaDetalleCache.invalidar(id);
         recetaRepository.delete(receta);
+        conteoCache.invalidar(ConteoCache.clave("recetas.usuario", usuarioId));
+        eventPublisher.publishEvent(new RecetaModificadaEvent(id));
     }
 
-    public Page<RecetaDto> searchRecetas(String titulo, String ingredienteNombre, Dificultad dificultad,
-            Integer tiempoPreparacionMax, String categoriaNombre, Pageable pageable) {
-        if (titulo != null) {
-            return recetaRepository.findByTituloContainingIgnoreCase(titulo, pageable).map(RecetaDto::fromEntity);
-        }
-        if (ingredienteNombre != null) {
-            return recetaRepository.findByIngredienteNombreContainingIgnoreCase(ingredienteNombre, pageable)
-                    .map(RecetaDto::fromEntity);
-        }
-        if (dificultad != null) {
-            return recetaRepository.findByDificultad(dificultad, pageable).map(RecetaDto::fromEntity);
-        }
-        if (tiempoPreparacionMax != null) {
-            return recetaRepository.findByTiempoPreparacionLessThanEqual(tiempoPreparacionMax, pageable)
-                    .map(RecetaDto::fromEntity);
-        }
-        if (categoriaNombre != null) {
-            return recetaRepository.findByCategoriaNombreContainingIgnoreCase(categoriaNombre, pageable)
-                    .map(RecetaDto::fromEntity);
-        }
-        return getAllRecetas(pageable);
+    // Búsqueda combinada: todos los filtros informados se aplican con AND en una
+    // sola consulta. El COUNT del filtro se reutiliza desde ConteoCache. En modo
+    // TEXTO título e ingrediente se buscan con los índices FULLTEXT y los
+    // resultados salen ordenados por relevancia
+    public Page<RecetaSummaryDto> searchRecetas(String titulo, String ingredienteNombre, Dificultad dificultad,
+            Integer tiempoPreparacionMax, String categoriaNombre, ModoBusqueda modo, Pageable pageable) {
+        Specification<Receta> spec = RecetaSpecifications.busqueda(modo, titulo, ingredienteNombre, dificultad,
+                tiempoPreparacionMax, categoriaNombre);
+        return conteoCache.pagina(recetaRepository.findResumen(spec, pageable)
+                        .map(contadoresDiferidosService::conLikesPendientes),
+                ConteoCache.clave("recetas.busqueda", modo, titulo, ingredienteNombre, dificultad,
+                        tiempoPreparacionMax, categoriaNombre),
+                () -> recetaRepository.count(spec));
+    }
+
+    public Slice<RecetaSummaryDto> searchRecetasSlice(String titulo, String ingredienteNombre,
+            Dificultad dificultad, Integer tiempoPreparacionMax, String categoriaNombre, ModoBusqueda modo,
+            Pageable pageable) {
+        return recetaRepository.findResumen(RecetaSpecifications.busqueda(modo, titulo, ingredienteNombre,
+                dificultad, tiempoPreparacionMax, categoriaNombre), pageable)
+                .map(contadoresDiferidosService::conLikesPendientes);
     }
 
     @Transactional
     public String uploadRecetaImagen(Integer recetaId, MultipartFile file) throws IOException {
         Receta receta = recetaRepository.findById(recetaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
+        recetaDetalleCache.invalidar(recetaId);
 
         String imageUrl = imgbbService.uploadImage(file);
         receta.setUrlImagen(imageUrl);
@@ -229,68 +588,135 @@ public class RecetaService {
     public void deleteRecetaImagen(Integer recetaId) {
         Receta receta = recetaRepository.findById(recetaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
+        recetaDetalleCache.invalidar(recetaId);
 
         // Opcional: eliminar la imagen de ImgBB si la API lo permite
         receta.setUrlImagen(null);
         recetaRepository.save(receta);
     }
 
+    // Sentencias sobre la fila de recetas_likes: el coste no depende de cuántos likes
+    // tenga el usuario o la receta. Primero se intenta quitar el like y, si no lo
+    // había, se inserta; el contador solo cambia si la sentencia afectó a una fila,
+    // así que dos toggles simultáneos del mismo usuario no lo descuadran. El
+    // contador se acumula en ContadoresDiferidosService, sin bloquear la fila de la receta
     @Transactional
     public void toggleLikeReceta(Integer recetaId, Integer usuarioId) {
-        Receta receta = recetaRepository.findById(recetaId)
-                .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
+        if (!recetaRepository.existsById(recetaId)) {
+            throw new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId);
+        }
+        if (!usuarioRepository.existsById(usuarioId)) {
+            throw new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId);
+        }
 
-        if (usuario.getRecetasGustadas().contains(receta)) {
-            usuario.getRecetasGustadas().remove(receta);
+        if (recetaRepository.eliminarLike(usuarioId, recetaId) == 1) {
+            contadoresDiferidosService.incrementarLikes(recetaId, -1);
             // notificacionService.deleteLikeNotification(usuarioId, recetaId); // Si se
             // implementa
-        } else {
-            usuario.getRecetasGustadas().add(receta);
+        } else if (recetaRepository.insertarLike(usuarioId, recetaId) == 1) {
+            contadoresDiferidosService.incrementarLikes(recetaId, 1);
+            // TendenciasService solo cuenta el primer like del usuario en la ventana:
+            // quitarlo y volver a darlo no suma
+            eventPublisher.publishEvent(new RecetaInteraccionEvent(recetaId, RecetaInteraccionEvent.Tipo.LIKE,
+                    RecetaInteraccionEvent.usuario(usuarioId)));
             // notificacionService.createLikeNotification(usuarioId, recetaId); // Si se
             // implementa
         }
-        usuarioRepository.save(usuario);
+        conteoCache.invalidar(ConteoCache.clave("recetas.favoritas", usuarioId));
     }
 
+    // Del contador desnormalizado de la receta (clave primaria), sin COUNT sobre
+    // recetas_likes, más los likes pendientes de volcar
     public Long getRecetaLikesCount(Integer recetaId) {
-        Receta receta = recetaRepository.findById(recetaId)
+        return recetaRepository.findLikeCountById(recetaId)
+                .map(likes -> likes + contadoresDiferidosService.likesPendientes(recetaId))
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
-        return (long) receta.getUsuariosQueGustan().size();
     }
 
-    public Boolean isRecetaLikedByUser(Integer recetaId, Integer usuarioId) {
-        Receta receta = recetaRepository.findById(recetaId)
+    public Long getRecetaVistasCount(Integer recetaId) {
+        return recetaRepository.findViewCountById(recetaId)
+                .map(vistas -> vistas + contadoresDiferidosService.vistasPendientes(recetaId))
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
-        return usuario.getRecetasGustadas().contains(receta);
     }
 
+    public Boolean isRecetaLikedByUser(Integer recetaId, Integer usuarioId) {
+        if (recetaRepository.existsLike(usuarioId, recetaId) == 1) {
+            return true;
+        }
+        if (!recetaRepository.existsById(recetaId)) {
+            throw new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId);
+        }
+        return false;
+    }
+
+    // Likes y calificaciones del usuario para una página de recetas con dos
+    // consultas IN, en lugar de dos peticiones por tarjeta. IDs inexistentes se
+    // devuelven sin like ni calificación
+    public List<EstadoRecetaUsuarioDto> getEstadoUsuario(List<Integer> recetaIds, Integer usuarioId) {
+        Set<Integer> ids = new LinkedHashSet<>(recetaIds);
+        if (ids.size() > MAX_ESTADO_RECETAS) {
+            throw new RuntimeException("Como mucho " + MAX_ESTADO_RECETAS + " recetas por consulta");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Integer> liked = new HashSet<>(recetaRepository.findLikesEntre(usuarioId, ids));
+        Map<Integer, Integer> calificaciones = new HashMap<>();
+        for (CalificacionRepository.PuntuacionUsuario puntuacion : calificacionRepository
+                .findPuntuacionesEntre(usuarioId, ids)) {
+            calificaciones.put(puntuacion.getRecetaId(), puntuacion.getPuntuacion());
+        }
+        return ids.stream()
+                .map(id -> new EstadoRecetaUsuarioDto(id, liked.contains(id), calificaciones.get(id)))
+                .toList();
+    }
+
+    // Tres sentencias: bloqueo de la receta con la calificación actual del usuario,
+    // INSERT o UPDATE de la calificación y contadores de la receta. El bloqueo hace
+    // que dos calificaciones simultáneas del mismo usuario se apliquen una tras otra
+    // (la segunda sustituye a la primera) y da la puntuación anterior para el
+    // histograma. Repetir la misma puntuación no escribe nada
     @Transactional
     public CalificacionDto calificarReceta(Integer recetaId, Integer usuarioId, CalificacionDto calificacionDto) {
-        Receta receta = recetaRepository.findById(recetaId)
+        CalificacionRepository.CalificacionBloqueada actual = calificacionRepository
+                .bloquearParaCalificar(recetaId, usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
-
-        Optional<Calificacion> existingCalificacion = calificacionRepository.findByRecetaIdAndUsuarioId(recetaId,
-                usuarioId);
-        Calificacion calificacion;
-
-        if (existingCalificacion.isPresent()) {
-            calificacion = existingCalificacion.get();
-            calificacion.setPuntuacion(calificacionDto.getPuntuacion());
-            calificacion.setFechaCalificacion(LocalDateTime.now());
+        int puntuacion = calificacionDto.getPuntuacion();
+
+        CalificacionDto resultado = new CalificacionDto();
+        resultado.setRecetaId(recetaId);
+        resultado.setPuntuacion(puntuacion);
+        if (actual.getId() == null) {
+            Calificacion calificacion = new Calificacion();
+            calificacion.setReceta(recetaRepository.getReferenceById(recetaId));
+            calificacion.setUsuario(usuarioRepository.getReferenceById(usuarioId));
+            calificacion.setPuntuacion(puntuacion);
+            try {
+                calificacion = calificacionRepository.saveAndFlush(calificacion);
+            } catch (DataIntegrityViolationException e) {
+                // La receta está bloqueada: solo puede fallar la clave foránea del usuario
+                throw new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId);
+            }
+            resultado.setId(calificacion.getId());
+            resultado.setFechaCalificacion(calificacion.getFechaCalificacion());
+            recetaRepository.registrarCalificacion(recetaId, 0, puntuacion);
+            eventPublisher.publishEvent(new RecetaInteraccionEvent(recetaId, RecetaInteraccionEvent.Tipo.CALIFICACION,
+                    RecetaInteraccionEvent.usuario(usuarioId)));
+        } else if (actual.getPuntuacion() != puntuacion) {
+            // Cambiar la puntuación la mueve de columna del histograma; para tendencias
+            // no es una interacción nueva
+            LocalDateTime fecha = LocalDateTime.now();
+            calificacionRepository.actualizarPuntuacion(actual.getId(), puntuacion, fecha);
+            resultado.setId(actual.getId());
+            resultado.setFechaCalificacion(fecha);
+            recetaRepository.registrarCalificacion(recetaId, actual.getPuntuacion(), puntuacion);
         } else {
-            calificacion = new Calificacion();
-            calificacion.setReceta(receta);
-            calificacion.setUsuario(usuario);
-            calificacion.setPuntuacion(calificacionDto.getPuntuacion());
-            calificacion.setFechaCalificacion(LocalDateTime.now());
+            resultado.setId(actual.getId());
+            resultado.setFechaCalificacion(actual.getFechaCalificacion());
+            return resultado;
         }
-        return CalificacionDto.fromEntity(calificacionRepository.save(calificacion));
+        recetaDetalleCache.invalidar(recetaId);
+        return resultado;
     }
 
     public Optional<CalificacionDto> getCalificacionUsuario(Integer recetaId, Integer usuarioId) {
@@ -298,7 +724,22 @@ public class RecetaService {
                 .map(CalificacionDto::fromEntity);
     }
 
+    // El total sale del contador desnormalizado de la receta, sin COUNT
     public Page<CalificacionDto> getRecetaCalificaciones(Integer recetaId, Pageable pageable) {
+        Receta receta = recetaRepository.findById(recetaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
+        Slice<CalificacionDto> calificaciones = calificacionRepository.findByReceta(receta, pageable)
+                .map(CalificacionDto::fromEntity);
+        return PageableExecutionUtils.getPage(calificaciones.getContent(), pageable, receta::getRatingCount);
+    }
+
+    // Media, total e histograma desde los contadores de la receta
+    public ResumenCalificacionesDto getResumenCalificaciones(Integer recetaId) {
+        return recetaRepository.findResumenCalificaciones(recetaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
+    }
+
+    public Slice<CalificacionDto> getRecetaCalificacionesSlice(Integer recetaId, Pageable pageable) {
         Receta receta = recetaRepository.findById(recetaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
         return calificacionRepository.findByReceta(receta, pageable).map(CalificacionDto::fromEntity);
@@ -308,6 +749,7 @@ public class RecetaService {
     public ComentarioDto addComentario(Integer recetaId, Integer usuarioId, ComentarioDto comentarioDto) {
         Receta receta = recetaRepository.findById(recetaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
+        recetaDetalleCache.invalidar(recetaId);
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
 
@@ -317,10 +759,22 @@ public class RecetaService {
         comentario.setComentario(comentarioDto.getComentario());
         comentario.setFechaComentario(LocalDateTime.now());
 
+        recetaRepository.incrementarComentarios(recetaId, 1);
+        eventPublisher.publishEvent(new RecetaInteraccionEvent(recetaId, RecetaInteraccionEvent.Tipo.COMENTARIO,
+                RecetaInteraccionEvent.usuario(usuarioId)));
         return ComentarioDto.fromEntity(comentarioRepository.save(comentario));
     }
 
+    // El total sale del contador desnormalizado de la receta, sin COUNT
     public Page<ComentarioDto> getRecetaComentarios(Integer recetaId, Pageable pageable) {
+        Receta receta = recetaRepository.findById(recetaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
+        Slice<ComentarioDto> comentarios = comentarioRepository.findByReceta(receta, pageable)
+                .map(ComentarioDto::fromEntity);
+        return PageableExecutionUtils.getPage(comentarios.getContent(), pageable, receta::getCommentCount);
+    }
+
+    public Slice<ComentarioDto> getRecetaComentariosSlice(Integer recetaId, Pageable pageable) {
         Receta receta = recetaRepository.findById(recetaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
         return comentarioRepository.findByReceta(receta, pageable).map(ComentarioDto::fromEntity);
@@ -330,33 +784,62 @@ public class RecetaService {
     public void addCategoriaToReceta(Integer recetaId, Integer categoriaId) {
         Receta receta = recetaRepository.findById(recetaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
-        Categoria categoria = categoriaRepository.findById(categoriaId)
+        recetaDetalleCache.invalidar(recetaId);
+        Categoria categoria = datosReferenciaCache.getCategoria(categoriaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con ID: " + categoriaId));
 
-        receta.getCategorias().add(categoria);
+        // La categoría es una copia de DatosReferenciaCache: se compara por ID, no con
+        // equals, que incluye el nombre y fallaría si la instantánea no está al día
+        if (receta.getCategorias().stream().noneMatch(c -> c.getId().equals(categoriaId))) {
+            receta.getCategorias().add(categoria);
+        }
         recetaRepository.save(receta);
+        eventPublisher.publishEvent(new RecetaModificadaEvent(recetaId));
     }
 
     @Transactional
     public void removeCategoriaFromReceta(Integer recetaId, Integer categoriaId) {
         Receta receta = recetaRepository.findById(recetaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId));
-        Categoria categoria = categoriaRepository.findById(categoriaId)
-                .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con ID: " + categoriaId));
+        recetaDetalleCache.invalidar(recetaId);
+        if (datosReferenciaCache.getCategoria(categoriaId).isEmpty()) {
+            throw new ResourceNotFoundException("Categoría no encontrada con ID: " + categoriaId);
+        }
 
-        receta.getCategorias().remove(categoria);
+        receta.getCategorias().removeIf(categoria -> categoria.getId().equals(categoriaId));
         recetaRepository.save(receta);
+        eventPublisher.publishEvent(new RecetaModificadaEvent(recetaId));
+    }
+
+    public Page<RecetaSummaryDto> getRecetasByUsuario(Integer usuarioId, Pageable pageable) {
+        return conteoCache.pagina(getRecetasByUsuarioSlice(usuarioId, pageable),
+                ConteoCache.clave("recetas.usuario", usuarioId), () -> recetaRepository.countByUsuarioId(usuarioId));
+    }
+
+    public Slice<RecetaSummaryDto> getRecetasByUsuarioSlice(Integer usuarioId, Pageable pageable) {
+        return recetaRepository.findResumenByUsuarioId(usuarioId, pageable)
+                .map(contadoresDiferidosService::conLikesPendientes);
+    }
+
+    public Page<RecetaSummaryDto> getRecetasFavoritasByUsuario(Integer usuarioId, Pageable pageable) {
+        return conteoCache.pagina(getRecetasFavoritasByUsuarioSlice(usuarioId, pageable),
+                ConteoCache.clave("recetas.favoritas", usuarioId),
+                () -> recetaRepository.countGustadasByUsuarioId(usuarioId));
     }
 
-    public Page<RecetaDto> getRecetasByUsuario(Integer usuarioId, Pageable pageable) {
-        return recetaRepository.findByUsuarioId(usuarioId, pageable).map(RecetaDto::fromEntity);
+    public Slice<RecetaSummaryDto> getRecetasFavoritasByUsuarioSlice(Integer usuarioId, Pageable pageable) {
+        return recetaRepository.findResumenGustadasByUsuarioId(usuarioId, pageable)
+                .map(contadoresDiferidosService::conLikesPendientes);
     }
 
-    public Page<RecetaDto> getRecetasFavoritasByUsuario(Integer usuarioId, Pageable pageable) {
-        return recetaRepository.findRecetasGustadasByUsuarioId(usuarioId, pageable).map(RecetaDto::fromEntity);
+    public Page<RecetaSummaryDto> getRecetasByCategoria(Integer categoriaId, Pageable pageable) {
+        return conteoCache.pagina(getRecetasByCategoriaSlice(categoriaId, pageable),
+                ConteoCache.clave("recetas.categoriaId", categoriaId),
+                () -> recetaRepository.countByCategoriaId(categoriaId));
     }
 
-    public Page<RecetaDto> getRecetasByCategoria(Integer categoriaId, Pageable pageable) {
-        return recetaRepository.findByCategoriasId(categoriaId, pageable).map(RecetaDto::fromEntity);
+    public Slice<RecetaSummaryDto> getRecetasByCategoriaSlice(Integer categoriaId, Pageable pageable) {
+        return recetaRepository.findResumenByCategoriaId(categoriaId, pageable)
+                .map(contadoresDiferidosService::conLikesPendientes);
     }
 }
@@ -0,0 +1,19 @@
+package com.recetas.backend.services;
+
+import java.util.Collections;
+import java.util.List;
+
+// Publicado por ImportacionRecetasService por cada lote de recetas importadas.
+// Hace en bloque lo que RecetaPublicadaEvent y RecetaModificadaEvent hacen receta a
+// receta: tras el commit FeedService reparte el lote a los seguidores y los índices
+// en memoria lo leen por tramo de IDs.
+public record RecetasImportadasEvent(List<Integer> recetaIds, Integer autorId) {
+
+    public int desdeId() {
+        return Collections.min(recetaIds);
+    }
+
+    public int hastaId() {
+        return Collections.max(recetaIds);
+    }
+}
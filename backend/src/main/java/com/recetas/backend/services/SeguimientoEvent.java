@@ -0,0 +1,7 @@
+package com.recetas.backend.services;
+
+// Publicado por UsuarioService al seguir (sigue = true) o dejar de seguir a un
+// usuario. FeedService lo recibe tras el commit para actualizar el feed del
+// seguidor y, si cambia, el modelo de feed del seguido.
+public record SeguimientoEvent(Integer seguidorId, Integer seguidoId, boolean sigue) {
+}
@@ -0,0 +1,138 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.exceptions.ResourceNotFoundException;
+import com.recetas.backend.repositories.RecetaRepository;
+import com.recetas.backend.repositories.RecetaRepository.CategoriaIndexable;
+import com.recetas.backend.repositories.RecetaRepository.IngredienteIndexable;
+import com.recetas.backend.repositories.RecetaSpecifications;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// "También te puede gustar" (GET /api/recetas/{id}/similares): recetas con
+// ingredientes y categorías parecidos según IndiceSimilitud (MinHash + LSH), así
+// que una consulta solo compara con las candidatas de sus bandas y nunca con todo
+// el catálogo. Se carga al arrancar, se mantiene con IndicesRecetas tras cada
+// commit y se puede reconstruir desde /api/admin/indice-similitud/reconstruir.
+@Service
+public class SimilitudService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilitudService.class);
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @Value("${recetas.similares.indice.cargarAlArrancar:true}")
+    private boolean cargarAlArrancar;
+
+    private final IndiceRecetas<IndiceSimilitud, int[]> indice;
+
+    private final Timer consultas;
+
+    @Autowired
+    public SimilitudService(MeterRegistry meterRegistry, IndicesRecetas indicesRecetas,
+            @Value("${recetas.similares.indice.tamanoTramo:5000}") int tamanoTramo) {
+        this.indice = indicesRecetas.registrar(tamanoTramo, IndiceSimilitud::new, this::cargarRasgos,
+                SimilitudService::indexar);
+        this.consultas = Timer.builder("recetas.similares.consultas").register(meterRegistry);
+        Gauge.builder("recetas.similares.indice.recetas", this, s -> s.indice.leer(IndiceSimilitud::getNumRecetas))
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarIndice() {
+        if (cargarAlArrancar) {
+            reconstruir();
+        }
+    }
+
+    // Las consultas siguen usando el índice anterior mientras se construye el nuevo
+    public EstadisticasIndice reconstruir() {
+        long inicio = System.nanoTime();
+        indice.reconstruir();
+        EstadisticasIndice estadisticas = new EstadisticasIndice(indice.leer(IndiceSimilitud::getNumRecetas),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        logger.info("Índice de similitud cargado: {} recetas en {} ms", estadisticas.recetas(),
+                estadisticas.milisegundos());
+        return estadisticas;
+    }
+
+    // Las "limite" recetas más parecidas, de más a menos. Una receta sin
+    // ingredientes ni categorías no tiene similares
+    public List<RecetaSummaryDto> similares(Integer recetaId, int limite) {
+        long inicio = System.nanoTime();
+        IndiceSimilitud.Resultado resultado = indice.leer(actual ->
+                actual.contiene(recetaId) ? actual.similares(recetaId, limite) : null);
+        consultas.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (resultado == null) {
+            if (!recetaRepository.existsById(recetaId)) {
+                throw new ResourceNotFoundException("Receta no encontrada con ID: " + recetaId);
+            }
+            return List.of();
+        }
+
+        List<Integer> ids = new ArrayList<>(resultado.recetaIds().length);
+        for (int id : resultado.recetaIds()) {
+            ids.add(id);
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, RecetaSummaryDto> porId = new HashMap<>();
+        for (RecetaSummaryDto resumen : recetaRepository.findResumen(RecetaSpecifications.conIds(ids),
+                PageRequest.of(0, ids.size())).getContent()) {
+            porId.put(resumen.getId(), contadoresDiferidosService.conLikesPendientes(resumen));
+        }
+        List<RecetaSummaryDto> resumenes = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            // Puede haberse borrado después de la consulta al índice
+            if (porId.containsKey(id)) {
+                resumenes.add(porId.get(id));
+            }
+        }
+        return resumenes;
+    }
+
+    // Rasgos (ingredientes y categorías) por receta del tramo
+    private Map<Integer, int[]> cargarRasgos(int desdeId, int hastaId) {
+        Map<Integer, List<Integer>> porReceta = new LinkedHashMap<>();
+        for (IngredienteIndexable fila : recetaRepository.findIngredientesIndexables(desdeId, hastaId)) {
+            porReceta.computeIfAbsent(fila.getRecetaId(), id -> new ArrayList<>())
+                    .add(IndiceSimilitud.rasgoIngrediente(fila.getIngredienteId()));
+        }
+        for (CategoriaIndexable fila : recetaRepository.findCategoriasIndexables(desdeId, hastaId)) {
+            porReceta.computeIfAbsent(fila.getRecetaId(), id -> new ArrayList<>())
+                    .add(IndiceSimilitud.rasgoCategoria(fila.getCategoriaId()));
+        }
+        Map<Integer, int[]> resultado = new LinkedHashMap<>();
+        porReceta.forEach((id, rasgos) -> resultado.put(id, rasgos.stream().mapToInt(Integer::intValue).toArray()));
+        return resultado;
+    }
+
+    private static void indexar(IndiceSimilitud indice, Integer recetaId, int[] rasgos) {
+        // Sin ingredientes ni categorías (o borrada) la receta sale del índice
+        indice.indexar(recetaId, rasgos != null ? rasgos : new int[0]);
+    }
+
+    public record EstadisticasIndice(int recetas, long milisegundos) {
+    }
+}
@@ -0,0 +1,280 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.repositories.CalificacionRepository;
+import com.recetas.backend.repositories.ComentarioRepository;
+import com.recetas.backend.repositories.InteraccionReciente;
+import com.recetas.backend.repositories.RecetaRepository;
+import com.recetas.backend.repositories.RecetaSpecifications;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Recetas en tendencia (GET /api/recetas/tendencias) para el carrusel de la
+// portada. Cada like, calificación, comentario y vista llega por
+// RecetaInteraccionEvent y suma su peso a PuntuacionesTendencia, que decae con una
+// vida media configurable. Periódicamente se guarda una instantánea con las
+// mejores recetas, así que una petición solo copia los primeros IDs y carga sus
+// resúmenes por clave primaria: nunca recorre las tablas de interacciones. Al
+// arrancar se cargan una vez las calificaciones y comentarios recientes (los
+// likes no tienen fecha y las vistas no se guardan). Un like o una vista que el
+// mismo interesado repite sobre la misma receta dentro de la ventana de carga no
+// suma otra vez: dar y quitar like o recargar el detalle no sube una receta.
+@Service
+public class TendenciasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TendenciasService.class);
+
+    // Por debajo de esta puntuación actual una receta deja de seguirse
+    private static final double UMBRAL = 0.01;
+    // La carga inicial llega hasta donde el decaimiento deja 1/16 del peso
+    private static final int VIDAS_MEDIAS_CARGA = 4;
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @Autowired
+    private CalificacionRepository calificacionRepository;
+
+    @Autowired
+    private ComentarioRepository comentarioRepository;
+
+    @Autowired
+    private TransaccionesAisladas transacciones;
+
+    @Value("${recetas.tendencias.peso.like:3}")
+    private double pesoLike;
+
+    @Value("${recetas.tendencias.peso.calificacion:2}")
+    private double pesoCalificacion;
+
+    @Value("${recetas.tendencias.peso.comentario:4}")
+    private double pesoComentario;
+
+    @Value("${recetas.tendencias.peso.vista:0.5}")
+    private double pesoVista;
+
+    @Value("${recetas.tendencias.tamanoInstantanea:100}")
+    private int tamanoInstantanea;
+
+    @Value("${recetas.tendencias.cargarAlArrancar:true}")
+    private boolean cargarAlArrancar;
+
+    @Value("${recetas.tendencias.maxInteresados:200000}")
+    private int maxInteresados;
+
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final double vidaMediaHoras;
+    private final PuntuacionesTendencia puntuaciones;
+    private volatile PuntuacionesTendencia.Top instantanea = PuntuacionesTendencia.Top.VACIO;
+    // Último like o vista contado por interesado y receta, en orden de llegada; al
+    // superar maxInteresados se olvidan los más antiguos
+    private final LinkedHashMap<Repeticion, Long> contadas = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Repeticion, Long> mayor) {
+            return size() > maxInteresados;
+        }
+    };
+    private final long ventanaMs;
+
+    private final Timer instantaneas;
+
+    @Autowired
+    public TendenciasService(MeterRegistry meterRegistry,
+            @Value("${recetas.tendencias.vidaMediaHoras:24}") double vidaMediaHoras) {
+        this.vidaMediaHoras = vidaMediaHoras;
+        this.ventanaMs = (long) (vidaMediaHoras * VIDAS_MEDIAS_CARGA * TimeUnit.HOURS.toMillis(1));
+        this.puntuaciones = new PuntuacionesTendencia((long) (vidaMediaHoras * TimeUnit.HOURS.toMillis(1)), UMBRAL,
+                System.currentTimeMillis());
+        this.instantaneas = Timer.builder("recetas.tendencias.instantaneas").register(meterRegistry);
+        Gauge.builder("recetas.tendencias.recetas", this, TendenciasService::getNumRecetas).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarRecientes() {
+        if (!cargarAlArrancar) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        LocalDateTime desde = LocalDateTime.now().minusMinutes((long) (vidaMediaHoras * 60 * VIDAS_MEDIAS_CARGA));
+        List<InteraccionReciente> calificaciones = leer(() -> calificacionRepository.findRecientes(desde));
+        List<InteraccionReciente> comentarios = leer(() -> comentarioRepository.findRecientes(desde));
+        cerrojo.lock();
+        try {
+            for (InteraccionReciente calificacion : calificaciones) {
+                puntuaciones.registrar(calificacion.getRecetaId(), pesoCalificacion,
+                        aMilisegundos(calificacion.getFecha()));
+            }
+            for (InteraccionReciente comentario : comentarios) {
+                puntuaciones.registrar(comentario.getRecetaId(), pesoComentario,
+                        aMilisegundos(comentario.getFecha()));
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+        actualizarInstantanea();
+        logger.info("Tendencias cargadas: {} calificaciones y {} comentarios recientes en {} ms",
+                calificaciones.size(), comentarios.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteraccion(RecetaInteraccionEvent event) {
+        long ahora = System.currentTimeMillis();
+        if (!esRepeticion(event, ahora)) {
+            registrar(event.recetaId(), event.tipo(), ahora);
+        }
+    }
+
+    // Una receta borrada deja de aparecer sin esperar a que decaiga
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecetaModificada(RecetaModificadaEvent event) {
+        if (!leer(() -> recetaRepository.existsById(event.recetaId()))) {
+            cerrojo.lock();
+            try {
+                puntuaciones.eliminar(event.recetaId());
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+
+    // Likes y vistas cuentan una vez por interesado y receta dentro de la ventana.
+    // Calificaciones (solo las nuevas) y comentarios llegan ya una vez cada uno
+    private boolean esRepeticion(RecetaInteraccionEvent event, long ahora) {
+        RecetaInteraccionEvent.Tipo tipo = event.tipo();
+        if (event.interesado() == null
+                || (tipo != RecetaInteraccionEvent.Tipo.LIKE && tipo != RecetaInteraccionEvent.Tipo.VISTA)) {
+            return false;
+        }
+        Repeticion clave = new Repeticion(event.recetaId(), tipo, event.interesado());
+        cerrojo.lock();
+        try {
+            Long anterior = contadas.get(clave);
+            if (anterior != null && ahora - anterior < ventanaMs) {
+                return true;
+            }
+            // Se reinserta para que pase al final del orden de llegada
+            contadas.remove(clave);
+            contadas.put(clave, ahora);
+            return false;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private void registrar(Integer recetaId, RecetaInteraccionEvent.Tipo tipo, long instante) {
+        double peso = switch (tipo) {
+            case LIKE -> pesoLike;
+            case CALIFICACION -> pesoCalificacion;
+            case COMENTARIO -> pesoComentario;
+            case VISTA -> pesoVista;
+        };
+        cerrojo.lock();
+        try {
+            puntuaciones.registrar(recetaId, peso, instante);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    // Recalcula las mejores recetas; las peticiones leen siempre la última instantánea
+    @Scheduled(fixedDelayString = "${recetas.tendencias.instantanea.intervaloMs:30000}")
+    public void actualizarInstantanea() {
+        long inicio = System.nanoTime();
+        cerrojo.lock();
+        try {
+            instantanea = puntuaciones.mejores(tamanoInstantanea, System.currentTimeMillis());
+        } finally {
+            cerrojo.unlock();
+        }
+        instantaneas.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    // Las "limite" recetas en tendencia; si no hay suficientes con actividad
+    // reciente se completa con las últimas publicadas
+    public List<RecetaSummaryDto> tendencias(int limite) {
+        int[] recetaIds = instantanea.recetaIds();
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (int i = 0; i < recetaIds.length && i < limite; i++) {
+            ids.add(recetaIds[i]);
+        }
+        List<RecetaSummaryDto> resultado = new ArrayList<>(limite);
+        if (!ids.isEmpty()) {
+            Map<Integer, RecetaSummaryDto> porId = new HashMap<>();
+            for (RecetaSummaryDto resumen : recetaRepository.findResumen(RecetaSpecifications.conIds(ids),
+                    PageRequest.of(0, ids.size())).getContent()) {
+                porId.put(resumen.getId(), contadoresDiferidosService.conLikesPendientes(resumen));
+            }
+            for (Integer id : ids) {
+                // Puede haberse borrado después de la instantánea
+                if (porId.containsKey(id)) {
+                    resultado.add(porId.get(id));
+                }
+            }
+        }
+        if (resultado.size() < limite) {
+            for (RecetaSummaryDto reciente : recetaRepository.findFeedInicio(Limit.of(limite + ids.size()))) {
+                if (resultado.size() < limite && !ids.contains(reciente.getId())) {
+                    resultado.add(contadoresDiferidosService.conLikesPendientes(reciente));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    double getPuntuacion(Integer recetaId) {
+        cerrojo.lock();
+        try {
+            return puntuaciones.puntuacion(recetaId, System.currentTimeMillis());
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private int getNumRecetas() {
+        cerrojo.lock();
+        try {
+            return puntuaciones.getNumRecetas();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private static long aMilisegundos(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Repeticion(Integer recetaId, RecetaInteraccionEvent.Tipo tipo, String interesado) {
+    }
+
+    private <T> T leer(Supplier<T> consulta) {
+        return transacciones.leer(consulta);
+    }
+}
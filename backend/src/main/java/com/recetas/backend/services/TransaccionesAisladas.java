@@ -0,0 +1,37 @@
+package com.recetas.backend.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Transacciones propias para los listeners de eventos y las tareas programadas.
+// Un @TransactionalEventListener se ejecuta tras el commit de otra transacción
+// cuyos recursos siguen ligados al hilo: sin REQUIRES_NEW la consulta se uniría
+// a esa transacción ya confirmada en vez de abrir una nueva
+@Component
+public class TransaccionesAisladas {
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Autowired
+    public TransaccionesAisladas(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    public <T> T leer(Supplier<T> consulta) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> consulta.get());
+    }
+
+    public void escribir(Runnable cambio) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status -> cambio.run());
+    }
+}
@@ -8,8 +8,10 @@ import com.recetas.backend.models.Usuario;
 import com.recetas.backend.repositories.SeguidorRepository;
 import com.recetas.backend.repositories.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,12 @@ public class UsuarioService {
     @Autowired
     private SeguidorRepository seguidorRepository;
 
+    @Autowired
+    private ConteoCache conteoCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public UsuarioDto getUsuarioById(Integer id) {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + id));
@@ -65,6 +73,9 @@ public class UsuarioService {
 
         Seguidor nuevaRelacion = new Seguidor(seguidor, seguido);
         seguidorRepository.save(nuevaRelacion);
+        usuarioRepository.incrementarSeguidores(seguidoId, 1);
+        invalidarConteosSeguimiento(seguidorId, seguidoId);
+        eventPublisher.publishEvent(new SeguimientoEvent(seguidorId, seguidoId, true));
     }
 
     @Transactional
@@ -81,12 +92,33 @@ public class UsuarioService {
         }
 
         seguidorRepository.deleteById(id);
+        usuarioRepository.incrementarSeguidores(seguidoId, -1);
+        invalidarConteosSeguimiento(seguidorId, seguidoId);
+        eventPublisher.publishEvent(new SeguimientoEvent(seguidorId, seguidoId, false));
+    }
+
+    // Los totales de seguidores/siguiendo se ven en el perfil justo después de
+    // seguir o dejar de seguir: no se espera a que caduquen
+    private void invalidarConteosSeguimiento(Integer seguidorId, Integer seguidoId) {
+        conteoCache.invalidar(ConteoCache.clave("siguiendo", seguidorId));
+        conteoCache.invalidar(ConteoCache.clave("seguidores", seguidoId));
     }
 
     public Page<UsuarioDto> getSeguidores(Integer usuarioId, Pageable pageable) {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
 
+        Slice<UsuarioDto> seguidores = seguidorRepository.findBySeguido(usuario, pageable)
+                .map(Seguidor::getSeguidor)
+                .map(UsuarioDto::fromEntity);
+        return conteoCache.pagina(seguidores, ConteoCache.clave("seguidores", usuarioId),
+                () -> seguidorRepository.countBySeguido(usuario));
+    }
+
+    public Slice<UsuarioDto> getSeguidoresSlice(Integer usuarioId, Pageable pageable) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
+
         return seguidorRepository.findBySeguido(usuario, pageable)
                 .map(Seguidor::getSeguidor)
                 .map(UsuarioDto::fromEntity);
@@ -96,6 +128,17 @@ public class UsuarioService {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
 
+        Slice<UsuarioDto> siguiendo = seguidorRepository.findBySeguidor(usuario, pageable)
+                .map(Seguidor::getSeguido)
+                .map(UsuarioDto::fromEntity);
+        return conteoCache.pagina(siguiendo, ConteoCache.clave("siguiendo", usuarioId),
+                () -> seguidorRepository.countBySeguidor(usuario));
+    }
+
+    public Slice<UsuarioDto> getSiguiendoSlice(Integer usuarioId, Pageable pageable) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + usuarioId));
+
         return seguidorRepository.findBySeguidor(usuario, pageable)
                 .map(Seguidor::getSeguido)
                 .map(UsuarioDto::fromEntity);
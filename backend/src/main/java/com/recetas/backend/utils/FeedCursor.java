@@ -0,0 +1,26 @@
+package com.recetas.backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Posición en un listado ordenado por (fecha_creacion, id) descendente. Se
+// serializa como Base64 URL-safe para que el cliente lo trate como opaco
+public record FeedCursor(LocalDateTime fecha, Integer id) {
+
+    public String encode() {
+        String valor = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf('|');
+            return new FeedCursor(LocalDateTime.parse(valor.substring(0, separador)),
+                    Integer.valueOf(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor);
+        }
+    }
+}
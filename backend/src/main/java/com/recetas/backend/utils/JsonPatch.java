@@ -0,0 +1,179 @@
+package com.recetas.backend.utils;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// JSON Merge Patch (RFC 7386) y JSON Patch (RFC 6902) sobre árboles de Jackson.
+// Los errores salen como IllegalArgumentException (400 en GlobalExceptionHandler)
+public final class JsonPatch {
+
+    public static final String MERGE_PATCH = "application/merge-patch+json";
+    public static final String JSON_PATCH = "application/json-patch+json";
+
+    private JsonPatch() {
+    }
+
+    // Claves de primer nivel que toca el patch, para cargar solo lo necesario
+    public static Set<String> camposMergePatch(JsonNode patch) {
+        if (!patch.isObject()) {
+            throw new IllegalArgumentException("El merge patch debe ser un objeto JSON");
+        }
+        Set<String> campos = new LinkedHashSet<>();
+        patch.fieldNames().forEachRemaining(campos::add);
+        return campos;
+    }
+
+    public static Set<String> camposJsonPatch(JsonNode operaciones) {
+        if (!operaciones.isArray()) {
+            throw new IllegalArgumentException("El JSON Patch debe ser un array de operaciones");
+        }
+        Set<String> campos = new LinkedHashSet<>();
+        for (JsonNode operacion : operaciones) {
+            campos.add(primerCampo(puntero(operacion, "path")));
+            if (operacion.has("from")) {
+                campos.add(primerCampo(puntero(operacion, "from")));
+            }
+        }
+        return campos;
+    }
+
+    // RFC 7386: null borra, los objetos se mezclan recursivamente y el resto sustituye
+    public static JsonNode aplicarMergePatch(JsonNode destino, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch.deepCopy();
+        }
+        ObjectNode resultado = destino != null && destino.isObject() ? (ObjectNode) destino
+                : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> campos = patch.fields();
+        while (campos.hasNext()) {
+            Map.Entry<String, JsonNode> campo = campos.next();
+            if (campo.getValue().isNull()) {
+                resultado.remove(campo.getKey());
+            } else {
+                resultado.set(campo.getKey(), aplicarMergePatch(resultado.get(campo.getKey()), campo.getValue()));
+            }
+        }
+        return resultado;
+    }
+
+    // RFC 6902: las operaciones se aplican en orden sobre el documento; si una
+    // falla se lanza la excepción y el documento no debe usarse
+    public static JsonNode aplicarJsonPatch(JsonNode documento, JsonNode operaciones) {
+        camposJsonPatch(operaciones);
+        JsonNode resultado = documento;
+        for (JsonNode operacion : operaciones) {
+            String op = operacion.path("op").asText();
+            JsonPointer ruta = puntero(operacion, "path");
+            switch (op) {
+                case "add" -> resultado = anadir(resultado, ruta, valor(operacion));
+                case "remove" -> {
+                    leer(resultado, ruta);
+                    resultado = quitar(resultado, ruta);
+                }
+                case "replace" -> {
+                    leer(resultado, ruta);
+                    resultado = anadir(quitar(resultado, ruta), ruta, valor(operacion));
+                }
+                case "move" -> {
+                    JsonPointer origen = puntero(operacion, "from");
+                    if (ruta.toString().startsWith(origen + "/")) {
+                        throw new IllegalArgumentException("No se puede mover " + origen + " dentro de sí mismo");
+                    }
+                    JsonNode movido = leer(resultado, origen);
+                    resultado = anadir(quitar(resultado, origen), ruta, movido);
+                }
+                case "copy" -> resultado = anadir(resultado, ruta,
+                        leer(resultado, puntero(operacion, "from")).deepCopy());
+                case "test" -> {
+                    if (!leer(resultado, ruta).equals(valor(operacion))) {
+                        throw new IllegalArgumentException("La comprobación de " + ruta + " no se cumple");
+                    }
+                }
+                default -> throw new IllegalArgumentException("Operación de JSON Patch no soportada: " + op);
+            }
+        }
+        return resultado;
+    }
+
+    private static JsonNode anadir(JsonNode documento, JsonPointer ruta, JsonNode valor) {
+        if (ruta.matches()) {
+            return valor.deepCopy();
+        }
+        JsonNode padre = leer(documento, ruta.head());
+        String clave = ruta.last().getMatchingProperty();
+        if (padre.isObject()) {
+            ((ObjectNode) padre).set(clave, valor.deepCopy());
+        } else if (padre.isArray()) {
+            ArrayNode array = (ArrayNode) padre;
+            int indice = "-".equals(clave) ? array.size() : indice(clave, array.size());
+            array.insert(indice, valor.deepCopy());
+        } else {
+            throw new IllegalArgumentException("No se puede añadir en " + ruta);
+        }
+        return documento;
+    }
+
+    private static JsonNode quitar(JsonNode documento, JsonPointer ruta) {
+        if (ruta.matches()) {
+            return documento.isArray() ? JsonNodeFactory.instance.arrayNode() : JsonNodeFactory.instance.objectNode();
+        }
+        JsonNode padre = leer(documento, ruta.head());
+        String clave = ruta.last().getMatchingProperty();
+        if (padre.isObject()) {
+            ((ObjectNode) padre).remove(clave);
+        } else if (padre.isArray()) {
+            ((ArrayNode) padre).remove(indice(clave, padre.size() - 1));
+        }
+        return documento;
+    }
+
+    private static JsonNode leer(JsonNode documento, JsonPointer ruta) {
+        JsonNode nodo = documento.at(ruta);
+        if (nodo.isMissingNode()) {
+            throw new IllegalArgumentException("La ruta " + ruta + " no existe");
+        }
+        return nodo;
+    }
+
+    private static int indice(String clave, int maximo) {
+        try {
+            int indice = Integer.parseInt(clave);
+            if (indice >= 0 && indice <= maximo && (clave.equals("0") || !clave.startsWith("0"))) {
+                return indice;
+            }
+        } catch (NumberFormatException e) {
+            // Se informa abajo
+        }
+        throw new IllegalArgumentException("Índice de array no válido: " + clave);
+    }
+
+    private static JsonPointer puntero(JsonNode operacion, String campo) {
+        if (!operacion.path(campo).isTextual()) {
+            throw new IllegalArgumentException("Falta \"" + campo + "\" en la operación " + operacion);
+        }
+        try {
+            return JsonPointer.compile(operacion.get(campo).asText());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ruta no válida: " + operacion.get(campo).asText());
+        }
+    }
+
+    private static JsonNode valor(JsonNode operacion) {
+        if (!operacion.has("value")) {
+            throw new IllegalArgumentException("Falta \"value\" en la operación " + operacion);
+        }
+        return operacion.get("value");
+    }
+
+    private static String primerCampo(JsonPointer ruta) {
+        return ruta.matches() ? "" : ruta.getMatchingProperty();
+    }
+}
@@ -0,0 +1,26 @@
+package com.recetas.backend.utils;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+// Distingue las violaciones de un índice único del resto de errores de
+// integridad (longitud, NOT NULL, claves ajenas), que no deben confundirse
+// con un nombre repetido
+public final class RestriccionesBd {
+
+    private RestriccionesBd() {
+    }
+
+    public static boolean esClaveDuplicada(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable causa = e.getCause(); causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacion) {
+                return violacion.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package com.recetas.backend.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Normalización de texto para el índice de búsqueda en memoria: minúsculas, sin
+// acentos ni diéresis ("Fácil" -> "facil", "champiñones" -> "champinones"),
+// sin palabras vacías (también las que no distinguen una receta de otra) y con
+// un stemming ligero para español (plurales y género), de forma que "champiñón"
+// y "champiñones" den el mismo término.
+public final class TextoBusqueda {
+
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "algo", "con", "como", "contra", "cual", "de", "del", "desde", "donde", "durante", "e",
+            "el", "ella", "ellos", "en", "entre", "era", "es", "esta", "este", "esto", "la", "las", "le", "les",
+            "lo", "los", "mas", "me", "mi", "muy", "no", "nos", "o", "para", "pero", "por", "que", "se", "si",
+            "sin", "sobre", "su", "sus", "te", "tu", "u", "un", "una", "unas", "unos", "y", "ya",
+            // Propias del dominio: aparecen en casi todas las recetas
+            "receta", "recetas");
+
+    private TextoBusqueda() {
+    }
+
+    // Términos indexables del texto, en orden y con repeticiones
+    public static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return terminos;
+        }
+        String plano = quitarAcentos(texto.toLowerCase(Locale.ROOT));
+        int inicio = -1;
+        for (int i = 0; i <= plano.length(); i++) {
+            boolean letra = i < plano.length() && Character.isLetterOrDigit(plano.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                String palabra = plano.substring(inicio, i);
+                if (palabra.length() > 1 && !PALABRAS_VACIAS.contains(palabra)) {
+                    terminos.add(raiz(palabra));
+                }
+                inicio = -1;
+            }
+        }
+        return terminos;
+    }
+
+    // Texto plano para comparar prefijos (autocompletado): minúsculas, sin acentos,
+    // lo que no es letra ni dígito pasa a un espacio y sin espacios repetidos.
+    // Sin stemming ni palabras vacías, para que el prefijo tecleado siga casando
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String plano = quitarAcentos(texto.toLowerCase(Locale.ROOT));
+        StringBuilder resultado = new StringBuilder(plano.length());
+        for (int i = 0; i < plano.length(); i++) {
+            char c = plano.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                resultado.append(c);
+            } else if (resultado.length() > 0 && resultado.charAt(resultado.length() - 1) != ' ') {
+                resultado.append(' ');
+            }
+        }
+        int fin = resultado.length();
+        return fin > 0 && resultado.charAt(fin - 1) == ' ' ? resultado.substring(0, fin - 1) : resultado.toString();
+    }
+
+    public static boolean esPalabraVacia(String palabra) {
+        return PALABRAS_VACIAS.contains(palabra);
+    }
+
+    static String quitarAcentos(String texto) {
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder resultado = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                resultado.append(c);
+            }
+        }
+        return resultado.toString();
+    }
+
+    // Stemming ligero: quita la vocal final de género/número y los plurales
+    // ("-es", "-s"; "-ces" -> "-z" como en "nueces" -> "nuez"). Las palabras de
+    // menos de 5 letras se dejan tal cual
+    static String raiz(String palabra) {
+        int n = palabra.length();
+        if (n < 5) {
+            return palabra;
+        }
+        char ultima = palabra.charAt(n - 1);
+        if (ultima == 'a' || ultima == 'o' || ultima == 'e') {
+            return palabra.substring(0, n - 1);
+        }
+        if (ultima == 's') {
+            char penultima = palabra.charAt(n - 2);
+            if (penultima == 'e' && palabra.charAt(n - 3) == 'c') {
+                return palabra.substring(0, n - 3) + "z";
+            }
+            if (penultima == 'e' && palabra.charAt(n - 3) == 's' && palabra.charAt(n - 4) == 'e') {
+                return palabra.substring(0, n - 2);
+            }
+            if (penultima == 'a' || penultima == 'o' || penultima == 'e') {
+                return palabra.substring(0, n - 2);
+            }
+        }
+        return palabra;
+    }
+}
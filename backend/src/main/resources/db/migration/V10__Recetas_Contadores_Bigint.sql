@@ -0,0 +1,13 @@
+-- Los contadores de `recetas` creados como INT en V2 y V7 pasan a BIGINT, el
+-- tipo con el que los mapea Receta (Long), igual que rating_sum y view_count.
+-- Así el esquema de Flyway y el de Hibernate coinciden (ddl-auto=validate).
+
+ALTER TABLE `recetas`
+  MODIFY COLUMN `like_count` BIGINT NOT NULL DEFAULT 0,
+  MODIFY COLUMN `rating_count` BIGINT NOT NULL DEFAULT 0,
+  MODIFY COLUMN `comment_count` BIGINT NOT NULL DEFAULT 0,
+  MODIFY COLUMN `rating_1` BIGINT NOT NULL DEFAULT 0,
+  MODIFY COLUMN `rating_2` BIGINT NOT NULL DEFAULT 0,
+  MODIFY COLUMN `rating_3` BIGINT NOT NULL DEFAULT 0,
+  MODIFY COLUMN `rating_4` BIGINT NOT NULL DEFAULT 0,
+  MODIFY COLUMN `rating_5` BIGINT NOT NULL DEFAULT 0;
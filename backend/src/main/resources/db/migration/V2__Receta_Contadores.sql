@@ -0,0 +1,16 @@
+-- Contadores desnormalizados de interacción en `recetas`.
+-- Se mantienen con incrementos atómicos desde RecetaService y se reconcilian
+-- periódicamente con las tablas de origen (ContadoresRecetaService).
+
+ALTER TABLE `recetas`
+  ADD COLUMN `like_count` INT NOT NULL DEFAULT 0,
+  ADD COLUMN `rating_sum` BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN `rating_count` INT NOT NULL DEFAULT 0,
+  ADD COLUMN `comment_count` INT NOT NULL DEFAULT 0;
+
+-- Carga inicial a partir de los datos existentes
+UPDATE `recetas` r SET
+  `like_count` = (SELECT COUNT(*) FROM `recetas_likes` l WHERE l.`receta_id` = r.`id`),
+  `rating_sum` = (SELECT COALESCE(SUM(c.`puntuacion`), 0) FROM `calificaciones` c WHERE c.`receta_id` = r.`id`),
+  `rating_count` = (SELECT COUNT(*) FROM `calificaciones` c WHERE c.`receta_id` = r.`id`),
+  `comment_count` = (SELECT COUNT(*) FROM `comentarios` co WHERE co.`receta_id` = r.`id`);
@@ -0,0 +1,9 @@
+-- Índice para la paginación por cursor del feed de recetas (ORDER BY
+-- fecha_creacion DESC, id DESC). La fecha pasa a ser obligatoria para que el
+-- orden sea total y el cursor no salte filas con fecha nula.
+
+UPDATE `recetas` SET `fecha_creacion` = CURRENT_TIMESTAMP WHERE `fecha_creacion` IS NULL;
+
+ALTER TABLE `recetas` MODIFY `fecha_creacion` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX `idx_recetas_fecha_creacion_id` ON `recetas` (`fecha_creacion`, `id`);
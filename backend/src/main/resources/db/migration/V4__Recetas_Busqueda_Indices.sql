@@ -0,0 +1,7 @@
+-- Índices para la búsqueda combinada de recetas (RecetaSpecifications).
+-- dificultad + tiempo máximo se resuelven con un rango sobre el índice
+-- compuesto; el tiempo máximo en solitario usa su propio índice.
+
+CREATE INDEX `idx_recetas_dificultad_tiempo` ON `recetas` (`dificultad`, `tiempo_preparacion`);
+
+CREATE INDEX `idx_recetas_tiempo_preparacion` ON `recetas` (`tiempo_preparacion`);
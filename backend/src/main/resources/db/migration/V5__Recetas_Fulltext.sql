@@ -0,0 +1,7 @@
+-- Índices de texto completo para la búsqueda en modo TEXTO (MATCH ... AGAINST).
+-- InnoDB ignora las palabras de menos de innodb_ft_min_token_size (3) caracteres
+-- y las stopwords; el modo CONTIENE (LIKE) sigue disponible para esos casos.
+
+ALTER TABLE `recetas` ADD FULLTEXT INDEX `ft_recetas_titulo_descripcion` (`titulo`, `descripcion`);
+
+ALTER TABLE `ingredientes` ADD FULLTEXT INDEX `ft_ingredientes_nombre` (`nombre`);
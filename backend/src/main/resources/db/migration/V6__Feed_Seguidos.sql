@@ -0,0 +1,45 @@
+-- Feed de recetas de los usuarios seguidos (GET /api/feed) con un modelo
+-- híbrido. Al publicar, las recetas de los autores normales se copian a
+-- `feed_entradas` de cada seguidor (fan-out en escritura); las de los autores
+-- masivos (feed_masivo, a partir de recetas.feed.umbralSeguidores seguidores) no
+-- se copian y se leen de `recetas` al servir el feed (fan-out en lectura).
+
+-- Número de seguidores desnormalizado y modelo de feed del autor
+ALTER TABLE `usuarios`
+  ADD COLUMN `seguidores_count` INT NOT NULL DEFAULT 0,
+  ADD COLUMN `feed_masivo` BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- 10000 es el valor por defecto de recetas.feed.umbralSeguidores
+UPDATE `usuarios` u SET
+  `seguidores_count` = (SELECT COUNT(*) FROM `seguidores` s WHERE s.`seguido_id` = u.`id`);
+
+UPDATE `usuarios` SET `feed_masivo` = TRUE WHERE `seguidores_count` >= 10000;
+
+-- Los autores masivos son pocos: FeedService los tiene en memoria
+CREATE INDEX `idx_usuarios_feed_masivo` ON `usuarios` (`feed_masivo`);
+
+-- Una fila por (seguidor, receta). El feed de un usuario es un rango de
+-- idx_feed_entradas_usuario_fecha; dejar de seguir borra por (usuario, autor)
+CREATE TABLE `feed_entradas` (
+  `usuario_id` INT NOT NULL,
+  `receta_id` INT NOT NULL,
+  `autor_id` INT NOT NULL,
+  `fecha_creacion` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`usuario_id`, `receta_id`),
+  INDEX `idx_feed_entradas_usuario_fecha` (`usuario_id`, `fecha_creacion`, `receta_id`),
+  INDEX `idx_feed_entradas_usuario_autor` (`usuario_id`, `autor_id`),
+  FOREIGN KEY (`usuario_id`) REFERENCES `usuarios` (`id`) ON DELETE CASCADE,
+  FOREIGN KEY (`receta_id`) REFERENCES `recetas` (`id`) ON DELETE CASCADE,
+  FOREIGN KEY (`autor_id`) REFERENCES `usuarios` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Recetas de un autor por fecha: fan-out en lectura y copia al empezar a seguir
+CREATE INDEX `idx_recetas_usuario_fecha_id` ON `recetas` (`usuario_id`, `fecha_creacion`, `id`);
+
+-- Carga inicial con las recetas existentes de los autores normales
+INSERT INTO `feed_entradas` (`usuario_id`, `receta_id`, `autor_id`, `fecha_creacion`)
+SELECT s.`seguidor_id`, r.`id`, r.`usuario_id`, r.`fecha_creacion`
+FROM `seguidores` s
+JOIN `usuarios` u ON u.`id` = s.`seguido_id`
+JOIN `recetas` r ON r.`usuario_id` = s.`seguido_id`
+WHERE u.`feed_masivo` = FALSE;
@@ -0,0 +1,18 @@
+-- Histograma de calificaciones por estrellas en `recetas`, junto a rating_sum y
+-- rating_count (V2). Se mantiene con el mismo UPDATE atómico desde
+-- RecetaService.calificarReceta y lo reconcilia ContadoresRecetaService.
+
+ALTER TABLE `recetas`
+  ADD COLUMN `rating_1` INT NOT NULL DEFAULT 0,
+  ADD COLUMN `rating_2` INT NOT NULL DEFAULT 0,
+  ADD COLUMN `rating_3` INT NOT NULL DEFAULT 0,
+  ADD COLUMN `rating_4` INT NOT NULL DEFAULT 0,
+  ADD COLUMN `rating_5` INT NOT NULL DEFAULT 0;
+
+-- Carga inicial a partir de los datos existentes
+UPDATE `recetas` r
+  JOIN (SELECT `receta_id`,
+               SUM(`puntuacion` = 1) AS r1, SUM(`puntuacion` = 2) AS r2, SUM(`puntuacion` = 3) AS r3,
+               SUM(`puntuacion` = 4) AS r4, SUM(`puntuacion` = 5) AS r5
+          FROM `calificaciones` GROUP BY `receta_id`) c ON c.`receta_id` = r.`id`
+SET r.`rating_1` = c.r1, r.`rating_2` = c.r2, r.`rating_3` = c.r3, r.`rating_4` = c.r4, r.`rating_5` = c.r5;
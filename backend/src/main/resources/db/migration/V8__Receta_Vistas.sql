@@ -0,0 +1,5 @@
+-- Contador de vistas del detalle de cada receta. Como like_count, se escribe en
+-- diferido desde ContadoresDiferidosService con deltas acumulados.
+
+ALTER TABLE `recetas`
+  ADD COLUMN `view_count` BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- IDs de pasos desde una secuencia en lugar de AUTO_INCREMENT, para que
+-- Hibernate pueda insertar los pasos de una receta en un batch JDBC. Paso
+-- reserva bloques de 50 (optimizador pooled: cada valor cubre los 49 anteriores),
+-- así que la secuencia empieza 50 por encima del ID más alto existente.
+
+SET @inicio_pasos = (SELECT COALESCE(MAX(`id`), 0) + 50 FROM `pasos`);
+SET @crear_secuencia = CONCAT('CREATE SEQUENCE `pasos_seq` START WITH ', @inicio_pasos, ' INCREMENT BY 50');
+PREPARE crear_secuencia FROM @crear_secuencia;
+EXECUTE crear_secuencia;
+DEALLOCATE PREPARE crear_secuencia;
+
+ALTER TABLE `pasos`
+  MODIFY COLUMN `id` INT NOT NULL;
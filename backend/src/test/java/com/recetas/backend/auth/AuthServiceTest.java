@@ -4,10 +4,10 @@ import com.recetas.backend.dtos.LoginDto;
 import com.recetas.backend.dtos.RegistroDto;
 import com.recetas.backend.models.Rol;
 import com.recetas.backend.models.Usuario;
-import com.recetas.backend.repositories.RolRepository;
 import com.recetas.backend.repositories.UsuarioRepository;
 import com.recetas.backend.security.JwtUtils;
 import com.recetas.backend.security.UserDetailsImpl;
+import com.recetas.backend.services.DatosReferenciaCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,7 +36,7 @@ public class AuthServiceTest {
     private UsuarioRepository usuarioRepository;
 
     @Mock
-    private RolRepository rolRepository;
+    private DatosReferenciaCache datosReferenciaCache;
 
     @Mock
     private PasswordEncoder passwordEncoder;
@@ -95,7 +95,7 @@ public class AuthServiceTest {
         when(usuarioRepository.existsByEmail(registroDto.getEmail())).thenReturn(false);
         when(usuarioRepository.existsByNombreUsuario(registroDto.getNombreUsuario())).thenReturn(false);
         when(passwordEncoder.encode(registroDto.getContrasena())).thenReturn("encodedPassword");
-        when(rolRepository.findByNombre("USER")).thenReturn(Optional.of(userRole));
+        when(datosReferenciaCache.getRol("USER")).thenReturn(Optional.of(userRole));
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuario);
 
         Usuario registeredUser = authService.registerUser(registroDto);
@@ -109,7 +109,7 @@ public class AuthServiceTest {
         verify(usuarioRepository, times(1)).existsByEmail(registroDto.getEmail());
         verify(usuarioRepository, times(1)).existsByNombreUsuario(registroDto.getNombreUsuario());
         verify(passwordEncoder, times(1)).encode(registroDto.getContrasena());
-        verify(rolRepository, times(1)).findByNombre("USER");
+        verify(datosReferenciaCache, times(1)).getRol("USER");
         verify(usuarioRepository, times(1)).save(any(Usuario.class));
     }
 
@@ -143,7 +143,7 @@ public class AuthServiceTest {
         when(usuarioRepository.existsByEmail(registroDto.getEmail())).thenReturn(false);
         when(usuarioRepository.existsByNombreUsuario(registroDto.getNombreUsuario())).thenReturn(false);
         when(passwordEncoder.encode(registroDto.getContrasena())).thenReturn("encodedPassword");
-        when(rolRepository.findByNombre("USER")).thenReturn(Optional.empty());
+        when(datosReferenciaCache.getRol("USER")).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             authService.registerUser(registroDto);
@@ -4,18 +4,23 @@ import com.recetas.backend.dtos.CategoriaDto;
 import com.recetas.backend.exceptions.ResourceNotFoundException;
 import com.recetas.backend.models.Categoria;
 import com.recetas.backend.repositories.CategoriaRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +32,12 @@ public class CategoriaServiceTest {
     @Mock
     private CategoriaRepository categoriaRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DatosReferenciaCache datosReferenciaCache;
+
     @InjectMocks
     private CategoriaService categoriaService;
 
@@ -42,13 +53,18 @@ public class CategoriaServiceTest {
 
         categoriaDto1 = CategoriaDto.fromEntity(categoria1);
         categoriaDto2 = CategoriaDto.fromEntity(categoria2);
+
+        // Los nombres se comprueban contra la instantánea de la caché
+        lenient().when(datosReferenciaCache.getInstantanea()).thenReturn(
+                new DatosReferenciaCache.Instantanea(Map.of(1, categoria1, 2, categoria2),
+                Map.of("postres", 1, "vegetariano", 2), Map.of(), Map.of(), Map.of(), 1L, 1L));
     }
 
     @Test
     void testGetAllCategorias() {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Categoria> categoriaPage = new PageImpl<>(Arrays.asList(categoria1, categoria2), pageable, 2);
-        when(categoriaRepository.findAll(pageable)).thenReturn(categoriaPage);
+        when(datosReferenciaCache.getCategorias(pageable)).thenReturn(categoriaPage);
 
         Page<CategoriaDto> result = categoriaService.getAllCategorias(pageable);
 
@@ -60,7 +76,7 @@ public class CategoriaServiceTest {
 
     @Test
     void testGetCategoriaByIdFound() {
-        when(categoriaRepository.findById(1)).thenReturn(Optional.of(categoria1));
+        when(datosReferenciaCache.getCategoria(1)).thenReturn(Optional.of(categoria1));
 
         CategoriaDto result = categoriaService.getCategoriaById(1);
 
@@ -70,7 +86,7 @@ public class CategoriaServiceTest {
 
     @Test
     void testGetCategoriaByIdNotFound() {
-        when(categoriaRepository.findById(99)).thenReturn(Optional.empty());
+        when(datosReferenciaCache.getCategoria(99)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
             categoriaService.getCategoriaById(99);
@@ -87,8 +103,7 @@ public class CategoriaServiceTest {
         Categoria newCategoria = new Categoria(null, "Carnes", null);
         Categoria savedCategoria = new Categoria(3, "Carnes", null);
 
-        when(categoriaRepository.findByNombre("Carnes")).thenReturn(Optional.empty());
-        when(categoriaRepository.save(any(Categoria.class))).thenReturn(savedCategoria);
+        when(categoriaRepository.saveAndFlush(any(Categoria.class))).thenReturn(savedCategoria);
 
         CategoriaDto result = categoriaService.createCategoria(newCategoriaDto);
 
@@ -102,13 +117,51 @@ public class CategoriaServiceTest {
         CategoriaDto newCategoriaDto = new CategoriaDto();
         newCategoriaDto.setNombre("Postres");
 
-        when(categoriaRepository.findByNombre("Postres")).thenReturn(Optional.of(categoria1));
+        Exception exception = assertThrows(RuntimeException.class, () -> {
+            categoriaService.createCategoria(newCategoriaDto);
+        });
+
+        assertEquals("Error: ¡El nombre de la categoría ya existe!", exception.getMessage());
+    }
+
+    @Test
+    void testCreateCategoriaNameTakenAfterSnapshot() {
+        CategoriaDto newCategoriaDto = new CategoriaDto();
+        newCategoriaDto.setNombre("Carnes");
+
+        // Alta concurrente que la instantánea aún no recoge: la rechaza el índice único
+        when(categoriaRepository.saveAndFlush(any(Categoria.class)))
+                .thenThrow(violacion(ConstraintViolationException.ConstraintKind.UNIQUE, "nombre_UNIQUE"));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             categoriaService.createCategoria(newCategoriaDto);
         });
 
         assertEquals("Error: ¡El nombre de la categoría ya existe!", exception.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testCreateCategoriaOtherIntegrityErrorsAreNotReportedAsDuplicates() {
+        CategoriaDto newCategoriaDto = new CategoriaDto();
+        newCategoriaDto.setNombre("Carnes");
+
+        // Un nombre demasiado largo no es un nombre repetido
+        DataIntegrityViolationException error = violacion(ConstraintViolationException.ConstraintKind.OTHER, null);
+        when(categoriaRepository.saveAndFlush(any(Categoria.class))).thenThrow(error);
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            categoriaService.createCategoria(newCategoriaDto);
+        });
+
+        assertSame(error, exception);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private static DataIntegrityViolationException violacion(ConstraintViolationException.ConstraintKind tipo,
+                                                             String restriccion) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), tipo, restriccion));
     }
 
     @Test
@@ -119,8 +172,7 @@ public class CategoriaServiceTest {
         Categoria updatedCategoria = new Categoria(1, "Postres Modificado", null);
 
         when(categoriaRepository.findById(1)).thenReturn(Optional.of(categoria1));
-        when(categoriaRepository.findByNombre("Postres Modificado")).thenReturn(Optional.empty());
-        when(categoriaRepository.save(any(Categoria.class))).thenReturn(updatedCategoria);
+        when(categoriaRepository.saveAndFlush(any(Categoria.class))).thenReturn(updatedCategoria);
 
         CategoriaDto result = categoriaService.updateCategoria(1, updatedCategoriaDto);
 
@@ -149,7 +201,6 @@ public class CategoriaServiceTest {
         updatedCategoriaDto.setNombre("Vegetariano"); // Nombre de categoria2
 
         when(categoriaRepository.findById(1)).thenReturn(Optional.of(categoria1));
-        when(categoriaRepository.findByNombre("Vegetariano")).thenReturn(Optional.of(categoria2));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             categoriaService.updateCategoria(1, updatedCategoriaDto);
@@ -166,6 +217,7 @@ public class CategoriaServiceTest {
         categoriaService.deleteCategoria(1);
 
         verify(categoriaRepository, times(1)).deleteById(1);
+        verify(eventPublisher).publishEvent(new CategoriaModificadaEvent(1));
     }
 
     @Test
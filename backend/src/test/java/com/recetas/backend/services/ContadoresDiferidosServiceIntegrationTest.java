@@ -0,0 +1,201 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.exceptions.ResourceNotFoundException;
+import com.recetas.backend.models.Receta;
+import com.recetas.backend.models.Receta.Dificultad;
+import com.recetas.backend.models.Rol;
+import com.recetas.backend.models.Usuario;
+import com.recetas.backend.repositories.RecetaRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Likes y vistas con escritura diferida. Sin volcado periódico: los tests llaman
+// a volcar() cuando lo necesitan. Sin @Transactional: los likes solo llegan al
+// buffer al confirmarse la transacción, así que los datos se confirman y se
+// borran al terminar cada test
+@SpringBootTest(properties = "recetas.contadores.diferidos.intervaloMs=3600000")
+@ActiveProfiles("test")
+public class ContadoresDiferidosServiceIntegrationTest {
+
+    @Autowired
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @Autowired
+    private ContadoresRecetaService contadoresRecetaService;
+
+    @Autowired
+    private RecetaService recetaService;
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Integer recetaId;
+    private Integer usuarioId;
+    private Integer rolId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Rol rol = new Rol();
+            rol.setNombre("USER_DIFERIDO_TEST");
+            entityManager.persist(rol);
+
+            Usuario usuario = new Usuario();
+            usuario.setNombreUsuario("diferidos");
+            usuario.setEmail("diferidos@example.com");
+            usuario.setContrasena("password");
+            usuario.setRol(rol);
+            entityManager.persist(usuario);
+
+            Receta receta = new Receta();
+            receta.setTitulo("Salmorejo");
+            receta.setDescripcion("Receta con likes y vistas");
+            receta.setTiempoPreparacion(15);
+            receta.setDificultad(Dificultad.Fácil);
+            receta.setPorciones(4);
+            receta.setUsuario(usuario);
+            entityManager.persist(receta);
+
+            entityManager.flush();
+            recetaId = receta.getId();
+            usuarioId = usuario.getId();
+            rolId = rol.getId();
+        });
+        contadoresDiferidosService.volcar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        contadoresDiferidosService.volcar();
+        jdbcTemplate.update("DELETE FROM recetas_likes WHERE receta_id = ?", recetaId);
+        jdbcTemplate.update("DELETE FROM recetas WHERE id = ?", recetaId);
+        jdbcTemplate.update("DELETE FROM usuarios WHERE id = ?", usuarioId);
+        jdbcTemplate.update("DELETE FROM roles WHERE id = ?", rolId);
+    }
+
+    private long likesPersistidos() {
+        return recetaRepository.findLikeCountById(recetaId).orElseThrow();
+    }
+
+    @Test
+    void testLikeToggleIsIdempotentPerRow() {
+        recetaService.toggleLikeReceta(recetaId, usuarioId);
+        assertTrue(recetaService.isRecetaLikedByUser(recetaId, usuarioId));
+        // Una segunda inserción (p. ej. otra petición a la vez) no duplica la fila
+        assertEquals(Integer.valueOf(0), transactionTemplate.execute(status -> recetaRepository.insertarLike(usuarioId, recetaId)));
+        assertEquals(1L, recetaService.getRecetaLikesCount(recetaId));
+
+        // El like se acumula en memoria hasta el volcado
+        assertEquals(0L, likesPersistidos());
+        contadoresDiferidosService.volcar();
+        assertEquals(1L, likesPersistidos());
+        assertEquals(1L, recetaService.getRecetaLikesCount(recetaId));
+
+        recetaService.toggleLikeReceta(recetaId, usuarioId);
+        assertFalse(recetaService.isRecetaLikedByUser(recetaId, usuarioId));
+        assertEquals(Integer.valueOf(0), transactionTemplate.execute(status -> recetaRepository.eliminarLike(usuarioId, recetaId)));
+        assertEquals(0L, recetaService.getRecetaLikesCount(recetaId));
+        assertEquals(0, contadoresRecetaService.reconciliarContadores());
+        assertThrows(ResourceNotFoundException.class, () -> recetaService.isRecetaLikedByUser(-1, usuarioId));
+    }
+
+    @Test
+    void testLikeReachesBufferOnlyWhenCommitted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            recetaService.toggleLikeReceta(recetaId, usuarioId);
+            assertEquals(0L, contadoresDiferidosService.likesPendientes(recetaId));
+            status.setRollbackOnly();
+        });
+        assertFalse(recetaService.isRecetaLikedByUser(recetaId, usuarioId));
+        assertEquals(0L, recetaService.getRecetaLikesCount(recetaId));
+
+        recetaService.toggleLikeReceta(recetaId, usuarioId);
+        assertEquals(1L, contadoresDiferidosService.likesPendientes(recetaId));
+    }
+
+    @Test
+    void testFlushedDeltaStaysVisibleUntilCommit() {
+        recetaService.toggleLikeReceta(recetaId, usuarioId);
+
+        // Volcado dentro de una transacción que se deshace: el delta sigue contando
+        // mientras tanto y después vuelve al buffer
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(1, contadoresDiferidosService.volcar());
+            assertEquals(1L, contadoresDiferidosService.likesPendientes(recetaId));
+            status.setRollbackOnly();
+        });
+        assertEquals(0L, likesPersistidos());
+        assertEquals(1L, recetaService.getRecetaLikesCount(recetaId));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(1, contadoresDiferidosService.volcar());
+            assertEquals(1L, contadoresDiferidosService.likesPendientes(recetaId));
+        });
+        assertEquals(0L, contadoresDiferidosService.likesPendientes(recetaId));
+        assertEquals(1L, likesPersistidos());
+        assertEquals(1L, recetaService.getRecetaLikesCount(recetaId));
+    }
+
+    @Test
+    void testReconciliationDoesNotCountBufferedLikesTwice() {
+        recetaService.toggleLikeReceta(recetaId, usuarioId);
+        assertEquals(1L, contadoresDiferidosService.likesPendientes(recetaId));
+
+        assertEquals(0, contadoresRecetaService.reconciliarContadores());
+        contadoresDiferidosService.volcar();
+        assertEquals(1L, likesPersistidos());
+        assertEquals(1L, recetaService.getRecetaLikesCount(recetaId));
+    }
+
+    @Test
+    void testSummaryListsIncludeBufferedLikes() {
+        recetaService.toggleLikeReceta(recetaId, usuarioId);
+        assertEquals(0L, likesPersistidos());
+
+        // Las tarjetas de los listados muestran lo mismo que el detalle antes del volcado
+        assertEquals(1L, recetaService.getRecetasByUsuario(usuarioId, PageRequest.of(0, 10))
+                .getContent().get(0).getTotalLikes());
+        assertEquals(1L, recetaService.getRecetasFavoritasByUsuarioSlice(usuarioId, PageRequest.of(0, 10))
+                .getContent().get(0).getTotalLikes());
+        assertEquals(1L, recetaService.getFeedRecetas(null, 50).getContent().stream()
+                .filter(resumen -> resumen.getId().equals(recetaId)).findFirst().orElseThrow().getTotalLikes());
+
+        contadoresDiferidosService.volcar();
+        assertEquals(1L, recetaService.getRecetasByUsuarioSlice(usuarioId, PageRequest.of(0, 10))
+                .getContent().get(0).getTotalLikes());
+    }
+
+    @Test
+    void testViewsAreBufferedAndFlushedInOneBatch() {
+        recetaService.getRecetaById(recetaId);
+        recetaService.getRecetaById(recetaId);
+        assertEquals(2L, recetaService.getRecetaVistasCount(recetaId));
+
+        assertEquals(1, contadoresDiferidosService.volcar());
+        assertEquals(2L, recetaRepository.findViewCountById(recetaId).orElseThrow());
+        assertEquals(2L, recetaService.getRecetaVistasCount(recetaId));
+        assertEquals(0, contadoresDiferidosService.volcar());
+    }
+}
@@ -0,0 +1,178 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.CalificacionDto;
+import com.recetas.backend.dtos.ComentarioDto;
+import com.recetas.backend.dtos.RecetaDto;
+import com.recetas.backend.dtos.ResumenCalificacionesDto;
+import com.recetas.backend.exceptions.ResourceNotFoundException;
+import com.recetas.backend.models.*;
+import com.recetas.backend.models.Receta.Dificultad;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Contadores desnormalizados de recetas (likes, calificaciones, comentarios) y su
+// reconciliación. Sin volcado periódico: los tests llaman a volcar() cuando lo necesitan
+@SpringBootTest(properties = "recetas.contadores.diferidos.intervaloMs=3600000")
+@ActiveProfiles("test")
+@Transactional
+@RecordApplicationEvents
+public class ContadoresRecetaServiceIntegrationTest {
+
+    private static final int NUM_USUARIOS = 5;
+    private static final int NUM_COMENTARIOS = 12;
+
+    @Autowired
+    private ContadoresRecetaService contadoresRecetaService;
+
+    @Autowired
+    private RecetaService recetaService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private Integer recetaId;
+    private Integer usuarioId;
+    private Rol rol;
+
+    @BeforeEach
+    void setUp() {
+        rol = new Rol();
+        rol.setNombre("USER_CONTADOR_TEST");
+        entityManager.persist(rol);
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < NUM_USUARIOS; i++) {
+            usuarios.add(crearUsuario("contadores" + i));
+        }
+
+        Receta receta = new Receta();
+        receta.setTitulo("Lentejas");
+        receta.setDescripcion("Receta con contadores");
+        receta.setTiempoPreparacion(60);
+        receta.setDificultad(Dificultad.Media);
+        receta.setPorciones(4);
+        receta.setUsuario(usuarios.get(0));
+        entityManager.persist(receta);
+
+        for (int i = 0; i < NUM_COMENTARIOS; i++) {
+            Comentario comentario = new Comentario();
+            comentario.setReceta(receta);
+            comentario.setUsuario(usuarios.get(i % NUM_USUARIOS));
+            comentario.setComentario("Comentario " + i);
+            comentario.setFechaComentario(LocalDateTime.now());
+            entityManager.persist(comentario);
+        }
+
+        for (Usuario usuario : usuarios) {
+            Calificacion calificacion = new Calificacion();
+            calificacion.setReceta(receta);
+            calificacion.setUsuario(usuario);
+            calificacion.setPuntuacion(4);
+            calificacion.setFechaCalificacion(LocalDateTime.now());
+            entityManager.persist(calificacion);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        recetaId = receta.getId();
+        usuarioId = usuarios.get(1).getId();
+    }
+
+    @Test
+    void testReconciliarContadoresFixesDrift() {
+        // Los datos de prueba se insertan sin pasar por el servicio: los contadores están a 0
+        assertTrue(contadoresRecetaService.reconciliarContadores() >= 1);
+        entityManager.clear();
+
+        Receta receta = entityManager.find(Receta.class, recetaId);
+        assertEquals(0L, receta.getLikeCount());
+        assertEquals(NUM_USUARIOS, receta.getRatingCount());
+        assertEquals(4L * NUM_USUARIOS, receta.getRatingSum());
+        assertEquals(NUM_USUARIOS, receta.getRating4());
+        assertEquals(NUM_COMENTARIOS, receta.getCommentCount());
+        assertEquals(0, contadoresRecetaService.reconciliarContadores());
+    }
+
+    @Test
+    void testCountersFollowLikesAndComments() {
+        contadoresRecetaService.reconciliarContadores();
+
+        recetaService.toggleLikeReceta(recetaId, usuarioId);
+        ComentarioDto comentario = new ComentarioDto();
+        comentario.setComentario("Nuevo comentario");
+        recetaService.addComentario(recetaId, usuarioId, comentario);
+        entityManager.flush();
+        entityManager.clear();
+
+        RecetaDto result = recetaService.getRecetaById(recetaId);
+        assertEquals(NUM_COMENTARIOS + 1L, result.getTotalComentarios());
+        assertEquals(4.0, result.getCalificacionMedia());
+        // El like solo llega al contador al confirmarse la transacción, que en
+        // este test se deshace (ver ContadoresDiferidosServiceIntegrationTest)
+        assertTrue(recetaService.isRecetaLikedByUser(recetaId, usuarioId));
+        assertEquals(0L, result.getTotalLikes());
+        assertEquals(0L, recetaService.getRecetaLikesCount(recetaId));
+    }
+
+    @Test
+    void testRatingSummaryFollowsNewAndChangedScores() {
+        contadoresRecetaService.reconciliarContadores();
+        Usuario nuevo = crearUsuario("contadores-nuevo");
+
+        recetaService.calificarReceta(recetaId, nuevo.getId(), calificacion(5));
+        // Cambia de 4 a 1: sale de la columna de 4 y el total no varía
+        recetaService.calificarReceta(recetaId, usuarioId, calificacion(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        ResumenCalificacionesDto resumen = recetaService.getResumenCalificaciones(recetaId);
+        assertEquals(NUM_USUARIOS + 1L, resumen.getTotal());
+        assertEquals(List.of(1L, 0L, 0L, NUM_USUARIOS - 1L, 1L), resumen.getHistograma());
+        assertEquals((4.0 * (NUM_USUARIOS - 1) + 1 + 5) / (NUM_USUARIOS + 1), resumen.getMedia(), 1e-9);
+        // Los contadores coinciden con la tabla de calificaciones
+        assertEquals(0, contadoresRecetaService.reconciliarContadores());
+
+        // Repetir la misma puntuación no cambia nada; una receta inexistente es 404
+        CalificacionDto repetida = recetaService.calificarReceta(recetaId, usuarioId, calificacion(1));
+        assertEquals(1, repetida.getPuntuacion());
+        assertEquals(List.of(1L, 0L, 0L, NUM_USUARIOS - 1L, 1L),
+                recetaService.getResumenCalificaciones(recetaId).getHistograma());
+        assertThrows(ResourceNotFoundException.class,
+                () -> recetaService.calificarReceta(-1, usuarioId, calificacion(3)));
+        // Para tendencias solo cuenta la calificación nueva, no los cambios de puntuación
+        assertEquals(1, events.stream(RecetaInteraccionEvent.class)
+                .filter(event -> event.tipo() == RecetaInteraccionEvent.Tipo.CALIFICACION).count());
+    }
+
+    private Usuario crearUsuario(String nombre) {
+        Usuario usuario = new Usuario();
+        usuario.setNombreUsuario(nombre);
+        usuario.setEmail(nombre + "@example.com");
+        usuario.setContrasena("password");
+        usuario.setRol(rol);
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    private static CalificacionDto calificacion(int puntuacion) {
+        CalificacionDto calificacion = new CalificacionDto();
+        calificacion.setPuntuacion(puntuacion);
+        return calificacion;
+    }
+}
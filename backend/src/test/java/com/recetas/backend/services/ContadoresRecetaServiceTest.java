@@ -0,0 +1,68 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.repositories.RecetaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ContadoresRecetaServiceTest {
+
+    @Mock
+    private RecetaRepository recetaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ContadoresDiferidosService contadoresDiferidosService;
+
+    @InjectMocks
+    private ContadoresRecetaService contadoresRecetaService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(contadoresRecetaService, "tamanoTramo", 1000);
+        lenient().when(contadoresDiferidosService.conVolcadoDetenido(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
+    @Test
+    void testReconciliarDiscountsLikesBufferedDuringEachRange() {
+        when(recetaRepository.findMaxId()).thenReturn(1500);
+        when(recetaRepository.reconciliarContadores(1, 1000)).thenReturn(2);
+        when(recetaRepository.reconciliarContadores(1001, 2000)).thenReturn(0);
+        // Un like confirmado en la receta 7 mientras se recalculaba su tramo
+        when(contadoresDiferidosService.likesPendientes(1, 1000)).thenReturn(Map.of(7, 2L));
+        when(contadoresDiferidosService.likesPendientes(1001, 2000)).thenReturn(Map.of());
+
+        assertEquals(2, contadoresRecetaService.reconciliarContadores());
+
+        // Cada tramo con el volcado detenido; solo se descuenta lo que sigue en el buffer
+        verify(contadoresDiferidosService, times(2)).conVolcadoDetenido(any());
+        verify(recetaRepository).incrementarLikes(7, -2L);
+        verify(recetaRepository, times(1)).incrementarLikes(anyInt(), anyLong());
+    }
+
+    @Test
+    void testReconciliarWithoutRecetas() {
+        when(recetaRepository.findMaxId()).thenReturn(null);
+
+        assertEquals(0, contadoresRecetaService.reconciliarContadores());
+        verify(recetaRepository, never()).reconciliarContadores(anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,66 @@
+package com.recetas.backend.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConteoCacheTest {
+
+    private AtomicLong reloj;
+    private AtomicInteger conteos;
+    private ConteoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        reloj = new AtomicLong();
+        conteos = new AtomicInteger();
+        cache = new ConteoCache(new SimpleMeterRegistry(), 100, 100, reloj::get);
+    }
+
+    private long contar() {
+        conteos.incrementAndGet();
+        return 42;
+    }
+
+    @Test
+    void testCountIsReusedUntilExpired() {
+        assertEquals(42, cache.get(ConteoCache.clave("recetas.titulo", "Pollo "), this::contar));
+        assertEquals(42, cache.get(ConteoCache.clave("recetas.titulo", "pollo"), this::contar));
+        assertEquals(1, conteos.get());
+
+        reloj.addAndGet(100);
+        cache.get(ConteoCache.clave("recetas.titulo", "pollo"), this::contar);
+        assertEquals(2, conteos.get());
+    }
+
+    @Test
+    void testInvalidarForcesNewCount() {
+        cache.get("seguidores|1", this::contar);
+        cache.invalidar("seguidores|1");
+        cache.get("seguidores|1", this::contar);
+        assertEquals(2, conteos.get());
+    }
+
+    @Test
+    void testPaginaSkipsCountWhenTotalIsKnown() {
+        // Última página incompleta: el total se deduce sin COUNT
+        Page<String> ultima = cache.pagina(new SliceImpl<>(List.of("a", "b"), PageRequest.of(2, 10), false),
+                "recetas", this::contar);
+        assertEquals(22, ultima.getTotalElements());
+        assertEquals(0, conteos.get());
+
+        Page<String> intermedia = cache.pagina(new SliceImpl<>(List.of("a", "b"), PageRequest.of(0, 2), true),
+                "recetas", this::contar);
+        assertEquals(42, intermedia.getTotalElements());
+        assertEquals(1, conteos.get());
+    }
+}
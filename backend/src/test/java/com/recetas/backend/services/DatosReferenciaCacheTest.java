@@ -0,0 +1,129 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.models.Categoria;
+import com.recetas.backend.models.Ingrediente;
+import com.recetas.backend.models.Rol;
+import com.recetas.backend.repositories.CategoriaRepository;
+import com.recetas.backend.repositories.IngredienteRepository;
+import com.recetas.backend.repositories.RolRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DatosReferenciaCacheTest {
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private IngredienteRepository ingredienteRepository;
+
+    @Mock
+    private RolRepository rolRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DatosReferenciaCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new DatosReferenciaCache(meterRegistry);
+        ReflectionTestUtils.setField(cache, "categoriaRepository", categoriaRepository);
+        ReflectionTestUtils.setField(cache, "ingredienteRepository", ingredienteRepository);
+        ReflectionTestUtils.setField(cache, "rolRepository", rolRepository);
+        ReflectionTestUtils.setField(cache, "transacciones", new TransaccionesAisladas(transactionManager));
+
+        when(categoriaRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                new Categoria(1, "Postres", null), new Categoria(2, "Sopas", null)));
+        when(ingredienteRepository.findAll(any(Sort.class))).thenReturn(List.of(new Ingrediente(5, " Sal ", null)));
+        when(rolRepository.findAll()).thenReturn(List.of(new Rol(1, "USER"), new Rol(2, "ADMIN")));
+        cache.cargar();
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.get("recetas.cache.referencias.peticiones").tag("resultado", resultado).counter().count();
+    }
+
+    @Test
+    void testLookupsHitSnapshotWithoutQueries() {
+        Map<Integer, Categoria> categorias = cache.getCategorias(List.of(1, 2));
+        Optional<Rol> rol = cache.getRol("USER");
+
+        assertEquals("Postres", categorias.get(1).getNombre());
+        assertEquals("Sopas", categorias.get(2).getNombre());
+        assertEquals(1, rol.orElseThrow().getId());
+        assertEquals(5, cache.getInstantanea().ingredientesPorNombre().get("sal"));
+        verify(categoriaRepository, never()).findAllById(any());
+        verify(rolRepository, never()).findByNombre(any());
+        assertEquals(3, contador("acierto"));
+        assertEquals(0, contador("fallo"));
+    }
+
+    @Test
+    void testReturnsFreshCopies() {
+        Categoria primera = cache.getCategoria(1).orElseThrow();
+        primera.setNombre("Cambiada");
+
+        assertEquals("Postres", cache.getCategoria(1).orElseThrow().getNombre());
+        assertNotSame(cache.getInstantanea().categorias().get(1), cache.getCategoria(1).orElseThrow());
+    }
+
+    @Test
+    void testMissFallsBackToDatabaseForMissingIdsOnly() {
+        when(ingredienteRepository.findAllById(Set.of(7, 8))).thenReturn(List.of(new Ingrediente(7, "Pimienta", null)));
+
+        Map<Integer, Ingrediente> ingredientes = cache.getIngredientes(List.of(5, 7, 8));
+
+        assertEquals(Set.of(5, 7), ingredientes.keySet());
+        assertEquals("Pimienta", ingredientes.get(7).getNombre());
+        assertEquals(1, contador("acierto"));
+        assertEquals(2, contador("fallo"));
+    }
+
+    @Test
+    void testPagesInIdOrder() {
+        Page<Categoria> pagina = cache.getCategorias(PageRequest.of(1, 1));
+
+        assertEquals(2, pagina.getTotalElements());
+        assertEquals(List.of("Sopas"), pagina.getContent().stream().map(Categoria::getNombre).toList());
+        assertTrue(cache.getCategorias(PageRequest.of(5, 10)).getContent().isEmpty());
+    }
+
+    @Test
+    void testVersionDependsOnlyOnContent() {
+        long version = cache.getVersionCategorias();
+        long versionIngredientes = cache.getVersionIngredientes();
+
+        cache.recargar();
+        assertEquals(version, cache.getVersionCategorias());
+
+        when(categoriaRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                new Categoria(1, "Postres", null), new Categoria(2, "Cremas", null)));
+        cache.onCategoriaModificada(new CategoriaModificadaEvent(2));
+
+        assertNotEquals(version, cache.getVersionCategorias());
+        assertEquals(versionIngredientes, cache.getVersionIngredientes());
+        assertEquals("Cremas", cache.getCategoria(2).orElseThrow().getNombre());
+    }
+}
@@ -0,0 +1,134 @@
+package com.recetas.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recetas.backend.dtos.RecetaDto;
+import com.recetas.backend.models.*;
+import com.recetas.backend.models.Receta.Dificultad;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class ExportacionRecetasServiceIntegrationTest {
+
+    @Autowired
+    private ExportacionRecetasService exportacionRecetasService;
+
+    @Autowired
+    private ContadoresRecetaService contadoresRecetaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Integer recetaId;
+
+    @BeforeEach
+    void setUp() {
+        Rol rol = new Rol();
+        rol.setNombre("USER_EXPORT_TEST");
+        entityManager.persist(rol);
+
+        Usuario usuario = new Usuario();
+        usuario.setNombreUsuario("exportador");
+        usuario.setEmail("exportador@example.com");
+        usuario.setContrasena("password");
+        usuario.setRol(rol);
+        entityManager.persist(usuario);
+
+        Receta receta = new Receta();
+        receta.setTitulo("Cocido Madrileño");
+        receta.setDescripcion("Receta exportada");
+        receta.setTiempoPreparacion(180);
+        receta.setDificultad(Dificultad.Difícil);
+        receta.setPorciones(6);
+        receta.setUsuario(usuario);
+        entityManager.persist(receta);
+
+        for (int i = 0; i < 2; i++) {
+            Categoria categoria = new Categoria();
+            categoria.setNombre("Categoria exportada " + i);
+            entityManager.persist(categoria);
+            receta.getCategorias().add(categoria);
+        }
+        for (int i = 1; i <= 3; i++) {
+            Paso paso = new Paso();
+            paso.setReceta(receta);
+            paso.setOrden(i);
+            paso.setDescripcion("Paso " + i);
+            entityManager.persist(paso);
+        }
+        for (int i = 0; i < 2; i++) {
+            Ingrediente ingrediente = new Ingrediente();
+            ingrediente.setNombre("Ingrediente exportado " + i);
+            entityManager.persist(ingrediente);
+            entityManager.persist(new RecetaIngrediente(receta, ingrediente, i + " g"));
+        }
+        Comentario comentario = new Comentario();
+        comentario.setReceta(receta);
+        comentario.setUsuario(usuario);
+        comentario.setComentario("Comentario");
+        comentario.setFechaComentario(LocalDateTime.now());
+        entityManager.persist(comentario);
+
+        entityManager.flush();
+        entityManager.clear();
+        recetaId = receta.getId();
+        contadoresRecetaService.reconciliarContadores();
+    }
+
+    @Test
+    void testExportarStreamsGzippedCatalog() throws Exception {
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportacionRecetasService.exportar(ExportacionRecetasService.FormatoExportacion.NDJSON, ndjson);
+
+        RecetaDto exportada = null;
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(ndjson.toByteArray())), StandardCharsets.UTF_8))) {
+            for (String linea = lector.readLine(); linea != null; linea = lector.readLine()) {
+                RecetaDto receta = objectMapper.readValue(linea, RecetaDto.class);
+                if (receta.getId().equals(recetaId)) {
+                    exportada = receta;
+                }
+            }
+        }
+        assertNotNull(exportada);
+        assertEquals(2, exportada.getCategorias().size());
+        assertEquals(3, exportada.getPasos().size());
+        assertEquals(2, exportada.getIngredientes().size());
+        assertEquals(1L, exportada.getTotalComentarios());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportacionRecetasService.exportar(ExportacionRecetasService.FormatoExportacion.CSV, csv);
+        String texto = new String(new GZIPInputStream(new ByteArrayInputStream(csv.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertTrue(texto.startsWith("id,titulo,"));
+        // Los pasos van en una sola celda entre comillas, uno por línea
+        assertTrue(texto.contains("\n" + recetaId + ",Cocido Madrileño,"));
+        assertTrue(texto.contains("\"1. Paso 1\n2. Paso 2\n3. Paso 3\""));
+    }
+
+    @Test
+    void testCsvQuotesSpecialCharacters() {
+        assertEquals("simple", ExportacionRecetasService.csv("simple"));
+        assertEquals("\"a,\"\"b\"\"\"", ExportacionRecetasService.csv("a,\"b\""));
+    }
+}
@@ -0,0 +1,141 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.CursorPageDto;
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.repositories.EntradaFeedRepository;
+import com.recetas.backend.repositories.RecetaRepository;
+import com.recetas.backend.repositories.ReferenciaFeed;
+import com.recetas.backend.repositories.SeguidorRepository;
+import com.recetas.backend.repositories.UsuarioRepository;
+import com.recetas.backend.utils.FeedCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FeedServiceTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2025, 1, 10, 12, 0);
+
+    @Mock
+    private EntradaFeedRepository entradaFeedRepository;
+
+    @Mock
+    private RecetaRepository recetaRepository;
+
+    @Mock
+    private SeguidorRepository seguidorRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private FeedService feedService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(feedService, "umbralSeguidores", 100);
+        // Sin likes pendientes: los resúmenes salen tal cual de la consulta
+        ReflectionTestUtils.setField(feedService, "contadoresDiferidosService",
+                new ContadoresDiferidosService(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(feedService, "transacciones", new TransaccionesAisladas(transactionManager));
+    }
+
+    @Test
+    void testMergesCopiedAndMassiveAuthorsByDate() {
+        when(usuarioRepository.findIdsFeedMasivo()).thenReturn(List.of(7));
+        feedService.cargarAutoresMasivos();
+        when(entradaFeedRepository.findFeedInicio(eq(1), any(Limit.class)))
+                .thenReturn(List.of(ref(5, 0), ref(3, 2), ref(1, 4)));
+        when(seguidorRepository.findSeguidosEntre(eq(1), anyCollection())).thenReturn(List.of(7));
+        when(recetaRepository.findFeedAutoresInicio(eq(List.of(7)), any(Limit.class)))
+                .thenReturn(List.of(ref(4, 1), ref(3, 2), ref(2, 3)));
+        when(recetaRepository.findResumen(any(), any(Pageable.class))).thenAnswer(invocation -> new SliceImpl<>(
+                List.of(resumen(2), resumen(3), resumen(4), resumen(5))));
+
+        CursorPageDto<RecetaSummaryDto> pagina = feedService.getFeed(1, null, 3);
+
+        // La receta 3 llega por las dos fuentes y aparece una vez
+        assertEquals(List.of(5, 4, 3), pagina.getContent().stream().map(RecetaSummaryDto::getId).toList());
+        assertEquals(new FeedCursor(AHORA.minusHours(2), 3).encode(), pagina.getNextCursor());
+    }
+
+    @Test
+    void testLastPageHasNoCursorAndSkipsMassiveLookupWhenNone() {
+        FeedCursor cursor = new FeedCursor(AHORA, 9);
+        when(entradaFeedRepository.findFeedDespuesDe(eq(1), eq(AHORA), eq(9), any(Limit.class)))
+                .thenReturn(List.of(ref(8, 1)));
+        when(recetaRepository.findResumen(any(), any(Pageable.class)))
+                .thenAnswer(invocation -> new SliceImpl<>(List.of(resumen(8))));
+
+        CursorPageDto<RecetaSummaryDto> pagina = feedService.getFeed(1, cursor.encode(), 10);
+
+        assertEquals(1, pagina.getContent().size());
+        assertNull(pagina.getNextCursor());
+        verifyNoInteractions(seguidorRepository);
+    }
+
+    @Test
+    void testPublishFansOutOnlyForNormalAuthors() {
+        when(usuarioRepository.findFeedMasivoById(2)).thenReturn(Optional.of(false));
+        when(usuarioRepository.findFeedMasivoById(3)).thenReturn(Optional.of(true));
+
+        feedService.onRecetaPublicada(new RecetaPublicadaEvent(10, 2));
+        feedService.onRecetaPublicada(new RecetaPublicadaEvent(11, 3));
+
+        verify(entradaFeedRepository).repartirReceta(10);
+        verify(entradaFeedRepository, never()).repartirReceta(11);
+    }
+
+    @Test
+    void testAuthorLeavingMassiveModelIsBackfilled() {
+        when(usuarioRepository.desmarcarFeedMasivo(2, 50)).thenReturn(1);
+
+        feedService.onSeguimiento(new SeguimientoEvent(1, 2, false));
+
+        verify(entradaFeedRepository).deleteByUsuarioIdAndAutorId(1, 2);
+        verify(entradaFeedRepository).repartirAutor(2);
+    }
+
+    private static ReferenciaFeed ref(int recetaId, int horasAntes) {
+        return new ReferenciaFeed() {
+            @Override
+            public Integer getRecetaId() {
+                return recetaId;
+            }
+
+            @Override
+            public LocalDateTime getFechaCreacion() {
+                return AHORA.minusHours(horasAntes);
+            }
+        };
+    }
+
+    private static RecetaSummaryDto resumen(int id) {
+        RecetaSummaryDto resumen = new RecetaSummaryDto();
+        resumen.setId(id);
+        return resumen;
+    }
+}
@@ -0,0 +1,225 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.AutocompletadoDto;
+import com.recetas.backend.dtos.RecetaDto;
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.models.Categoria;
+import com.recetas.backend.models.Ingrediente;
+import com.recetas.backend.models.Rol;
+import com.recetas.backend.models.Usuario;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin @Transactional: el feed y los índices en memoria se actualizan tras el
+// commit de cada lote, así que los datos se confirman y se borran al terminar
+@SpringBootTest
+@ActiveProfiles("test")
+public class ImportacionRecetasServiceIntegrationTest {
+
+    @Autowired
+    private ImportacionRecetasService importacionRecetasService;
+
+    @Autowired
+    private RecetaService recetaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private BusquedaIndiceService busquedaIndiceService;
+
+    @Autowired
+    private CoberturaIngredientesService coberturaIngredientesService;
+
+    @Autowired
+    private SimilitudService similitudService;
+
+    @Autowired
+    private AutocompletadoService autocompletadoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Integer rolId;
+    private Integer usuarioId;
+    private Integer seguidorId;
+    private Integer categoriaId;
+    private Integer ingredienteId;
+    private Integer huevoId;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Rol rol = new Rol();
+            rol.setNombre("USER_IMPORT_TEST");
+            entityManager.persist(rol);
+
+            Usuario usuario = crearUsuario("importador", rol);
+            Usuario seguidor = crearUsuario("seguidor-importador", rol);
+
+            Categoria categoria = new Categoria();
+            categoria.setNombre("Categoria importada");
+            entityManager.persist(categoria);
+
+            Ingrediente harina = new Ingrediente();
+            harina.setNombre("Harina importada");
+            entityManager.persist(harina);
+            Ingrediente huevo = new Ingrediente();
+            huevo.setNombre("Huevo importado");
+            entityManager.persist(huevo);
+
+            entityManager.flush();
+            rolId = rol.getId();
+            usuarioId = usuario.getId();
+            seguidorId = seguidor.getId();
+            categoriaId = categoria.getId();
+            ingredienteId = harina.getId();
+            huevoId = huevo.getId();
+        });
+        usuarioService.followUsuario(seguidorId, usuarioId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Integer> recetaIds = jdbcTemplate.queryForList("SELECT id FROM recetas WHERE usuario_id = ?",
+                Integer.class, usuarioId);
+        jdbcTemplate.update("DELETE FROM feed_entradas WHERE autor_id = ?", usuarioId);
+        for (String tabla : List.of("pasos", "receta_ingredientes", "receta_categorias")) {
+            jdbcTemplate.update("DELETE FROM " + tabla + " WHERE receta_id IN "
+                    + "(SELECT id FROM recetas WHERE usuario_id = ?)", usuarioId);
+        }
+        jdbcTemplate.update("DELETE FROM recetas WHERE usuario_id = ?", usuarioId);
+        jdbcTemplate.update("DELETE FROM seguidores WHERE seguido_id = ?", usuarioId);
+        jdbcTemplate.update("DELETE FROM usuarios WHERE id IN (?, ?)", usuarioId, seguidorId);
+        jdbcTemplate.update("DELETE FROM categorias WHERE id = ?", categoriaId);
+        jdbcTemplate.update("DELETE FROM ingredientes WHERE id IN (?, ?)", ingredienteId, huevoId);
+        jdbcTemplate.update("DELETE FROM roles WHERE id = ?", rolId);
+        // Fuera de una transacción los índices en memoria quitan las recetas en el acto
+        recetaIds.forEach(id -> eventPublisher.publishEvent(new RecetaModificadaEvent(id)));
+    }
+
+    private Usuario crearUsuario(String nombre, Rol rol) {
+        Usuario usuario = new Usuario();
+        usuario.setNombreUsuario(nombre);
+        usuario.setEmail(nombre + "@example.com");
+        usuario.setContrasena("password");
+        usuario.setRol(rol);
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    private ImportacionRecetasService.ResultadoImportacion importar(String... lineas) {
+        return importacionRecetasService.importar(
+                new ByteArrayInputStream(String.join("\n", lineas).getBytes(StandardCharsets.UTF_8)), usuarioId);
+    }
+
+    private Integer recetaId(String titulo) {
+        return jdbcTemplate.queryForObject("SELECT id FROM recetas WHERE titulo = ?", Integer.class, titulo);
+    }
+
+    @Test
+    void testImportarNdjsonSkipsInvalidLines() {
+        ImportacionRecetasService.ResultadoImportacion resultado = importar(
+                "{\"titulo\":\"Importada 1\",\"descripcion\":\"d\",\"tiempoPreparacion\":10,"
+                        + "\"dificultad\":\"Fácil\",\"porciones\":2,\"categorias\":[{\"nombre\":\"categoria IMPORTADA\"}],"
+                        + "\"pasos\":[{\"orden\":1,\"descripcion\":\"Mezclar\"},{\"orden\":2,\"descripcion\":\"Hornear\"}],"
+                        + "\"ingredientes\":[{\"ingredienteId\":" + ingredienteId + ",\"cantidad\":\"100 g\"},"
+                        + "{\"ingrediente\":{\"nombre\":\"Huevo importado\"},\"cantidad\":\"2\"}]}",
+                "",
+                "{\"titulo\":",
+                "{\"titulo\":\"Importada 2\",\"descripcion\":\"d\",\"tiempoPreparacion\":10,"
+                        + "\"dificultad\":\"Media\",\"porciones\":2,"
+                        + "\"ingredientes\":[{\"ingrediente\":{\"nombre\":\"No existe\"},\"cantidad\":\"1\"}]}",
+                "{\"titulo\":\"Importada 3\",\"descripcion\":\"d\",\"tiempoPreparacion\":5,"
+                        + "\"dificultad\":\"Difícil\",\"porciones\":1}");
+
+        assertEquals(4, resultado.lineas());
+        assertEquals(2, resultado.importadas());
+        assertEquals(2, resultado.erroneas());
+        assertEquals(List.of(3L, 4L), resultado.errores().stream().map(ImportacionRecetasService.ErrorLinea::linea).toList());
+        RecetaDto importada = recetaService.getRecetaById(recetaId("Importada 1"));
+        assertEquals(usuarioId, importada.getUsuario().getId());
+        assertEquals(List.of("Categoria importada"), importada.getCategorias().stream().map(c -> c.getNombre()).toList());
+        assertEquals(2, importada.getPasos().size());
+        assertEquals(2, importada.getIngredientes().size());
+        assertEquals(0L, importada.getTotalCalificaciones());
+    }
+
+    @Test
+    void testImportarReportsUnresolvedReferences() {
+        String receta = "{\"titulo\":\"Sin resolver\",\"descripcion\":\"d\",\"tiempoPreparacion\":10,"
+                + "\"dificultad\":\"Fácil\",\"porciones\":2,";
+        ImportacionRecetasService.ResultadoImportacion resultado = importar(
+                receta + "\"categorias\":[{\"id\":999999}]}",
+                receta + "\"categorias\":[{\"nombre\":\"No existe\"}]}",
+                receta + "\"categorias\":[{}]}",
+                receta + "\"ingredientes\":[{\"ingredienteId\":999999,\"cantidad\":\"1\"}]}",
+                receta + "\"ingredientes\":[{\"cantidad\":\"1\"}]}");
+
+        assertEquals(0, resultado.importadas());
+        assertEquals(List.of("Categoría no encontrada con ID: 999999",
+                "Categoría no encontrada: No existe",
+                "Falta el id o el nombre de la categoría",
+                "Ingrediente no encontrado con ID: 999999",
+                "Falta el id o el nombre del ingrediente"),
+                resultado.errores().stream().map(ImportacionRecetasService.ErrorLinea::mensaje).toList());
+    }
+
+    @Test
+    void testImportedRecetasReachFollowersFeedAndIndexes() {
+        String ingredientes = "\"ingredientes\":[{\"ingredienteId\":" + ingredienteId + ",\"cantidad\":\"200 g\"},"
+                + "{\"ingredienteId\":" + huevoId + ",\"cantidad\":\"3\"}]";
+        importar("{\"titulo\":\"Bizcocho importado\",\"descripcion\":\"Esponjoso\",\"tiempoPreparacion\":40,"
+                        + "\"dificultad\":\"Fácil\",\"porciones\":8," + ingredientes + "}",
+                "{\"titulo\":\"Bizcocho marmolado\",\"descripcion\":\"Con cacao\",\"tiempoPreparacion\":50,"
+                        + "\"dificultad\":\"Media\",\"porciones\":8," + ingredientes + "}");
+        Integer bizcochoId = recetaId("Bizcocho importado");
+        Integer marmoladoId = recetaId("Bizcocho marmolado");
+
+        // Feed del seguidor, copiado al confirmarse el lote
+        assertEquals(List.of(marmoladoId, bizcochoId), feedService.getFeed(seguidorId, null, 10).getContent()
+                .stream().map(RecetaSummaryDto::getId).filter(id -> id.equals(bizcochoId) || id.equals(marmoladoId))
+                .sorted((a, b) -> b - a).toList());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM feed_entradas WHERE usuario_id = ?",
+                Integer.class, seguidorId));
+
+        // Índices en memoria, actualizados con las recetas del lote
+        assertTrue(busquedaIndiceService.buscarSlice("bizcocho", PageRequest.of(0, 10)).getContent().stream()
+                .map(RecetaSummaryDto::getId).toList().containsAll(List.of(bizcochoId, marmoladoId)));
+        assertTrue(coberturaIngredientesService.cocinables(List.of(ingredienteId, huevoId), 0, PageRequest.of(0, 10))
+                .getContent().stream().map(c -> c.getReceta().getId()).toList()
+                .containsAll(List.of(bizcochoId, marmoladoId)));
+        assertTrue(similitudService.similares(bizcochoId, 10).stream().map(RecetaSummaryDto::getId).toList()
+                .contains(marmoladoId));
+        assertTrue(autocompletadoService.sugerir("bizcocho", 10).getRecetas().stream()
+                .map(AutocompletadoDto.Sugerencia::getId).toList().containsAll(List.of(bizcochoId, marmoladoId)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.recetas.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndiceAutocompletadoTest {
+
+    private IndiceAutocompletado indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceAutocompletado();
+        indice.poner(1, "Tortilla de patatas", 10);
+        indice.poner(2, "Patatas bravas", 30);
+        indice.poner(3, "Tarta de queso", 20);
+        indice.poner(4, "Tortitas", 5);
+        indice.reorganizar();
+    }
+
+    @Test
+    void testPrefixOfAnyWordRankedByPopularity() {
+        assertEquals(List.of(2, 1), ids("PATA"));
+        assertEquals(List.of(3, 1, 4), ids("t"));
+        assertEquals(List.of(1), ids("tortilla de p"));
+        assertEquals(List.of(), ids("de"));
+    }
+
+    @Test
+    void testLimitReturnsMostPopular() {
+        List<IndiceAutocompletado.Sugerencia> sugerencias = indice.buscar("t", 2);
+
+        assertEquals(2, sugerencias.size());
+        assertEquals("Tarta de queso", sugerencias.get(0).texto());
+    }
+
+    @Test
+    void testIncrementalChangesBeforeAndAfterReorganizing() {
+        indice.poner(5, "Tortilla española", 15);
+        indice.poner(1, "Tortilla de patata", 10);
+        indice.actualizarPopularidad(4, 50);
+        indice.eliminar(3);
+
+        assertEquals(List.of(4, 5, 1), ids("tort"));
+        assertEquals(List.of(2, 1), ids("patat"));
+        indice.reorganizar();
+        assertEquals(List.of(4, 5, 1), ids("tort"));
+        assertEquals(List.of(), ids("queso"));
+    }
+
+    @Test
+    void testSameTextKeepsBothEntries() {
+        indice.poner(6, "Tarta de queso", 25);
+
+        assertEquals(List.of(6, 3), ids("tarta"));
+    }
+
+    private List<Integer> ids(String prefijo) {
+        return indice.buscar(prefijo, 10).stream().map(IndiceAutocompletado.Sugerencia::id).toList();
+    }
+}
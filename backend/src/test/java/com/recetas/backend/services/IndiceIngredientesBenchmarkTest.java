@@ -0,0 +1,65 @@
+package com.recetas.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Latencia de "qué puedo cocinar" sobre un catálogo sintético de un millón de
+// recetas con 8-12 ingredientes de un vocabulario de 2000 (frecuencias tipo Zipf).
+// Objetivo: p99 por debajo de 5 ms.
+// No se ejecuta por defecto: -Dbenchmark=true [-Dbenchmark.recetas=1000000]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class IndiceIngredientesBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceIngredientesBenchmarkTest.class);
+
+    private static final int NUM_INGREDIENTES = 2000;
+    private static final int CONSULTAS = 500;
+
+    @Test
+    void benchmarkCocinables() {
+        int numRecetas = Integer.getInteger("benchmark.recetas", 1_000_000);
+        Random random = new Random(42);
+        IndiceIngredientes indice = new IndiceIngredientes();
+        long inicioCarga = System.nanoTime();
+        for (int i = 1; i <= numRecetas; i++) {
+            int[] ingredientes = new int[8 + random.nextInt(5)];
+            for (int j = 0; j < ingredientes.length; j++) {
+                ingredientes[j] = 1 + zipf(random, NUM_INGREDIENTES);
+            }
+            indice.indexar(i, ingredientes);
+        }
+        log.info("[benchmark] carga de {} recetas: {} ms", numRecetas,
+                (System.nanoTime() - inicioCarga) / 1_000_000);
+
+        // Despensas de 5 a 20 ingredientes, con los habituales más probables
+        int[][] despensas = new int[CONSULTAS][];
+        for (int i = 0; i < CONSULTAS; i++) {
+            despensas[i] = new int[5 + random.nextInt(16)];
+            for (int j = 0; j < despensas[i].length; j++) {
+                despensas[i][j] = 1 + zipf(random, NUM_INGREDIENTES);
+            }
+        }
+        for (int[] despensa : despensas) {
+            indice.cocinables(despensa, -1, 20); // calentamiento
+        }
+        long[] tiempos = new long[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            long inicio = System.nanoTime();
+            IndiceIngredientes.Resultado resultado = indice.cocinables(despensas[i], i % 2 == 0 ? -1 : 2, 20);
+            tiempos[i] = System.nanoTime() - inicio;
+            assertTrue(resultado.recetaIds().length <= 20);
+        }
+        Latencias.de("consulta", tiempos).comprobar(5.0);
+    }
+
+    // Índice con probabilidad decreciente (1/k aproximado)
+    private static int zipf(Random random, int n) {
+        return (int) Math.min(n - 1, Math.floor(Math.pow(n + 1, random.nextDouble()) - 1));
+    }
+}
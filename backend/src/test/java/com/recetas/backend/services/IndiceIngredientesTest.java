@@ -0,0 +1,67 @@
+package com.recetas.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndiceIngredientesTest {
+
+    private IndiceIngredientes indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceIngredientes();
+        indice.indexar(1, new int[] { 3, 1, 2 });       // tortilla: huevo, patata, cebolla
+        indice.indexar(2, new int[] { 1, 4 });          // huevos con jamón
+        indice.indexar(3, new int[] { 5, 6, 7, 8 });    // sin nada en común
+        indice.indexar(4, new int[] { 1, 2, 3, 9, 10 }); // tortilla completa
+    }
+
+    @Test
+    void testRanksByCoveredFraction() {
+        IndiceIngredientes.Resultado resultado = indice.cocinables(new int[] { 1, 2, 3 }, -1, 10);
+
+        assertArrayEquals(new int[] { 1, 4, 2 }, resultado.recetaIds());
+        assertArrayEquals(new int[] { 3, 3, 1 }, resultado.cubiertos());
+        assertArrayEquals(new int[] { 3, 5, 2 }, resultado.totales());
+        assertEquals(3, resultado.coincidencias());
+    }
+
+    @Test
+    void testMissingAtMostFiltersAndCounts() {
+        IndiceIngredientes.Resultado resultado = indice.cocinables(new int[] { 1, 2, 3, 3 }, 1, 1);
+
+        assertArrayEquals(new int[] { 1 }, resultado.recetaIds());
+        assertEquals(2, resultado.coincidencias());
+        assertArrayEquals(new int[] { 9, 10 }, indice.faltantes(4, new int[] { 1, 2, 3 }));
+    }
+
+    @Test
+    void testReindexAndDeleteUpdateMatches() {
+        indice.indexar(3, new int[] { 1, 2 });
+        indice.eliminar(1);
+        indice.indexar(2, new int[0]);
+
+        IndiceIngredientes.Resultado resultado = indice.cocinables(new int[] { 1, 2, 3 }, 0, 10);
+
+        assertArrayEquals(new int[] { 3 }, resultado.recetaIds());
+        assertEquals(2, indice.getNumRecetas());
+    }
+
+    @Test
+    void testCompactionKeepsResults() {
+        for (int i = 100; i < 2100; i++) {
+            indice.indexar(i, new int[] { 1, i % 7 + 20 });
+        }
+        for (int i = 100; i < 1900; i++) {
+            indice.eliminar(i);
+        }
+
+        IndiceIngredientes.Resultado resultado = indice.cocinables(new int[] { 1, 2, 3 }, 1, 3);
+
+        assertArrayEquals(new int[] { 1, 2, 1900 }, resultado.recetaIds());
+        assertEquals(202, resultado.coincidencias());
+        assertEquals(204, indice.getNumRecetas());
+    }
+}
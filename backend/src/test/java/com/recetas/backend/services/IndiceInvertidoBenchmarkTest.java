@@ -0,0 +1,79 @@
+package com.recetas.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Latencia de IndiceInvertido.buscar sobre un catálogo sintético (por defecto
+// 500.000 recetas) con vocabulario de frecuencias tipo Zipf.
+// Objetivo: p99 por debajo de 1 ms.
+// No se ejecuta por defecto: -Dbenchmark=true [-Dbenchmark.recetas=500000]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class IndiceInvertidoBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceInvertidoBenchmarkTest.class);
+
+    private static final String[] INGREDIENTES = { "tomate", "cebolla", "ajo", "pimiento", "patata", "huevo",
+            "arroz", "pollo", "ternera", "merluza", "gambas", "champiñón", "calabacín", "berenjena", "lentejas",
+            "garbanzos", "queso", "nata", "leche", "harina", "azúcar", "limón", "naranja", "manzana", "chocolate",
+            "espinacas", "zanahoria", "puerro", "bacalao", "chorizo", "jamón", "alcachofa", "guisantes", "atún" };
+    private static final String[] PLATOS = { "guiso", "ensalada", "tortilla", "crema", "tarta", "asado",
+            "sopa", "salteado", "croquetas", "paella", "bizcocho", "revuelto", "estofado", "pisto" };
+    // Vocabulario total de ingredientes del catálogo sintético: los nombres reales
+    // son los más frecuentes y el resto se completa con nombres generados
+    private static final int NUM_INGREDIENTES = 400;
+    private static final int CONSULTAS = 2000;
+
+    @Test
+    void benchmarkBusqueda() {
+        int numRecetas = Integer.getInteger("benchmark.recetas", 500_000);
+        Random random = new Random(42);
+        IndiceInvertido indice = new IndiceInvertido();
+        long inicioCarga = System.nanoTime();
+        for (int i = 1; i <= numRecetas; i++) {
+            String titulo = PLATOS[zipf(random, PLATOS.length)] + " de " + ingrediente(zipf(random, NUM_INGREDIENTES))
+                    + " " + i;
+            StringBuilder contenido = new StringBuilder("Receta casera número ").append(i).append('.');
+            for (int j = 0; j < 8; j++) {
+                contenido.append(' ').append(ingrediente(zipf(random, NUM_INGREDIENTES)));
+            }
+            contenido.append(". Cocinar a fuego lento y servir.");
+            indice.indexar(i, titulo, contenido.toString());
+        }
+        indice.recalcularImpactos();
+        log.info("[benchmark] carga de {} recetas: {} ms, {} términos", numRecetas,
+                (System.nanoTime() - inicioCarga) / 1_000_000, indice.getNumTerminos());
+
+        String[] consultas = new String[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            consultas[i] = i % 2 == 0
+                    ? PLATOS[random.nextInt(PLATOS.length)] + " " + INGREDIENTES[random.nextInt(INGREDIENTES.length)]
+                    : INGREDIENTES[random.nextInt(INGREDIENTES.length)];
+        }
+        for (String consulta : consultas) {
+            indice.buscar(consulta, 20); // calentamiento
+        }
+        long[] tiempos = new long[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            long inicio = System.nanoTime();
+            IndiceInvertido.Resultado resultado = indice.buscar(consultas[i], 20);
+            tiempos[i] = System.nanoTime() - inicio;
+            assertTrue(resultado.recetaIds().length <= 20);
+        }
+        Latencias.de("consulta", tiempos).comprobar(1.0);
+    }
+
+    private static String ingrediente(int indice) {
+        return indice < INGREDIENTES.length ? INGREDIENTES[indice] : "ingrediente" + indice;
+    }
+
+    // Índice con probabilidad decreciente (1/k aproximado)
+    private static int zipf(Random random, int n) {
+        return (int) Math.min(n - 1, Math.floor(Math.pow(n + 1, random.nextDouble()) - 1));
+    }
+}
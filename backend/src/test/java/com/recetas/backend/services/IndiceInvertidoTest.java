@@ -0,0 +1,92 @@
+package com.recetas.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndiceInvertidoTest {
+
+    private IndiceInvertido indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceInvertido();
+        indice.indexar(1, "Champiñones al ajillo", "Dificultad Fácil. Ajo, perejil y champiñones");
+        indice.indexar(2, "Tortilla de patatas", "Huevos, patatas y cebolla. Freír las patatas a fuego lento");
+        indice.indexar(3, "Huevos rotos", "Con patatas fritas y jamón");
+    }
+
+    @Test
+    void testAccentsAndPluralsAreFolded() {
+        IndiceInvertido.Resultado resultado = indice.buscar("CHAMPIÑÓN facil", 10);
+
+        assertEquals(1, indice.contar("CHAMPIÑÓN facil"));
+        assertArrayEquals(new int[] { 1 }, resultado.recetaIds());
+    }
+
+    @Test
+    void testTitleMatchRanksFirst() {
+        IndiceInvertido.Resultado resultado = indice.buscar("patata", 10);
+
+        assertEquals(2, indice.contar("patata"));
+        assertArrayEquals(new int[] { 2, 3 }, resultado.recetaIds());
+        assertTrue(resultado.puntuaciones()[0] > resultado.puntuaciones()[1]);
+    }
+
+    @Test
+    void testLimitKeepsBestMatches() {
+        IndiceInvertido.Resultado resultado = indice.buscar("huevos patatas", 1);
+
+        assertArrayEquals(new int[] { 2 }, resultado.recetaIds());
+        assertEquals(2, indice.contar("huevos patatas"));
+    }
+
+    // MaxScore debe devolver lo mismo que puntuar todas las coincidencias
+    @Test
+    void testPruningMatchesExhaustiveRanking() {
+        String[] palabras = { "arroz", "pollo", "tomate", "ajo", "pimiento", "queso", "lentejas", "merluza" };
+        Random random = new Random(7);
+        for (int i = 10; i < 2010; i++) {
+            StringBuilder texto = new StringBuilder();
+            for (int j = 0; j < 1 + random.nextInt(6); j++) {
+                texto.append(palabras[random.nextInt(random.nextBoolean() ? 3 : palabras.length)]).append(' ');
+            }
+            indice.indexar(i, palabras[random.nextInt(palabras.length)], texto.toString());
+        }
+        indice.recalcularImpactos();
+
+        IndiceInvertido.Resultado todos = indice.buscar("arroz merluza queso", 5000);
+        IndiceInvertido.Resultado mejores = indice.buscar("arroz merluza queso", 10);
+
+        assertEquals(indice.contar("arroz merluza queso"), todos.recetaIds().length);
+        assertArrayEquals(Arrays.copyOf(todos.recetaIds(), 10), mejores.recetaIds());
+    }
+
+    @Test
+    void testReindexAndDelete() {
+        indice.indexar(2, "Tortilla francesa", "Huevos y sal");
+        indice.eliminar(3);
+
+        assertEquals(0, indice.contar("patatas"));
+        assertArrayEquals(new int[] { 2 }, indice.buscar("huevo", 10).recetaIds());
+        assertEquals(2, indice.getNumRecetas());
+    }
+
+    @Test
+    void testCompactionKeepsResults() {
+        for (int i = 100; i < 3100; i++) {
+            indice.indexar(i, "Receta " + i, i % 2 == 0 ? "lentejas" : "garbanzos");
+        }
+        for (int i = 100; i < 2100; i++) {
+            indice.eliminar(i);
+        }
+
+        assertEquals(1003, indice.getNumRecetas());
+        assertEquals(500, indice.contar("lenteja"));
+        assertArrayEquals(new int[] { 1 }, indice.buscar("champiñones", 10).recetaIds());
+    }
+}
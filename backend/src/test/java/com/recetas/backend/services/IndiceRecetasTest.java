@@ -0,0 +1,105 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.repositories.RecetaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IndiceRecetasTest {
+
+    @Mock
+    private RecetaRepository recetaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IndicesRecetas indicesRecetas;
+    // Lo que hay "en la base de datos": título por ID de receta
+    private final TreeMap<Integer, String> recetas = new TreeMap<>();
+    private final List<String> tramos = new ArrayList<>();
+    private Runnable durante = () -> {
+    };
+    private IndiceRecetas<Map<Integer, String>, String> indice;
+
+    @BeforeEach
+    void setUp() {
+        indicesRecetas = new IndicesRecetas();
+        ReflectionTestUtils.setField(indicesRecetas, "recetaRepository", recetaRepository);
+        ReflectionTestUtils.setField(indicesRecetas, "transacciones", new TransaccionesAisladas(transactionManager));
+        indice = indicesRecetas.registrar(2, HashMap::new, this::cargar, (actual, recetaId, titulo) -> {
+            if (titulo == null) {
+                actual.remove(recetaId);
+            } else {
+                actual.put(recetaId, titulo);
+            }
+        });
+        recetas.put(1, "Tortilla");
+        recetas.put(2, "Gazpacho");
+        recetas.put(3, "Paella");
+        lenient().when(recetaRepository.findMaxId()).thenAnswer(invocation -> recetas.lastKey());
+    }
+
+    private Map<Integer, String> cargar(int desdeId, int hastaId) {
+        tramos.add(desdeId + "-" + hastaId);
+        Map<Integer, String> tramo = new HashMap<>(recetas.subMap(desdeId, true, hastaId, true));
+        durante.run();
+        return tramo;
+    }
+
+    @Test
+    void testReconstruirLoadsByRanges() {
+        assertFalse(indice.isCargado());
+        indice.reconstruir();
+
+        assertTrue(indice.isCargado());
+        assertEquals(List.of("1-2", "3-4"), tramos);
+        assertEquals(Map.of(1, "Tortilla", 2, "Gazpacho", 3, "Paella"), indice.leer(HashMap::new));
+    }
+
+    @Test
+    void testEventsUpdateRegisteredIndexes() {
+        indice.reconstruir();
+        recetas.put(2, "Gazpacho andaluz");
+        recetas.remove(3);
+        recetas.put(4, "Cocido");
+        recetas.put(5, "Fabada");
+
+        indicesRecetas.onRecetaModificada(new RecetaModificadaEvent(2));
+        indicesRecetas.onRecetaModificada(new RecetaModificadaEvent(3));
+        indicesRecetas.onRecetasImportadas(new RecetasImportadasEvent(List.of(4, 5), 1));
+
+        assertEquals(Map.of(1, "Tortilla", 2, "Gazpacho andaluz", 4, "Cocido", 5, "Fabada"),
+                indice.leer(HashMap::new));
+        // Un lote se lee con una sola consulta sobre su tramo
+        assertEquals("4-5", tramos.get(tramos.size() - 1));
+    }
+
+    @Test
+    void testChangesDuringRebuildAreReapplied() {
+        // Una edición confirmada justo después de leer el primer tramo con el título
+        // anterior: el índice nuevo no debe quedarse con él
+        durante = () -> {
+            durante = () -> {
+            };
+            recetas.put(1, "Tortilla de patatas");
+            indicesRecetas.onRecetaModificada(new RecetaModificadaEvent(1));
+        };
+        indice.reconstruir();
+
+        assertEquals("Tortilla de patatas", indice.leer(actual -> actual.get(1)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.recetas.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Latencia de "recetas similares" sobre un catálogo sintético de un millón de
+// recetas con 8-12 ingredientes de un vocabulario de 2000 (frecuencias tipo Zipf)
+// y 1-2 categorías de 30. Una de cada diez es variante de otra anterior (cambia
+// dos ingredientes), para que haya vecinos reales que encontrar.
+// Objetivo: p99 por debajo de 1 ms.
+// No se ejecuta por defecto: -Dbenchmark=true [-Dbenchmark.recetas=1000000]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class IndiceSimilitudBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceSimilitudBenchmarkTest.class);
+
+    private static final int NUM_INGREDIENTES = 2000;
+    private static final int NUM_CATEGORIAS = 30;
+    private static final int CONSULTAS = 2000;
+
+    @Test
+    void benchmarkSimilares() {
+        int numRecetas = Integer.getInteger("benchmark.recetas", 1_000_000);
+        Random random = new Random(42);
+        IndiceSimilitud indice = new IndiceSimilitud();
+        int[][] rasgos = new int[numRecetas + 1][];
+        long inicioCarga = System.nanoTime();
+        for (int i = 1; i <= numRecetas; i++) {
+            if (i > 10 && random.nextInt(10) == 0) {
+                rasgos[i] = rasgos[1 + random.nextInt(i - 1)].clone();
+                rasgos[i][0] = IndiceSimilitud.rasgoIngrediente(1 + zipf(random, NUM_INGREDIENTES));
+                rasgos[i][1] = IndiceSimilitud.rasgoIngrediente(1 + zipf(random, NUM_INGREDIENTES));
+            } else {
+                int numIngredientes = 8 + random.nextInt(5);
+                rasgos[i] = new int[numIngredientes + 1 + random.nextInt(2)];
+                for (int j = 0; j < rasgos[i].length; j++) {
+                    rasgos[i][j] = j < numIngredientes
+                            ? IndiceSimilitud.rasgoIngrediente(1 + zipf(random, NUM_INGREDIENTES))
+                            : IndiceSimilitud.rasgoCategoria(1 + random.nextInt(NUM_CATEGORIAS));
+                }
+            }
+            indice.indexar(i, rasgos[i]);
+        }
+        log.info("[benchmark] carga de {} recetas: {} ms", numRecetas,
+                (System.nanoTime() - inicioCarga) / 1_000_000);
+
+        int[] consultas = new int[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            consultas[i] = 1 + random.nextInt(numRecetas);
+            indice.similares(consultas[i], 10); // calentamiento
+        }
+        long[] tiempos = new long[CONSULTAS];
+        int conVecinos = 0;
+        for (int i = 0; i < CONSULTAS; i++) {
+            long inicio = System.nanoTime();
+            IndiceSimilitud.Resultado resultado = indice.similares(consultas[i], 10);
+            tiempos[i] = System.nanoTime() - inicio;
+            assertTrue(resultado.recetaIds().length <= 10);
+            if (resultado.recetaIds().length > 0 && resultado.similitudes()[0] >= 0.5) {
+                conVecinos++;
+            }
+        }
+        log.info("[benchmark] {} de {} consultas con Jaccard >= 0.5", conVecinos, CONSULTAS);
+        Latencias.de("consulta", tiempos).comprobar(1.0);
+    }
+
+    // Índice con probabilidad decreciente (1/k aproximado)
+    private static int zipf(Random random, int n) {
+        return (int) Math.min(n - 1, Math.floor(Math.pow(n + 1, random.nextDouble()) - 1));
+    }
+}
@@ -0,0 +1,68 @@
+package com.recetas.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndiceSimilitudTest {
+
+    private IndiceSimilitud indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceSimilitud();
+        indice.indexar(1, rasgos(new int[] { 1, 2, 3, 4, 5, 6 }, 1));     // tortilla
+        indice.indexar(2, rasgos(new int[] { 1, 2, 3, 4, 5, 7 }, 1));     // tortilla con pimiento
+        indice.indexar(3, rasgos(new int[] { 1, 2, 3, 4, 8, 9 }, 1));     // variante más lejana
+        indice.indexar(4, rasgos(new int[] { 20, 21, 22, 23, 24 }, 2));   // nada en común
+    }
+
+    @Test
+    void testRanksCandidatesByJaccard() {
+        IndiceSimilitud.Resultado resultado = indice.similares(1, 10);
+
+        assertEquals(2, resultado.recetaIds()[0]);
+        assertEquals(6.0 / 8, resultado.similitudes()[0], 1e-9);
+        assertFalse(IntStream.of(resultado.recetaIds()).anyMatch(id -> id == 1 || id == 4));
+    }
+
+    @Test
+    void testReindexAndDelete() {
+        indice.indexar(4, rasgos(new int[] { 1, 2, 3, 4, 5, 6 }, 1));
+        assertEquals(4, indice.similares(1, 1).recetaIds()[0]);
+
+        indice.eliminar(4);
+        indice.indexar(2, new int[0]);
+        assertFalse(indice.contiene(2));
+        assertEquals(0, indice.similares(2, 5).recetaIds().length);
+        assertFalse(IntStream.of(indice.similares(1, 10).recetaIds()).anyMatch(id -> id == 2 || id == 4));
+    }
+
+    @Test
+    void testIdenticalSetsAlwaysCollideAfterCompaction() {
+        for (int id = 10; id < 3010; id++) {
+            indice.indexar(id, rasgos(new int[] { id, id + 100_000 }, 3));
+        }
+        for (int id = 10; id < 2010; id++) {
+            indice.eliminar(id);
+        }
+        indice.indexar(5000, rasgos(new int[] { 2500, 102_500 }, 3));
+
+        IndiceSimilitud.Resultado resultado = indice.similares(5000, 1);
+        assertArrayEquals(new int[] { 2500 }, resultado.recetaIds());
+        assertEquals(1.0, resultado.similitudes()[0]);
+        assertEquals(1005, indice.getNumRecetas());
+    }
+
+    private static int[] rasgos(int[] ingredientes, int categoria) {
+        int[] rasgos = new int[ingredientes.length + 1];
+        for (int i = 0; i < ingredientes.length; i++) {
+            rasgos[i] = IndiceSimilitud.rasgoIngrediente(ingredientes[i]);
+        }
+        rasgos[ingredientes.length] = IndiceSimilitud.rasgoCategoria(categoria);
+        return rasgos;
+    }
+}
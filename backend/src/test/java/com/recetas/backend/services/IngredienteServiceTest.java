@@ -4,18 +4,23 @@ import com.recetas.backend.dtos.IngredienteDto;
 import com.recetas.backend.exceptions.ResourceNotFoundException;
 import com.recetas.backend.models.Ingrediente;
 import com.recetas.backend.repositories.IngredienteRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +32,12 @@ public class IngredienteServiceTest {
     @Mock
     private IngredienteRepository ingredienteRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DatosReferenciaCache datosReferenciaCache;
+
     @InjectMocks
     private IngredienteService ingredienteService;
 
@@ -42,13 +53,18 @@ public class IngredienteServiceTest {
 
         ingredienteDto1 = IngredienteDto.fromEntity(ingrediente1);
         ingredienteDto2 = IngredienteDto.fromEntity(ingrediente2);
+
+        // Los nombres se comprueban contra la instantánea de la caché
+        lenient().when(datosReferenciaCache.getInstantanea()).thenReturn(
+                new DatosReferenciaCache.Instantanea(Map.of(), Map.of(),
+                Map.of(1, ingrediente1, 2, ingrediente2), Map.of("sal", 1, "pimienta", 2), Map.of(), 1L, 1L));
     }
 
     @Test
     void testGetAllIngredientes() {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Ingrediente> ingredientePage = new PageImpl<>(Arrays.asList(ingrediente1, ingrediente2), pageable, 2);
-        when(ingredienteRepository.findAll(pageable)).thenReturn(ingredientePage);
+        when(datosReferenciaCache.getIngredientes(pageable)).thenReturn(ingredientePage);
 
         Page<IngredienteDto> result = ingredienteService.getAllIngredientes(pageable);
 
@@ -60,7 +76,7 @@ public class IngredienteServiceTest {
 
     @Test
     void testGetIngredienteByIdFound() {
-        when(ingredienteRepository.findById(1)).thenReturn(Optional.of(ingrediente1));
+        when(datosReferenciaCache.getIngrediente(1)).thenReturn(Optional.of(ingrediente1));
 
         IngredienteDto result = ingredienteService.getIngredienteById(1);
 
@@ -70,7 +86,7 @@ public class IngredienteServiceTest {
 
     @Test
     void testGetIngredienteByIdNotFound() {
-        when(ingredienteRepository.findById(99)).thenReturn(Optional.empty());
+        when(datosReferenciaCache.getIngrediente(99)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(ResourceNotFoundException.class, () -> {
             ingredienteService.getIngredienteById(99);
@@ -87,8 +103,7 @@ public class IngredienteServiceTest {
         Ingrediente newIngrediente = new Ingrediente(null, "Azúcar", null);
         Ingrediente savedIngrediente = new Ingrediente(3, "Azúcar", null);
 
-        when(ingredienteRepository.findByNombre("Azúcar")).thenReturn(Optional.empty());
-        when(ingredienteRepository.save(any(Ingrediente.class))).thenReturn(savedIngrediente);
+        when(ingredienteRepository.saveAndFlush(any(Ingrediente.class))).thenReturn(savedIngrediente);
 
         IngredienteDto result = ingredienteService.createIngrediente(newIngredienteDto);
 
@@ -102,13 +117,51 @@ public class IngredienteServiceTest {
         IngredienteDto newIngredienteDto = new IngredienteDto();
         newIngredienteDto.setNombre("Sal");
 
-        when(ingredienteRepository.findByNombre("Sal")).thenReturn(Optional.of(ingrediente1));
+        Exception exception = assertThrows(RuntimeException.class, () -> {
+            ingredienteService.createIngrediente(newIngredienteDto);
+        });
+
+        assertEquals("Error: ¡El nombre del ingrediente ya existe!", exception.getMessage());
+    }
+
+    @Test
+    void testCreateIngredienteNameTakenAfterSnapshot() {
+        IngredienteDto newIngredienteDto = new IngredienteDto();
+        newIngredienteDto.setNombre("Azúcar");
+
+        // Alta concurrente que la instantánea aún no recoge: la rechaza el índice único
+        when(ingredienteRepository.saveAndFlush(any(Ingrediente.class)))
+                .thenThrow(violacion(ConstraintViolationException.ConstraintKind.UNIQUE, "nombre_UNIQUE"));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             ingredienteService.createIngrediente(newIngredienteDto);
         });
 
         assertEquals("Error: ¡El nombre del ingrediente ya existe!", exception.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testCreateIngredienteOtherIntegrityErrorsAreNotReportedAsDuplicates() {
+        IngredienteDto newIngredienteDto = new IngredienteDto();
+        newIngredienteDto.setNombre("Azúcar");
+
+        // Un nombre demasiado largo no es un nombre repetido
+        DataIntegrityViolationException error = violacion(ConstraintViolationException.ConstraintKind.OTHER, null);
+        when(ingredienteRepository.saveAndFlush(any(Ingrediente.class))).thenThrow(error);
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            ingredienteService.createIngrediente(newIngredienteDto);
+        });
+
+        assertSame(error, exception);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private static DataIntegrityViolationException violacion(ConstraintViolationException.ConstraintKind tipo,
+                                                             String restriccion) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), tipo, restriccion));
     }
 
     @Test
@@ -119,8 +172,7 @@ public class IngredienteServiceTest {
         Ingrediente updatedIngrediente = new Ingrediente(1, "Sal Marina", null);
 
         when(ingredienteRepository.findById(1)).thenReturn(Optional.of(ingrediente1));
-        when(ingredienteRepository.findByNombre("Sal Marina")).thenReturn(Optional.empty());
-        when(ingredienteRepository.save(any(Ingrediente.class))).thenReturn(updatedIngrediente);
+        when(ingredienteRepository.saveAndFlush(any(Ingrediente.class))).thenReturn(updatedIngrediente);
 
         IngredienteDto result = ingredienteService.updateIngrediente(1, updatedIngredienteDto);
 
@@ -147,7 +199,6 @@ public class IngredienteServiceTest {
         updatedDto.setNombre("Pimienta"); // Nombre de ingrediente2
 
         when(ingredienteRepository.findById(1)).thenReturn(Optional.of(ingrediente1));
-        when(ingredienteRepository.findByNombre("Pimienta")).thenReturn(Optional.of(ingrediente2));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             ingredienteService.updateIngrediente(1, updatedDto);
@@ -164,6 +215,7 @@ public class IngredienteServiceTest {
         ingredienteService.deleteIngrediente(1);
 
         verify(ingredienteRepository, times(1)).deleteById(1);
+        verify(eventPublisher).publishEvent(new IngredienteModificadoEvent(1));
     }
 
     @Test
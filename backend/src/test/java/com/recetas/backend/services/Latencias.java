@@ -0,0 +1,36 @@
+package com.recetas.backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Percentiles de los tiempos medidos por los benchmarks (en nanosegundos). El
+// objetivo de p99 de cada benchmark se puede cambiar con -Dbenchmark.p99MaxMs
+// para medir en máquinas más lentas que la de referencia
+record Latencias(String nombre, double p50Ms, double p99Ms, double maxMs) {
+
+    private static final Logger log = LoggerFactory.getLogger(Latencias.class);
+
+    static Latencias de(String nombre, long[] tiempos) {
+        long[] ordenados = tiempos.clone();
+        Arrays.sort(ordenados);
+        int n = ordenados.length;
+        return new Latencias(nombre, ordenados[n / 2] / 1e6, ordenados[n * 99 / 100] / 1e6, ordenados[n - 1] / 1e6);
+    }
+
+    // Registra los percentiles y comprueba el p99 contra el objetivo
+    void comprobar(double p99ObjetivoMs) {
+        double objetivo = Double.parseDouble(System.getProperty("benchmark.p99MaxMs", String.valueOf(p99ObjetivoMs)));
+        log.info("[benchmark] {}: p50 {} ms, p99 {} ms, máx {} ms (objetivo p99 {} ms)", nombre,
+                formato(p50Ms), formato(p99Ms), formato(maxMs), formato(objetivo));
+        assertTrue(p99Ms <= objetivo, nombre + ": p99 de " + formato(p99Ms) + " ms supera el objetivo de "
+                + formato(objetivo) + " ms");
+    }
+
+    static String formato(double ms) {
+        return String.format("%.3f", ms);
+    }
+}
@@ -6,11 +6,13 @@ import com.recetas.backend.models.Notificacion;
 import com.recetas.backend.models.Usuario;
 import com.recetas.backend.repositories.NotificacionRepository;
 import com.recetas.backend.repositories.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -33,6 +35,9 @@ public class NotificacionServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Spy
+    private ConteoCache conteoCache = new ConteoCache(new SimpleMeterRegistry(), 100, 30);
+
     @InjectMocks
     private NotificacionService notificacionService;
 
@@ -75,7 +80,7 @@ public class NotificacionServiceTest {
         NotificacionDto result = notificacionService.marcarComoLeida(1, 1);
 
         assertNotNull(result);
-        assertTrue(result.isLeida());
+        assertTrue(result.getLeida());
     }
 
     @Test
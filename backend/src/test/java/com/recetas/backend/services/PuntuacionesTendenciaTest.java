@@ -0,0 +1,68 @@
+package com.recetas.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PuntuacionesTendenciaTest {
+
+    private static final long HORA = 3_600_000L;
+
+    private PuntuacionesTendencia puntuaciones;
+
+    @BeforeEach
+    void setUp() {
+        // Vida media de una hora
+        puntuaciones = new PuntuacionesTendencia(HORA, 0.01, 0);
+    }
+
+    @Test
+    void testScoreHalvesEveryHalfLife() {
+        puntuaciones.registrar(1, 8, 0);
+
+        assertEquals(8, puntuaciones.puntuacion(1, 0), 1e-9);
+        assertEquals(4, puntuaciones.puntuacion(1, HORA), 1e-9);
+        assertEquals(1, puntuaciones.puntuacion(1, 3 * HORA), 1e-9);
+    }
+
+    @Test
+    void testRecentActivityOutranksOlderActivity() {
+        puntuaciones.registrar(1, 10, 0);
+        puntuaciones.registrar(2, 3, 2 * HORA);
+        puntuaciones.registrar(2, 3, 2 * HORA);
+        puntuaciones.registrar(3, 3, 2 * HORA);
+
+        // 10 / 4 = 2.5 frente a 6 y 3
+        PuntuacionesTendencia.Top top = puntuaciones.mejores(2, 2 * HORA);
+
+        assertArrayEquals(new int[] { 2, 3 }, top.recetaIds());
+        assertEquals(6, top.puntuaciones()[0], 1e-9);
+        assertEquals(3, top.puntuaciones()[1], 1e-9);
+    }
+
+    @Test
+    void testTiesByLowerIdAndLimit() {
+        for (int id = 10; id >= 1; id--) {
+            puntuaciones.registrar(id, 1, 0);
+        }
+
+        assertArrayEquals(new int[] { 1, 2, 3 }, puntuaciones.mejores(3, 0).recetaIds());
+        assertEquals(0, puntuaciones.mejores(0, 0).recetaIds().length);
+    }
+
+    @Test
+    void testRescalingKeepsScoresAndDropsNegligible() {
+        puntuaciones.registrar(1, 1, 0);
+        // 100 vidas medias después: e^(lambda * t) ya superaría el margen y se reescala
+        puntuaciones.registrar(2, 5, 100 * HORA);
+        puntuaciones.registrar(2, 5, 101 * HORA);
+
+        assertEquals(7.5, puntuaciones.puntuacion(2, 101 * HORA), 1e-9);
+        assertEquals(0, puntuaciones.puntuacion(1, 101 * HORA));
+        assertEquals(1, puntuaciones.getNumRecetas());
+
+        puntuaciones.eliminar(2);
+        assertEquals(0, puntuaciones.mejores(5, 101 * HORA).recetaIds().length);
+    }
+}
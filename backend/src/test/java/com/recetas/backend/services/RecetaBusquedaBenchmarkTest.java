@@ -0,0 +1,162 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.models.Receta.Dificultad;
+import com.recetas.backend.repositories.RecetaRepository;
+import com.recetas.backend.repositories.RecetaSpecifications;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Comparativa de la búsqueda combinada frente al camino anterior (solo el primer
+// filtro en base de datos y el resto filtrado en el cliente sobre páginas grandes).
+// No se ejecuta por defecto: -Dbenchmark=true [-Dbenchmark.recetas=1000000]. Mide
+// sobre el H2 en memoria del perfil "test"; en MariaDB los tiempos serán otros,
+// así que solo se comprueba que la búsqueda combinada sea la más rápida
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class RecetaBusquedaBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RecetaBusquedaBenchmarkTest.class);
+
+    private static final int TAMANO_PAGINA = 20;
+    private static final int TAMANO_PAGINA_CLIENTE = 100;
+    private static final int REPETICIONES = 5;
+    private static final String[] CATEGORIAS = { "Bench Postres", "Bench Pasta", "Bench Carnes", "Bench Verduras" };
+
+    @Autowired
+    private RecetaRepository recetaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int usuarioId;
+
+    @BeforeEach
+    void setUp() {
+        int numRecetas = Integer.getInteger("benchmark.recetas", 1_000_000);
+        jdbcTemplate.update("INSERT INTO roles (nombre) VALUES ('BENCH')");
+        Integer rolId = jdbcTemplate.queryForObject("SELECT id FROM roles WHERE nombre = 'BENCH'", Integer.class);
+        jdbcTemplate.update("INSERT INTO usuarios (nombre_usuario, email, contrasena, fecha_registro, rol_id, "
+                + "seguidores_count, feed_masivo) VALUES (?, ?, ?, CURRENT_TIMESTAMP, ?, 0, FALSE)",
+                "bench", "bench@example.com", "password", rolId);
+        usuarioId = jdbcTemplate.queryForObject("SELECT id FROM usuarios WHERE nombre_usuario = 'bench'",
+                Integer.class);
+        List<Integer> categoriaIds = new ArrayList<>();
+        for (String categoria : CATEGORIAS) {
+            jdbcTemplate.update("INSERT INTO categorias (nombre) VALUES (?)", categoria);
+            categoriaIds.add(jdbcTemplate.queryForObject("SELECT id FROM categorias WHERE nombre = ?",
+                    Integer.class, categoria));
+        }
+
+        Dificultad[] dificultades = Dificultad.values();
+        Timestamp fecha = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0));
+        List<Object[]> filas = new ArrayList<>();
+        for (int i = 0; i < numRecetas; i++) {
+            filas.add(new Object[] { "Bench receta " + i, "Descripción", 5 + (i * 7) % 175,
+                    dificultades[i % dificultades.length].name(), 4, fecha, usuarioId });
+            if (filas.size() == 10_000 || i == numRecetas - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO recetas (titulo, descripcion, tiempo_preparacion, dificultad, "
+                        + "porciones, fecha_creacion, usuario_id, like_count, rating_sum, rating_count, "
+                        + "rating_1, rating_2, rating_3, rating_4, rating_5, comment_count, view_count) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0)", filas);
+                filas.clear();
+            }
+        }
+        // Una categoría por receta. "Bench Pasta" es poco frecuente (~1%) para que la
+        // combinación de filtros sea selectiva, como en una búsqueda real; el resto
+        // se reparte por módulo entre las demás categorías
+        jdbcTemplate.update("INSERT INTO receta_categorias (receta_id, categoria_id) "
+                + "SELECT id, ? FROM recetas WHERE usuario_id = ? AND MOD(id, 101) = 0",
+                categoriaIds.get(1), usuarioId);
+        List<Integer> otras = List.of(categoriaIds.get(0), categoriaIds.get(2), categoriaIds.get(3));
+        for (int i = 0; i < otras.size(); i++) {
+            jdbcTemplate.update("INSERT INTO receta_categorias (receta_id, categoria_id) "
+                    + "SELECT id, ? FROM recetas WHERE usuario_id = ? AND MOD(id, 101) <> 0 AND MOD(id, ?) = ?",
+                    otras.get(i), usuarioId, otras.size(), i);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM receta_categorias WHERE receta_id IN "
+                + "(SELECT id FROM recetas WHERE usuario_id = ?)", usuarioId);
+        jdbcTemplate.update("DELETE FROM recetas WHERE usuario_id = ?", usuarioId);
+        jdbcTemplate.update("DELETE FROM categorias WHERE nombre LIKE 'Bench %'");
+        jdbcTemplate.update("DELETE FROM usuarios WHERE id = ?", usuarioId);
+        jdbcTemplate.update("DELETE FROM roles WHERE nombre = 'BENCH'");
+    }
+
+    @Test
+    void benchmarkBusquedaCombinadaFrenteAFiltroUnico() {
+        Dificultad dificultad = Dificultad.Media;
+        int tiempoMax = 30;
+        String categoria = "bench pasta";
+
+        Medicion<List<RecetaSummaryDto>> combinada = medir("combinada (una consulta, todos los filtros)",
+                () -> recetaRepository.findResumen(
+                        RecetaSpecifications.busqueda(null, null, dificultad, tiempoMax, categoria),
+                        PageRequest.of(0, TAMANO_PAGINA)).getContent());
+
+        Medicion<List<RecetaSummaryDto>> filtroUnico = medir("filtro único + filtrado en cliente",
+                () -> filtrarEnCliente(dificultad, tiempoMax, categoria));
+
+        assertEquals(TAMANO_PAGINA, combinada.resultado().size());
+        assertEquals(combinada.resultado().size(), filtroUnico.resultado().size());
+        assertTrue(combinada.ms() < filtroUnico.ms(), "La búsqueda combinada (" + Latencias.formato(combinada.ms())
+                + " ms) no mejora al filtrado en cliente (" + Latencias.formato(filtroUnico.ms()) + " ms)");
+    }
+
+    // Camino anterior: searchRecetas solo aplicaba el primer filtro no nulo
+    // (dificultad) y el cliente recorría páginas grandes aplicando el resto
+    private List<RecetaSummaryDto> filtrarEnCliente(Dificultad dificultad, int tiempoMax, String categoria) {
+        List<RecetaSummaryDto> resultado = new ArrayList<>();
+        int pagina = 0;
+        Slice<RecetaSummaryDto> slice;
+        do {
+            slice = recetaRepository.findResumen(RecetaSpecifications.conDificultad(dificultad),
+                    PageRequest.of(pagina++, TAMANO_PAGINA_CLIENTE));
+            for (RecetaSummaryDto receta : slice) {
+                if (receta.getTiempoPreparacion() <= tiempoMax
+                        && receta.getCategoriaPrincipal() != null
+                        && receta.getCategoriaPrincipal().toLowerCase().contains(categoria)
+                        && resultado.size() < TAMANO_PAGINA) {
+                    resultado.add(receta);
+                }
+            }
+        } while (resultado.size() < TAMANO_PAGINA && slice.hasNext());
+        return resultado;
+    }
+
+    private record Medicion<T>(T resultado, double ms) {
+    }
+
+    private <T> Medicion<T> medir(String nombre, Supplier<T> operacion) {
+        T resultado = operacion.get(); // calentamiento
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            resultado = operacion.get();
+        }
+        double ms = (System.nanoTime() - inicio) / 1_000_000.0 / REPETICIONES;
+        log.info("[benchmark] {}: {} ms/consulta", nombre, Latencias.formato(ms));
+        return new Medicion<>(resultado, ms);
+    }
+}
@@ -0,0 +1,221 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.dtos.CalificacionDto;
+import com.recetas.backend.dtos.CategoriaDto;
+import com.recetas.backend.dtos.ComentarioDto;
+import com.recetas.backend.dtos.IngredienteDto;
+import com.recetas.backend.dtos.PasoDto;
+import com.recetas.backend.dtos.RecetaDto;
+import com.recetas.backend.dtos.RecetaIngredienteDto;
+import com.recetas.backend.dtos.UsuarioDto;
+import com.recetas.backend.models.Receta.Dificultad;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecetaDetalleCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong reloj;
+    private AtomicInteger cargas;
+    private RecetaDetalleCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reloj = new AtomicLong();
+        cargas = new AtomicInteger();
+        cache = new RecetaDetalleCache(meterRegistry, 2, 1_000_000, 100, reloj::get);
+    }
+
+    private RecetaDto cargar(Integer id) {
+        cargas.incrementAndGet();
+        RecetaDto dto = new RecetaDto();
+        dto.setId(id);
+        dto.setTitulo("Receta " + id);
+        dto.setTotalLikes(5L);
+        CategoriaDto categoria = new CategoriaDto();
+        categoria.setId(1);
+        categoria.setNombre("Postres");
+        dto.setCategorias(new ArrayList<>(List.of(categoria)));
+        ComentarioDto comentario = new ComentarioDto();
+        comentario.setId(1);
+        comentario.setComentario("Muy buena");
+        dto.setComentarios(new ArrayList<>(List.of(comentario)));
+        return dto;
+    }
+
+    // Todos los campos informados, para detectar campos que copiar() olvide
+    private RecetaDto completa() {
+        UsuarioDto usuario = new UsuarioDto();
+        usuario.setId(3);
+        usuario.setNombreUsuario("autor");
+        usuario.setEmail("autor@example.com");
+        usuario.setUrlFotoPerfil("https://example.com/autor.png");
+        usuario.setFechaRegistro(LocalDateTime.of(2024, 1, 1, 10, 0));
+        usuario.setRol("USER");
+
+        PasoDto paso = new PasoDto();
+        paso.setId(4);
+        paso.setOrden(1);
+        paso.setDescripcion("Mezclar");
+
+        IngredienteDto ingrediente = new IngredienteDto();
+        ingrediente.setId(5);
+        ingrediente.setNombre("Harina");
+        RecetaIngredienteDto recetaIngrediente = new RecetaIngredienteDto();
+        recetaIngrediente.setRecetaId(1);
+        recetaIngrediente.setIngredienteId(5);
+        recetaIngrediente.setCantidad("100 g");
+        recetaIngrediente.setIngrediente(ingrediente);
+
+        CalificacionDto calificacion = new CalificacionDto();
+        calificacion.setId(6);
+        calificacion.setPuntuacion(4);
+        calificacion.setFechaCalificacion(LocalDateTime.of(2024, 2, 1, 10, 0));
+        calificacion.setUsuario(usuario);
+        calificacion.setRecetaId(1);
+
+        RecetaDto dto = cargar(1);
+        dto.setDescripcion("Descripción");
+        dto.setTiempoPreparacion(30);
+        dto.setDificultad(Dificultad.Media);
+        dto.setPorciones(4);
+        dto.setUrlImagen("https://example.com/receta.png");
+        dto.setFechaCreacion(LocalDateTime.of(2024, 3, 1, 10, 0));
+        dto.setUsuario(usuario);
+        dto.getComentarios().get(0).setFechaComentario(LocalDateTime.of(2024, 3, 2, 10, 0));
+        dto.getComentarios().get(0).setUsuario(usuario);
+        dto.setPasos(List.of(paso));
+        dto.setIngredientes(List.of(recetaIngrediente));
+        dto.setCalificaciones(List.of(calificacion));
+        dto.setCalificacionMedia(4.0);
+        dto.setTotalCalificaciones(1L);
+        dto.setTotalComentarios(1L);
+        return dto;
+    }
+
+    private double contador(String nombre, String tag, String valor) {
+        return meterRegistry.get(nombre).tag(tag, valor).counter().count();
+    }
+
+    @Test
+    void testGetCachesValue() {
+        RecetaDto primero = cache.get(1, () -> cargar(1));
+        RecetaDto segundo = cache.get(1, () -> cargar(1));
+
+        assertEquals(primero, segundo);
+        assertEquals(1, cargas.get());
+        assertEquals(1, contador("recetas.cache.detalle.peticiones", "resultado", "acierto"));
+        assertEquals(1, contador("recetas.cache.detalle.peticiones", "resultado", "fallo"));
+    }
+
+    @Test
+    void testCallerChangesDoNotReachCachedEntry() {
+        RecetaDto primero = cache.get(1, () -> cargar(1));
+        primero.setTitulo("Modificado");
+        primero.setTotalLikes(99L);
+        RecetaDto segundo = cache.get(1, () -> cargar(1));
+        segundo.getCategorias().get(0).setNombre("Modificada");
+        segundo.getComentarios().clear();
+
+        RecetaDto tercero = cache.get(1, () -> cargar(1));
+        assertEquals("Receta 1", tercero.getTitulo());
+        assertEquals(5L, tercero.getTotalLikes());
+        assertEquals("Postres", tercero.getCategorias().get(0).getNombre());
+        assertEquals(1, tercero.getComentarios().size());
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void testCopiaIsDeep() {
+        RecetaDto original = completa();
+        RecetaDto copia = RecetaDetalleCache.copiar(original);
+
+        assertEquals(original, copia);
+        assertNotSame(original.getUsuario(), copia.getUsuario());
+        assertNotSame(original.getCategorias().get(0), copia.getCategorias().get(0));
+        assertNotSame(original.getPasos().get(0), copia.getPasos().get(0));
+        assertNotSame(original.getIngredientes().get(0).getIngrediente(),
+                copia.getIngredientes().get(0).getIngrediente());
+        assertNotSame(original.getComentarios().get(0).getUsuario(), copia.getComentarios().get(0).getUsuario());
+        assertNotSame(original.getCalificaciones().get(0).getUsuario(),
+                copia.getCalificaciones().get(0).getUsuario());
+    }
+
+    @Test
+    void testReferenceDataChangesClearCache() {
+        cache.get(1, () -> cargar(1));
+        cache.get(2, () -> cargar(2));
+        cache.onCategoriaModificada(new CategoriaModificadaEvent(1));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.peso());
+
+        cache.get(1, () -> cargar(1));
+        cache.onIngredienteModificado(new IngredienteModificadoEvent(1));
+        assertEquals(0, cache.size());
+        assertEquals(3, contador("recetas.cache.detalle.expulsiones", "causa", "invalidacion"));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        cache.get(1, () -> cargar(1));
+        cache.get(2, () -> cargar(2));
+        cache.get(1, () -> cargar(1)); // 2 pasa a ser la menos usada
+        cache.get(3, () -> cargar(3));
+
+        assertEquals(2, cache.size());
+        cache.get(1, () -> cargar(1));
+        assertEquals(3, cargas.get());
+        cache.get(2, () -> cargar(2));
+        assertEquals(4, cargas.get());
+        assertTrue(contador("recetas.cache.detalle.expulsiones", "causa", "tamano") >= 1);
+    }
+
+    @Test
+    void testExpiredEntryIsReloaded() {
+        cache.get(1, () -> cargar(1));
+        reloj.addAndGet(100);
+        cache.get(1, () -> cargar(1));
+
+        assertEquals(2, cargas.get());
+        assertEquals(1, contador("recetas.cache.detalle.expulsiones", "causa", "ttl"));
+    }
+
+    @Test
+    void testInvalidarRemovesEntry() {
+        cache.get(1, () -> cargar(1));
+        cache.invalidar(1);
+        cache.get(1, () -> cargar(1));
+
+        assertEquals(2, cargas.get());
+        assertEquals(1, contador("recetas.cache.detalle.expulsiones", "causa", "invalidacion"));
+    }
+
+    @Test
+    void testLoadRacingWithInvalidationIsNotStored() {
+        cache.get(1, () -> {
+            cache.invalidar(1); // Una escritura concurrente durante la carga
+            return cargar(1);
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testWeightIsTracked() {
+        cache.get(1, () -> cargar(1));
+        assertEquals(RecetaDetalleCache.estimarPeso(cargar(1)), cache.peso());
+
+        cache.invalidar(1);
+        assertEquals(0, cache.peso());
+    }
+}
@@ -0,0 +1,426 @@
+package com.recetas.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recetas.backend.dtos.CalificacionDto;
+import com.recetas.backend.dtos.CategoriaDto;
+import com.recetas.backend.dtos.CursorPageDto;
+import com.recetas.backend.dtos.EstadoRecetaUsuarioDto;
+import com.recetas.backend.dtos.PasoDto;
+import com.recetas.backend.dtos.RecetaSummaryDto;
+import com.recetas.backend.dtos.RecetaDto;
+import com.recetas.backend.dtos.RecetaIngredienteDto;
+import com.recetas.backend.exceptions.ResourceNotFoundException;
+import com.recetas.backend.models.*;
+import com.recetas.backend.models.Receta.Dificultad;
+import com.recetas.backend.repositories.RecetaSpecifications.ModoBusqueda;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin volcado periódico de contadores: las estadísticas de Hibernate son globales
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "recetas.contadores.diferidos.intervaloMs=3600000" })
+@ActiveProfiles("test")
+@Transactional
+public class RecetaServiceIntegrationTest {
+
+    private static final int NUM_COMENTARIOS = 500;
+    private static final int NUM_USUARIOS = 50;
+
+    @Autowired
+    private RecetaService recetaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Integer recetaId;
+    private Integer usuarioId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        Rol rol = new Rol();
+        rol.setNombre("USER_FETCH_TEST");
+        entityManager.persist(rol);
+
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < NUM_USUARIOS; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setNombreUsuario("fetch" + i);
+            usuario.setEmail("fetch" + i + "@example.com");
+            usuario.setContrasena("password");
+            usuario.setRol(rol);
+            entityManager.persist(usuario);
+            usuarios.add(usuario);
+        }
+
+        Receta receta = new Receta();
+        receta.setTitulo("Cocido Madrileño");
+        receta.setDescripcion("Receta con muchos comentarios");
+        receta.setTiempoPreparacion(180);
+        receta.setDificultad(Dificultad.Difícil);
+        receta.setPorciones(6);
+        receta.setUsuario(usuarios.get(0));
+        entityManager.persist(receta);
+
+        for (int i = 0; i < 3; i++) {
+            Categoria categoria = new Categoria();
+            categoria.setNombre("Categoria fetch " + i);
+            entityManager.persist(categoria);
+            receta.getCategorias().add(categoria);
+        }
+
+        for (int i = 1; i <= 20; i++) {
+            Paso paso = new Paso();
+            paso.setReceta(receta);
+            paso.setOrden(i);
+            paso.setDescripcion("Paso " + i);
+            entityManager.persist(paso);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Ingrediente ingrediente = new Ingrediente();
+            ingrediente.setNombre("Ingrediente fetch " + i);
+            entityManager.persist(ingrediente);
+            entityManager.persist(new RecetaIngrediente(receta, ingrediente, i + " g"));
+        }
+
+        for (int i = 0; i < NUM_COMENTARIOS; i++) {
+            Comentario comentario = new Comentario();
+            comentario.setReceta(receta);
+            comentario.setUsuario(usuarios.get(i % NUM_USUARIOS));
+            comentario.setComentario("Comentario " + i);
+            comentario.setFechaComentario(LocalDateTime.now());
+            entityManager.persist(comentario);
+        }
+
+        for (Usuario usuario : usuarios) {
+            Calificacion calificacion = new Calificacion();
+            calificacion.setReceta(receta);
+            calificacion.setUsuario(usuario);
+            calificacion.setPuntuacion(4);
+            calificacion.setFechaCalificacion(LocalDateTime.now());
+            entityManager.persist(calificacion);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        recetaId = receta.getId();
+        usuarioId = usuarios.get(1).getId();
+    }
+
+    @Test
+    void testGetRecetaByIdRunsFixedNumberOfQueries() {
+        statistics.clear();
+
+        RecetaDto result = recetaService.getRecetaById(recetaId);
+
+        assertEquals(3, result.getCategorias().size());
+        assertEquals(20, result.getPasos().size());
+        assertEquals(10, result.getIngredientes().size());
+        assertEquals(NUM_COMENTARIOS, result.getComentarios().size());
+        assertEquals(NUM_USUARIOS, result.getCalificaciones().size());
+        // Receta + autor + categorías, pasos, ingredientes, comentarios y calificaciones:
+        // cinco consultas, sin depender del número de comentarios
+        assertEquals(5, statistics.getPrepareStatementCount(),
+                "Consultas ejecutadas: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testEstadoUsuarioForAPageOfRecetas() {
+        Usuario autor = entityManager.find(Usuario.class, usuarioId);
+        Receta otra = crearReceta("Sin interacciones", Dificultad.Fácil, 10, autor, null);
+        recetaService.toggleLikeReceta(recetaId, usuarioId);
+        entityManager.flush();
+        statistics.clear();
+
+        List<EstadoRecetaUsuarioDto> estado = recetaService.getEstadoUsuario(
+                List.of(recetaId, otra.getId(), recetaId), usuarioId);
+
+        assertEquals(List.of(new EstadoRecetaUsuarioDto(recetaId, true, 4),
+                new EstadoRecetaUsuarioDto(otra.getId(), false, null)), estado);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        List<Integer> demasiadas = IntStream.rangeClosed(1, RecetaService.MAX_ESTADO_RECETAS + 1)
+                .boxed().toList();
+        assertThrows(RuntimeException.class, () -> recetaService.getEstadoUsuario(demasiadas, usuarioId));
+    }
+
+    @Test
+    void testCreateRecetaRunsFixedNumberOfStatements() {
+        RecetaDto nueva = new RecetaDto();
+        nueva.setTitulo("Receta por lotes");
+        nueva.setDescripcion("Muchos pasos e ingredientes");
+        nueva.setTiempoPreparacion(60);
+        nueva.setDificultad(Dificultad.Media);
+        nueva.setPorciones(4);
+        nueva.setCategorias(entityManager.createQuery("SELECT c FROM Categoria c WHERE c.nombre LIKE 'Categoria fetch%'",
+                Categoria.class).getResultList().stream().map(CategoriaDto::fromEntity).toList());
+        nueva.setPasos(IntStream.rangeClosed(1, 20).mapToObj(orden -> {
+            PasoDto paso = new PasoDto();
+            paso.setOrden(orden);
+            paso.setDescripcion("Paso " + orden);
+            return paso;
+        }).toList());
+        nueva.setIngredientes(entityManager.createQuery(
+                "SELECT i.id FROM Ingrediente i WHERE i.nombre LIKE 'Ingrediente fetch%'", Integer.class)
+                .getResultList().stream().map(id -> {
+                    RecetaIngredienteDto ingrediente = new RecetaIngredienteDto();
+                    ingrediente.setIngredienteId(id);
+                    ingrediente.setCantidad("1 g");
+                    return ingrediente;
+                }).toList());
+        entityManager.clear();
+        statistics.clear();
+
+        RecetaDto creada = recetaService.createReceta(nueva, usuarioId);
+        entityManager.flush();
+
+        // Usuario, receta, categorías, ingredientes, secuencia de pasos y un batch por tabla hija
+        assertTrue(statistics.getPrepareStatementCount() <= 8,
+                "Consultas ejecutadas: " + statistics.getPrepareStatementCount());
+        entityManager.clear();
+        RecetaDto leida = recetaService.getRecetaById(creada.getId());
+        assertEquals(3, leida.getCategorias().size());
+        assertEquals(20, leida.getPasos().size());
+        assertEquals(10, leida.getIngredientes().size());
+
+        nueva.setCategorias(List.of(categoriaConId(-1)));
+        assertThrows(ResourceNotFoundException.class, () -> recetaService.createReceta(nueva, usuarioId));
+    }
+
+    @Test
+    void testCalificarRecetaRunsThreeStatements() {
+        Usuario nuevo = new Usuario();
+        nuevo.setNombreUsuario("fetch-nuevo");
+        nuevo.setEmail("fetch-nuevo@example.com");
+        nuevo.setContrasena("password");
+        nuevo.setRol(entityManager.find(Usuario.class, usuarioId).getRol());
+        entityManager.persist(nuevo);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Bloqueo de la receta con la calificación actual, INSERT y contadores
+        statistics.clear();
+        CalificacionDto nueva = recetaService.calificarReceta(recetaId, nuevo.getId(), calificacion(5));
+        entityManager.flush();
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertNotNull(nueva.getId());
+
+        // Bloqueo, UPDATE y contadores
+        statistics.clear();
+        CalificacionDto cambiada = recetaService.calificarReceta(recetaId, nuevo.getId(), calificacion(2));
+        entityManager.flush();
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(nueva.getId(), cambiada.getId());
+        assertEquals(2, cambiada.getPuntuacion());
+
+        // La misma puntuación solo lee
+        statistics.clear();
+        recetaService.calificarReceta(recetaId, nuevo.getId(), calificacion(2));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, entityManager.createQuery("SELECT c.puntuacion FROM Calificacion c "
+                + "WHERE c.id = :id", Integer.class).setParameter("id", nueva.getId()).getSingleResult());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> recetaService.calificarReceta(recetaId, -1, calificacion(3)));
+    }
+
+    @Test
+    void testUpdateRecetaWritesOnlyChangedRows() {
+        Receta persistida = entityManager.find(Receta.class, recetaId);
+        Integer autorId = persistida.getUsuario().getId();
+        RecetaDto cambios = RecetaDto.fromEntity(persistida);
+        Set<Integer> idsPasos = new HashSet<>();
+        cambios.getPasos().forEach(paso -> idsPasos.add(paso.getId()));
+        PasoDto corregido = cambios.getPasos().stream().filter(paso -> paso.getOrden() == 5).findFirst().orElseThrow();
+        corregido.setDescripcion("Paso 5 corregido");
+        List<RecetaIngredienteDto> ingredientes = new ArrayList<>(cambios.getIngredientes());
+        ingredientes.remove(0);
+        ingredientes.get(0).setCantidad("500 g");
+        cambios.setIngredientes(ingredientes);
+        entityManager.clear();
+        statistics.clear();
+
+        recetaService.updateReceta(recetaId, cambios, autorId);
+        entityManager.flush();
+
+        // Un UPDATE de paso, un UPDATE y un DELETE de ingrediente: nada se reinserta
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(2, statistics.getEntityUpdateCount());
+        assertEquals(1, statistics.getEntityDeleteCount());
+        entityManager.clear();
+        Receta actualizada = entityManager.find(Receta.class, recetaId);
+        Set<Integer> idsActualizados = new HashSet<>();
+        actualizada.getPasos().forEach(paso -> idsActualizados.add(paso.getId()));
+        assertEquals(idsPasos, idsActualizados);
+        assertTrue(actualizada.getPasos().stream().anyMatch(paso -> paso.getDescripcion().equals("Paso 5 corregido")));
+        assertEquals(9, actualizada.getIngredientes().size());
+        assertTrue(actualizada.getIngredientes().stream().anyMatch(ri -> ri.getCantidad().equals("500 g")));
+        assertEquals(3, actualizada.getCategorias().size());
+    }
+
+    @Test
+    void testPatchRecetaAppliesOnlyTouchedFields() throws Exception {
+        Integer autorId = entityManager.find(Receta.class, recetaId).getUsuario().getId();
+        entityManager.clear();
+        statistics.clear();
+
+        RecetaDto parcheada = recetaService.mergePatchReceta(recetaId,
+                objectMapper.readTree("{\"titulo\": \"Cocido completo\"}"), autorId);
+        entityManager.flush();
+
+        assertEquals("Cocido completo", parcheada.getTitulo());
+        // Solo el UPDATE de la receta: pasos, ingredientes y categorías no se comparan
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityInsertCount() + statistics.getEntityDeleteCount());
+        entityManager.clear();
+        statistics.clear();
+
+        recetaService.jsonPatchReceta(recetaId, objectMapper.readTree("""
+                [{"op": "test", "path": "/pasos/4/orden", "value": 5},
+                 {"op": "replace", "path": "/pasos/4/descripcion", "value": "Paso 5 corregido"}]"""), autorId);
+        entityManager.flush();
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityInsertCount() + statistics.getEntityDeleteCount());
+        entityManager.clear();
+        Receta receta = entityManager.find(Receta.class, recetaId);
+        assertEquals("Cocido completo", receta.getTitulo());
+        assertTrue(receta.getPasos().stream().anyMatch(paso -> paso.getDescripcion().equals("Paso 5 corregido")));
+        assertEquals(10, receta.getIngredientes().size());
+
+        assertThrows(RuntimeException.class, () -> recetaService.mergePatchReceta(recetaId,
+                objectMapper.readTree("{\"totalLikes\": 1000}"), autorId));
+        assertThrows(RuntimeException.class, () -> recetaService.mergePatchReceta(recetaId,
+                objectMapper.readTree("{\"titulo\": null}"), autorId));
+    }
+
+    @Test
+    void testFeedWalksAllRecetasWithoutDuplicates() {
+        Usuario autor = entityManager.find(Usuario.class, usuarioId);
+        for (int i = 0; i < 24; i++) {
+            Receta receta = new Receta();
+            receta.setTitulo("Feed " + i);
+            receta.setDescripcion("Receta del feed");
+            receta.setTiempoPreparacion(10);
+            receta.setDificultad(Dificultad.Fácil);
+            receta.setPorciones(2);
+            receta.setUsuario(autor);
+            entityManager.persist(receta);
+        }
+        // Misma fecha para todas: el orden lo decide el id
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE recetas SET fecha_creacion = :fecha")
+                .setParameter("fecha", LocalDateTime.of(2024, 1, 1, 12, 0))
+                .executeUpdate();
+        entityManager.clear();
+        long total = (Long) entityManager.createQuery("SELECT COUNT(r) FROM Receta r").getSingleResult();
+
+        Set<Integer> vistas = new HashSet<>();
+        Integer anterior = Integer.MAX_VALUE;
+        String cursor = null;
+        int paginas = 0;
+        do {
+            CursorPageDto<RecetaSummaryDto> pagina = recetaService.getFeedRecetas(cursor, 10);
+            for (RecetaSummaryDto receta : pagina.getContent()) {
+                assertTrue(receta.getId() < anterior);
+                anterior = receta.getId();
+                assertTrue(vistas.add(receta.getId()));
+            }
+            cursor = pagina.getNextCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertEquals(total, vistas.size());
+        assertEquals((total + 9) / 10, paginas);
+    }
+
+    @Test
+    void testSearchRecetasCombinesAllFilters() {
+        Usuario autor = entityManager.find(Usuario.class, usuarioId);
+        Categoria pasta = new Categoria();
+        pasta.setNombre("Pasta fresca");
+        entityManager.persist(pasta);
+        crearReceta("Espaguetis rápidos", Dificultad.Fácil, 15, autor, pasta);
+        crearReceta("Espaguetis al horno", Dificultad.Fácil, 60, autor, pasta);
+        crearReceta("Espaguetis difíciles", Dificultad.Difícil, 15, autor, pasta);
+        crearReceta("Espaguetis sin categoría", Dificultad.Fácil, 15, autor, null);
+        crearReceta("Ensalada rápida", Dificultad.Fácil, 15, autor, pasta);
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<RecetaSummaryDto> result = recetaService.searchRecetas("espaguetis", null, Dificultad.Fácil, 30,
+                "pasta", ModoBusqueda.CONTIENE, PageRequest.of(0, 10));
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("Espaguetis rápidos", result.getContent().get(0).getTitulo());
+        assertEquals("Pasta fresca", result.getContent().get(0).getCategoriaPrincipal());
+    }
+
+    @Test
+    void testSearchRecetasTextoOrdersByRelevance() {
+        Usuario autor = entityManager.find(Usuario.class, usuarioId);
+        crearReceta("Huevos rotos", Dificultad.Fácil, 15, autor, null).setDescripcion("Con patatas fritas");
+        crearReceta("Tortilla de patatas", Dificultad.Media, 30, autor, null);
+        crearReceta("Gazpacho", Dificultad.Fácil, 10, autor, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<RecetaSummaryDto> result = recetaService.searchRecetas("patatas", null, null, null, null,
+                ModoBusqueda.TEXTO, PageRequest.of(0, 10));
+
+        // Coincidencia en el título antes que solo en la descripción
+        assertEquals(2, result.getTotalElements());
+        assertEquals("Tortilla de patatas", result.getContent().get(0).getTitulo());
+        assertEquals("Huevos rotos", result.getContent().get(1).getTitulo());
+    }
+
+    private Receta crearReceta(String titulo, Dificultad dificultad, int minutos, Usuario autor,
+            Categoria categoria) {
+        Receta receta = new Receta();
+        receta.setTitulo(titulo);
+        receta.setDescripcion("Receta de búsqueda");
+        receta.setTiempoPreparacion(minutos);
+        receta.setDificultad(dificultad);
+        receta.setPorciones(2);
+        receta.setUsuario(autor);
+        if (categoria != null) {
+            receta.getCategorias().add(categoria);
+        }
+        entityManager.persist(receta);
+        return receta;
+    }
+
+    private static CategoriaDto categoriaConId(Integer id) {
+        CategoriaDto categoria = new CategoriaDto();
+        categoria.setId(id);
+        return categoria;
+    }
+
+    private static CalificacionDto calificacion(int puntuacion) {
+        CalificacionDto calificacion = new CalificacionDto();
+        calificacion.setPuntuacion(puntuacion);
+        return calificacion;
+    }
+}
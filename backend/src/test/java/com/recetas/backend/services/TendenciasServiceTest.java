@@ -0,0 +1,73 @@
+package com.recetas.backend.services;
+
+import com.recetas.backend.services.RecetaInteraccionEvent.Tipo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TendenciasServiceTest {
+
+    private static final double DELTA = 1e-3;
+
+    private TendenciasService tendenciasService;
+
+    @BeforeEach
+    void setUp() {
+        tendenciasService = new TendenciasService(new SimpleMeterRegistry(), 24);
+        ReflectionTestUtils.setField(tendenciasService, "pesoLike", 3.0);
+        ReflectionTestUtils.setField(tendenciasService, "pesoCalificacion", 2.0);
+        ReflectionTestUtils.setField(tendenciasService, "pesoComentario", 4.0);
+        ReflectionTestUtils.setField(tendenciasService, "pesoVista", 0.5);
+        ReflectionTestUtils.setField(tendenciasService, "maxInteresados", 2);
+    }
+
+    private void interaccion(int recetaId, Tipo tipo, String interesado) {
+        tendenciasService.onInteraccion(new RecetaInteraccionEvent(recetaId, tipo, interesado));
+    }
+
+    @Test
+    void testRepeatedViewsCountOncePerVisitor() {
+        for (int i = 0; i < 10; i++) {
+            interaccion(1, Tipo.VISTA, "ip:10.0.0.1");
+        }
+        interaccion(1, Tipo.VISTA, "usuario:7");
+
+        assertEquals(1.0, tendenciasService.getPuntuacion(1), DELTA);
+    }
+
+    @Test
+    void testLikeUnlikeCyclesCountOnce() {
+        // Cada ciclo like -> unlike -> like publica otro LIKE del mismo usuario
+        for (int i = 0; i < 5; i++) {
+            interaccion(1, Tipo.LIKE, "usuario:7");
+        }
+        interaccion(2, Tipo.LIKE, "usuario:7");
+
+        assertEquals(3.0, tendenciasService.getPuntuacion(1), DELTA);
+        assertEquals(3.0, tendenciasService.getPuntuacion(2), DELTA);
+    }
+
+    @Test
+    void testCommentsAndUnknownVisitorsAreNotDeduplicated() {
+        interaccion(1, Tipo.COMENTARIO, "usuario:7");
+        interaccion(1, Tipo.COMENTARIO, "usuario:7");
+        interaccion(1, Tipo.VISTA, null);
+        interaccion(1, Tipo.VISTA, null);
+
+        assertEquals(9.0, tendenciasService.getPuntuacion(1), DELTA);
+    }
+
+    @Test
+    void testOldestVisitorsAreForgottenBeyondTheBound() {
+        interaccion(1, Tipo.VISTA, "ip:a");
+        interaccion(1, Tipo.VISTA, "ip:b");
+        interaccion(1, Tipo.VISTA, "ip:c");
+        // "ip:a" ya no está entre los recordados y vuelve a contar
+        interaccion(1, Tipo.VISTA, "ip:a");
+
+        assertEquals(2.0, tendenciasService.getPuntuacion(1), DELTA);
+    }
+}
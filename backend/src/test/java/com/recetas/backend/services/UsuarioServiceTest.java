@@ -8,12 +8,15 @@ import com.recetas.backend.models.SeguidorId;
 import com.recetas.backend.models.Usuario;
 import com.recetas.backend.repositories.SeguidorRepository;
 import com.recetas.backend.repositories.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -38,6 +41,12 @@ public class UsuarioServiceTest {
     @Mock
     private SeguidorRepository seguidorRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ConteoCache conteoCache = new ConteoCache(new SimpleMeterRegistry(), 100, 30);
+
     @InjectMocks
     private UsuarioService usuarioService;
 
@@ -154,6 +163,8 @@ public class UsuarioServiceTest {
         usuarioService.followUsuario(1, 2);
 
         verify(seguidorRepository, times(1)).save(any(Seguidor.class));
+        verify(usuarioRepository).incrementarSeguidores(2, 1);
+        verify(eventPublisher).publishEvent(new SeguimientoEvent(1, 2, true));
     }
 
     @Test
@@ -180,6 +191,8 @@ public class UsuarioServiceTest {
         usuarioService.unfollowUsuario(1, 2);
 
         verify(seguidorRepository, times(1)).deleteById(any(SeguidorId.class));
+        verify(usuarioRepository).incrementarSeguidores(2, -1);
+        verify(eventPublisher).publishEvent(new SeguimientoEvent(1, 2, false));
     }
 
     @Test
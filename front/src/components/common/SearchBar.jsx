@@ -1,15 +1,58 @@
-import React, { useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
+import { getAutocompleteSuggestions } from '../../services/recipeService';
+
+// Espera entre pulsaciones antes de pedir sugerencias
+const AUTOCOMPLETE_DELAY_MS = 150;
 
 const SearchBar = ({ onSearch }) => {
     const [searchTerm, setSearchTerm] = useState('');
+    const [suggestions, setSuggestions] = useState([]);
+
+    // Temporizador pendiente y número de la última petición: al buscar se descartan
+    // las sugerencias que aún no han llegado
+    const timerRef = useRef(null);
+    const requestRef = useRef(0);
+    // Término ya buscado (p. ej. una sugerencia elegida): no vuelve a abrir la lista
+    const searchedTermRef = useRef(null);
+
+    const cancelPendingSuggestions = () => {
+        clearTimeout(timerRef.current);
+        timerRef.current = null;
+        requestRef.current += 1;
+    };
+
+    useEffect(() => {
+        const term = searchTerm.trim();
+        if (!term || term === searchedTermRef.current) {
+            setSuggestions([]);
+            return undefined;
+        }
+        searchedTermRef.current = null;
+        const request = ++requestRef.current;
+        timerRef.current = setTimeout(async () => {
+            timerRef.current = null;
+            const data = await getAutocompleteSuggestions(term);
+            if (request === requestRef.current) {
+                setSuggestions([
+                    ...data.recetas.map((s) => ({ ...s, tipo: 'Receta' })),
+                    ...data.ingredientes.map((s) => ({ ...s, tipo: 'Ingrediente' })),
+                    ...data.categorias.map((s) => ({ ...s, tipo: 'Categoría' })),
+                ]);
+            }
+        }, AUTOCOMPLETE_DELAY_MS);
+        return cancelPendingSuggestions;
+    }, [searchTerm]);
 
     const handleInputChange = (event) => {
         setSearchTerm(event.target.value);
     };
 
-    const handleSearch = () => {
+    const handleSearch = (term = searchTerm) => {
+        cancelPendingSuggestions();
+        searchedTermRef.current = term.trim();
+        setSuggestions([]);
         if (onSearch) {
-            onSearch(searchTerm);
+            onSearch(term);
         }
     };
 
@@ -19,6 +62,11 @@ const SearchBar = ({ onSearch }) => {
         }
     };
 
+    const handleSuggestionClick = (suggestion) => {
+        setSearchTerm(suggestion.texto);
+        handleSearch(suggestion.texto);
+    };
+
     return (
         <div className="search-bar-container">
             <input
@@ -29,9 +77,21 @@ const SearchBar = ({ onSearch }) => {
                 onKeyPress={handleKeyPress}
                 className="search-input"
             />
-            <button onClick={handleSearch} className="search-button">
+            <button onClick={() => handleSearch()} className="search-button">
                 Buscar
             </button>
+            {suggestions.length > 0 && (
+                <ul className="search-suggestions">
+                    {suggestions.map((suggestion) => (
+                        <li
+                            key={`${suggestion.tipo}-${suggestion.id}`}
+                            onClick={() => handleSuggestionClick(suggestion)}
+                        >
+                            {suggestion.texto} <small>{suggestion.tipo}</small>
+                        </li>
+                    ))}
+                </ul>
+            )}
         </div>
     );
 };
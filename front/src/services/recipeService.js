@@ -43,20 +43,25 @@ apiClient.interceptors.response.use(
 );
 
 /**
- * Mapea la respuesta de la API a un formato compatible con los componentes
+ * Mapea la respuesta de la API a un formato compatible con los componentes.
+ * Acepta tanto la vista resumida de los listados (RecetaSummaryDto) como la
+ * receta completa del detalle (RecetaDto).
  * @param {object} receta - Objeto receta del backend
  * @returns {object} - Receta en formato frontend
  */
 const mapRecipeToFrontend = (receta) => ({
     id: receta.id,
     name: receta.titulo,
-    description: receta.descripcion,
-    category: receta.categorias?.[0]?.nombre || 'Sin categoría',
-    rating: Math.round(receta.calificaciones?.reduce((sum, cal) => sum + cal.puntuacion, 0) / (receta.calificaciones?.length || 1)) || 0,
+    description: receta.descripcion || '',
+    category: receta.categoriaPrincipal || receta.categorias?.[0]?.nombre || 'Sin categoría',
+    rating: Math.round(receta.calificacionMedia ?? 0),
+    totalRatings: receta.totalCalificaciones ?? 0,
+    totalComments: receta.totalComentarios ?? 0,
     imageUrl: receta.urlImagen || '/imagen-default.jpg',
-    usuario: receta.usuario?.nombreUsuario,
+    usuario: receta.nombreUsuario || receta.usuario?.nombreUsuario,
     tiempoPreparacion: receta.tiempoPreparacion,
     dificultad: receta.dificultad,
+    totalLikes: receta.totalLikes ?? 0,
     createdAt: receta.fechaCreacion
 });
 
@@ -70,7 +75,7 @@ export const getBestRatedRecipes = async ({ limit = 10 }) => {
     console.log(`Obteniendo recetas mejor valoradas (límite: ${limit})...`);
 
     try {
-        // Obtener todas las recetas con calificaciones
+        // Obtener recetas; la media ya viene calculada en calificacionMedia
         const response = await apiClient.get('/recetas', {
             params: { size: 100 } // Obtener más para poder ordenar por calificación
         });
@@ -135,20 +140,98 @@ export const getLatestRecipes = async ({ limit = 10 }) => {
     console.log(`Obteniendo últimas recetas (límite: ${limit})...`);
 
     try {
-        const response = await apiClient.get('/recetas', {
-            params: {
-                size: limit,
-                sort: 'fechaCreacion,desc'
-            }
-        });
-
-        return response.data.content.map(mapRecipeToFrontend);
+        // Primera página del feed por cursor (ordenado por fecha de creación)
+        const { recipes } = await getRecipesFeed({ size: limit });
+        return recipes;
     } catch (error) {
         console.error('Error obteniendo últimas recetas:', error);
         throw new Error('No se pudo cargar las últimas recetas');
     }
 };
 
+/**
+ * Obtiene una página del feed de recetas (de más recientes a más antiguas)
+ * usando paginación por cursor, pensado para scroll infinito.
+ * @param {object} options - Opciones para la consulta.
+ * @param {string|null} options.after - Cursor devuelto por la página anterior (null para la primera).
+ * @param {number} options.size - Tamaño de página (default: 10).
+ * @returns {Promise<{recipes: Array<object>, nextCursor: string|null}>} - Recetas y cursor siguiente (null si no hay más).
+ */
+export const getRecipesFeed = async ({ after = null, size = 10 } = {}) => {
+    try {
+        const response = await apiClient.get('/recetas/feed', {
+            params: after ? { after, size } : { size }
+        });
+
+        return {
+            recipes: response.data.content.map(mapRecipeToFrontend),
+            nextCursor: response.data.nextCursor
+        };
+    } catch (error) {
+        console.error('Error obteniendo el feed de recetas:', error);
+        throw new Error('No se pudo cargar el feed de recetas');
+    }
+};
+
+/**
+ * Obtiene las recetas en tendencia (interacciones recientes con decaimiento temporal)
+ * para el carrusel de la portada.
+ * @param {object} options - Opciones para la consulta.
+ * @param {number} options.limit - Número máximo de recetas a devolver (default: 10).
+ * @returns {Promise<Array<object>>} - Promesa que resuelve con un array de recetas en tendencia.
+ */
+export const getTrendingRecipes = async ({ limit = 10 } = {}) => {
+    try {
+        const response = await apiClient.get('/recetas/tendencias', {
+            params: { size: limit }
+        });
+
+        return response.data.map(mapRecipeToFrontend);
+    } catch (error) {
+        console.error('Error obteniendo recetas en tendencia:', error);
+        throw new Error('No se pudo cargar las recetas en tendencia');
+    }
+};
+
+/**
+ * Obtiene el resumen de calificaciones de una receta, calculado en el servidor
+ * sobre todas sus calificaciones (no solo las de una página).
+ * @param {number|string} id - ID de la receta.
+ * @returns {Promise<{media: number|null, total: number, histograma: Array<number>}>} - Media,
+ * total e histograma (posición 0 = 1 estrella, posición 4 = 5 estrellas).
+ */
+export const getRatingSummary = async (id) => {
+    try {
+        const response = await apiClient.get(`/recetas/${id}/calificaciones/resumen`);
+        return response.data;
+    } catch (error) {
+        console.error('Error obteniendo el resumen de calificaciones:', error);
+        throw new Error('No se pudo cargar el resumen de calificaciones');
+    }
+};
+
+/**
+ * Obtiene, para el usuario autenticado, si ha dado like y su calificación en
+ * varias recetas a la vez (p. ej. todas las tarjetas de una página).
+ * @param {Array<number>} ids - IDs de las recetas (como mucho 100).
+ * @returns {Promise<Array<{recetaId: number, liked: boolean, calificacion: number|null}>>} - Estado
+ * de cada receta, en el mismo orden.
+ */
+export const getViewerState = async (ids) => {
+    if (!ids?.length) {
+        return [];
+    }
+    try {
+        const response = await apiClient.get('/recetas/estado-usuario', {
+            params: { ids: ids.join(',') }
+        });
+        return response.data;
+    } catch (error) {
+        console.error('Error obteniendo el estado de las recetas:', error);
+        throw new Error('No se pudo cargar el estado de las recetas');
+    }
+};
+
 /**
  * Obtiene recetas aleatorias mezclando los resultados de la búsqueda general.
  * @param {object} options - Opciones para la consulta.
@@ -191,7 +274,7 @@ export const searchRecipes = async (filtros = {}, page = 0, size = 20) => {
     console.log('Buscando recetas con filtros:', filtros);
 
     try {
-        const response = await apiClient.get('/recetas/search', {
+        const response = await apiClient.get('/recetas', {
             params: {
                 ...filtros,
                 page,
@@ -210,6 +293,22 @@ export const searchRecipes = async (filtros = {}, page = 0, size = 20) => {
     }
 };
 
+/**
+ * Sugerencias de autocompletado para el buscador
+ * @param {string} q - Texto tecleado hasta ahora
+ * @param {number} size - Máximo de sugerencias por tipo (default: 5)
+ * @returns {Promise<object>} - { recetas, ingredientes, categorias }, cada una con { id, texto }
+ */
+export const getAutocompleteSuggestions = async (q, size = 5) => {
+    try {
+        const response = await apiClient.get('/autocomplete', { params: { q, size } });
+        return response.data;
+    } catch (error) {
+        console.error('Error obteniendo sugerencias:', error);
+        return { recetas: [], ingredientes: [], categorias: [] };
+    }
+};
+
 /**
  * Crea una nueva receta en el backend.
  * @param {object} recipeData - Datos de la receta a crear.
@@ -226,6 +325,24 @@ export const createReceta = async (recipeData) => {
     }
 };
 
+/**
+ * Actualiza solo los campos indicados de una receta (JSON Merge Patch).
+ * @param {number} recetaId - ID de la receta a modificar.
+ * @param {object} cambios - Campos a cambiar, p. ej. { titulo: 'Nuevo título' }.
+ * @returns {Promise<object>} - Promesa que resuelve con la receta actualizada.
+ */
+export const patchReceta = async (recetaId, cambios) => {
+    try {
+        const response = await apiClient.patch(`/recetas/${recetaId}`, cambios, {
+            headers: { 'Content-Type': 'application/merge-patch+json' },
+        });
+        return response.data;
+    } catch (error) {
+        console.error(`Error actualizando receta ID ${recetaId}:`, error);
+        throw error;
+    }
+};
+
 /**
  * Sube una imagen para una receta específica.
  * @param {number} recetaId - ID de la receta a la que se asociará la imagen.